@@ -0,0 +1,82 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.kafka.ActivityEventMessage;
+import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.CollectedActivityRepository;
+import com.activitypub.listener.service.ActivityRollupService;
+import com.activitypub.listener.service.LiveActivityHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Common persist path for parsed activities, whether pulled from an outbox or pushed to the inbox.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityIngestService {
+
+    private final CollectedActivityRepository collectedActivityRepository;
+    private final ActivityPubKafkaProducer kafkaProducer;
+    private final ActivityRollupService rollupService;
+    private final LiveActivityHub liveActivityHub;
+
+    /**
+     * Persist the activity for the monitor unless that monitor already collected it, then feed rollups,
+     * live subscribers and Kafka. Each monitor gets its own row, so an activity from an actor followed by
+     * several monitors reaches all of them.
+     *
+     * @return true if the activity was new
+     */
+    public boolean ingest(ParsedActivity p, String monitorId) {
+        if (p.getActivityId() == null) return false;
+        if (collectedActivityRepository.existsActivity(p.getActivityId(), monitorId, p.getPublishedAt())) {
+            return false;
+        }
+        CollectedActivity entity = toCollectedActivity(p, monitorId);
+        try {
+            collectedActivityRepository.insertActivity(entity);
+        } catch (DuplicateKeyException e) {
+            // Collected concurrently by another poll or delivery
+            return false;
+        }
+        rollupService.record(entity);
+        liveActivityHub.publish(entity);
+        kafkaProducer.sendActivityEvent(toEventMessage(p, monitorId));
+        return true;
+    }
+
+    private static CollectedActivity toCollectedActivity(ParsedActivity p, String monitorId) {
+        return CollectedActivity.builder()
+                .activityId(p.getActivityId())
+                .activityType(p.getActivityType())
+                .actorId(p.getActorId())
+                .objectId(p.getObjectId())
+                .objectType(p.getObjectType())
+                .content(p.getContent())
+                .publishedAt(p.getPublishedAt())
+                .instanceUrl(p.getInstanceUrl())
+                .monitorId(monitorId)
+                .languages(p.getLanguages())
+                .hashtags(p.getHashtags())
+                .inReplyTo(p.getInReplyTo())
+                .rawData(p.getRawData())
+                .build();
+    }
+
+    private static ActivityEventMessage toEventMessage(ParsedActivity p, String monitorId) {
+        return ActivityEventMessage.builder()
+                .activityId(p.getActivityId())
+                .activityType(p.getActivityType())
+                .actorId(p.getActorId())
+                .objectId(p.getObjectId())
+                .objectType(p.getObjectType())
+                .content(p.getContent())
+                .publishedAt(p.getPublishedAt())
+                .instanceUrl(p.getInstanceUrl())
+                .monitorId(monitorId)
+                .rawData(p.getRawData())
+                .build();
+    }
+}
@@ -1,18 +1,24 @@
 package com.activitypub.listener.activitypub;
 
+import com.activitypub.listener.exception.InstanceUnavailableException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @Component
 @RequiredArgsConstructor
@@ -21,18 +27,31 @@ public class ActivityPubClient {
     
     private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
+    private final InstanceRateLimiter instanceRateLimiter;
+    private final InstanceCircuitBreaker circuitBreaker;
+    private final InstanceLatencyTracker latencyTracker;
+    private final InstanceMisbehaviorRecorder misbehaviorRecorder;
     
     @Value("${activitypub.user-agent:ActivityPubListener/1.0}")
     private String userAgent;
     
-    @Value("${activitypub.request-timeout:30000}")
-    private int requestTimeout;
-    
+    /** Larger bodies are aborted while still streaming in, before they are parsed */
+    @Value("${activitypub.response.max-bytes:2097152}")
+    private int maxResponseBytes;
+
+    private volatile WebClient webClient;
+
     private WebClient getWebClient() {
-        return webClientBuilder
-                .defaultHeader(HttpHeaders.USER_AGENT, userAgent)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+        WebClient client = webClient;
+        if (client == null) {
+            client = webClientBuilder.clone()
+                    .defaultHeader(HttpHeaders.USER_AGENT, userAgent)
+                    .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                    .build();
+            webClient = client;
+        }
+        return client;
     }
     
     /**
@@ -47,7 +66,7 @@ public class ActivityPubClient {
         
         String username = parts[0];
         String instance = parts[1];
-        String webfingerUrl = String.format("https://%s/.well-known/webfinger?resource=acct:%s", instance, resource);
+        String webfingerUrl = String.format("https://%s/.well-known/webfinger?resource=acct:%s@%s", instance, username, instance);
         
         log.debug("Discovering actor via WebFinger: {}", webfingerUrl);
         
@@ -56,7 +75,7 @@ public class ActivityPubClient {
                 .uri(webfingerUrl)
                 .retrieve()
                 .bodyToMono(JsonNode.class)
-                .timeout(Duration.ofMillis(requestTimeout))
+                .timeout(timeoutFor(webfingerUrl))
                 .map(json -> {
                     WebFingerResponse response = new WebFingerResponse();
                     response.setSubject(json.get("subject").asText());
@@ -71,7 +90,8 @@ public class ActivityPubClient {
                     }
                     return response;
                 })
-                .doOnError(error -> log.error("Error discovering actor: {}", error.getMessage()));
+                .doOnError(error -> log.error("Error discovering actor: {}", error.getMessage()))
+                .transform(call -> hedged(webfingerUrl, call));
     }
     
     /**
@@ -87,8 +107,9 @@ public class ActivityPubClient {
                 .header(HttpHeaders.ACCEPT, "application/activity+json, application/json")
                 .retrieve()
                 .bodyToMono(JsonNode.class)
-                .timeout(Duration.ofMillis(requestTimeout))
-                .doOnError(error -> log.error("Error retrieving actor profile: {}", error.getMessage()));
+                .timeout(timeoutFor(actorUrl))
+                .doOnError(error -> log.error("Error retrieving actor profile: {}", error.getMessage()))
+                .transform(call -> hedged(actorUrl, call));
     }
     
     /**
@@ -111,8 +132,9 @@ public class ActivityPubClient {
                 .header(HttpHeaders.ACCEPT, "application/activity+json, application/json")
                 .retrieve()
                 .bodyToMono(JsonNode.class)
-                .timeout(Duration.ofMillis(requestTimeout))
-                .doOnError(error -> log.error("Error retrieving outbox: {}", error.getMessage()));
+                .timeout(timeoutFor(fullUrl))
+                .doOnError(error -> log.error("Error retrieving outbox: {}", error.getMessage()))
+                .transform(call -> hedged(fullUrl, call));
     }
     
     /**
@@ -129,8 +151,33 @@ public class ActivityPubClient {
                 .header(HttpHeaders.ACCEPT, "application/activity+json, application/json")
                 .retrieve()
                 .bodyToMono(JsonNode.class)
-                .timeout(Duration.ofMillis(requestTimeout))
-                .doOnError(error -> log.error("Error retrieving inbox: {}", error.getMessage()));
+                .timeout(timeoutFor(url))
+                .doOnError(error -> log.error("Error retrieving inbox: {}", error.getMessage()))
+                .transform(call -> hedged(url, call));
+    }
+    
+    /**
+     * POST an activity to an inbox. {@code signedHeaders} carry Date, Digest and Signature for this body.
+     */
+    public Mono<Void> deliver(String inboxUrl, byte[] body, HttpHeaders signedHeaders) {
+        log.debug("Delivering activity to {}", inboxUrl);
+        return getWebClient()
+                .post()
+                .uri(inboxUrl)
+                .headers(h -> signedHeaders.forEach((name, values) -> {
+                    // Host is derived from the URI by the client
+                    if (!HttpHeaders.HOST.equalsIgnoreCase(name)) {
+                        h.addAll(name, values);
+                    }
+                }))
+                .contentType(MediaType.parseMediaType("application/activity+json"))
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeoutFor(inboxUrl))
+                .then()
+                .doOnError(error -> log.error("Error delivering to {}: {}", inboxUrl, error.getMessage()))
+                .transform(call -> guarded(inboxUrl, call));
     }
     
     /**
@@ -146,10 +193,101 @@ public class ActivityPubClient {
                 .uri(nodeinfoUrl)
                 .retrieve()
                 .bodyToMono(JsonNode.class)
-                .timeout(Duration.ofMillis(requestTimeout))
-                .doOnError(error -> log.error("Error retrieving NodeInfo: {}", error.getMessage()));
+                .timeout(timeoutFor(nodeinfoUrl))
+                .doOnError(error -> log.error("Error retrieving NodeInfo: {}", error.getMessage()))
+                .transform(call -> hedged(nodeinfoUrl, call));
     }
     
+    /**
+     * Fetch the NodeInfo document linked from {@code /.well-known/nodeinfo}.
+     */
+    public Mono<JsonNode> getNodeInfoDocument(String documentUrl) {
+        log.debug("Retrieving NodeInfo document: {}", documentUrl);
+        return getWebClient()
+                .get()
+                .uri(documentUrl)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeoutFor(documentUrl))
+                .transform(call -> hedged(documentUrl, call));
+    }
+
+    private Duration timeoutFor(String url) {
+        return latencyTracker.timeoutFor(instanceRateLimiter.instanceFromUrl(url));
+    }
+
+    /**
+     * Run {@code call} through the target instance's circuit breaker and bulkhead. Refused calls fail
+     * immediately with {@link InstanceUnavailableException}; timeouts, connection errors, 5xx, 429 and
+     * oversized bodies count against the instance, other responses for it and towards its latency profile.
+     * Timeouts also enter the latency profile, at the time waited, so the timeout widens for a slowing instance.
+     */
+    private <T> Mono<T> guarded(String url, Mono<T> call) {
+        String instance = instanceRateLimiter.instanceFromUrl(url);
+        return Mono.defer(() -> {
+            InstanceCircuitBreaker.Permit permit = circuitBreaker.acquire(instance);
+            long started = System.nanoTime();
+            return call
+                    .doOnSuccess(value -> {
+                        latencyTracker.record(instance, elapsedMillis(started));
+                        permit.success();
+                    })
+                    .doOnError(error -> {
+                        if (isTooLarge(error)) {
+                            misbehaviorRecorder.record(instance, InstanceMisbehaviorRecorder.RESPONSE_TOO_LARGE,
+                                    url + " exceeded " + maxResponseBytes + " bytes");
+                        }
+                        if (error instanceof TimeoutException) {
+                            // Otherwise only the old fast samples remain and the timeout never grows
+                            latencyTracker.recordTimeout(instance, elapsedMillis(started));
+                        }
+                        if (isInstanceFailure(error)) {
+                            permit.failure();
+                        } else {
+                            latencyTracker.record(instance, elapsedMillis(started));
+                            permit.success();
+                        }
+                    })
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    /**
+     * {@link #guarded} for idempotent GETs: if the instance's p95 passes without a response, a second
+     * request is raced against the first and the loser cancelled. Only the first request's error counts.
+     */
+    private <T> Mono<T> hedged(String url, Mono<T> call) {
+        Mono<T> primary = guarded(url, call);
+        Optional<Duration> delay = latencyTracker.hedgeDelayFor(instanceRateLimiter.instanceFromUrl(url));
+        if (delay.isEmpty()) {
+            return primary;
+        }
+        Mono<T> hedge = Mono.delay(delay.get())
+                .then(guarded(url, call))
+                .onErrorResume(error -> Mono.never());
+        return Mono.firstWithSignal(primary, hedge);
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    private static boolean isInstanceFailure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException || isTooLarge(error);
+    }
+
+    private static boolean isTooLarge(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof DataBufferLimitException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static class WebFingerResponse {
         private String subject;
         private String actorUrl;
@@ -1,23 +1,31 @@
 package com.activitypub.listener.activitypub;
 
+import com.activitypub.listener.dto.ActorDiscoveryResultDTO;
 import com.activitypub.listener.dto.CollectedActivityDTO;
 import com.activitypub.listener.dto.PaginationResponse;
+import com.activitypub.listener.mapper.ActivityFeedPages;
 import com.activitypub.listener.model.ActivityPubActor;
-import com.activitypub.listener.model.CollectedActivity;
 import com.activitypub.listener.repository.ActivityPubActorRepository;
 import com.activitypub.listener.repository.CollectedActivityRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +36,19 @@ public class ActivityPubService {
     private final ActivityPubClient activityPubClient;
     private final ActivityPubActorRepository actorRepository;
     private final CollectedActivityRepository collectedActivityRepository;
+    private final InstanceRateLimiter instanceRateLimiter;
+
+    @Value("${activitypub.discovery.max-concurrency:32}")
+    private int discoveryMaxConcurrency;
+
+    @Value("${activitypub.discovery.per-instance-concurrency:4}")
+    private int discoveryPerInstanceConcurrency;
+
+    @Value("${activitypub.discovery.batch-size:100}")
+    private int discoveryBatchSize;
+
+    @Value("${activitypub.discovery.max-resources:1000}")
+    private int discoveryMaxResources;
     
     /**
      * Discover and retrieve actor information
@@ -36,8 +57,8 @@ public class ActivityPubService {
         log.info("Discovering actor: {}", resource);
         
         // Parse resource (acct:user@instance.com)
-        String[] parts = resource.replace("acct:", "").split("@");
-        if (parts.length != 2) {
+        String[] parts = parseResource(resource);
+        if (parts == null) {
             throw new IllegalArgumentException("Invalid resource format: " + resource);
         }
         
@@ -49,12 +70,10 @@ public class ActivityPubService {
                 .findByUsernameAndInstanceUrl(username, instanceUrl)
                 .orElse(null);
         
-        if (existingActor != null && existingActor.getLastCheckedAt() != null) {
+        if (isRecentlyChecked(existingActor)) {
             // Return cached actor if recently checked (within last hour)
-            if (existingActor.getLastCheckedAt().isAfter(LocalDateTime.now().minusHours(1))) {
-                log.debug("Returning cached actor: {}", existingActor.getActorId());
-                return existingActor;
-            }
+            log.debug("Returning cached actor: {}", existingActor.getActorId());
+            return existingActor;
         }
         
         // Discover via WebFinger
@@ -75,12 +94,188 @@ public class ActivityPubService {
             throw new RuntimeException("Failed to retrieve actor profile: " + webfinger.getActorUrl());
         }
         
+        // Insert or update atomically on (instanceUrl, username)
+        ActivityPubActor actor = new ActivityPubActor();
+        actor.setUsername(username);
+        actor.setInstanceUrl(instanceUrl);
+        applyProfile(actor, actorProfile, webfinger.getActorUrl());
+        
+        actor = actorRepository.upsert(actor);
+        log.info("Actor saved/updated: {}", actor.getActorId());
+        
+        return actor;
+    }
+
+    /**
+     * Discover many actors concurrently. Resources are deduplicated and grouped by instance;
+     * each instance gets at most {@code per-instance-concurrency} in-flight lookups, all going
+     * through {@link InstanceRateLimiter}. Resolved actors are upserted in bulk batches and
+     * per-resource results are emitted as soon as their batch is written.
+     */
+    public Flux<ActorDiscoveryResultDTO> discoverActors(List<String> resources) {
+        if (resources.size() > discoveryMaxResources) {
+            throw new IllegalArgumentException("At most " + discoveryMaxResources + " resources per request");
+        }
+
+        List<ActorDiscoveryResultDTO> immediate = new ArrayList<>();
+        Map<String, List<String>> byInstance = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (String resource : resources) {
+            String[] parts = parseResource(resource);
+            if (parts == null) {
+                immediate.add(failedResult(resource, "Invalid resource format: " + resource));
+                continue;
+            }
+            String normalized = parts[0] + "@" + parts[1];
+            if (seen.add(normalized)) {
+                byInstance.computeIfAbsent(parts[1], k -> new ArrayList<>()).add(normalized);
+            }
+        }
+
+        Map<String, ActivityPubActor> cached = findRecentlyCheckedActors(byInstance);
+        cached.forEach((resource, actor) -> immediate.add(ActorDiscoveryResultDTO.builder()
+                .resource(resource)
+                .status("CACHED")
+                .actor(actor)
+                .build()));
+
+        int perInstance = Math.max(1, discoveryPerInstanceConcurrency);
+        int instancesInFlight = Math.max(1, discoveryMaxConcurrency / perInstance);
+        Flux<ActorDiscoveryResultDTO> resolved = Flux.fromIterable(byInstance.values())
+                .flatMap(group -> Flux.fromIterable(group)
+                        .filter(resource -> !cached.containsKey(resource))
+                        .flatMap(this::resolveActor, perInstance), instancesInFlight)
+                .bufferTimeout(Math.max(1, discoveryBatchSize), Duration.ofSeconds(1))
+                .publishOn(Schedulers.boundedElastic())
+                .concatMapIterable(this::persistDiscovered);
+
+        return Flux.concat(Flux.fromIterable(immediate), resolved);
+    }
+
+    private Mono<ActorDiscoveryResultDTO> resolveActor(String resource) {
+        String[] parts = parseResource(resource);
+        String username = parts[0];
+        String instanceUrl = "https://" + parts[1];
+        return awaitRateLimit(instanceUrl)
+                .then(Mono.defer(() -> activityPubClient.discoverActor(resource)))
+                .flatMap(webfinger -> {
+                    if (webfinger.getActorUrl() == null) {
+                        return Mono.just(failedResult(resource, "Failed to discover actor: " + resource));
+                    }
+                    return awaitRateLimit(webfinger.getActorUrl())
+                            .then(Mono.defer(() -> activityPubClient.getActorProfile(webfinger.getActorUrl())))
+                            .map(profile -> {
+                                ActivityPubActor actor = new ActivityPubActor();
+                                actor.setUsername(username);
+                                actor.setInstanceUrl(instanceUrl);
+                                applyProfile(actor, profile, webfinger.getActorUrl());
+                                return ActorDiscoveryResultDTO.builder()
+                                        .resource(resource)
+                                        .status("DISCOVERED")
+                                        .actor(actor)
+                                        .build();
+                            });
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> failedResult(resource, "Failed to discover actor: " + resource)))
+                .onErrorResume(e -> {
+                    if (e instanceof WebClientResponseException.TooManyRequests) {
+                        instanceRateLimiter.recordBackoff(instanceUrl);
+                    }
+                    return Mono.just(failedResult(resource, e.getMessage()));
+                });
+    }
+
+    private List<ActorDiscoveryResultDTO> persistDiscovered(List<ActorDiscoveryResultDTO> batch) {
+        List<ActivityPubActor> toSave = batch.stream()
+                .filter(r -> r.getActor() != null)
+                .map(ActorDiscoveryResultDTO::getActor)
+                .collect(Collectors.toList());
+        if (toSave.isEmpty()) {
+            return batch;
+        }
+        try {
+            Map<String, ActivityPubActor> saved = actorRepository.upsertAll(toSave).stream()
+                    .collect(Collectors.toMap(ActivityPubActor::getActorId, a -> a, (a, b) -> a));
+            batch.stream()
+                    .filter(r -> r.getActor() != null)
+                    .forEach(r -> r.setActor(saved.getOrDefault(r.getActor().getActorId(), r.getActor())));
+            log.info("Bulk discovery saved {} actors", toSave.size());
+            return batch;
+        } catch (Exception e) {
+            log.error("Bulk actor upsert failed: {}", e.getMessage());
+            return batch.stream()
+                    .map(r -> r.getActor() != null ? failedResult(r.getResource(), "Failed to save actor: " + e.getMessage()) : r)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Map<String, ActivityPubActor> findRecentlyCheckedActors(Map<String, List<String>> byInstance) {
+        if (byInstance.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> usernames = byInstance.values().stream()
+                .flatMap(List::stream)
+                .map(r -> r.substring(0, r.indexOf('@')))
+                .collect(Collectors.toSet());
+        Set<String> instanceUrls = byInstance.keySet().stream()
+                .map(host -> "https://" + host)
+                .collect(Collectors.toSet());
+        Map<String, ActivityPubActor> cached = new HashMap<>();
+        for (ActivityPubActor actor : actorRepository.findByUsernameInAndInstanceUrlIn(usernames, instanceUrls)) {
+            if (isRecentlyChecked(actor)) {
+                String host = actor.getInstanceUrl().substring("https://".length());
+                cached.put((actor.getUsername() + "@" + host).toLowerCase(), actor);
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Reserve a request slot and wait for it on a timer instead of parking a thread per pending lookup.
+     */
+    private Mono<Void> awaitRateLimit(String url) {
+        return Mono.defer(() -> {
+            long waitMs = instanceRateLimiter.reserve(url);
+            return waitMs > 0 ? Mono.delay(Duration.ofMillis(waitMs)).then() : Mono.empty();
+        });
+    }
+
+    private static ActorDiscoveryResultDTO failedResult(String resource, String error) {
+        return ActorDiscoveryResultDTO.builder()
+                .resource(resource)
+                .status("FAILED")
+                .error(error)
+                .build();
+    }
+
+    private static boolean isRecentlyChecked(ActivityPubActor actor) {
+        return actor != null && actor.getLastCheckedAt() != null
+                && actor.getLastCheckedAt().isAfter(LocalDateTime.now().minusHours(1));
+    }
+
+    /**
+     * Split acct:user@instance (or @user@instance) into lowercased [username, host]; null if malformed.
+     * Both halves are case-insensitive in WebFinger, so they are normalized before forming the natural key.
+     */
+    static String[] parseResource(String resource) {
+        if (resource == null) return null;
+        String value = resource.trim().replace("acct:", "");
+        if (value.startsWith("@")) value = value.substring(1);
+        String[] parts = value.split("@");
+        if (parts.length != 2 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            return null;
+        }
+        return new String[]{parts[0].toLowerCase(), parts[1].toLowerCase()};
+    }
+
+    private static void applyProfile(ActivityPubActor actor, JsonNode actorProfile, String fallbackActorUrl) {
         // Extract actor information
-        String actorId = actorProfile.has("id") ? actorProfile.get("id").asText() : webfinger.getActorUrl();
+        String actorId = actorProfile.has("id") ? actorProfile.get("id").asText() : fallbackActorUrl;
         String actorType = actorProfile.has("type") ? actorProfile.get("type").asText() : "Person";
         String inboxUrl = actorProfile.has("inbox") ? actorProfile.get("inbox").asText() : null;
         String outboxUrl = actorProfile.has("outbox") ? actorProfile.get("outbox").asText() : null;
-        String sharedInboxUrl = actorProfile.has("sharedInbox") ? actorProfile.get("sharedInbox").asText() : null;
+        String sharedInboxUrl = actorProfile.has("sharedInbox") ? actorProfile.get("sharedInbox").asText()
+                : actorProfile.path("endpoints").path("sharedInbox").asText(null);
         
         // Convert JsonNode to Map for storage
         Map<String, Object> profileData = new HashMap<>();
@@ -93,29 +288,20 @@ public class ActivityPubService {
                 profileData.put(entry.getKey(), entry.getValue().asBoolean());
             }
         });
-        
-        // Save or update actor
-        ActivityPubActor actor;
-        if (existingActor != null) {
-            actor = existingActor;
-        } else {
-            actor = new ActivityPubActor();
-            actor.setActorId(actorId);
-            actor.setUsername(username);
-            actor.setInstanceUrl(instanceUrl);
+        // Flattened so inbound HTTP Signatures can be verified without refetching the actor
+        JsonNode publicKey = actorProfile.get("publicKey");
+        if (publicKey != null && publicKey.isObject() && publicKey.has("publicKeyPem")) {
+            profileData.put("publicKeyId", publicKey.path("id").asText(null));
+            profileData.put("publicKeyPem", publicKey.get("publicKeyPem").asText());
         }
         
+        actor.setActorId(actorId);
         actor.setActorType(actorType);
         actor.setInboxUrl(inboxUrl);
         actor.setOutboxUrl(outboxUrl);
         actor.setSharedInboxUrl(sharedInboxUrl);
         actor.setProfileData(profileData);
         actor.setLastCheckedAt(LocalDateTime.now());
-        
-        actor = actorRepository.save(actor);
-        log.info("Actor saved/updated: {}", actor.getActorId());
-        
-        return actor;
     }
     
     /**
@@ -127,40 +313,13 @@ public class ActivityPubService {
     }
 
     /**
-     * Get paginated activities for an actor (from collected_activities).
+     * Get activities for an actor (from collected_activities), newest first, by page number unless a
+     * keyset cursor on (publishedAt, _id) is given.
      */
-    public PaginationResponse<CollectedActivityDTO> getActorActivities(String actorId, int page, int perPage) {
-        Pageable pageable = PageRequest.of(page - 1, Math.min(perPage, 100));
-        Page<CollectedActivity> p = collectedActivityRepository.findByActorIdOrderByPublishedAtDesc(actorId, pageable);
-        List<CollectedActivityDTO> dtos = p.getContent().stream()
-                .map(this::toCollectedActivityDTO)
-                .collect(Collectors.toList());
-        PaginationResponse.PaginationInfo info = PaginationResponse.PaginationInfo.builder()
-                .page(page)
-                .perPage(perPage)
-                .total(p.getTotalElements())
-                .totalPages(p.getTotalPages())
-                .build();
-        return PaginationResponse.<CollectedActivityDTO>builder()
-                .data(dtos)
-                .pagination(info)
-                .build();
-    }
-
-    private CollectedActivityDTO toCollectedActivityDTO(CollectedActivity a) {
-        return CollectedActivityDTO.builder()
-                .id(a.getId())
-                .activityId(a.getActivityId())
-                .activityType(a.getActivityType())
-                .actorId(a.getActorId())
-                .objectId(a.getObjectId())
-                .objectType(a.getObjectType())
-                .content(a.getContent())
-                .publishedAt(a.getPublishedAt())
-                .instanceUrl(a.getInstanceUrl())
-                .monitorId(a.getMonitorId())
-                .rawData(a.getRawData())
-                .createdAt(a.getCreatedAt())
-                .build();
+    public PaginationResponse<CollectedActivityDTO> getActorActivities(
+            String actorId, int page, String cursor, int perPage, boolean includeRawData) {
+        return ActivityFeedPages.page(page, cursor, perPage, includeRawData,
+                pageable -> collectedActivityRepository.findActorActivitiesByOffset(actorId, pageable, includeRawData),
+                (after, limit) -> collectedActivityRepository.findActorActivitiesPage(actorId, after, limit, includeRawData));
     }
 }
@@ -1,7 +1,9 @@
 package com.activitypub.listener.activitypub;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -16,6 +18,7 @@ import java.util.stream.StreamSupport;
  * object types Note, Article, Video, Comment, etc.
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class ActivityStreamsParser {
 
@@ -28,12 +31,24 @@ public class ActivityStreamsParser {
             "Note", "Article", "Video", "Image", "Comment", "Document"
     );
 
+    private final InstanceMisbehaviorRecorder misbehaviorRecorder;
+
+    @Value("${activitypub.outbox.max-items-per-page:200}")
+    private int maxItemsPerPage;
+
     /**
      * Parse an outbox/collection response into a list of parsed activities.
      * Handles both "first" page (with "orderedItems" or "items") and inline "orderedItems"/"items".
+     * Pages with more than {@code max-items-per-page} items are cut to that many and the instance recorded
+     * as misbehaving.
      */
     public List<ParsedActivity> parseOutbox(JsonNode root, String instanceUrl) {
         List<JsonNode> items = extractItems(root);
+        if (items.size() > maxItemsPerPage) {
+            misbehaviorRecorder.record(instanceUrl, InstanceMisbehaviorRecorder.TOO_MANY_ITEMS,
+                    items.size() + " items in one outbox page");
+            items = items.subList(0, maxItemsPerPage);
+        }
         List<ParsedActivity> result = new ArrayList<>();
         for (JsonNode item : items) {
             try {
@@ -103,6 +118,9 @@ public class ActivityStreamsParser {
         String objectType = null;
         String content = null;
         LocalDateTime publishedAt = null;
+        List<String> languages = List.of();
+        List<String> hashtags = List.of();
+        String inReplyTo = null;
 
         JsonNode objectNode = item.has("object") ? item.get("object") : null;
         if (objectNode != null && objectNode.isObject()) {
@@ -114,6 +132,9 @@ public class ActivityStreamsParser {
             if (objectNode.has("published")) {
                 publishedAt = parseTimestamp(objectNode.get("published").asText(null));
             }
+            languages = languages(objectNode);
+            hashtags = hashtags(objectNode);
+            inReplyTo = asId(objectNode.get("inReplyTo"));
         }
         if (publishedAt == null && item.has("published")) {
             publishedAt = parseTimestamp(item.get("published").asText(null));
@@ -131,12 +152,45 @@ public class ActivityStreamsParser {
                 .content(content)
                 .publishedAt(publishedAt)
                 .instanceUrl(instanceUrl)
+                .languages(languages)
+                .hashtags(hashtags)
+                .inReplyTo(inReplyTo)
                 .rawData(rawData)
                 .build();
     }
 
+    /**
+     * Language tags of the object's contentMap.
+     */
+    static List<String> languages(JsonNode object) {
+        JsonNode contentMap = object.path("contentMap");
+        if (!contentMap.isObject()) {
+            return List.of();
+        }
+        List<String> languages = new ArrayList<>();
+        contentMap.fieldNames().forEachRemaining(languages::add);
+        return languages;
+    }
+
+    /**
+     * Hashtag names from the object's tag array, lowercased without '#'.
+     */
+    static List<String> hashtags(JsonNode object) {
+        List<String> hashtags = new ArrayList<>();
+        for (JsonNode tag : object.path("tag")) {
+            String name = tag.path("name").asText("");
+            if ("Hashtag".equals(tag.path("type").asText()) && !name.isBlank()) {
+                String normalized = name.startsWith("#") ? name.substring(1) : name;
+                if (!normalized.isBlank()) {
+                    hashtags.add(normalized.toLowerCase());
+                }
+            }
+        }
+        return hashtags;
+    }
+
     private static String asId(JsonNode node) {
-        if (node == null) return null;
+        if (node == null || node.isNull()) return null;
         return node.isTextual() ? node.asText() : (node.has("id") ? node.get("id").asText() : null);
     }
 
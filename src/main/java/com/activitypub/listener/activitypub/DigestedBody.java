@@ -0,0 +1,43 @@
+package com.activitypub.listener.activitypub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+/**
+ * A request body read once, with its SHA-256 computed while reading so the Digest header can be checked
+ * without a second pass over the bytes.
+ */
+public record DigestedBody(byte[] bytes, byte[] sha256) {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * @throws IllegalArgumentException if the body is larger than {@code maxBytes}
+     */
+    public static DigestedBody read(InputStream in, int maxBytes) throws IOException {
+        MessageDigest digest = HttpSignatures.sha256();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxBytes, BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int total = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            total += n;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("Delivery exceeds " + maxBytes + " bytes");
+            }
+            digest.update(buffer, 0, n);
+            out.write(buffer, 0, n);
+        }
+        return new DigestedBody(out.toByteArray(), digest.digest());
+    }
+
+    public static DigestedBody of(byte[] bytes) {
+        return new DigestedBody(bytes, HttpSignatures.sha256().digest(bytes));
+    }
+
+    public boolean isEmpty() {
+        return bytes.length == 0;
+    }
+}
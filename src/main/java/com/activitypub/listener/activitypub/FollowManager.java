@@ -0,0 +1,175 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.exception.ResourceNotFoundException;
+import com.activitypub.listener.model.ActivityPubActor;
+import com.activitypub.listener.model.ActorFollow;
+import com.activitypub.listener.repository.ActivityPubActorRepository;
+import com.activitypub.listener.repository.ActorFollowRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Follows remote actors from the listener actor so their posts are pushed to our inbox.
+ * One follow per remote actor is shared by every monitor tracking it; the Follow is undone when the
+ * last monitor lets go. Accepted follows are only polled as a safety net every {@code poll-fallback-hours}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowManager {
+
+    private final ActorFollowRepository followRepository;
+    private final ActivityPubActorRepository actorRepository;
+    private final ActivityPubClient activityPubClient;
+    private final ListenerActor listenerActor;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${activitypub.follow.poll-fallback-hours:24}")
+    private long pollFallbackHours;
+
+    /**
+     * Track the actor for the monitor, sending a Follow unless one is already pending or accepted.
+     */
+    public ActorFollow follow(String actorId, String monitorId) {
+        ActivityPubActor actor = actorRepository.findByActorId(actorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Actor not found: " + actorId));
+        if (actor.getInboxUrl() == null) {
+            throw new IllegalStateException("Actor has no inbox: " + actorId);
+        }
+        ActorFollow follow = followRepository.findByActorId(actorId)
+                .orElseGet(() -> ActorFollow.builder().actorId(actorId).build());
+        if (monitorId != null) {
+            follow.getMonitorIds().add(monitorId);
+        }
+        if (follow.getState() == ActorFollow.FollowState.PENDING || follow.getState() == ActorFollow.FollowState.ACCEPTED) {
+            return followRepository.save(follow);
+        }
+        follow.setFollowActivityId(listenerActor.newActivityId());
+        follow.setState(ActorFollow.FollowState.PENDING);
+        follow.setRequestedAt(LocalDateTime.now());
+        follow = followRepository.save(follow);
+        send(actor.getInboxUrl(), followActivity(follow));
+        log.info("Sent Follow for {}", actorId);
+        return follow;
+    }
+
+    /**
+     * Stop tracking the actor for the monitor; the Follow is undone once no monitor is left.
+     */
+    public void unfollow(String actorId, String monitorId) {
+        ActorFollow follow = followRepository.findByActorId(actorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Not following: " + actorId));
+        if (monitorId != null) {
+            follow.getMonitorIds().remove(monitorId);
+        }
+        boolean active = follow.getState() == ActorFollow.FollowState.PENDING || follow.getState() == ActorFollow.FollowState.ACCEPTED;
+        if ((monitorId == null || follow.getMonitorIds().isEmpty()) && active) {
+            follow.getMonitorIds().clear();
+            follow.setState(ActorFollow.FollowState.UNFOLLOWED);
+            actorRepository.findByActorId(actorId)
+                    .filter(actor -> actor.getInboxUrl() != null)
+                    .ifPresent(actor -> {
+                        Map<String, Object> undo = new LinkedHashMap<>();
+                        undo.put("@context", "https://www.w3.org/ns/activitystreams");
+                        undo.put("id", listenerActor.newActivityId());
+                        undo.put("type", "Undo");
+                        undo.put("actor", listenerActor.actorId());
+                        undo.put("object", followActivity(follow));
+                        send(actor.getInboxUrl(), undo);
+                    });
+            log.info("Sent Undo Follow for {}", actorId);
+        }
+        followRepository.save(follow);
+    }
+
+    /**
+     * Monitors that deliveries from this actor belong to (empty if we do not follow it).
+     */
+    public Set<String> monitorsFor(String actorId) {
+        return followRepository.findByActorId(actorId)
+                .filter(f -> f.getState() == ActorFollow.FollowState.PENDING || f.getState() == ActorFollow.FollowState.ACCEPTED)
+                .map(ActorFollow::getMonitorIds)
+                .orElse(Set.of());
+    }
+
+    public void recordDelivery(String actorId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("actorId").is(actorId)),
+                new Update().set("lastDeliveryAt", LocalDateTime.now()), ActorFollow.class);
+    }
+
+    /**
+     * Whether an outbox poll is still needed: always for actors we do not push-follow, otherwise only
+     * when the last safety-net poll is older than the fallback interval. Records the poll when true.
+     */
+    public boolean claimPoll(String actorId) {
+        Optional<ActorFollow> follow = followRepository.findByActorId(actorId)
+                .filter(f -> f.getState() == ActorFollow.FollowState.ACCEPTED);
+        if (follow.isEmpty()) {
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Query due = new Query(Criteria.where("actorId").is(actorId).orOperator(
+                Criteria.where("lastPolledAt").is(null),
+                Criteria.where("lastPolledAt").lt(now.minusHours(pollFallbackHours))));
+        return mongoTemplate.updateFirst(due, new Update().set("lastPolledAt", now), ActorFollow.class)
+                .getModifiedCount() > 0;
+    }
+
+    /**
+     * Accept or Reject of one of our Follows, sent by {@code signerActorId}.
+     */
+    public void onResponse(JsonNode activity, String signerActorId, boolean accepted) {
+        JsonNode object = activity.get("object");
+        String followId = object == null ? null : object.isTextual() ? object.asText() : object.path("id").asText(null);
+        Optional<ActorFollow> match = Optional.ofNullable(followId).flatMap(followRepository::findByFollowActivityId)
+                .or(() -> followRepository.findByActorId(signerActorId));
+        match.filter(f -> f.getActorId().equals(signerActorId))
+                .filter(f -> f.getState() == ActorFollow.FollowState.PENDING || f.getState() == ActorFollow.FollowState.ACCEPTED)
+                .ifPresentOrElse(f -> {
+                    Update update = new Update().set("state", accepted ? ActorFollow.FollowState.ACCEPTED : ActorFollow.FollowState.REJECTED);
+                    if (accepted) {
+                        update.set("acceptedAt", LocalDateTime.now());
+                    }
+                    mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(f.getId())), update, ActorFollow.class);
+                    log.info("Follow of {} {}", signerActorId, accepted ? "accepted" : "rejected");
+                }, () -> log.debug("Ignoring {} from {} for unknown follow {}", accepted ? "Accept" : "Reject", signerActorId, followId));
+    }
+
+    private Map<String, Object> followActivity(ActorFollow follow) {
+        Map<String, Object> activity = new LinkedHashMap<>();
+        activity.put("@context", "https://www.w3.org/ns/activitystreams");
+        activity.put("id", follow.getFollowActivityId());
+        activity.put("type", "Follow");
+        activity.put("actor", listenerActor.actorId());
+        activity.put("object", follow.getActorId());
+        return activity;
+    }
+
+    private void send(String inboxUrl, Map<String, Object> activity) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(activity);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + activity.get("type"), e);
+        }
+        activityPubClient.deliver(inboxUrl, body, listenerActor.signedPostHeaders(URI.create(inboxUrl), body))
+                .subscribe(null, e -> log.warn("{} to {} failed: {}", activity.get("type"), inboxUrl, e.getMessage()));
+    }
+}
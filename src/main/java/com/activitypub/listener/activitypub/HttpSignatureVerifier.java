@@ -0,0 +1,428 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.exception.SignatureVerificationException;
+import com.activitypub.listener.model.ActivityPubActor;
+import com.activitypub.listener.repository.ActivityPubActorRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Verifies HTTP Signatures on inbound deliveries. The signature must cover (request-target), date and,
+ * for requests with a body, a matching SHA-256 Digest.
+ * <p>
+ * Hot path: parsed {@link PublicKey}s are cached by keyId; on a miss one caller loads the key (stored actor
+ * profile, else a fetch of the keyId) while concurrent callers for the same keyId wait on the same future.
+ * The RSA check itself runs on a bounded pool sized to the cores, so servlet threads are not spent on
+ * crypto and overload surfaces as {@link RejectedExecutionException} (503) instead of queueing forever.
+ * A cached key that stops verifying is refetched at most once per {@code refetch-interval-seconds}
+ * (key rotation without letting unsigned traffic trigger fetches).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HttpSignatureVerifier {
+
+    private final ActivityPubActorRepository actorRepository;
+    private final ActivityPubClient activityPubClient;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${activitypub.inbox.max-clock-skew-seconds:3600}")
+    private long maxClockSkewSeconds;
+
+    @Value("${activitypub.inbox.key-cache.max-entries:50000}")
+    private int keyCacheMaxEntries;
+
+    @Value("${activitypub.inbox.key-cache.ttl-minutes:360}")
+    private long keyCacheTtlMinutes;
+
+    @Value("${activitypub.inbox.key-cache.refetch-interval-seconds:60}")
+    private long refetchIntervalSeconds;
+
+    /** 0 = one thread per available processor */
+    @Value("${activitypub.inbox.verify-threads:0}")
+    private int verifyThreads;
+
+    @Value("${activitypub.inbox.verify-queue-capacity:2000}")
+    private int verifyQueueCapacity;
+
+    private final Map<String, CachedKey> keys = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedKey>> loading = new ConcurrentHashMap<>();
+    private final ThreadLocal<Signature> rsaVerifiers = ThreadLocal.withInitial(HttpSignatureVerifier::newRsaVerifier);
+    private ThreadPoolExecutor verifyPool;
+
+    /**
+     * Key id and owning actor of a verified signature.
+     */
+    public record VerifiedSignature(String keyId, String actorId) {
+    }
+
+    @PostConstruct
+    void startPool() {
+        int threads = verifyThreads > 0 ? verifyThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        verifyPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(verifyQueueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "signature-verify-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stopPool() {
+        verifyPool.shutdownNow();
+    }
+
+    /**
+     * Blocking variant of {@link #verifyAsync}.
+     *
+     * @throws SignatureVerificationException if the request is not validly signed
+     */
+    public VerifiedSignature verify(String method, String requestTarget, Function<String, String> headers, DigestedBody body) {
+        try {
+            return verifyAsync(method, requestTarget, headers, body).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying signature", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Header, date and digest checks run on the calling thread (headers are not read afterwards);
+     * key resolution and the RSA check complete the returned future.
+     *
+     * @param headers lower-case header name to value
+     * @throws SignatureVerificationException if the request fails the cheap checks
+     */
+    public CompletableFuture<VerifiedSignature> verifyAsync(String method, String requestTarget,
+                                                           Function<String, String> headers, DigestedBody body) {
+        String header = headers.apply("signature");
+        if (header == null) {
+            throw new SignatureVerificationException("Missing Signature header");
+        }
+        HttpSignatures.SignatureHeader signature;
+        try {
+            signature = HttpSignatures.parse(header);
+        } catch (IllegalArgumentException e) {
+            throw new SignatureVerificationException("Malformed Signature header: " + e.getMessage());
+        }
+        if (!signature.headers().contains("(request-target)") || !signature.headers().contains("date")) {
+            throw new SignatureVerificationException("Signature must cover (request-target) and date");
+        }
+        checkDate(headers.apply("date"));
+        if (!body.isEmpty()) {
+            if (!signature.headers().contains("digest")) {
+                throw new SignatureVerificationException("Signature must cover digest");
+            }
+            checkDigest(headers.apply("digest"), body.sha256());
+        }
+        String signingString;
+        try {
+            signingString = HttpSignatures.signingString(signature.headers(), method, requestTarget, headers);
+        } catch (IllegalArgumentException e) {
+            throw new SignatureVerificationException(e.getMessage());
+        }
+        byte[] signingBytes = signingString.getBytes(StandardCharsets.UTF_8);
+        String keyId = signature.keyId();
+
+        CachedKey cached = keys.get(keyId);
+        CompletableFuture<CachedKey> key = cached != null && !cached.isExpired()
+                ? CompletableFuture.completedFuture(cached)
+                : resolve(keyId, false);
+        return key.thenCompose(k -> onVerifyPool(() -> rsaVerify(k, signingBytes, signature.signature())))
+                .thenCompose(result -> {
+                    if (result != null) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    // Cached key no longer verifies: the actor may have rotated it
+                    CachedKey stale = keys.get(keyId);
+                    if (stale == null || stale.loadedAt().isAfter(Instant.now().minusSeconds(refetchIntervalSeconds))) {
+                        throw new SignatureVerificationException("Signature does not verify for " + keyId);
+                    }
+                    keys.remove(keyId, stale);
+                    return resolve(keyId, true)
+                            .thenCompose(k -> onVerifyPool(() -> rsaVerify(k, signingBytes, signature.signature())))
+                            .thenApply(retried -> {
+                                if (retried == null) {
+                                    throw new SignatureVerificationException("Signature does not verify for " + keyId);
+                                }
+                                return retried;
+                            });
+                });
+    }
+
+    public int getCachedKeyCount() {
+        return keys.size();
+    }
+
+    public int getVerifyQueueSize() {
+        return verifyPool.getQueue().size();
+    }
+
+    private VerifiedSignature rsaVerify(CachedKey key, byte[] signingBytes, byte[] signatureBytes) {
+        Signature rsa = rsaVerifiers.get();
+        try {
+            rsa.initVerify(key.key());
+            rsa.update(signingBytes);
+            return rsa.verify(signatureBytes) ? new VerifiedSignature(key.keyId(), key.actorId()) : null;
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    private <T> CompletableFuture<T> onVerifyPool(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, verifyPool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Signature verification is saturated; retry later"));
+        }
+    }
+
+    /**
+     * Single-flight key load: the first caller for a keyId loads it, the rest share its future.
+     * Stored profiles are tried first unless {@code skipStored} (the stored key just failed).
+     */
+    private CompletableFuture<CachedKey> resolve(String keyId, boolean skipStored) {
+        CompletableFuture<CachedKey> mine = new CompletableFuture<>();
+        CompletableFuture<CachedKey> existing = loading.putIfAbsent(keyId, mine);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            CachedKey stored = skipStored ? null : storedKey(keyId);
+            CompletableFuture<CachedKey> source = stored != null
+                    ? CompletableFuture.completedFuture(stored)
+                    : fetchKey(keyId);
+            source.whenComplete((key, e) -> {
+                loading.remove(keyId, mine);
+                if (e != null) {
+                    mine.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                } else {
+                    cache(key);
+                    mine.complete(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            loading.remove(keyId, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    private CachedKey storedKey(String keyId) {
+        return actorRepository.findByActorId(stripFragment(keyId))
+                .map(ActivityPubActor::getProfileData)
+                .filter(profile -> keyId.equals(profile.get("publicKeyId")) && profile.get("publicKeyPem") != null)
+                .map(profile -> parseKey((String) profile.get("publicKeyPem"), keyId))
+                .map(key -> new CachedKey(keyId, stripFragment(keyId), key, Instant.now()))
+                .orElse(null);
+    }
+
+    /**
+     * keyId usually dereferences to the actor (with a publicKey object), sometimes to the key itself (with owner).
+     * The owner must be on keyId's origin, and a key document that is not the owner's actor is only trusted once
+     * the owner's actor lists the same keyId and PEM; otherwise any host could publish a key "owned" by someone
+     * else's actor. The confirmed key is written back to the stored actor so other nodes and restarts skip the fetch.
+     */
+    private CompletableFuture<CachedKey> fetchKey(String keyId) {
+        return activityPubClient.getActorProfile(stripFragment(keyId))
+                .onErrorMap(e -> new SignatureVerificationException("Could not fetch key " + keyId))
+                .switchIfEmpty(Mono.error(() -> new SignatureVerificationException("Could not fetch key " + keyId)))
+                .flatMap(doc -> {
+                    JsonNode keyNode = doc.has("publicKey") ? doc.get("publicKey") : doc;
+                    String owner = keyNode.has("owner") ? keyNode.get("owner").asText() : doc.path("id").asText(null);
+                    String pem = keyNode.path("publicKeyPem").asText(null);
+                    PublicKey key = pem != null ? parseKey(pem, keyId) : null;
+                    if (key == null || owner == null) {
+                        throw new SignatureVerificationException("No usable public key at " + keyId);
+                    }
+                    String origin = origin(keyId);
+                    if (origin == null || !origin.equals(origin(owner))) {
+                        throw new SignatureVerificationException("Key " + keyId + " names an owner on another origin: " + owner);
+                    }
+                    if (owner.equals(doc.path("id").asText(null)) && doc.has("publicKey")) {
+                        return Mono.just(confirmedKey(doc, keyId, key, pem));
+                    }
+                    return activityPubClient.getActorProfile(owner)
+                            .onErrorMap(e -> new SignatureVerificationException("Could not fetch key owner " + owner))
+                            .switchIfEmpty(Mono.error(() -> new SignatureVerificationException("Could not fetch key owner " + owner)))
+                            .map(ownerDoc -> {
+                                if (!owner.equals(ownerDoc.path("id").asText(null))) {
+                                    throw new SignatureVerificationException("Key owner document is not " + owner);
+                                }
+                                return confirmedKey(ownerDoc, keyId, key, pem);
+                            });
+                })
+                .toFuture();
+    }
+
+    /**
+     * Check that the owner's actor document lists keyId with the same key, then store it on that actor.
+     * The owner document is the live one, so it also confirms a rotation away from a previously stored publicKeyId;
+     * the stored actor must be on keyId's origin as well.
+     */
+    private CachedKey confirmedKey(JsonNode ownerDoc, String keyId, PublicKey key, String pem) {
+        String owner = ownerDoc.path("id").asText();
+        JsonNode ownerKey = ownerDoc.path("publicKey");
+        PublicKey listed = ownerKey.has("publicKeyPem") ? parseKey(ownerKey.get("publicKeyPem").asText(), keyId) : null;
+        if (!keyId.equals(ownerKey.path("id").asText(null)) || listed == null
+                || !MessageDigest.isEqual(listed.getEncoded(), key.getEncoded())) {
+            throw new SignatureVerificationException("Key owner " + owner + " does not list key " + keyId);
+        }
+        // Off the HTTP client's event loop
+        CompletableFuture.runAsync(() -> mongoTemplate.updateFirst(
+                new Query(Criteria.where("actorId").is(owner).and("instanceUrl").is(origin(keyId))),
+                new Update().set("profileData.publicKeyId", keyId).set("profileData.publicKeyPem", pem),
+                ActivityPubActor.class));
+        return new CachedKey(keyId, owner, key, Instant.now());
+    }
+
+    private void cache(CachedKey key) {
+        if (keys.size() >= keyCacheMaxEntries) {
+            keys.values().removeIf(CachedKey::isExpired);
+            if (keys.size() >= keyCacheMaxEntries) {
+                // Still full of live keys: drop an arbitrary tenth rather than tracking recency on the hot path
+                int toDrop = Math.max(1, keyCacheMaxEntries / 10);
+                var it = keys.keySet().iterator();
+                while (toDrop-- > 0 && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+        }
+        keys.put(key.keyId(), key.withTtl(keyCacheTtlMinutes));
+    }
+
+    private void checkDate(String date) {
+        try {
+            Instant sent = ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            if (Duration.between(sent, Instant.now()).abs().getSeconds() > maxClockSkewSeconds) {
+                throw new SignatureVerificationException("Date header outside the accepted window: " + date);
+            }
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new SignatureVerificationException("Invalid Date header: " + date);
+        }
+    }
+
+    private static void checkDigest(String digestHeader, byte[] bodySha256) {
+        if (digestHeader == null) {
+            throw new SignatureVerificationException("Missing Digest header");
+        }
+        for (String part : digestHeader.split(",")) {
+            int eq = part.indexOf('=');
+            if (eq > 0 && part.substring(0, eq).trim().equalsIgnoreCase("SHA-256")) {
+                byte[] expected;
+                try {
+                    expected = Base64.getDecoder().decode(part.substring(eq + 1).trim());
+                } catch (IllegalArgumentException e) {
+                    throw new SignatureVerificationException("Malformed Digest header");
+                }
+                if (!MessageDigest.isEqual(expected, bodySha256)) {
+                    throw new SignatureVerificationException("Digest does not match body");
+                }
+                return;
+            }
+        }
+        throw new SignatureVerificationException("Digest header needs a SHA-256 value");
+    }
+
+    private static PublicKey parseKey(String pem, String keyId) {
+        try {
+            return HttpSignatures.parsePublicKey(pem);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.debug("Unusable public key {}: {}", keyId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Signature newRsaVerifier() {
+        try {
+            return Signature.getInstance(HttpSignatures.SIGNATURE_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * scheme://host[:port] of a URL, lower-cased, with default ports left out (the form stored as instanceUrl); null if unparseable.
+     */
+    static String origin(String url) {
+        try {
+            URI uri = new URI(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            boolean defaultPort = uri.getPort() < 0
+                    || ("https".equals(scheme) && uri.getPort() == 443)
+                    || ("http".equals(scheme) && uri.getPort() == 80);
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + (defaultPort ? "" : ":" + uri.getPort());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String stripFragment(String keyId) {
+        int hash = keyId.indexOf('#');
+        return hash < 0 ? keyId : keyId.substring(0, hash);
+    }
+
+    private record CachedKey(String keyId, String actorId, PublicKey key, Instant loadedAt, Instant expiresAt) {
+
+        CachedKey(String keyId, String actorId, PublicKey key, Instant loadedAt) {
+            this(keyId, actorId, key, loadedAt, Instant.MAX);
+        }
+
+        CachedKey withTtl(long ttlMinutes) {
+            return new CachedKey(keyId, actorId, key, loadedAt, loadedAt.plus(Duration.ofMinutes(ttlMinutes)));
+        }
+
+        boolean isExpired() {
+            return expiresAt.isBefore(Instant.now());
+        }
+    }
+}
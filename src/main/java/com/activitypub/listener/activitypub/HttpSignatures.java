@@ -0,0 +1,143 @@
+package com.activitypub.listener.activitypub;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * HTTP Signatures (draft-cavage-http-signatures-12) as used by ActivityPub servers: rsa-sha256 / hs2019
+ * over "(request-target)", host, date and digest, with a "SHA-256=" Digest header.
+ */
+public final class HttpSignatures {
+
+    public static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    private HttpSignatures() {
+    }
+
+    /**
+     * Parsed {@code Signature} header.
+     */
+    public record SignatureHeader(String keyId, String algorithm, List<String> headers, byte[] signature) {
+    }
+
+    /**
+     * @throws IllegalArgumentException if keyId or signature is missing or malformed
+     */
+    public static SignatureHeader parse(String header) {
+        Map<String, String> params = new HashMap<>();
+        int i = 0;
+        while (i < header.length()) {
+            int eq = header.indexOf('=', i);
+            if (eq < 0) break;
+            String name = header.substring(i, eq).trim().toLowerCase(Locale.ROOT);
+            String value;
+            if (eq + 1 < header.length() && header.charAt(eq + 1) == '"') {
+                int close = header.indexOf('"', eq + 2);
+                if (close < 0) throw new IllegalArgumentException("Unterminated value in Signature header");
+                value = header.substring(eq + 2, close);
+                i = close + 1;
+            } else {
+                int comma = header.indexOf(',', eq);
+                value = header.substring(eq + 1, comma < 0 ? header.length() : comma).trim();
+                i = comma < 0 ? header.length() : comma;
+            }
+            params.put(name, value);
+            while (i < header.length() && (header.charAt(i) == ',' || header.charAt(i) == ' ')) i++;
+        }
+        String keyId = params.get("keyid");
+        String signature = params.get("signature");
+        if (keyId == null || signature == null) {
+            throw new IllegalArgumentException("Signature header needs keyId and signature");
+        }
+        String headers = params.getOrDefault("headers", "date");
+        List<String> headerNames = new ArrayList<>();
+        for (String h : headers.trim().split("\\s+")) {
+            headerNames.add(h.toLowerCase(Locale.ROOT));
+        }
+        return new SignatureHeader(keyId, params.getOrDefault("algorithm", "rsa-sha256"),
+                headerNames, Base64.getDecoder().decode(signature));
+    }
+
+    /**
+     * Signing string for the listed headers; {@code headerValue} looks up lower-case header names.
+     *
+     * @throws IllegalArgumentException if a signed header is absent
+     */
+    public static String signingString(List<String> headers, String method, String requestTarget,
+                                       Function<String, String> headerValue) {
+        StringBuilder sb = new StringBuilder();
+        for (String name : headers) {
+            if (!sb.isEmpty()) sb.append('\n');
+            if ("(request-target)".equals(name)) {
+                sb.append(name).append(": ").append(method.toLowerCase(Locale.ROOT)).append(' ').append(requestTarget);
+            } else {
+                String value = headerValue.apply(name);
+                if (value == null) {
+                    throw new IllegalArgumentException("Signed header missing: " + name);
+                }
+                sb.append(name).append(": ").append(value.trim());
+            }
+        }
+        return sb.toString();
+    }
+
+    public static String digest(byte[] body) {
+        return "SHA-256=" + Base64.getEncoder().encodeToString(sha256().digest(body));
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String sign(PrivateKey key, String signingString) throws GeneralSecurityException {
+        Signature signer = Signature.getInstance(SIGNATURE_ALGORITHM);
+        signer.initSign(key);
+        signer.update(signingString.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(signer.sign());
+    }
+
+    public static boolean verify(PublicKey key, String signingString, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(SIGNATURE_ALGORITHM);
+        verifier.initVerify(key);
+        verifier.update(signingString.getBytes(StandardCharsets.UTF_8));
+        return verifier.verify(signature);
+    }
+
+    public static PublicKey parsePublicKey(String pem) throws GeneralSecurityException {
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(pemBody(pem)));
+    }
+
+    public static PrivateKey parsePrivateKey(String pem) throws GeneralSecurityException {
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(pemBody(pem)));
+    }
+
+    public static String toPem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    private static byte[] pemBody(String pem) {
+        String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
@@ -0,0 +1,28 @@
+package com.activitypub.listener.activitypub;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An accepted inbox delivery as stored in the {@link IngestQueue}: the verified signer and the raw body.
+ */
+public record InboxDelivery(String signerActorId, byte[] body) {
+
+    public static byte[] encode(String signerActorId, byte[] body) {
+        byte[] signer = signerActorId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Integer.BYTES + signer.length + body.length)
+                .putInt(signer.length)
+                .put(signer)
+                .put(body)
+                .array();
+    }
+
+    public static InboxDelivery decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte[] signer = new byte[buffer.getInt()];
+        buffer.get(signer);
+        byte[] body = new byte[buffer.remaining()];
+        buffer.get(body);
+        return new InboxDelivery(new String(signer, StandardCharsets.UTF_8), body);
+    }
+}
@@ -0,0 +1,155 @@
+package com.activitypub.listener.activitypub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the {@link IngestQueue} into {@link InboxService#process} on a bounded worker pool. A single
+ * dispatcher reads the log in order and blocks once {@code workers * 4} entries are in flight, so a slow
+ * database backs up into the queue (and from there into 503s at the inbox) rather than into memory.
+ * Failed entries are retried with backoff and dropped after {@code max-attempts}; entries that cannot be
+ * decoded or fail outside that retry loop are counted as failed and committed straight away.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InboxIngestWorkers {
+
+    private static final long POLL_TIMEOUT_MS = 1000;
+
+    private final IngestQueue ingestQueue;
+    private final InboxService inboxService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${activitypub.ingest-queue.workers:4}")
+    private int workers;
+
+    @Value("${activitypub.ingest-queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${activitypub.ingest-queue.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    private ExecutorService pool;
+    private Thread dispatcher;
+    private Semaphore inFlight;
+    private Counter processed;
+    private Counter failed;
+    private Timer processing;
+
+    @PostConstruct
+    void start() {
+        if (!ingestQueue.isEnabled()) {
+            return;
+        }
+        processed = meterRegistry.counter("ingest.queue.processed");
+        failed = meterRegistry.counter("ingest.queue.failed");
+        processing = meterRegistry.timer("ingest.queue.processing");
+        inFlight = new Semaphore(workers * 4);
+        AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "inbox-ingest-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        dispatcher = new Thread(this::dispatch, "inbox-ingest-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            // Unfinished entries stay uncommitted and are replayed on the next start
+            pool.shutdownNow();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<IngestQueue.Entry> entries = ingestQueue.poll(workers * 4, POLL_TIMEOUT_MS);
+                for (IngestQueue.Entry entry : entries) {
+                    inFlight.acquire();
+                    pool.execute(() -> {
+                        boolean done = false;
+                        try {
+                            done = processing.record(() -> handle(entry));
+                        } catch (Throwable e) {
+                            // A corrupt payload or unexpected error must not pin the entry and stall replay
+                            log.error("Dropping inbox delivery at offset {}: {}", entry.offset(), e.toString());
+                            failed.increment();
+                            done = true;
+                        } finally {
+                            if (done) {
+                                ingestQueue.complete(entry);
+                            }
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return false if interrupted by shutdown, leaving the entry uncommitted for replay
+     */
+    private boolean handle(IngestQueue.Entry entry) {
+        InboxDelivery delivery = InboxDelivery.decode(entry.payload());
+        JsonNode activity;
+        try {
+            activity = objectMapper.readTree(delivery.body());
+        } catch (IOException e) {
+            log.warn("Dropping unreadable inbox delivery at offset {} from {}", entry.offset(), delivery.signerActorId());
+            failed.increment();
+            return true;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                inboxService.process(activity, delivery.signerActorId());
+                processed.increment();
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Dropping inbox delivery {} from {} after {} attempts: {}",
+                            activity.path("id").asText(), delivery.signerActorId(), attempt, e.getMessage());
+                    failed.increment();
+                    return true;
+                }
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+}
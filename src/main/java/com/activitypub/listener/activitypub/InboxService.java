@@ -0,0 +1,95 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.exception.SignatureVerificationException;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Handles deliveries to the listener's shared inbox. Create/Announce/Update/Delete from followed actors go
+ * through the same parse and persist path as outbox polling, once per monitor following the actor;
+ * Accept/Reject settle our Follows. Everything else is acknowledged and dropped.
+ * <p>
+ * The request path only validates and enqueues ({@link #accept}); {@link InboxIngestWorkers} drain the
+ * {@link IngestQueue} into {@link #process}. With the queue disabled, deliveries are processed inline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InboxService {
+
+    private static final Set<String> CONTENT_TYPES = Set.of("Create", "Announce", "Update", "Delete");
+
+    private final ActivityStreamsParser activityStreamsParser;
+    private final ActivityIngestService activityIngestService;
+    private final FollowManager followManager;
+    private final InstanceRateLimiter instanceRateLimiter;
+    private final IngestQueue ingestQueue;
+
+    /**
+     * Validate a verified delivery and hand it to the ingest queue.
+     *
+     * @param raw the delivery body as received, stored as-is
+     * @param signerActorId actor owning the key that signed the delivery
+     * @throws SignatureVerificationException if the activity claims a different actor than the signer
+     * @throws java.util.concurrent.RejectedExecutionException if the ingest queue is full
+     */
+    public void accept(JsonNode activity, byte[] raw, String signerActorId) {
+        String type = activity.path("type").asText(null);
+        String actorId = actorOf(activity);
+        if (actorId == null || !actorId.equals(signerActorId)) {
+            throw new SignatureVerificationException("Activity actor " + actorId + " was not signed by its own key");
+        }
+        if (!"Accept".equals(type) && !"Reject".equals(type) && !CONTENT_TYPES.contains(type)) {
+            log.debug("Ignoring {} delivery from {}", type, actorId);
+            return;
+        }
+        if (ingestQueue.isEnabled()) {
+            ingestQueue.append(InboxDelivery.encode(signerActorId, raw));
+        } else {
+            process(activity, signerActorId);
+        }
+    }
+
+    /**
+     * Route an accepted delivery: settle Follows or ingest content for every monitor following the actor.
+     *
+     * @return number of new activities collected
+     */
+    public int process(JsonNode activity, String signerActorId) {
+        String type = activity.path("type").asText(null);
+        String actorId = actorOf(activity);
+        if ("Accept".equals(type) || "Reject".equals(type)) {
+            followManager.onResponse(activity, actorId, "Accept".equals(type));
+            return 0;
+        }
+        if (!CONTENT_TYPES.contains(type)) {
+            return 0;
+        }
+        Set<String> monitorIds = followManager.monitorsFor(actorId);
+        if (monitorIds.isEmpty()) {
+            log.debug("Ignoring {} from unfollowed actor {}", type, actorId);
+            return 0;
+        }
+        ParsedActivity parsed = activityStreamsParser.parseActivityItem(activity, instanceRateLimiter.instanceFromUrl(actorId));
+        if (parsed == null) {
+            return 0;
+        }
+        followManager.recordDelivery(actorId);
+        int collected = 0;
+        for (String monitorId : monitorIds) {
+            if (activityIngestService.ingest(parsed, monitorId)) {
+                collected++;
+            }
+        }
+        return collected;
+    }
+
+    private static String actorOf(JsonNode activity) {
+        JsonNode actorNode = activity.get("actor");
+        return actorNode == null ? null : actorNode.isTextual() ? actorNode.asText() : actorNode.path("id").asText(null);
+    }
+}
@@ -0,0 +1,299 @@
+package com.activitypub.listener.activitypub;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Bounded, persistent FIFO between inbox acceptance and processing: an append-only log of memory-mapped
+ * segment files on local disk plus a committed consumer offset.
+ * <p>
+ * Records are {@code [length][crc32][payload]}; the length is written last so a reader never sees a partial
+ * record, and a torn tail after a crash fails its CRC and is discarded on startup. Offsets are global
+ * (segment base + position). Entries are handed out in order but may complete out of order; the committed
+ * offset is the oldest entry still in flight, persisted to {@code consumer.offset}, so a restart replays
+ * everything not yet completed (at-least-once; ingestion dedupes by activity id). Segments wholly below the
+ * committed offset are deleted. When {@code max-segments} are in use, appends fail with
+ * {@link RejectedExecutionException} so the inbox answers 503 and senders retry later.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestQueue {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int ROLL_MARKER = -1;
+    private static final String OFFSET_FILE = "consumer.offset";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${activitypub.ingest-queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${activitypub.ingest-queue.dir:./data/ingest-queue}")
+    private String dir;
+
+    @Value("${activitypub.ingest-queue.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${activitypub.ingest-queue.max-segments:16}")
+    private int maxSegments;
+
+    /** Force every append to disk before acknowledging it (survives power loss, not just process crashes) */
+    @Value("${activitypub.ingest-queue.fsync:false}")
+    private boolean fsync;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private Segment head;
+    private long writeOffset;
+    private long readOffset;
+    private long committedOffset;
+    private FileChannel offsetChannel;
+    private Counter appended;
+    private Counter rejected;
+
+    /**
+     * A record handed to a consumer; pass it back to {@link #complete} once processed.
+     */
+    public record Entry(long offset, byte[] payload) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path root = Path.of(dir);
+        Files.createDirectories(root);
+        offsetChannel = FileChannel.open(root.resolve(OFFSET_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        committedOffset = readCommittedOffset();
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().matches("segment-\\d+\\.log")).sorted().toList()) {
+                long base = Long.parseLong(file.getFileName().toString().replaceAll("\\D", ""));
+                if (base + segmentBytes <= committedOffset) {
+                    Files.delete(file);
+                } else {
+                    segments.put(base, Segment.map(file, base, segmentBytes));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            head = createSegment(committedOffset);
+            writeOffset = committedOffset;
+        } else {
+            head = segments.lastEntry().getValue();
+            writeOffset = head.base + recoverEnd(head);
+            committedOffset = Math.max(committedOffset, segments.firstKey());
+        }
+        readOffset = committedOffset;
+
+        appended = meterRegistry.counter("ingest.queue.appended");
+        rejected = meterRegistry.counter("ingest.queue.rejected");
+        Gauge.builder("ingest.queue.backlog.bytes", this, IngestQueue::getBacklogBytes).register(meterRegistry);
+        Gauge.builder("ingest.queue.in.flight", inFlight, NavigableSet::size).register(meterRegistry);
+        Gauge.builder("ingest.queue.segments", this, q -> q.getSegmentCount()).register(meterRegistry);
+        log.info("Ingest queue opened at {}: {} segments, {} bytes pending", root.toAbsolutePath(),
+                segments.size(), writeOffset - committedOffset);
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (!enabled || offsetChannel == null) {
+            return;
+        }
+        head.buffer.force();
+        writeCommittedOffset();
+        offsetChannel.force(true);
+        offsetChannel.close();
+    }
+
+    /**
+     * Durably enqueue a record.
+     *
+     * @throws RejectedExecutionException if the queue is at capacity
+     * @throws IllegalArgumentException if the record can never fit in a segment
+     */
+    public synchronized long append(byte[] payload) {
+        int needed = HEADER_BYTES + payload.length;
+        if (needed > segmentBytes - 4) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the ingest segment size");
+        }
+        int position = (int) (writeOffset - head.base);
+        if (position + needed > segmentBytes) {
+            if (segments.size() >= maxSegments) {
+                rejected.increment();
+                throw new RejectedExecutionException("Ingest queue is full; retry later");
+            }
+            roll(position);
+            position = 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        MappedByteBuffer buffer = head.buffer;
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position, payload.length);
+        if (fsync) {
+            buffer.force(position, needed);
+        }
+        long offset = writeOffset;
+        writeOffset += needed;
+        appended.increment();
+        notifyAll();
+        return offset;
+    }
+
+    /**
+     * Next records in log order, waiting up to {@code timeoutMs} for the first one.
+     */
+    public synchronized List<Entry> poll(int max, long timeoutMs) throws InterruptedException {
+        if (readOffset == writeOffset && timeoutMs > 0) {
+            wait(timeoutMs);
+        }
+        List<Entry> entries = new ArrayList<>();
+        while (readOffset < writeOffset && entries.size() < max) {
+            Map.Entry<Long, Segment> floor = segments.floorEntry(readOffset);
+            Segment segment = floor.getValue();
+            int position = (int) (readOffset - segment.base);
+            int length = position + 4 <= segmentBytes ? segment.buffer.getInt(position) : ROLL_MARKER;
+            if (length == ROLL_MARKER) {
+                readOffset = segment.base + segmentBytes;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_BYTES, payload);
+            inFlight.add(readOffset);
+            entries.add(new Entry(readOffset, payload));
+            readOffset += HEADER_BYTES + length;
+        }
+        return entries;
+    }
+
+    /**
+     * Mark an entry processed; advances and persists the committed offset and drops consumed segments.
+     */
+    public synchronized void complete(Entry entry) {
+        inFlight.remove(entry.offset());
+        long committed = inFlight.isEmpty() ? readOffset : inFlight.first();
+        if (committed <= committedOffset) {
+            return;
+        }
+        committedOffset = committed;
+        writeCommittedOffset();
+        while (segments.size() > 1 && segments.firstKey() + segmentBytes <= committedOffset) {
+            Segment consumed = segments.pollFirstEntry().getValue();
+            try {
+                Files.deleteIfExists(consumed.file);
+            } catch (IOException e) {
+                log.warn("Could not delete consumed ingest segment {}: {}", consumed.file, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized long getBacklogBytes() {
+        return writeOffset - committedOffset;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    private void roll(int position) {
+        if (position + 4 <= segmentBytes) {
+            head.buffer.putInt(position, ROLL_MARKER);
+        }
+        head.buffer.force();
+        head = createSegment(head.base + segmentBytes);
+        writeOffset = head.base;
+    }
+
+    private Segment createSegment(long base) {
+        try {
+            Segment segment = Segment.map(Path.of(dir).resolve(String.format("segment-%020d.log", base)), base, segmentBytes);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create ingest segment", e);
+        }
+    }
+
+    /**
+     * Position after the last intact record; a torn record is zeroed so it gets overwritten.
+     */
+    private int recoverEnd(Segment segment) {
+        int position = 0;
+        MappedByteBuffer buffer = segment.buffer;
+        while (position + HEADER_BYTES <= segmentBytes) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segmentBytes) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Discarding torn ingest record at offset {}", segment.base + position);
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position + 4 <= segmentBytes) {
+            buffer.putInt(position, 0);
+        }
+        return position;
+    }
+
+    private long readCommittedOffset() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        return offsetChannel.read(buffer, 0) == Long.BYTES ? buffer.flip().getLong() : 0L;
+    }
+
+    private void writeCommittedOffset() {
+        try {
+            offsetChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, committedOffset), 0);
+        } catch (IOException e) {
+            log.warn("Could not persist ingest queue offset: {}", e.getMessage());
+        }
+    }
+
+    private record Segment(Path file, long base, MappedByteBuffer buffer) {
+
+        static Segment map(Path file, long base, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(file, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.exception.InstanceUnavailableException;
+import com.activitypub.listener.model.FediverseInstance;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-instance circuit breaker and bulkhead for outgoing ActivityPub calls.
+ * <p>
+ * Each instance keeps a sliding window of its last {@code window-size} call outcomes. Once at least
+ * {@code min-calls} are recorded and the failure or slow-call rate reaches its threshold the circuit opens:
+ * calls are refused immediately with {@link InstanceUnavailableException} for {@code open-ms}. Then
+ * {@code half-open-calls} trial calls are let through; all succeeding closes the circuit, any failing reopens
+ * it. Independently, at most {@code max-concurrent-per-host} calls to an instance run at once. Opening marks
+ * the instance {@code down} in {@code fediverse_instances}; closing restores it to {@code healthy}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InstanceCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${activitypub.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${activitypub.circuit-breaker.min-calls:10}")
+    private int minCalls;
+
+    @Value("${activitypub.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${activitypub.circuit-breaker.slow-call-ms:10000}")
+    private long slowCallMs;
+
+    @Value("${activitypub.circuit-breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${activitypub.circuit-breaker.open-ms:60000}")
+    private long openMs;
+
+    @Value("${activitypub.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Value("${activitypub.bulkhead.max-concurrent-per-host:8}")
+    private int maxConcurrentPerHost;
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * Claim a slot for one call to {@code instance}; report the outcome on the returned permit.
+     *
+     * @throws InstanceUnavailableException if the circuit is open or the bulkhead is full
+     */
+    public Permit acquire(String instance) {
+        Circuit circuit = circuits.computeIfAbsent(instance, k -> new Circuit(windowSize, maxConcurrentPerHost));
+        if (!circuit.tryEnter(System.currentTimeMillis())) {
+            throw new InstanceUnavailableException("Circuit open for " + instance);
+        }
+        if (!circuit.bulkhead.tryAcquire()) {
+            circuit.abandonTrial();
+            throw new InstanceUnavailableException("Too many concurrent requests to " + instance);
+        }
+        return new Permit(instance, circuit, System.nanoTime());
+    }
+
+    /**
+     * Whether calls to the instance are currently refused (does not consume a half-open trial).
+     */
+    public boolean isOpen(String instance) {
+        Circuit circuit = circuits.get(instance);
+        return circuit != null && circuit.isOpen(System.currentTimeMillis());
+    }
+
+    public State getState(String instance) {
+        Circuit circuit = circuits.get(instance);
+        return circuit == null ? State.CLOSED : circuit.state;
+    }
+
+    /**
+     * One admitted call. Exactly one of {@link #success}, {@link #failure} or {@link #cancel} takes effect.
+     */
+    public final class Permit {
+        private final String instance;
+        private final Circuit circuit;
+        private final long startedNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(String instance, Circuit circuit, long startedNanos) {
+            this.instance = instance;
+            this.circuit = circuit;
+            this.startedNanos = startedNanos;
+        }
+
+        public void success() {
+            finish(false);
+        }
+
+        public void failure() {
+            finish(true);
+        }
+
+        /** The call was abandoned by the caller; it counts neither way. */
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                circuit.abandonTrial();
+                circuit.bulkhead.release();
+            }
+        }
+
+        private void finish(boolean failed) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            circuit.bulkhead.release();
+            boolean slow = (System.nanoTime() - startedNanos) / 1_000_000 >= slowCallMs;
+            State transition = circuit.record(failed, slow, System.currentTimeMillis());
+            if (transition != null) {
+                onTransition(instance, transition);
+            }
+        }
+    }
+
+    private void onTransition(String instance, State state) {
+        if (state == State.OPEN) {
+            log.warn("Circuit opened for {}; failing fast for {} ms", instance, openMs);
+        } else {
+            log.info("Circuit closed for {}", instance);
+        }
+        // Callers may be on a Netty event loop
+        CompletableFuture.runAsync(() -> {
+            Query query = new Query(Criteria.where("instanceUrl").is(instance));
+            if (state == State.CLOSED) {
+                query.addCriteria(Criteria.where("healthStatus").is("down"));
+            }
+            mongoTemplate.updateFirst(query, new Update()
+                    .set("healthStatus", state == State.OPEN ? "down" : "healthy")
+                    .set("lastHealthCheck", LocalDateTime.now()), FediverseInstance.class);
+        }).exceptionally(e -> {
+            log.warn("Could not record circuit state of {}: {}", instance, e.getMessage());
+            return null;
+        });
+    }
+
+    private final class Circuit {
+        final Semaphore bulkhead;
+        final boolean[] failures;
+        final boolean[] slows;
+        volatile State state = State.CLOSED;
+        int next;
+        int recorded;
+        int failureCount;
+        int slowCount;
+        long openUntil;
+        int trialsStarted;
+        int trialSuccesses;
+
+        Circuit(int windowSize, int maxConcurrent) {
+            this.bulkhead = new Semaphore(Math.max(1, maxConcurrent));
+            this.failures = new boolean[Math.max(1, windowSize)];
+            this.slows = new boolean[Math.max(1, windowSize)];
+        }
+
+        synchronized boolean isOpen(long now) {
+            return state == State.OPEN && now < openUntil;
+        }
+
+        synchronized boolean tryEnter(long now) {
+            if (state == State.OPEN) {
+                if (now < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialsStarted = 0;
+                trialSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsStarted >= halfOpenCalls) {
+                    return false;
+                }
+                trialsStarted++;
+            }
+            return true;
+        }
+
+        synchronized void abandonTrial() {
+            if (state == State.HALF_OPEN && trialsStarted > 0) {
+                trialsStarted--;
+            }
+        }
+
+        /**
+         * @return the state entered by this outcome, or null if unchanged
+         */
+        synchronized State record(boolean failed, boolean slow, long now) {
+            switch (state) {
+                case HALF_OPEN -> {
+                    if (failed || slow) {
+                        open(now);
+                        return State.OPEN;
+                    }
+                    if (++trialSuccesses >= halfOpenCalls) {
+                        reset();
+                        state = State.CLOSED;
+                        return State.CLOSED;
+                    }
+                    return null;
+                }
+                case CLOSED -> {
+                    if (recorded == failures.length) {
+                        failureCount -= failures[next] ? 1 : 0;
+                        slowCount -= slows[next] ? 1 : 0;
+                    } else {
+                        recorded++;
+                    }
+                    failures[next] = failed;
+                    slows[next] = slow;
+                    failureCount += failed ? 1 : 0;
+                    slowCount += slow ? 1 : 0;
+                    next = (next + 1) % failures.length;
+                    if (recorded >= Math.min(minCalls, failures.length)
+                            && (failureCount * 100 >= failureRateThreshold * recorded
+                            || slowCount * 100 >= slowCallRateThreshold * recorded)) {
+                        open(now);
+                        return State.OPEN;
+                    }
+                    return null;
+                }
+                default -> {
+                    // Late result of a call admitted before the circuit opened
+                    return null;
+                }
+            }
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openUntil = now + openMs;
+            reset();
+        }
+
+        private void reset() {
+            next = 0;
+            recorded = 0;
+            failureCount = 0;
+            slowCount = 0;
+            Arrays.fill(failures, false);
+            Arrays.fill(slows, false);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.activitypub.listener.activitypub;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent response times per instance and the request timeouts derived from them.
+ * <p>
+ * Each instance keeps its last {@value #WINDOW} response times; p95/p99 are recomputed every
+ * {@value #REFRESH_EVERY} samples. Once {@code min-samples} are in, the timeout is p99 times
+ * {@code p99-multiplier}, clamped to {@code [min-ms, max-ms]}; before that the global
+ * {@code activitypub.request-timeout} applies. Timed-out requests are recorded at the time waited and
+ * recompute the percentiles at once, so a few consecutive timeouts widen the timeout of an instance that
+ * got slower instead of it timing out on every call until its circuit opens. With hedging on, idempotent GETs send a second request once
+ * p95 has elapsed without a response.
+ */
+@Component
+public class InstanceLatencyTracker {
+
+    static final int WINDOW = 256;
+    static final int REFRESH_EVERY = 16;
+
+    @Value("${activitypub.request-timeout:30000}")
+    private long requestTimeoutMs;
+
+    @Value("${activitypub.adaptive-timeout.enabled:true}")
+    private boolean enabled;
+
+    @Value("${activitypub.adaptive-timeout.min-ms:2000}")
+    private long minTimeoutMs;
+
+    @Value("${activitypub.adaptive-timeout.max-ms:60000}")
+    private long maxTimeoutMs;
+
+    @Value("${activitypub.adaptive-timeout.p99-multiplier:3}")
+    private double p99Multiplier;
+
+    @Value("${activitypub.adaptive-timeout.min-samples:20}")
+    private int minSamples;
+
+    @Value("${activitypub.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${activitypub.hedging.min-delay-ms:100}")
+    private long minHedgeDelayMs;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public void record(String instance, long millis) {
+        windows.computeIfAbsent(instance, k -> new Window()).add(millis, minSamples, false);
+    }
+
+    /**
+     * Record a request that timed out after {@code millis}; the true latency is at least that.
+     */
+    public void recordTimeout(String instance, long millis) {
+        windows.computeIfAbsent(instance, k -> new Window()).add(millis, minSamples, true);
+    }
+
+    public Duration timeoutFor(String instance) {
+        Window window = enabled ? windows.get(instance) : null;
+        if (window == null || window.p99 < 0) {
+            return Duration.ofMillis(requestTimeoutMs);
+        }
+        long timeout = (long) (window.p99 * p99Multiplier);
+        return Duration.ofMillis(Math.max(minTimeoutMs, Math.min(maxTimeoutMs, timeout)));
+    }
+
+    /**
+     * How long to wait before hedging a GET to the instance; empty when hedging is off or not yet calibrated.
+     */
+    public Optional<Duration> hedgeDelayFor(String instance) {
+        Window window = hedgingEnabled ? windows.get(instance) : null;
+        if (window == null || window.p95 < 0) {
+            return Optional.empty();
+        }
+        long delay = Math.max(minHedgeDelayMs, window.p95);
+        return delay < timeoutFor(instance).toMillis() ? Optional.of(Duration.ofMillis(delay)) : Optional.empty();
+    }
+
+    /**
+     * Last computed percentile (95 or 99) for the instance, or -1 before enough samples.
+     */
+    public long getPercentile(String instance, int percentile) {
+        Window window = windows.get(instance);
+        if (window == null) {
+            return -1;
+        }
+        return percentile >= 99 ? window.p99 : window.p95;
+    }
+
+    private static final class Window {
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+        private int sinceRefresh;
+        volatile long p95 = -1;
+        volatile long p99 = -1;
+
+        synchronized void add(long millis, int minSamples, boolean refreshNow) {
+            samples[next] = millis;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            if (count >= minSamples && (++sinceRefresh >= REFRESH_EVERY || p99 < 0 || refreshNow)) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                p95 = sorted[rank(95, count)];
+                p99 = sorted[rank(99, count)];
+                sinceRefresh = 0;
+            }
+        }
+
+        private static int rank(int percentile, int size) {
+            return Math.max(0, (int) Math.ceil(percentile / 100.0 * size) - 1);
+        }
+    }
+}
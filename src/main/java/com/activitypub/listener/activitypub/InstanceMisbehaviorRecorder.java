@@ -0,0 +1,46 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.model.FediverseInstance;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records protocol abuse by a remote instance (oversized responses, overlong pages) on its
+ * {@code fediverse_instances} entry and as the {@code activitypub.instance.misbehavior} counter.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InstanceMisbehaviorRecorder {
+
+    public static final String RESPONSE_TOO_LARGE = "response_too_large";
+    public static final String TOO_MANY_ITEMS = "too_many_items";
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public void record(String instanceUrl, String reason, String detail) {
+        log.warn("Instance {} misbehaving ({}): {}", instanceUrl, reason, detail);
+        meterRegistry.counter("activitypub.instance.misbehavior", "reason", reason).increment();
+        // Callers may be on a Netty event loop
+        CompletableFuture.runAsync(() -> mongoTemplate.updateFirst(
+                new Query(Criteria.where("instanceUrl").is(instanceUrl)),
+                new Update().inc("misbehaviorCount", 1)
+                        .set("lastMisbehavior", reason + ": " + detail)
+                        .set("lastMisbehaviorAt", LocalDateTime.now()),
+                FediverseInstance.class)
+        ).exceptionally(e -> {
+            log.warn("Could not record misbehavior of {}: {}", instanceUrl, e.getMessage());
+            return null;
+        });
+    }
+}
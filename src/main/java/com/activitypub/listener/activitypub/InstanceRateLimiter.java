@@ -1,5 +1,7 @@
 package com.activitypub.listener.activitypub;
 
+import com.activitypub.listener.exception.InstanceUnavailableException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -12,11 +14,15 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Per-instance rate limiting with exponential backoff.
  * Uses a simple token-bucket style limit per instance URL and backs off on 429/errors.
+ * Instances whose circuit is open are refused immediately instead of waited for.
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class InstanceRateLimiter {
 
+    private final InstanceCircuitBreaker circuitBreaker;
+
     @Value("${activitypub.default-rate-limit:300}")
     private int defaultRequestsPerMinute;
 
@@ -40,24 +46,43 @@ public class InstanceRateLimiter {
 
     /**
      * Wait if necessary to respect rate limit and backoff for the given instance URL.
+     *
+     * @throws InstanceUnavailableException if the instance's circuit is open
      */
     public void acquire(String requestUrl) throws InterruptedException {
+        long waitMs = reserve(requestUrl);
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    /**
+     * Take a request slot for the given instance URL without blocking; reactive callers delay by the result.
+     *
+     * @return milliseconds to wait before sending the request (0 to send now)
+     * @throws InstanceUnavailableException if the instance's circuit is open
+     */
+    public long reserve(String requestUrl) {
         String instance = instanceFromUrl(requestUrl);
+        if (circuitBreaker.isOpen(instance)) {
+            throw new InstanceUnavailableException("Circuit open for " + instance);
+        }
         long now = System.currentTimeMillis();
+        long waitMs = 0;
 
         Long backoff = getBackoffUntil(instance);
         if (backoff != null && backoff > now) {
-            long waitMs = backoff - now;
-            log.debug("Rate limit backoff for {}: waiting {} ms", instance, waitMs);
-            Thread.sleep(Math.min(waitMs, 30_000));
+            log.debug("Rate limit backoff for {}: waiting {} ms", instance, backoff - now);
+            waitMs += Math.min(backoff - now, 30_000);
         }
 
         Bucket bucket = buckets.computeIfAbsent(instance, k -> new Bucket(defaultRequestsPerMinute));
-        long waitMs = bucket.waitTimeForRequest(now);
-        if (waitMs > 0) {
-            log.debug("Rate limit wait for {}: {} ms", instance, waitMs);
-            Thread.sleep(Math.min(waitMs, 5_000));
+        long bucketWaitMs = bucket.waitTimeForRequest(now);
+        if (bucketWaitMs > 0) {
+            log.debug("Rate limit wait for {}: {} ms", instance, bucketWaitMs);
+            waitMs += Math.min(bucketWaitMs, 5_000);
         }
+        return waitMs;
     }
 
     /**
@@ -74,8 +99,12 @@ public class InstanceRateLimiter {
         log.warn("Backoff applied for {}: {} ms", instance, backoffMs);
     }
 
+    /**
+     * Set the instance's requests per minute; the current window is kept when the limit is unchanged.
+     */
     public void setLimitForInstance(String instanceUrl, int requestsPerMinute) {
-        buckets.put(instanceFromUrl(instanceUrl), new Bucket(requestsPerMinute));
+        buckets.compute(instanceFromUrl(instanceUrl), (instance, bucket) ->
+                bucket != null && bucket.permitsPerMinute == Math.max(1, requestsPerMinute) ? bucket : new Bucket(requestsPerMinute));
     }
 
     private Long getBackoffUntil(String instance) {
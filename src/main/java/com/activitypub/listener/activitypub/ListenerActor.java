@@ -0,0 +1,160 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.model.ListenerKey;
+import com.activitypub.listener.repository.ListenerKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The listener's own ActivityPub actor (an Application): its actor document, shared inbox and the key
+ * used to sign outgoing deliveries. The key comes from configuration or is generated once and stored in
+ * Mongo so every node signs with the same key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListenerActor {
+
+    private static final String KEY_DOCUMENT_ID = "main";
+    private static final List<String> SIGNED_HEADERS = List.of("(request-target)", "host", "date", "digest");
+
+    private final ListenerKeyRepository listenerKeyRepository;
+
+    /** Public URL of this service including the context path, e.g. https://listener.example.com/api */
+    @Value("${activitypub.listener.base-url:http://localhost:8080/api}")
+    private String baseUrl;
+
+    @Value("${activitypub.listener.username:listener}")
+    private String username;
+
+    @Value("${activitypub.listener.public-key-pem:}")
+    private String configuredPublicKeyPem;
+
+    @Value("${activitypub.listener.private-key-pem:}")
+    private String configuredPrivateKeyPem;
+
+    private volatile Keys keys;
+
+    public String actorId() {
+        return baseUrl + "/activitypub/actor";
+    }
+
+    public String keyId() {
+        return actorId() + "#main-key";
+    }
+
+    public String inboxUrl() {
+        return baseUrl + "/activitypub/inbox";
+    }
+
+    public String newActivityId() {
+        return baseUrl + "/activitypub/activities/" + UUID.randomUUID();
+    }
+
+    public Map<String, Object> actorDocument() {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("@context", List.of("https://www.w3.org/ns/activitystreams", "https://w3id.org/security/v1"));
+        doc.put("id", actorId());
+        doc.put("type", "Application");
+        doc.put("preferredUsername", username);
+        doc.put("inbox", inboxUrl());
+        doc.put("outbox", baseUrl + "/activitypub/outbox");
+        doc.put("endpoints", Map.of("sharedInbox", inboxUrl()));
+        doc.put("manuallyApprovesFollowers", true);
+        doc.put("publicKey", Map.of(
+                "id", keyId(),
+                "owner", actorId(),
+                "publicKeyPem", keys().publicKeyPem()));
+        return doc;
+    }
+
+    /**
+     * Headers for a signed POST of {@code body} to {@code target}: Host, Date, Digest and Signature.
+     */
+    public HttpHeaders signedPostHeaders(URI target, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        String host = target.getPort() > 0 ? target.getHost() + ":" + target.getPort() : target.getHost();
+        headers.set(HttpHeaders.HOST, host);
+        headers.set(HttpHeaders.DATE, DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        headers.set("Digest", HttpSignatures.digest(body));
+        String path = target.getRawPath() + (target.getRawQuery() != null ? "?" + target.getRawQuery() : "");
+        String signingString = HttpSignatures.signingString(SIGNED_HEADERS, "POST", path,
+                name -> headers.getFirst(name));
+        try {
+            headers.set("Signature", "keyId=\"" + keyId() + "\",algorithm=\"rsa-sha256\",headers=\""
+                    + String.join(" ", SIGNED_HEADERS) + "\",signature=\""
+                    + HttpSignatures.sign(keys().privateKey(), signingString) + "\"");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign delivery to " + target, e);
+        }
+        return headers;
+    }
+
+    private Keys keys() {
+        Keys current = keys;
+        if (current == null) {
+            synchronized (this) {
+                if (keys == null) {
+                    keys = loadKeys();
+                }
+                current = keys;
+            }
+        }
+        return current;
+    }
+
+    private Keys loadKeys() {
+        ListenerKey stored;
+        if (!configuredPrivateKeyPem.isBlank() && !configuredPublicKeyPem.isBlank()) {
+            stored = ListenerKey.builder().publicKeyPem(configuredPublicKeyPem).privateKeyPem(configuredPrivateKeyPem).build();
+        } else {
+            stored = listenerKeyRepository.findById(KEY_DOCUMENT_ID).orElseGet(this::generateAndStore);
+        }
+        try {
+            return new Keys(stored.getPublicKeyPem(), HttpSignatures.parsePrivateKey(stored.getPrivateKeyPem()));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid listener actor key", e);
+        }
+    }
+
+    private ListenerKey generateAndStore() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair pair = generator.generateKeyPair();
+            ListenerKey key = ListenerKey.builder()
+                    .id(KEY_DOCUMENT_ID)
+                    .publicKeyPem(HttpSignatures.toPem("PUBLIC KEY", pair.getPublic().getEncoded()))
+                    .privateKeyPem(HttpSignatures.toPem("PRIVATE KEY", pair.getPrivate().getEncoded()))
+                    .build();
+            ListenerKey saved = listenerKeyRepository.insert(key);
+            log.info("Generated listener actor key {}", keyId());
+            return saved;
+        } catch (DuplicateKeyException e) {
+            // Another node generated it first
+            return listenerKeyRepository.findById(KEY_DOCUMENT_ID).orElseThrow();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate listener actor key", e);
+        }
+    }
+
+    private record Keys(String publicKeyPem, PrivateKey privateKey) {
+    }
+}
@@ -1,11 +1,8 @@
 package com.activitypub.listener.activitypub;
 
-import com.activitypub.listener.kafka.ActivityEventMessage;
-import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
-import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.exception.InstanceUnavailableException;
 import com.activitypub.listener.model.ActivityPubActor;
 import com.activitypub.listener.repository.ActivityPubActorRepository;
-import com.activitypub.listener.repository.CollectedActivityRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +10,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Polls actor outboxes, parses ActivityStreams, persists activities and sends to Kafka.
@@ -30,16 +26,28 @@ public class OutboxPollingService {
     private final ActivityPubClient activityPubClient;
     private final ActivityStreamsParser activityStreamsParser;
     private final InstanceRateLimiter instanceRateLimiter;
-    private final CollectedActivityRepository collectedActivityRepository;
-    private final ActivityPubKafkaProducer kafkaProducer;
     private final ActivityPubActorRepository actorRepository;
+    private final ActivityIngestService activityIngestService;
+    private final FollowManager followManager;
 
     /**
      * Poll outbox for an actor by ID (looks up outbox URL from DB), parse, persist and send to Kafka.
      */
     public int pollActorOutbox(String actorId, String monitorId) {
+        return pollActorOutbox(actorId, monitorId, false);
+    }
+
+    /**
+     * As {@link #pollActorOutbox(String, String)}, but actors whose posts are pushed to our inbox are skipped
+     * (returning 0) unless their safety-net poll is due or {@code force} is set.
+     */
+    public int pollActorOutbox(String actorId, String monitorId, boolean force) {
         ActivityPubActor actor = actorRepository.findByActorId(actorId)
                 .orElseThrow(() -> new IllegalArgumentException("Actor not found: " + actorId));
+        if (!force && !followManager.claimPoll(actorId)) {
+            log.debug("Skipping outbox poll for push-followed actor {}", actorId);
+            return 0;
+        }
         return pollOutbox(actor.getOutboxUrl(), actor.getInstanceUrl(), monitorId);
     }
 
@@ -64,7 +72,7 @@ public class OutboxPollingService {
 
                 List<ParsedActivity> parsed = activityStreamsParser.parseOutbox(page, instance);
                 for (ParsedActivity p : parsed) {
-                    if (saveAndPublish(p, monitorId)) {
+                    if (activityIngestService.ingest(p, monitorId)) {
                         totalCollected++;
                     }
                 }
@@ -75,6 +83,10 @@ public class OutboxPollingService {
                 Thread.currentThread().interrupt();
                 log.warn("Outbox polling interrupted");
                 break;
+            } catch (InstanceUnavailableException e) {
+                // Circuit already accounts for the failures; no extra backoff
+                log.debug("Skipping outbox {}: {}", currentUrl, e.getMessage());
+                break;
             } catch (Exception e) {
                 log.error("Error polling outbox {}: {}", currentUrl, e.getMessage());
                 instanceRateLimiter.recordBackoff(currentUrl);
@@ -85,45 +97,4 @@ public class OutboxPollingService {
         log.info("Outbox poll completed: {} new activities from {} pages", totalCollected, pages);
         return totalCollected;
     }
-
-    private boolean saveAndPublish(ParsedActivity p, String monitorId) {
-        if (p.getActivityId() == null) return false;
-        if (collectedActivityRepository.existsByActivityId(p.getActivityId())) {
-            return false;
-        }
-        CollectedActivity entity = toCollectedActivity(p, monitorId);
-        collectedActivityRepository.save(entity);
-        kafkaProducer.sendActivityEvent(toEventMessage(p, monitorId));
-        return true;
-    }
-
-    private static CollectedActivity toCollectedActivity(ParsedActivity p, String monitorId) {
-        return CollectedActivity.builder()
-                .activityId(p.getActivityId())
-                .activityType(p.getActivityType())
-                .actorId(p.getActorId())
-                .objectId(p.getObjectId())
-                .objectType(p.getObjectType())
-                .content(p.getContent())
-                .publishedAt(p.getPublishedAt())
-                .instanceUrl(p.getInstanceUrl())
-                .monitorId(monitorId)
-                .rawData(p.getRawData())
-                .build();
-    }
-
-    private static ActivityEventMessage toEventMessage(ParsedActivity p, String monitorId) {
-        return ActivityEventMessage.builder()
-                .activityId(p.getActivityId())
-                .activityType(p.getActivityType())
-                .actorId(p.getActorId())
-                .objectId(p.getObjectId())
-                .objectType(p.getObjectType())
-                .content(p.getContent())
-                .publishedAt(p.getPublishedAt())
-                .instanceUrl(p.getInstanceUrl())
-                .monitorId(monitorId)
-                .rawData(p.getRawData())
-                .build();
-    }
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,5 +27,8 @@ public class ParsedActivity {
     private String content;
     private LocalDateTime publishedAt;
     private String instanceUrl;
+    private List<String> languages;
+    private List<String> hashtags;
+    private String inReplyTo;
     private Map<String, Object> rawData;
 }
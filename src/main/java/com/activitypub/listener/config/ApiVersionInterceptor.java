@@ -4,81 +4,75 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the {@code API-Version} header (default {@code v1}) into the {@code apiVersion} request attribute.
+ * Supported versions are matched by a set lookup; the format pattern only runs for requests that are about
+ * to be rejected.
+ */
 @Component
 @Slf4j
 public class ApiVersionInterceptor implements HandlerInterceptor {
-    
-    private static final String API_VERSION_HEADER = "API-Version";
-    private static final String DEFAULT_VERSION = "v1";
-    
+
+    public static final String VERSION_ATTRIBUTE = "apiVersion";
+
+    // Format: v1, v2, v1.0, etc.
+    private static final Pattern VERSION_PATTERN = Pattern.compile("^v\\d+(\\.\\d+)?$");
+
+    // Add more versions as they become available
+    private static final Set<String> SUPPORTED_VERSIONS = Set.of("v1");
+
+    private static final byte[] INVALID_VERSION_BODY =
+            "{\"error\":\"Invalid API version format. Use format 'v1', 'v2', etc.\",\"code\":\"INVALID_VERSION\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
     @Value("${api.version.header:API-Version}")
     private String versionHeader;
-    
+
     @Value("${api.version.default:v1}")
     private String defaultVersion;
-    
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         String requestedVersion = request.getHeader(versionHeader);
-        
         if (requestedVersion == null || requestedVersion.isEmpty()) {
-            // Set default version if not provided
             requestedVersion = defaultVersion;
-            log.debug("No API version header provided, using default: {}", defaultVersion);
         }
-        
-        // Validate version format
-        if (!isValidVersion(requestedVersion)) {
-            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            response.setContentType("application/json");
-            try {
-                response.getWriter().write(
-                    "{\"error\":\"Invalid API version format. Use format 'v1', 'v2', etc.\",\"code\":\"INVALID_VERSION\"}"
-                );
-            } catch (Exception e) {
-                log.error("Error writing error response", e);
-            }
-            return false;
-        }
-        
-        // Check if version is supported
-        if (!isVersionSupported(requestedVersion)) {
-            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-            response.setContentType("application/json");
-            try {
-                response.getWriter().write(
-                    String.format("{\"error\":\"API version '%s' is not supported. Supported versions: v1\",\"code\":\"VERSION_NOT_SUPPORTED\"}", requestedVersion)
-                );
-            } catch (Exception e) {
-                log.error("Error writing error response", e);
+
+        if (!SUPPORTED_VERSIONS.contains(requestedVersion)) {
+            if (!VERSION_PATTERN.matcher(requestedVersion).matches()) {
+                writeError(response, HttpServletResponse.SC_BAD_REQUEST, INVALID_VERSION_BODY);
+            } else {
+                // Safe to echo: the pattern admits only 'v', digits and a dot
+                writeError(response, HttpServletResponse.SC_NOT_FOUND, ("{\"error\":\"API version '" + requestedVersion
+                        + "' is not supported. Supported versions: v1\",\"code\":\"VERSION_NOT_SUPPORTED\"}")
+                        .getBytes(StandardCharsets.UTF_8));
             }
             return false;
         }
-        
+
         // Store version in request attribute for use in controllers
-        request.setAttribute("apiVersion", requestedVersion);
-        
-        // Add version to response header
+        request.setAttribute(VERSION_ATTRIBUTE, requestedVersion);
         response.setHeader(versionHeader, requestedVersion);
-        
-        log.debug("API version requested: {}", requestedVersion);
         return true;
     }
-    
-    private boolean isValidVersion(String version) {
-        if (version == null || version.isEmpty()) {
-            return false;
+
+    private static void writeError(HttpServletResponse response, int status, byte[] body) {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        try {
+            response.getOutputStream().write(body);
+        } catch (IOException e) {
+            log.error("Error writing error response", e);
         }
-        // Validate format: v1, v2, v1.0, etc.
-        return version.matches("^v\\d+(\\.\\d+)?$");
-    }
-    
-    private boolean isVersionSupported(String version) {
-        // Currently only v1 is supported
-        // Add more versions as they become available
-        return "v1".equals(version);
     }
 }
@@ -13,10 +13,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Adds a correlation ID to each request for tracing. §11.5.
  * Reads X-Correlation-Id header or generates one; puts it in MDC as "correlationId".
+ * Generated IDs are random v4 UUIDs drawn from {@link ThreadLocalRandom}: they only need to be unique, and
+ * {@link UUID#randomUUID()} serializes every request on one shared {@code SecureRandom}. Incoming IDs longer
+ * than {@value #MAX_LENGTH} characters are replaced.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -24,6 +28,7 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
 
     public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
     public static final String MDC_KEY = "correlationId";
+    static final int MAX_LENGTH = 128;
 
     @Override
     protected void doFilterInternal(
@@ -32,8 +37,8 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         try {
             String correlationId = request.getHeader(CORRELATION_ID_HEADER);
-            if (correlationId == null || correlationId.isBlank()) {
-                correlationId = UUID.randomUUID().toString();
+            if (correlationId == null || correlationId.isBlank() || correlationId.length() > MAX_LENGTH) {
+                correlationId = newId();
             }
             MDC.put(MDC_KEY, correlationId);
             response.setHeader(CORRELATION_ID_HEADER, correlationId);
@@ -42,4 +47,11 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
             MDC.remove(MDC_KEY);
         }
     }
+
+    static String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
 }
@@ -1,8 +1,10 @@
 package com.activitypub.listener.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,13 +19,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Validates JWT from Authorization header and sets SecurityContext with user id. §5.1
+ * <p>
+ * The key and parser are built once. Verified tokens are remembered by SHA-256 hash until their
+ * {@code exp} (at most {@code jwt.cache.max-ttl-seconds}), so a dashboard resending the same token skips
+ * signature verification. Invalid tokens are never cached.
  */
 @Component
 @RequiredArgsConstructor
@@ -36,26 +47,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Value("${jwt.issuer:AMRITECH}")
     private String jwtIssuer;
 
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${jwt.cache.max-ttl-seconds:300}")
+    private long cacheMaxTtlSeconds;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private JwtParser parser;
+
+    /** Subject of a verified token; userId is null for non-numeric subjects */
+    private record VerifiedToken(Long userId, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (StringUtils.hasText(jwtPublicKey)) {
+            parser = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(jwtPublicKey.getBytes(StandardCharsets.UTF_8)))
+                    .requireIssuer(jwtIssuer)
+                    .build();
+        }
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String token = resolveToken(request);
+        String token = parser != null ? resolveToken(request) : null;
 
-        if (StringUtils.hasText(token) && StringUtils.hasText(jwtPublicKey)) {
+        if (StringUtils.hasText(token)) {
             try {
-                SecretKey key = Keys.hmacShaKeyFor(jwtPublicKey.getBytes(StandardCharsets.UTF_8));
-                Claims claims = Jwts.parser()
-                        .verifyWith(key)
-                        .requireIssuer(jwtIssuer)
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
-
-                String subject = claims.getSubject();
-                Long userId = subject != null ? parseUserId(subject) : null;
+                Long userId = verify(token);
                 if (userId != null) {
                     UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList());
@@ -69,6 +102,52 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Federation and actuator endpoints never look at the principal, so skip the token work for them.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/activitypub/") || path.startsWith("/actuator/");
+    }
+
+    /**
+     * User id of a valid token, from the cache when it was verified before.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    Long verify(String token) {
+        long now = System.currentTimeMillis();
+        String hash = Base64.getEncoder().encodeToString(SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        VerifiedToken cached = verifiedTokens.get(hash);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                return cached.userId();
+            }
+            verifiedTokens.remove(hash, cached);
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        String subject = claims.getSubject();
+        Long userId = subject != null ? parseUserId(subject) : null;
+        long expiresAt = now + cacheMaxTtlSeconds * 1000;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        remember(hash, new VerifiedToken(userId, expiresAt), now);
+        return userId;
+    }
+
+    private void remember(String hash, VerifiedToken token, long now) {
+        if (verifiedTokens.size() >= cacheMaxEntries) {
+            verifiedTokens.values().removeIf(t -> t.expiresAtMillis() <= now);
+            if (verifiedTokens.size() >= cacheMaxEntries) {
+                return;
+            }
+        }
+        verifiedTokens.put(hash, token);
+    }
+
     private String resolveToken(HttpServletRequest request) {
         String bearer = request.getHeader("Authorization");
         if (StringUtils.hasText(bearer) && bearer.startsWith("Bearer ")) {
@@ -1,14 +1,27 @@
 package com.activitypub.listener.config;
 
+import com.activitypub.listener.model.ActivityPubActor;
 import com.activitypub.listener.model.DataSource;
 import com.activitypub.listener.model.MonitorType;
 import com.activitypub.listener.model.Metric;
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.repository.ActivityCollectionRouter;
+import com.activitypub.listener.repository.ActivityPubActorIndexes;
 import com.activitypub.listener.repository.DataSourceRepository;
 import com.activitypub.listener.repository.MetricRepository;
+import com.activitypub.listener.repository.MonitorListingFields;
 import com.activitypub.listener.repository.MonitorTypeRepository;
+import com.activitypub.listener.service.ActivityRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
@@ -22,12 +35,25 @@ public class MongoDataInitializer implements CommandLineRunner {
     private final MonitorTypeRepository monitorTypeRepository;
     private final DataSourceRepository dataSourceRepository;
     private final MetricRepository metricRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private static final int BACKFILL_BATCH = 500;
+    /** collected_activities indexes the entity no longer declares; removing an annotation does not drop them. */
+    private static final List<String> LEGACY_ACTIVITY_INDEXES = List.of(
+            ActivityCollectionRouter.LEGACY_ACTIVITY_ID_INDEX,
+            // Single-field indexes that are prefixes of the (monitorId|actorId, publishedAt, _id) feed indexes
+            "monitorId", "actorId",
+            // No query filters on these alone; time ranges are always per monitor
+            "publishedAt", "instanceUrl");
     
     @Override
     public void run(String... args) {
         initializeMonitorTypes();
         initializeDataSources();
         initializeMetrics();
+        backfillMonitorListingFields();
+        ensureActorIndexes();
+        dropLegacyActivityIndexes();
     }
     
     private void initializeMonitorTypes() {
@@ -60,22 +86,98 @@ public class MongoDataInitializer implements CommandLineRunner {
         }
     }
     
+    /**
+     * Seeds any default metric missing by name, so widgets added later (e.g. rollup-backed ones)
+     * also reach existing databases.
+     */
     private void initializeMetrics() {
-        if (metricRepository.count() == 0) {
+        List<Metric> defaults = Arrays.asList(
+            Metric.builder().name("engagements").displayName("Engagements").chartType("numberChartWidget").build(),
+            Metric.builder().name("posts").displayName("Posts").chartType("tableWidget").build(),
+            Metric.builder().name("authors").displayName("Authors").chartType("tableWidget").build(),
+            Metric.builder().name("topics").displayName("Topics").chartType("chartWidget").build(),
+            Metric.builder().name("sentiment").displayName("Sentiment").chartType("chartWidget").build(),
+            Metric.builder().name("top_cities").displayName("Top Cities").chartType("chartWidget").build(),
+            Metric.builder().name("top_countries").displayName("Top Countries").chartType("chartWidget").build(),
+            Metric.builder().name("gender_distribution").displayName("Gender Distribution").chartType("chartWidget").build(),
+            Metric.builder().name("languages").displayName("Languages").chartType("chartWidget").build(),
+            Metric.builder().name(ActivityRollupService.VOLUME_OVER_TIME).displayName("Volume Over Time").chartType("chartWidget").build(),
+            Metric.builder().name(ActivityRollupService.ACTIVITY_TYPES).displayName("Activity Types").chartType("chartWidget").build(),
+            Metric.builder().name(ActivityRollupService.OBJECT_TYPES).displayName("Object Types").chartType("chartWidget").build(),
+            Metric.builder().name(ActivityRollupService.TOP_INSTANCES).displayName("Top Instances").chartType("tableWidget").build(),
+            Metric.builder().name(ActivityRollupService.TOP_ACTORS).displayName("Top Actors").chartType("tableWidget").build(),
+            Metric.builder().name(ActivityRollupService.TOP_HASHTAGS).displayName("Top Hashtags").chartType("tableWidget").build()
+        );
+        List<Metric> missing = defaults.stream()
+                .filter(m -> metricRepository.findByName(m.getName()).isEmpty())
+                .toList();
+        if (!missing.isEmpty()) {
             log.info("Initializing metrics...");
-            List<Metric> metrics = Arrays.asList(
-                Metric.builder().name("engagements").displayName("Engagements").chartType("numberChartWidget").build(),
-                Metric.builder().name("posts").displayName("Posts").chartType("tableWidget").build(),
-                Metric.builder().name("authors").displayName("Authors").chartType("tableWidget").build(),
-                Metric.builder().name("topics").displayName("Topics").chartType("chartWidget").build(),
-                Metric.builder().name("sentiment").displayName("Sentiment").chartType("chartWidget").build(),
-                Metric.builder().name("top_cities").displayName("Top Cities").chartType("chartWidget").build(),
-                Metric.builder().name("top_countries").displayName("Top Countries").chartType("chartWidget").build(),
-                Metric.builder().name("gender_distribution").displayName("Gender Distribution").chartType("chartWidget").build(),
-                Metric.builder().name("languages").displayName("Languages").chartType("chartWidget").build()
-            );
-            metricRepository.saveAll(metrics);
-            log.info("Metrics initialized: {}", metrics.size());
+            metricRepository.saveAll(missing);
+            log.info("Metrics initialized: {}", missing.size());
+        }
+    }
+
+    /**
+     * Fills nameLower and dataSourceIds on monitors saved before those fields existed; list search and the
+     * data source filter rely on them.
+     */
+    private void backfillMonitorListingFields() {
+        Query missing = new Query(Criteria.where("dataSourceIds").exists(false)).limit(BACKFILL_BATCH);
+        int updated = 0;
+        List<Monitor> batch;
+        while (!(batch = mongoTemplate.find(missing, Monitor.class)).isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Monitor.class);
+            for (Monitor monitor : batch) {
+                bulk.updateOne(new Query(Criteria.where("_id").is(monitor.getId())), new Update()
+                        .set("nameLower", MonitorListingFields.nameLower(monitor.getName()))
+                        .set("dataSourceIds", MonitorListingFields.dataSourceIds(monitor)));
+            }
+            bulk.execute();
+            updated += batch.size();
+        }
+        if (updated > 0) {
+            log.info("Monitor listing fields backfilled: {}", updated);
+        }
+    }
+
+    /**
+     * Merges duplicate actors and then builds the unique actor indexes. A failure is logged rather than
+     * aborting startup; discovery still upserts on the natural key without them.
+     */
+    private void ensureActorIndexes() {
+        try {
+            int removed = ActivityPubActorIndexes.mergeDuplicates(mongoTemplate);
+            if (removed > 0) {
+                log.info("Duplicate actors merged: {}", removed);
+            }
+        } catch (Exception e) {
+            log.error("Actor duplicate merge failed: {}", e.getMessage());
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(ActivityPubActor.class);
+        for (Index index : ActivityPubActorIndexes.definitions()) {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (Exception e) {
+                log.error("Could not create actor index {}: {}", index.getIndexOptions().get("name"), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops legacy indexes from the base activity collection; a no-op once they are gone. Daily buckets
+     * drop theirs when ActivityCollectionRouter ensures their indexes.
+     */
+    private void dropLegacyActivityIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(ActivityCollectionRouter.BASE_COLLECTION);
+        for (String name : LEGACY_ACTIVITY_INDEXES) {
+            try {
+                if (ActivityCollectionRouter.dropIndexIfPresent(indexOps, name)) {
+                    log.info("Dropped legacy activity index {}", name);
+                }
+            } catch (Exception e) {
+                log.error("Could not drop activity index {}: {}", name, e.getMessage());
+            }
         }
     }
 }
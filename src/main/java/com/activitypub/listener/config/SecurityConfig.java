@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
@@ -47,6 +48,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> {
                     auth.requestMatchers("/actuator/**").permitAll();
                     auth.requestMatchers("/public-api/**").permitAll();
+                    // Federation: deliveries are authenticated by HTTP Signatures instead
+                    auth.requestMatchers("/activitypub/**").permitAll();
                     auth.requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll();
                     auth.requestMatchers("/error").permitAll();
                     if (jwtPublicKey != null && !jwtPublicKey.isBlank()) {
@@ -59,6 +62,16 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * The JWT filter runs inside the security chain; keep Boot from also registering it as a servlet filter.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     private AuthenticationEntryPoint json401() {
         return (request, response, ex) -> writeJsonError(response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized", "UNAUTHORIZED");
     }
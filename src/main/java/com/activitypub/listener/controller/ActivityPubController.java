@@ -1,15 +1,22 @@
 package com.activitypub.listener.controller;
 
 import com.activitypub.listener.activitypub.ActivityPubService;
+import com.activitypub.listener.activitypub.FollowManager;
 import com.activitypub.listener.activitypub.OutboxPollingService;
+import com.activitypub.listener.dto.ActorDiscoveryResultDTO;
 import com.activitypub.listener.dto.ApiResponse;
+import com.activitypub.listener.dto.BulkDiscoverActorsDTO;
 import com.activitypub.listener.dto.PaginationResponse;
 import com.activitypub.listener.dto.CollectedActivityDTO;
 import com.activitypub.listener.model.ActivityPubActor;
+import com.activitypub.listener.model.ActorFollow;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/actors")
@@ -19,6 +26,7 @@ public class ActivityPubController {
 
     private final ActivityPubService activityPubService;
     private final OutboxPollingService outboxPollingService;
+    private final FollowManager followManager;
 
     /**
      * Discover actor by resource (e.g. acct:user@mastodon.social).
@@ -42,6 +50,16 @@ public class ActivityPubController {
         return discoverActorGet(resource);
     }
 
+    /**
+     * Discover a batch of actors concurrently (e.g. importing an ACCOUNT_ANALYSIS watchlist).
+     * Streams one NDJSON line per resource as soon as it is resolved and saved.
+     */
+    @PostMapping(value = "/discover/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ActorDiscoveryResultDTO> discoverActorsBulk(
+            @Valid @RequestBody BulkDiscoverActorsDTO dto) {
+        return activityPubService.discoverActors(dto.getResources());
+    }
+
     @GetMapping("/{actorId}")
     public ResponseEntity<ApiResponse<ActivityPubActor>> getActor(
             @PathVariable String actorId) {
@@ -53,29 +71,62 @@ public class ActivityPubController {
     }
 
     /**
-     * Get paginated activities for an actor (from collected_activities).
-     * Aligns with README: GET /api/actors/{actor_id}/activities?page=1&per_page=20
+     * Get activities for an actor (from collected_activities), newest first.
+     * Aligns with README: GET /api/actors/{actor_id}/activities?per_page=20&cursor=...
+     * Pages by {@code page} unless a cursor is given; pass the returned pagination.nextCursor for keyset paging.
      */
     @GetMapping("/{actorId}/activities")
     public ResponseEntity<ApiResponse<PaginationResponse<CollectedActivityDTO>>> getActorActivities(
             @PathVariable String actorId,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "20") int perPage) {
-        PaginationResponse<CollectedActivityDTO> data = activityPubService.getActorActivities(actorId, page, perPage);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int perPage,
+            @RequestParam(defaultValue = "false") boolean includeRawData) {
+        PaginationResponse<CollectedActivityDTO> data = activityPubService.getActorActivities(
+                actorId, page, cursor, perPage, includeRawData);
         return ResponseEntity.ok(ApiResponse.<PaginationResponse<CollectedActivityDTO>>builder().data(data).build());
     }
 
     /**
      * Trigger outbox polling for an actor. New activities are persisted and sent to Kafka.
+     * Actors followed over ActivityPub are skipped unless their safety-net poll is due or force=true.
      */
     @PostMapping("/{actorId}/poll")
     public ResponseEntity<ApiResponse<Integer>> pollActorOutbox(
             @PathVariable String actorId,
-            @RequestParam(required = false) String monitorId) {
-        int collected = outboxPollingService.pollActorOutbox(actorId, monitorId);
+            @RequestParam(required = false) String monitorId,
+            @RequestParam(defaultValue = "false") boolean force) {
+        int collected = outboxPollingService.pollActorOutbox(actorId, monitorId, force);
         return ResponseEntity.ok(ApiResponse.<Integer>builder()
                 .data(collected)
                 .message("Poll completed: " + collected + " new activities")
                 .build());
     }
+
+    /**
+     * Follow the actor from the listener actor so its posts are pushed to our inbox for the monitor.
+     */
+    @PostMapping("/{actorId}/follow")
+    public ResponseEntity<ApiResponse<ActorFollow>> followActor(
+            @PathVariable String actorId,
+            @RequestParam String monitorId) {
+        ActorFollow follow = followManager.follow(actorId, monitorId);
+        return ResponseEntity.ok(ApiResponse.<ActorFollow>builder()
+                .data(follow)
+                .message("Follow " + follow.getState().name().toLowerCase())
+                .build());
+    }
+
+    /**
+     * Stop following the actor for the monitor; the Follow is undone when no monitor needs it any more.
+     */
+    @DeleteMapping("/{actorId}/follow")
+    public ResponseEntity<ApiResponse<Void>> unfollowActor(
+            @PathVariable String actorId,
+            @RequestParam(required = false) String monitorId) {
+        followManager.unfollow(actorId, monitorId);
+        return ResponseEntity.ok(ApiResponse.<Void>builder()
+                .message("Unfollowed")
+                .build());
+    }
 }
@@ -0,0 +1,75 @@
+package com.activitypub.listener.controller;
+
+import com.activitypub.listener.activitypub.DigestedBody;
+import com.activitypub.listener.activitypub.HttpSignatureVerifier;
+import com.activitypub.listener.activitypub.InboxService;
+import com.activitypub.listener.activitypub.ListenerActor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Federation endpoints of the listener's own actor: the actor document (with the public key remote servers
+ * verify our Follows with) and the shared inbox followed actors deliver to. Not versioned or JWT-protected;
+ * deliveries are authenticated by HTTP Signatures.
+ */
+@RestController
+@RequestMapping("/activitypub")
+@RequiredArgsConstructor
+public class ListenerActorController {
+
+    private static final MediaType ACTIVITY_JSON = MediaType.parseMediaType("application/activity+json");
+
+    private final ListenerActor listenerActor;
+    private final HttpSignatureVerifier signatureVerifier;
+    private final InboxService inboxService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${activitypub.inbox.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    @GetMapping("/actor")
+    public ResponseEntity<Map<String, Object>> getActor() {
+        return ResponseEntity.ok()
+                .contentType(ACTIVITY_JSON)
+                .body(listenerActor.actorDocument());
+    }
+
+    /**
+     * Shared inbox. Answers 202 once the signature is verified and the activity queued for ingestion; 401 if
+     * the signature is missing, stale or belongs to another actor, 503 when verification or the queue is saturated.
+     * The body is digested while it is read and the RSA check runs off the servlet thread.
+     */
+    @PostMapping("/inbox")
+    public CompletableFuture<ResponseEntity<Void>> postInbox(HttpServletRequest request) throws IOException {
+        DigestedBody body = DigestedBody.read(request.getInputStream(), maxBodyBytes);
+        String target = request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        return signatureVerifier.verifyAsync(request.getMethod(), target, request::getHeader, body)
+                .thenApply(signature -> {
+                    inboxService.accept(parseActivity(body), body.bytes(), signature.actorId());
+                    return ResponseEntity.accepted().build();
+                });
+    }
+
+    private JsonNode parseActivity(DigestedBody body) {
+        JsonNode activity;
+        try {
+            activity = objectMapper.readTree(body.bytes());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Delivery is not valid JSON");
+        }
+        if (activity == null || !activity.isObject()) {
+            throw new IllegalArgumentException("Delivery is not an activity");
+        }
+        return activity;
+    }
+}
@@ -2,18 +2,31 @@ package com.activitypub.listener.controller;
 
 import com.activitypub.listener.config.SecurityUtils;
 import com.activitypub.listener.dto.*;
+import com.activitypub.listener.service.ActivityExportService;
+import com.activitypub.listener.service.LiveActivityHub;
 import com.activitypub.listener.service.MonitorService;
 import com.activitypub.listener.service.SavedFilterService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/monitors")
@@ -23,6 +36,11 @@ public class MonitorController {
 
     private final MonitorService monitorService;
     private final SavedFilterService savedFilterService;
+    private final ActivityExportService activityExportService;
+    private final LiveActivityHub liveActivityHub;
+
+    @Value("${activities.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
     
     @PostMapping
     public ResponseEntity<ApiResponse<MonitorDTO>> createMonitor(
@@ -49,6 +67,7 @@ public class MonitorController {
             @RequestParam(required = false) Boolean paused,
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String orderBy,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
             @RequestHeader(value = "X-User-Id", required = false) Long headerUserId) {
 
         Long userId = SecurityUtils.getCurrentUserId() != null ? SecurityUtils.getCurrentUserId() : headerUserId;
@@ -62,7 +81,8 @@ public class MonitorController {
             }
         }
         PaginationResponse<MonitorDTO> monitors = monitorService.listMonitors(
-                pageable, search, monitorTypeId, productId, dataSourceId, approvalStatus, paused, userId, sortBy, orderBy);
+                pageable, search, monitorTypeId, productId, dataSourceId, approvalStatus, paused, userId, sortBy, orderBy,
+                includeTotal);
 
         ApiResponse<PaginationResponse<MonitorDTO>> response = ApiResponse.<PaginationResponse<MonitorDTO>>builder()
                 .data(monitors)
@@ -82,17 +102,71 @@ public class MonitorController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Activities for a monitor, newest first. Pages by {@code page} unless a cursor is given; pass the
+     * returned pagination.nextCursor for keyset paging. rawData is omitted unless includeRawData=true.
+     */
     @GetMapping("/{id}/activities")
     public ResponseEntity<ApiResponse<PaginationResponse<CollectedActivityDTO>>> getMonitorActivities(
             @PathVariable String id,
             @RequestParam(defaultValue = "1") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int perPage,
+            @RequestParam(defaultValue = "false") boolean includeRawData,
             @RequestHeader(value = "X-User-Id", required = false) Long headerUserId) {
         Long userId = SecurityUtils.getCurrentUserId() != null ? SecurityUtils.getCurrentUserId() : headerUserId;
-        PaginationResponse<CollectedActivityDTO> data = monitorService.getActivitiesForMonitor(id, page, perPage, userId);
+        PaginationResponse<CollectedActivityDTO> data = monitorService.getActivitiesForMonitor(
+                id, page, cursor, perPage, includeRawData, userId);
         return ResponseEntity.ok(ApiResponse.<PaginationResponse<CollectedActivityDTO>>builder().data(data).build());
     }
 
+    /**
+     * Server-sent events with each activity collected for the monitor from now on ({@code activity} events,
+     * without rawData). A {@code lag} event reports activities dropped because the client fell behind.
+     */
+    @GetMapping(value = "/{id}/activities/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMonitorActivities(
+            @PathVariable String id,
+            @RequestHeader(value = "X-User-Id", required = false) Long headerUserId) {
+        Long userId = SecurityUtils.getCurrentUserId() != null ? SecurityUtils.getCurrentUserId() : headerUserId;
+        monitorService.findOwnedMonitor(id, userId);
+        return liveActivityHub.subscribe(id);
+    }
+
+    /**
+     * Export a monitor's activities for a date range (epoch seconds, inclusive) as NDJSON,
+     * streamed straight from the database. gzip=true returns a .ndjson.gz attachment. The stream gets its own
+     * async timeout ({@code activities.export.timeout-ms}) instead of the container default.
+     */
+    @GetMapping("/{id}/activities/export")
+    public ResponseEntity<StreamingResponseBody> exportMonitorActivities(
+            @PathVariable String id,
+            @RequestParam(required = false) Long startDate,
+            @RequestParam(required = false) Long endDate,
+            @RequestParam(defaultValue = "false") boolean includeRawData,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = "X-User-Id", required = false) Long headerUserId,
+            HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId() != null ? SecurityUtils.getCurrentUserId() : headerUserId;
+        StreamingResponseBody body = activityExportService.exportActivities(
+                id, startDate, endDate, includeRawData, gzip, userId);
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("activityExportTimeout",
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        // Runs just before the streaming body starts async processing
+                        if (webRequest instanceof AsyncWebRequest asyncRequest) {
+                            asyncRequest.setTimeout(exportTimeoutMs);
+                        }
+                    }
+                });
+        String filename = "monitor-" + id + "-activities.ndjson" + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<MonitorDTO>> updateMonitor(
             @PathVariable String id,
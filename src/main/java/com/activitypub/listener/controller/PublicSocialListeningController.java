@@ -3,11 +3,14 @@ package com.activitypub.listener.controller;
 import com.activitypub.listener.dto.ApiResponse;
 import com.activitypub.listener.dto.SocialListeningRequestDTO;
 import com.activitypub.listener.model.SocialListeningJob;
+import com.activitypub.listener.service.SocialListeningJobEvents;
 import com.activitypub.listener.service.SocialListeningService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -20,6 +23,7 @@ import java.util.Map;
 public class PublicSocialListeningController {
 
     private final SocialListeningService socialListeningService;
+    private final SocialListeningJobEvents jobEvents;
 
     @PostMapping("/data")
     public ResponseEntity<ApiResponse<Map<String, Object>>> createJob(
@@ -47,4 +51,15 @@ public class PublicSocialListeningController {
                 .data(data)
                 .build());
     }
+
+    /**
+     * Server-sent events for a job: a snapshot, then each widget as it completes and the final status.
+     */
+    @GetMapping(value = "/data/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobStatus(
+            @RequestParam String jobId,
+            @RequestParam String monitorId) {
+
+        return jobEvents.subscribe(jobId, () -> socialListeningService.getJobStatus(jobId, monitorId));
+    }
 }
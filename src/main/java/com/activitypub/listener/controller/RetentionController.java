@@ -0,0 +1,29 @@
+package com.activitypub.listener.controller;
+
+import com.activitypub.listener.dto.ApiResponse;
+import com.activitypub.listener.dto.RetentionReportDTO;
+import com.activitypub.listener.service.RetentionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only view of retention; runs are only started by the retention.cron schedule, since one run
+ * compacts, archives and deletes across every monitor.
+ */
+@RestController
+@RequestMapping("/retention")
+@RequiredArgsConstructor
+public class RetentionController {
+
+    private final RetentionService retentionService;
+
+    @GetMapping("/report")
+    public ResponseEntity<ApiResponse<RetentionReportDTO>> lastReport() {
+        return ResponseEntity.ok(ApiResponse.<RetentionReportDTO>builder()
+                .data(retentionService.getLastReport())
+                .build());
+    }
+}
@@ -0,0 +1,21 @@
+package com.activitypub.listener.dto;
+
+import com.activitypub.listener.model.ActivityPubActor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-resource outcome of a bulk actor discovery, streamed as each item resolves.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActorDiscoveryResultDTO {
+    private String resource;
+    private String status; // DISCOVERED, CACHED, FAILED
+    private ActivityPubActor actor;
+    private String error;
+}
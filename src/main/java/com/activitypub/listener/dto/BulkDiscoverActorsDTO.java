@@ -0,0 +1,22 @@
+package com.activitypub.listener.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch of WebFinger resources (acct:user@instance) to discover in one request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDiscoverActorsDTO {
+
+    @NotEmpty(message = "At least one resource is required")
+    private List<String> resources;
+}
@@ -1,5 +1,7 @@
 package com.activitypub.listener.dto;
 
+import com.activitypub.listener.model.RetentionPolicy;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotEmpty;
@@ -38,4 +40,7 @@ public class CreateMonitorDTO {
     private List<String> customerCareAccounts;
     
     private Boolean autoSummaryWidget;
+
+    @Valid
+    private RetentionPolicy retentionPolicy;
 }
@@ -14,6 +14,11 @@ public class FediverseInstanceDTO {
     private String instanceUrl;
     private String instanceType;
     private String nodeinfoUrl;
+    private java.util.Map<String, Object> nodeinfoData;
+    private Long latencyP50Ms;
+    private Long latencyP95Ms;
+    private Long misbehaviorCount;
+    private String lastMisbehavior;
     private Integer rateLimitPerMinute;
     private Boolean isActive;
     private String healthStatus;
@@ -1,6 +1,7 @@
 package com.activitypub.listener.dto;
 
 import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.model.RetentionPolicy;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,6 +30,7 @@ public class MonitorDTO {
     private Boolean autoSummaryWidget;
     private Integer version;
     private List<DataSourceDTO> dataSources;
+    private RetentionPolicy retentionPolicy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -24,5 +24,8 @@ public class PaginationResponse<T> {
         private Integer perPage;
         private Long total;
         private Integer totalPages;
+        /** Keyset pagination: opaque cursor for the next page, null on the last page. */
+        private String nextCursor;
+        private Boolean hasNext;
     }
 }
@@ -0,0 +1,49 @@
+package com.activitypub.listener.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one retention run. Byte figures for Mongo are BSON sizes of the affected documents
+ * (or rawData fields), i.e. logical bytes removed; storageSize only shrinks as WiredTiger reuses the space.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionReportDTO {
+    private LocalDateTime startedAt;
+    private Long durationMs;
+    private Integer monitorsProcessed;
+
+    private Long compactedRows;
+    /** BSON bytes of rawData removed by compaction */
+    private Long compactedRawBytes;
+    /** bytes added back as rawDataCompressed (COMPRESS mode) */
+    private Long compressedBytes;
+
+    private Long archivedRows;
+    private Long archivedDocumentBytes;
+    private Long archiveBytesWritten;
+
+    private Long deletedRows;
+    private Long deletedDocumentBytes;
+    private Long deletedArchiveBytes;
+
+    /** compactedRawBytes - compressedBytes + archivedDocumentBytes + deletedDocumentBytes */
+    private Long reclaimedBytes;
+
+    private Long collectionSizeBefore;
+    private Long collectionSizeAfter;
+    private Long storageSizeBefore;
+    private Long storageSizeAfter;
+
+    /** WiredTiger cache hit ratio between the previous run and this one (normal serving traffic) */
+    private Double cacheHitRatioSinceLastRun;
+    private Long cacheBytesBefore;
+    private Long cacheBytesAfter;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 /**
  * Response with topic and consumer group for frontend connection. §3.9, §4.4.1.
  */
@@ -18,4 +20,6 @@ public class SocialListeningResponseDTO {
     private String monitorId;
     private Boolean manualTopicsEnabled;
     private Integer monitorTopicsUsed;
+    /** Widgets answered in-process from ingest-time rollups; only the rest go through Kafka */
+    private Map<String, Object> widgetData;
 }
@@ -1,5 +1,7 @@
 package com.activitypub.listener.dto;
 
+import com.activitypub.listener.model.RetentionPolicy;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,4 +25,6 @@ public class UpdateMonitorDTO {
     private Boolean exactSearch;
     private List<String> customerCareAccounts;
     private Boolean autoSummaryWidget;
+    @Valid
+    private RetentionPolicy retentionPolicy;
 }
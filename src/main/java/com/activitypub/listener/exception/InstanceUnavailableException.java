@@ -0,0 +1,12 @@
+package com.activitypub.listener.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A call to a remote instance refused locally because its circuit is open or its bulkhead is full.
+ */
+public class InstanceUnavailableException extends RejectedExecutionException {
+    public InstanceUnavailableException(String message) {
+        super(message);
+    }
+}
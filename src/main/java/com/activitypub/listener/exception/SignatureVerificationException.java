@@ -0,0 +1,10 @@
+package com.activitypub.listener.exception;
+
+/**
+ * An inbound ActivityPub delivery whose HTTP Signature is missing, stale or does not verify.
+ */
+public class SignatureVerificationException extends RuntimeException {
+    public SignatureVerificationException(String message) {
+        super(message);
+    }
+}
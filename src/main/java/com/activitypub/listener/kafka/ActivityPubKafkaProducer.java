@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +18,9 @@ public class ActivityPubKafkaProducer {
     @Value("${kafka.topics.tracker-new:tracker-new}")
     private String trackerNewTopic;
 
+    @Value("${kafka.topics.tracker-config:tracker-config}")
+    private String trackerConfigTopic;
+
     @Value("${kafka.topics.monitor-lifecycle:monitor-lifecycle}")
     private String monitorLifecycleTopic;
 
@@ -30,9 +35,9 @@ public class ActivityPubKafkaProducer {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    public void sendTrackerConfig(TrackerConfigMessage message) {
+    public CompletableFuture<SendResult<String, Object>> sendTrackerConfig(TrackerConfigMessage message) {
         String key = message.getTrackerId() != null ? message.getTrackerId() : "unknown";
-        kafkaTemplate.send(trackerNewTopic, key, message)
+        return kafkaTemplate.send(trackerNewTopic, key, message)
                 .whenComplete((result, ex) -> {
                     if (ex != null) {
                         log.error("Failed to send tracker config to {}: {}", trackerNewTopic, ex.getMessage());
@@ -42,6 +47,18 @@ public class ActivityPubKafkaProducer {
                 });
     }
 
+    public CompletableFuture<SendResult<String, Object>> sendMonitorTrackerConfig(MonitorTrackerConfigMessage message) {
+        String key = message.getTrackerId() != null ? message.getTrackerId() : "unknown";
+        return kafkaTemplate.send(trackerConfigTopic, key, message)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to send monitor tracker config to {}: {}", trackerConfigTopic, ex.getMessage());
+                    } else {
+                        log.debug("Sent monitor tracker config to {}: {} v{}", trackerConfigTopic, key, message.getConfigVersion());
+                    }
+                });
+    }
+
     public void sendActivityEvent(ActivityEventMessage message) {
         String key = message.getActivityId() != null ? message.getActivityId() : message.getActorId();
         if (key == null) key = "unknown";
@@ -0,0 +1,44 @@
+package com.activitypub.listener.kafka;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Complete collection configuration of one monitor, sent to the data collection engine (topic: tracker-config)
+ * when a collection-relevant field changes. {@code configVersion} is the monitor's version at that change;
+ * consumers can drop a message older than one already applied.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonitorTrackerConfigMessage {
+
+    private String trackerId;
+    private Integer configVersion;
+    private String monitorType;
+    private Boolean shouldCollect;
+    private Long userId;
+    private List<Source> sources;
+    private LocalDateTime at;
+
+    /**
+     * One data source to collect from; the fields of the former per-source {@link TrackerConfigMessage}.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Source {
+        private String dataSourceName;
+        private String keywords;
+        private String spamKeywords;
+        private Map<String, Object> extra;
+    }
+}
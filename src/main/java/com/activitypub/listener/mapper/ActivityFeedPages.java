@@ -0,0 +1,89 @@
+package com.activitypub.listener.mapper;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.dto.PaginationResponse;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.ActivityCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Paging shared by the monitor and actor activity feeds. Page-number paging (with totals) stays the
+ * default; a cursor switches to keyset paging. Both report nextCursor so clients can move to keyset
+ * paging after the first page.
+ */
+public final class ActivityFeedPages {
+
+    private static final int MAX_PER_PAGE = 100;
+
+    private ActivityFeedPages() {
+    }
+
+    /**
+     * @param byOffset reads one page by page number, newest first
+     * @param byCursor reads up to {@code limit + 1} rows after the cursor (null for the first page)
+     */
+    public static PaginationResponse<CollectedActivityDTO> page(
+            int page, String cursor, int perPage, boolean includeRawData,
+            Function<Pageable, Page<CollectedActivity>> byOffset,
+            BiFunction<ActivityCursor, Integer, List<CollectedActivity>> byCursor) {
+        int limit = Math.max(1, Math.min(perPage, MAX_PER_PAGE));
+        if (cursor == null || cursor.isBlank()) {
+            Page<CollectedActivity> p = byOffset.apply(PageRequest.of(Math.max(page, 1) - 1, limit));
+            PaginationResponse.PaginationInfo info = PaginationResponse.PaginationInfo.builder()
+                    .page(Math.max(page, 1))
+                    .perPage(limit)
+                    .total(p.getTotalElements())
+                    .totalPages(p.getTotalPages())
+                    .hasNext(p.hasNext())
+                    .nextCursor(nextCursor(p.getContent(), p.hasNext()))
+                    .build();
+            return response(p.getContent(), info, includeRawData);
+        }
+
+        List<CollectedActivity> rows = byCursor.apply(ActivityCursor.decode(cursor), limit);
+        boolean hasNext = rows.size() > limit;
+        List<CollectedActivity> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        PaginationResponse.PaginationInfo info = PaginationResponse.PaginationInfo.builder()
+                .perPage(limit)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor(pageRows, hasNext))
+                .build();
+        return response(pageRows, info, includeRawData);
+    }
+
+    public static CollectedActivityDTO toDTO(CollectedActivity a, boolean includeRawData) {
+        return CollectedActivityDTO.builder()
+                .id(a.getId())
+                .activityId(a.getActivityId())
+                .activityType(a.getActivityType())
+                .actorId(a.getActorId())
+                .objectId(a.getObjectId())
+                .objectType(a.getObjectType())
+                .content(a.getContent())
+                .publishedAt(a.getPublishedAt())
+                .instanceUrl(a.getInstanceUrl())
+                .monitorId(a.getMonitorId())
+                .rawData(includeRawData ? RawDataCodec.rawData(a) : null)
+                .createdAt(a.getCreatedAt())
+                .build();
+    }
+
+    private static String nextCursor(List<CollectedActivity> rows, boolean hasNext) {
+        return hasNext && !rows.isEmpty() ? ActivityCursor.of(rows.get(rows.size() - 1)).encode() : null;
+    }
+
+    private static PaginationResponse<CollectedActivityDTO> response(
+            List<CollectedActivity> rows, PaginationResponse.PaginationInfo info, boolean includeRawData) {
+        return PaginationResponse.<CollectedActivityDTO>builder()
+                .data(rows.stream().map(a -> toDTO(a, includeRawData)).collect(Collectors.toList()))
+                .pagination(info)
+                .build();
+    }
+}
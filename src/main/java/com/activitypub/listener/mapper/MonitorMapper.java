@@ -42,6 +42,7 @@ public class MonitorMapper {
                 .autoSummaryWidget(monitor.getAutoSummaryWidget())
                 .version(monitor.getVersion())
                 .dataSources(dataSources)
+                .retentionPolicy(monitor.getRetentionPolicy())
                 .createdAt(monitor.getCreatedAt())
                 .updatedAt(monitor.getUpdatedAt())
                 .build();
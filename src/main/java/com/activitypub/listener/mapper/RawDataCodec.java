@@ -0,0 +1,53 @@
+package com.activitypub.listener.mapper;
+
+import com.activitypub.listener.model.CollectedActivity;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed JSON encoding for {@link CollectedActivity#getRawData()} after compaction.
+ */
+public final class RawDataCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private RawDataCodec() {
+    }
+
+    public static byte[] compress(Map<String, Object> rawData) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            MAPPER.writeValue(gzip, rawData);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Map<String, Object> decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return MAPPER.readValue(gzip, MAP_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * rawData of an activity whether it is stored inline or compacted; null if it was dropped.
+     */
+    public static Map<String, Object> rawData(CollectedActivity activity) {
+        if (activity.getRawData() != null) {
+            return activity.getRawData();
+        }
+        return activity.getRawDataCompressed() != null ? decompress(activity.getRawDataCompressed()) : null;
+    }
+}
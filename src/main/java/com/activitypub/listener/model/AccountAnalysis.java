@@ -25,7 +25,7 @@ public class AccountAnalysis {
     
     private String monitorId;
     
-    @DBRef
+    @DBRef(lazy = true)
     private DataSource dataSource;
     
     private Long accountInfoId;
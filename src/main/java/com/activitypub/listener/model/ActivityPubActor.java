@@ -12,6 +12,11 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.Map;
 
+/**
+ * Remote ActivityPub actor. (instanceUrl, username) is the natural key used by discovery;
+ * its index also serves findByInstanceUrl as a prefix. Both unique indexes are created at startup by
+ * {@link com.activitypub.listener.repository.ActivityPubActorIndexes} after existing duplicates are merged.
+ */
 @Document(collection = "activitypub_actors")
 @Data
 @Builder
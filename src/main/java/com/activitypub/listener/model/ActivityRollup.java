@@ -0,0 +1,66 @@
+package com.activitypub.listener.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Per-monitor activity counters for one minute or hour (UTC), maintained at ingest by ActivityRollupService.
+ * Map keys are encoded so dots and dollars in instance URLs, actor IDs and hashtags are valid field names.
+ * topActors/topHashtags hold heavy-hitter counts; anything trimmed out of them is added to other*.
+ */
+@Document(collection = "activity_rollups")
+@CompoundIndex(name = "monitor_granularity_bucket_idx", def = "{'monitorId': 1, 'granularity': 1, 'bucketStart': 1}", unique = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityRollup {
+
+    @Id
+    private String id;
+
+    private String monitorId;
+
+    private Granularity granularity;
+
+    private LocalDateTime bucketStart;
+
+    private Long total;
+
+    private Map<String, Long> byActivityType;
+
+    private Map<String, Long> byObjectType;
+
+    private Map<String, Long> byInstance;
+
+    private Map<String, Long> topActors;
+
+    private Map<String, Long> topHashtags;
+
+    private Long otherActors;
+
+    private Long otherHashtags;
+
+    /** Hour rollups only: heavy-hitter maps have been cut down to the configured top-k */
+    private Boolean trimmed;
+
+    /** Minute rollups only: TTL, they are superseded by hour rollups */
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime updatedAt;
+
+    public enum Granularity {
+        MINUTE,
+        HOUR
+    }
+}
@@ -0,0 +1,64 @@
+package com.activitypub.listener.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Follow relationship from the listener actor to a remote actor, shared by the monitors that track it.
+ * Deliveries from the actor are routed to these monitors.
+ */
+@Document(collection = "actor_follows")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActorFollow {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String actorId;
+
+    @Builder.Default
+    private Set<String> monitorIds = new HashSet<>();
+
+    private FollowState state;
+
+    /** id of the Follow activity we sent, echoed back in Accept/Reject */
+    @Indexed
+    private String followActivityId;
+
+    private LocalDateTime requestedAt;
+
+    private LocalDateTime acceptedAt;
+
+    private LocalDateTime lastDeliveryAt;
+
+    /** last outbox poll while following; push-followed actors are only polled as a periodic safety net */
+    private LocalDateTime lastPolledAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public enum FollowState {
+        PENDING,
+        ACCEPTED,
+        REJECTED,
+        UNFOLLOWED
+    }
+}
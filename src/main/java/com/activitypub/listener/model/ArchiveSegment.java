@@ -0,0 +1,52 @@
+package com.activitypub.listener.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One day of a monitor's activities archived to a gzip NDJSON file under retention.archive-dir.
+ * Each retention run that archives more rows for the day appends another gzip member.
+ */
+@Document(collection = "activity_archive_segments")
+@CompoundIndex(name = "monitor_day_idx", def = "{'monitorId': 1, 'day': 1}", unique = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveSegment {
+
+    @Id
+    private String id;
+
+    private String monitorId;
+
+    /** publishedAt day (UTC) covered by this segment */
+    private LocalDate day;
+
+    private String path;
+
+    /** node.id of the replica that last wrote the file; others can only read it from shared storage */
+    private String node;
+
+    @Builder.Default
+    private Long rowCount = 0L;
+
+    @Builder.Default
+    private Long compressedBytes = 0L;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
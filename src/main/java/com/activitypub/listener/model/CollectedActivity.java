@@ -6,17 +6,29 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Persisted ActivityPub activity collected from Fediverse instances.
  * See SPECIFICATION §7.1.1 and IMPLEMENTATION_PLAN §8.1.
+ * Feed queries page by (publishedAt desc, _id desc) per monitor or actor; the compound
+ * indexes below serve those keyset queries (and publishedAt ranges per monitor), so no single-field
+ * monitorId/actorId/publishedAt/instanceUrl indexes are kept. With activities.storage.mode=DAILY new rows
+ * go to daily bucket collections instead (see ActivityCollectionRouter).
+ * An activity is stored once per monitor that collected it, so (activityId, monitorId) is the unique key.
  */
 @Document(collection = "collected_activities")
+@CompoundIndexes({
+        @CompoundIndex(name = "monitor_published_idx", def = "{'monitorId': 1, 'publishedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "actor_published_idx", def = "{'actorId': 1, 'publishedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "activity_monitor_idx", def = "{'activityId': 1, 'monitorId': 1}", unique = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,14 +39,12 @@ public class CollectedActivity {
     private String id;
 
     /** Full ActivityPub activity ID (e.g. https://instance/users/x/statuses/123) */
-    @Indexed(unique = true)
     private String activityId;
 
     /** Activity type: Create, Update, Delete, Announce, Like, Follow, Undo, etc. */
     private String activityType;
 
     /** Actor ID who performed the activity */
-    @Indexed
     private String actorId;
 
     /** Object ID (e.g. note, article) if applicable */
@@ -47,20 +57,32 @@ public class CollectedActivity {
     private String content;
 
     /** Published timestamp from activity/object */
-    @Indexed
     private LocalDateTime publishedAt;
 
     /** Instance base URL (e.g. https://mastodon.social) */
-    @Indexed
     private String instanceUrl;
 
     /** Monitor ID that triggered collection, if applicable */
-    @Indexed
     private String monitorId;
 
+    /** contentMap language tags of the object; kept when retention compacts rawData */
+    private List<String> languages;
+
+    /** Hashtags of the object, lowercased without '#' */
+    private List<String> hashtags;
+
+    /** id of the object this one replies to, if any */
+    private String inReplyTo;
+
     /** Full activity JSON for replay or analytics */
     private Map<String, Object> rawData;
 
+    /** Gzipped rawData JSON once compacted by the retention job (see RawDataCodec) */
+    private byte[] rawDataCompressed;
+
+    /** When rawData was dropped or compressed by the retention job */
+    private LocalDateTime compactedAt;
+
     @CreatedDate
     private LocalDateTime createdAt;
 }
@@ -10,6 +10,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Document(collection = "fediverse_instances")
@@ -30,6 +31,20 @@ public class FediverseInstance {
     
     private Map<String, Object> nodeinfoData;
     
+    /** Recent health-check round trips, oldest first */
+    private List<Long> latencySamplesMs;
+    
+    private Long latencyP50Ms;
+    
+    private Long latencyP95Ms;
+    
+    /** Oversized responses and similar abuse seen from this instance */
+    private Long misbehaviorCount;
+    
+    private String lastMisbehavior;
+    
+    private LocalDateTime lastMisbehaviorAt;
+    
     @Builder.Default
     private Integer rateLimitPerMinute = 300;
     
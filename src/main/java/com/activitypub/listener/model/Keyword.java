@@ -25,7 +25,7 @@ public class Keyword {
     
     private String monitorId;
     
-    @DBRef
+    @DBRef(lazy = true)
     private DataSource dataSource;
     
     private String keywords;
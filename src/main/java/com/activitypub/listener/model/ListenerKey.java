@@ -0,0 +1,33 @@
+package com.activitypub.listener.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * RSA key pair of the listener's own ActivityPub actor, shared by all nodes. Generated on first start
+ * unless configured explicitly.
+ */
+@Document(collection = "listener_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListenerKey {
+
+    @Id
+    private String id;
+
+    private String publicKeyPem;
+
+    private String privateKeyPem;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
@@ -27,7 +27,7 @@ public class ManagedAccount {
 
     private String monitorId;
 
-    @DBRef
+    @DBRef(lazy = true)
     private DataSource dataSource;
 
     private String accountName;
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -15,6 +17,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "monitors")
+@CompoundIndexes({
+        @CompoundIndex(name = "deleted_user_created_idx", def = "{'isDeleted': 1, 'userId': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "deleted_user_name_idx", def = "{'isDeleted': 1, 'userId': 1, 'nameLower': 1}"),
+        @CompoundIndex(name = "deleted_created_idx", def = "{'isDeleted': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "deleted_datasource_created_idx", def = "{'isDeleted': 1, 'dataSourceIds': 1, 'createdAt': -1}")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -25,8 +33,12 @@ public class Monitor {
     private String id;
     
     private String name;
-    
-    @DBRef
+
+    /** Lower-cased name for index-backed search and sorting */
+    private String nameLower;
+
+    // Lazy here and in the options' dataSource; repository reads resolve them in bulk (MonitorReferenceResolver)
+    @DBRef(lazy = true)
     private MonitorType monitorType;
     
     private Long userId;
@@ -70,6 +82,16 @@ public class Monitor {
     @Builder.Default
     private List<ManagedAccount> managedAccounts = new ArrayList<>();
 
+    /** Ids of the data sources referenced by all options above, for list filtering */
+    @Builder.Default
+    private List<String> dataSourceIds = new ArrayList<>();
+
+    /** Retention tiers for this monitor's collected activities; null uses the configured defaults */
+    private RetentionPolicy retentionPolicy;
+
+    /** Fingerprint of the collection config last published for this monitor */
+    private String trackerConfigFingerprint;
+
     @CreatedDate
     private LocalDateTime createdAt;
     
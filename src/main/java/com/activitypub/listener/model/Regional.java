@@ -25,7 +25,7 @@ public class Regional {
     
     private String monitorId;
     
-    @DBRef
+    @DBRef(lazy = true)
     private DataSource dataSource;
     
     private String mbr;
@@ -0,0 +1,38 @@
+package com.activitypub.listener.model;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-monitor retention tiers for collected activities, embedded in {@link Monitor}.
+ * Ages are in days since publishedAt; null falls back to the retention.default.* settings
+ * and 0 disables that tier. Deletion, when set, must come after the archive and compaction tiers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionPolicy {
+
+    /** Drop or compress rawData after this many days (extracted fields are kept). */
+    @Min(value = 0, message = "compactAfterDays must be >= 0")
+    private Integer compactAfterDays;
+
+    private CompactionMode compactionMode;
+
+    /** Move activities to compressed local segment files after this many days. */
+    @Min(value = 0, message = "archiveAfterDays must be >= 0")
+    private Integer archiveAfterDays;
+
+    /** Delete activities (and archived segments) after this many days. */
+    @Min(value = 0, message = "deleteAfterDays must be >= 0")
+    private Integer deleteAfterDays;
+
+    public enum CompactionMode {
+        DROP,
+        COMPRESS
+    }
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -31,8 +32,19 @@ public class SocialListeningJob {
     private String status; // PENDING, PROCESSING, COMPLETED, FAILED
     private List<String> widgetsNames;
     private Map<String, Object> widgetData;
+    /** Widgets that could not be computed in-process, with the reason */
+    private Map<String, String> widgetErrors;
+    /** Widgets left to the analytics engine (not computable in-process for this request) */
+    private List<String> delegatedWidgets;
     private String nextJobId;
 
+    /** Canonical hash of the request (see SocialListeningResultCache); identical requests reuse this job */
+    @Indexed
+    private String requestKey;
+
+    /** Completed results are served to identical requests until this time */
+    private LocalDateTime cacheExpiresAt;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
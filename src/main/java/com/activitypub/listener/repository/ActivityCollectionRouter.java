@@ -0,0 +1,191 @@
+package com.activitypub.listener.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Maps collected activities to their Mongo collection.
+ * In SINGLE mode everything lives in {@code collected_activities}. In DAILY mode activities are written
+ * to {@code collected_activities_yyyyMMdd} by publishedAt, each bucket carrying only the indexes the
+ * feed, export and dedup queries need, so inserts touch fewer and smaller B-trees and time-bounded
+ * queries only open the buckets in range. The base collection stays readable in both modes: it holds
+ * undated activities and anything collected before bucketing was enabled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityCollectionRouter {
+
+    public static final String BASE_COLLECTION = "collected_activities";
+    private static final String BUCKET_PREFIX = BASE_COLLECTION + "_";
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    /** Unique activityId index from before activities were stored per monitor; it rejects a second monitor's row. */
+    public static final String LEGACY_ACTIVITY_ID_INDEX = "activityId";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${activities.storage.mode:SINGLE}")
+    private StorageMode mode;
+
+    @Value("${activities.storage.bucket-refresh-ms:60000}")
+    private long bucketRefreshMs;
+
+    /** Known bucket days; refreshed from listCollections so buckets created by other nodes are seen. */
+    private final NavigableSet<LocalDate> buckets = new ConcurrentSkipListSet<>();
+    private volatile long bucketsLoadedAt;
+    /** When this node last ensured each bucket's indexes; re-ensured after bucket-refresh-ms. */
+    private final Map<LocalDate, Long> indexesEnsuredAt = new ConcurrentHashMap<>();
+
+    public enum StorageMode {
+        SINGLE,
+        DAILY
+    }
+
+    public boolean isBucketed() {
+        return mode == StorageMode.DAILY;
+    }
+
+    /**
+     * Collection a new activity goes to, creating the day's bucket and its indexes on first use. Indexes are
+     * re-ensured every bucket-refresh-ms, so a bucket another node dropped and a write here implicitly
+     * recreated does not stay without its unique activityId index.
+     */
+    public String collectionForWrite(LocalDateTime publishedAt) {
+        if (!isBucketed() || publishedAt == null) {
+            return BASE_COLLECTION;
+        }
+        LocalDate day = publishedAt.toLocalDate();
+        Long ensuredAt = indexesEnsuredAt.get(day);
+        if (ensuredAt == null || System.currentTimeMillis() - ensuredAt >= bucketRefreshMs) {
+            ensureBucket(day);
+        }
+        return bucketName(day);
+    }
+
+    /**
+     * Collection an activity with this publishedAt would have been written to.
+     */
+    public String collectionFor(LocalDateTime publishedAt) {
+        return isBucketed() && publishedAt != null ? bucketName(publishedAt.toLocalDate()) : BASE_COLLECTION;
+    }
+
+    /**
+     * Existing buckets whose day overlaps [from, to] (either may be null), excluding the base collection.
+     */
+    public List<String> bucketsBetween(LocalDateTime from, LocalDateTime to, boolean newestFirst) {
+        if (!isBucketed()) {
+            return List.of();
+        }
+        refreshIfStale();
+        LocalDate fromDay = from != null ? from.toLocalDate() : LocalDate.MIN;
+        LocalDate toDay = to != null ? to.toLocalDate() : LocalDate.MAX;
+        if (fromDay.isAfter(toDay)) {
+            return List.of();
+        }
+        NavigableSet<LocalDate> days = buckets.subSet(fromDay, true, toDay, true);
+        List<String> names = new ArrayList<>(days.size());
+        (newestFirst ? days.descendingSet() : days).forEach(d -> names.add(bucketName(d)));
+        return names;
+    }
+
+    /**
+     * Base collection followed by every bucket overlapping [from, to], oldest bucket first.
+     */
+    public List<String> collectionsBetween(LocalDateTime from, LocalDateTime to) {
+        List<String> names = new ArrayList<>();
+        names.add(BASE_COLLECTION);
+        names.addAll(bucketsBetween(from, to, false));
+        return names;
+    }
+
+    /**
+     * Drop buckets left empty (e.g. after retention); returns how many were dropped. Today's and later buckets
+     * are kept: they are still being written to, possibly by nodes that have not noticed a drop yet.
+     */
+    public int dropEmptyBuckets() {
+        int dropped = 0;
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (String name : bucketsBetween(null, today.minusDays(1).atStartOfDay(), false)) {
+            LocalDate day = LocalDate.parse(name.substring(BUCKET_PREFIX.length()), BUCKET_FORMAT);
+            if (mongoTemplate.getCollection(name).estimatedDocumentCount() == 0) {
+                mongoTemplate.dropCollection(name);
+                buckets.remove(day);
+                indexesEnsuredAt.remove(day);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private synchronized void ensureBucket(LocalDate day) {
+        Long ensuredAt = indexesEnsuredAt.get(day);
+        if (ensuredAt != null && System.currentTimeMillis() - ensuredAt < bucketRefreshMs) {
+            return;
+        }
+        String name = bucketName(day);
+        // ensureIndex creates the collection implicitly and is idempotent across nodes
+        IndexOperations indexOps = mongoTemplate.indexOps(name);
+        indexOps.ensureIndex(new Index().on("activityId", Sort.Direction.ASC).on("monitorId", Sort.Direction.ASC)
+                .unique().named("activity_monitor_idx"));
+        dropIndexIfPresent(indexOps, LEGACY_ACTIVITY_ID_INDEX);
+        indexOps.ensureIndex(new Index().on("monitorId", Sort.Direction.ASC)
+                .on("publishedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("monitor_published_idx"));
+        indexOps.ensureIndex(new Index().on("actorId", Sort.Direction.ASC)
+                .on("publishedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("actor_published_idx"));
+        indexesEnsuredAt.put(day, System.currentTimeMillis());
+        if (buckets.add(day)) {
+            log.info("Created activity bucket {}", name);
+        }
+    }
+
+    /**
+     * Drop the named index if the collection has it; a no-op otherwise, so callers can run it on every startup.
+     *
+     * @return true if the index was dropped
+     */
+    public static boolean dropIndexIfPresent(IndexOperations indexOps, String name) {
+        boolean present = indexOps.getIndexInfo().stream().anyMatch(info -> name.equals(info.getName()));
+        if (present) {
+            indexOps.dropIndex(name);
+        }
+        return present;
+    }
+
+    private void refreshIfStale() {
+        if (System.currentTimeMillis() - bucketsLoadedAt < bucketRefreshMs) {
+            return;
+        }
+        for (String name : mongoTemplate.getCollectionNames()) {
+            if (name.startsWith(BUCKET_PREFIX)) {
+                try {
+                    buckets.add(LocalDate.parse(name.substring(BUCKET_PREFIX.length()), BUCKET_FORMAT));
+                } catch (DateTimeParseException e) {
+                    log.debug("Ignoring non-bucket collection {}", name);
+                }
+            }
+        }
+        bucketsLoadedAt = System.currentTimeMillis();
+    }
+
+    private static String bucketName(LocalDate day) {
+        return BUCKET_PREFIX + day.format(BUCKET_FORMAT);
+    }
+}
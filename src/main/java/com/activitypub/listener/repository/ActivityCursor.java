@@ -0,0 +1,53 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.CollectedActivity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over activities ordered by (publishedAt desc, _id desc).
+ * Encoded as URL-safe base64 of "publishedAt|id"; "-" stands for a missing publishedAt.
+ */
+@Data
+@AllArgsConstructor
+public class ActivityCursor {
+
+    private static final String NULL_TIMESTAMP = "-";
+
+    private LocalDateTime publishedAt;
+    private String id;
+
+    public static ActivityCursor of(CollectedActivity activity) {
+        return new ActivityCursor(activity.getPublishedAt(), activity.getId());
+    }
+
+    public String encode() {
+        String raw = (publishedAt != null ? publishedAt.toString() : NULL_TIMESTAMP) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously returned to a client; null/blank means "first page".
+     */
+    public static ActivityCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            String ts = raw.substring(0, sep);
+            String id = raw.substring(sep + 1);
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ActivityCursor(NULL_TIMESTAMP.equals(ts) ? null : LocalDateTime.parse(ts), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ActivityPubActor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unique indexes on {@code activitypub_actors}. They are not declared on the entity because auto index
+ * creation runs before any migration and fails startup while duplicates from before the natural key was
+ * enforced are still stored; {@link #mergeDuplicates} clears those first.
+ */
+public final class ActivityPubActorIndexes {
+
+    private ActivityPubActorIndexes() {
+    }
+
+    /**
+     * (instanceUrl, username) natural key, which also serves findByInstanceUrl as a prefix, and unique actorId.
+     */
+    public static List<Index> definitions() {
+        return List.of(
+                new Index().on("instanceUrl", Sort.Direction.ASC).on("username", Sort.Direction.ASC)
+                        .unique().named("instance_username_idx"),
+                new Index().on("actorId", Sort.Direction.ASC).unique().named("actorId"));
+    }
+
+    /**
+     * Keep the most recently updated actor per actorId and per case-insensitive natural key, then lowercase
+     * the remaining usernames. Actors are referenced by actorId elsewhere, so dropping the older copies
+     * loses nothing but stale profile data. Returns the number of documents removed.
+     */
+    public static int mergeDuplicates(MongoTemplate mongoTemplate) {
+        String collection = mongoTemplate.getCollectionName(ActivityPubActor.class);
+        int removed = removeDuplicates(mongoTemplate, collection, "$actorId");
+        removed += removeDuplicates(mongoTemplate, collection,
+                new Document("instanceUrl", "$instanceUrl").append("username", new Document("$toLower", "$username")));
+        mongoTemplate.updateMulti(new Query(Criteria.where("username").regex("[A-Z]")),
+                AggregationUpdate.update().set("username").toValue(StringOperators.valueOf("username").toLower()),
+                ActivityPubActor.class);
+        return removed;
+    }
+
+    private static int removeDuplicates(MongoTemplate mongoTemplate, String collection, Object groupKey) {
+        List<Document> pipeline = List.of(
+                new Document("$sort", new Document("updatedAt", -1)),
+                new Document("$group", new Document("_id", groupKey)
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$match", new Document("count", new Document("$gt", 1))));
+        List<Object> stale = new ArrayList<>();
+        for (Document group : mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+            List<?> ids = group.getList("ids", Object.class);
+            stale.addAll(ids.subList(1, ids.size()));
+        }
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        return (int) mongoTemplate.remove(new Query(Criteria.where("_id").in(stale)), collection).getDeletedCount();
+    }
+}
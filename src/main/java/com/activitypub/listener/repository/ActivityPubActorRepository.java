@@ -4,12 +4,14 @@ import com.activitypub.listener.model.ActivityPubActor;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ActivityPubActorRepository extends MongoRepository<ActivityPubActor, String> {
+public interface ActivityPubActorRepository extends MongoRepository<ActivityPubActor, String>, ActivityPubActorRepositoryCustom {
     Optional<ActivityPubActor> findByActorId(String actorId);
     List<ActivityPubActor> findByInstanceUrl(String instanceUrl);
     Optional<ActivityPubActor> findByUsernameAndInstanceUrl(String username, String instanceUrl);
+    List<ActivityPubActor> findByUsernameInAndInstanceUrlIn(Collection<String> usernames, Collection<String> instanceUrls);
 }
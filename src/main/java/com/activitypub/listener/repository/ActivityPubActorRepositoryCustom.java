@@ -0,0 +1,24 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ActivityPubActor;
+
+import java.util.List;
+
+/**
+ * Upsert operations keyed by the (instanceUrl, username) natural key. An actor whose actorId is already
+ * stored under another natural key is treated as present and updated in place.
+ */
+public interface ActivityPubActorRepositoryCustom {
+
+    /**
+     * Upsert actors keyed by username + instanceUrl in a single unordered bulk write,
+     * then return the stored documents.
+     */
+    List<ActivityPubActor> upsertAll(List<ActivityPubActor> actors);
+
+    /**
+     * Atomically insert or update one actor keyed by username + instanceUrl
+     * (findAndModify with upsert) and return the stored document.
+     */
+    ActivityPubActor upsert(ActivityPubActor actor);
+}
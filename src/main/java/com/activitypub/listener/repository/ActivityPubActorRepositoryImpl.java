@@ -0,0 +1,101 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ActivityPubActor;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class ActivityPubActorRepositoryImpl implements ActivityPubActorRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ActivityPubActor> upsertAll(List<ActivityPubActor> actors) {
+        if (actors == null || actors.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityPubActor.class);
+        for (ActivityPubActor actor : actors) {
+            bulk.upsert(naturalKey(actor), toUpdate(actor, now));
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: everything else was written. Duplicates on actorId are actors already stored
+            // under another natural key, so refresh those by actorId instead.
+            List<ActivityPubActor> present = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                present.add(actors.get(error.getIndex()));
+            }
+            BulkOperations retry = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityPubActor.class);
+            present.forEach(actor -> retry.updateOne(byActorId(actor), toUpdate(actor, now)));
+            retry.execute();
+        }
+
+        List<String> actorIds = actors.stream()
+                .map(ActivityPubActor::getActorId)
+                .collect(Collectors.toList());
+        return mongoTemplate.find(new Query(Criteria.where("actorId").in(actorIds)), ActivityPubActor.class);
+    }
+
+    @Override
+    public ActivityPubActor upsert(ActivityPubActor actor) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return mongoTemplate.findAndModify(
+                    naturalKey(actor),
+                    toUpdate(actor, now),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    ActivityPubActor.class);
+        } catch (DuplicateKeyException e) {
+            // Already present: stored under another natural key, or inserted concurrently
+            ActivityPubActor existing = mongoTemplate.findAndModify(byActorId(actor), toUpdate(actor, now),
+                    FindAndModifyOptions.options().returnNew(true), ActivityPubActor.class);
+            return existing != null ? existing : mongoTemplate.findAndModify(naturalKey(actor), toUpdate(actor, now),
+                    FindAndModifyOptions.options().returnNew(true), ActivityPubActor.class);
+        }
+    }
+
+    private static Query naturalKey(ActivityPubActor actor) {
+        return new Query(Criteria.where("instanceUrl").is(actor.getInstanceUrl())
+                .and("username").is(actor.getUsername()));
+    }
+
+    private static Query byActorId(ActivityPubActor actor) {
+        return new Query(Criteria.where("actorId").is(actor.getActorId()));
+    }
+
+    private static Update toUpdate(ActivityPubActor actor, LocalDateTime now) {
+        return new Update()
+                .set("actorType", actor.getActorType())
+                .set("inboxUrl", actor.getInboxUrl())
+                .set("outboxUrl", actor.getOutboxUrl())
+                .set("sharedInboxUrl", actor.getSharedInboxUrl())
+                .set("profileData", actor.getProfileData())
+                .set("lastCheckedAt", actor.getLastCheckedAt() != null ? actor.getLastCheckedAt() : now)
+                .set("updatedAt", now)
+                .setOnInsert("actorId", actor.getActorId())
+                .setOnInsert("createdAt", now);
+    }
+}
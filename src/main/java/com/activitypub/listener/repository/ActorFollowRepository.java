@@ -0,0 +1,15 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ActorFollow;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActorFollowRepository extends MongoRepository<ActorFollow, String> {
+    Optional<ActorFollow> findByActorId(String actorId);
+    Optional<ActorFollow> findByFollowActivityId(String followActivityId);
+    List<ActorFollow> findByMonitorIdsContains(String monitorId);
+}
@@ -0,0 +1,16 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ArchiveSegment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchiveSegmentRepository extends MongoRepository<ArchiveSegment, String> {
+    Optional<ArchiveSegment> findByMonitorIdAndDay(String monitorId, LocalDate day);
+    List<ArchiveSegment> findByMonitorIdOrderByDayAsc(String monitorId);
+    List<ArchiveSegment> findByMonitorIdAndDayBefore(String monitorId, LocalDate day);
+}
@@ -8,12 +8,12 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface CollectedActivityRepository extends MongoRepository<CollectedActivity, String> {
+public interface CollectedActivityRepository extends MongoRepository<CollectedActivity, String>, CollectedActivityRepositoryCustom {
 
-    Optional<CollectedActivity> findByActivityId(String activityId);
+    /** One row per monitor that collected the activity. */
+    List<CollectedActivity> findByActivityId(String activityId);
 
     Page<CollectedActivity> findByActorIdOrderByPublishedAtDesc(String actorId, Pageable pageable);
 
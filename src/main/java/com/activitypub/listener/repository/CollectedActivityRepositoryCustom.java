@@ -0,0 +1,38 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.CollectedActivity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Collected-activity access routed through {@link ActivityCollectionRouter}, so callers work the same
+ * whether activities live in one collection or in daily buckets.
+ * Keyset page methods return up to {@code limit + 1} rows so callers can tell whether a next page exists.
+ */
+public interface CollectedActivityRepositoryCustom {
+
+    CollectedActivity insertActivity(CollectedActivity activity);
+
+    /** Per-monitor dedup check; publishedAt picks the bucket the activity would have been written to. */
+    boolean existsActivity(String activityId, String monitorId, LocalDateTime publishedAt);
+
+    List<CollectedActivity> findMonitorActivitiesPage(String monitorId, ActivityCursor after, int limit, boolean includeRawData);
+
+    List<CollectedActivity> findActorActivitiesPage(String actorId, ActivityCursor after, int limit, boolean includeRawData);
+
+    /** Legacy page-number access, newest first. */
+    Page<CollectedActivity> findMonitorActivitiesByOffset(String monitorId, Pageable pageable, boolean includeRawData);
+
+    Page<CollectedActivity> findActorActivitiesByOffset(String actorId, Pageable pageable, boolean includeRawData);
+
+    /**
+     * A monitor's activities in [from, to] (either may be null), oldest first, as a lazily read cursor.
+     * Callers must close the stream.
+     */
+    Stream<CollectedActivity> streamMonitorActivities(String monitorId, LocalDateTime from, LocalDateTime to,
+                                                      boolean includeRawData, int batchSize);
+}
@@ -0,0 +1,227 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.CollectedActivity;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.activitypub.listener.repository.ActivityCollectionRouter.BASE_COLLECTION;
+
+@Repository
+@RequiredArgsConstructor
+public class CollectedActivityRepositoryImpl implements CollectedActivityRepositoryCustom {
+
+    /** Deepest legacy page offset served when bucketed; beyond that callers must use cursors. */
+    private static final int MAX_BUCKETED_OFFSET = 10_000;
+
+    /** Feed order across collections, matching the Mongo sort: publishedAt desc (missing last), then _id desc. */
+    private static final Comparator<CollectedActivity> NEWEST_FIRST = Comparator
+            .comparing(CollectedActivity::getPublishedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(CollectedActivity::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final ActivityCollectionRouter router;
+
+    @Override
+    public CollectedActivity insertActivity(CollectedActivity activity) {
+        return mongoTemplate.insert(activity, router.collectionForWrite(activity.getPublishedAt()));
+    }
+
+    @Override
+    public boolean existsActivity(String activityId, String monitorId, LocalDateTime publishedAt) {
+        Query query = new Query(Criteria.where("activityId").is(activityId).and("monitorId").is(monitorId));
+        String collection = router.collectionFor(publishedAt);
+        // Rows collected before bucketing was enabled stay in the base collection
+        return mongoTemplate.exists(query, CollectedActivity.class, collection)
+                || (!BASE_COLLECTION.equals(collection) && mongoTemplate.exists(query, CollectedActivity.class, BASE_COLLECTION));
+    }
+
+    @Override
+    public List<CollectedActivity> findMonitorActivitiesPage(String monitorId, ActivityCursor after, int limit, boolean includeRawData) {
+        return findPage("monitorId", monitorId, after, limit, includeRawData);
+    }
+
+    @Override
+    public List<CollectedActivity> findActorActivitiesPage(String actorId, ActivityCursor after, int limit, boolean includeRawData) {
+        return findPage("actorId", actorId, after, limit, includeRawData);
+    }
+
+    @Override
+    public Page<CollectedActivity> findMonitorActivitiesByOffset(String monitorId, Pageable pageable, boolean includeRawData) {
+        return findByOffset("monitorId", monitorId, pageable, includeRawData);
+    }
+
+    @Override
+    public Page<CollectedActivity> findActorActivitiesByOffset(String actorId, Pageable pageable, boolean includeRawData) {
+        return findByOffset("actorId", actorId, pageable, includeRawData);
+    }
+
+    @Override
+    public Stream<CollectedActivity> streamMonitorActivities(String monitorId, LocalDateTime from, LocalDateTime to,
+                                                             boolean includeRawData, int batchSize) {
+        Criteria criteria = Criteria.where("monitorId").is(monitorId);
+        if (from != null && to != null) {
+            criteria.and("publishedAt").gte(from).lte(to);
+        } else if (from != null) {
+            criteria.and("publishedAt").gte(from);
+        } else if (to != null) {
+            criteria.and("publishedAt").lte(to);
+        }
+        Sort ascending = Sort.by(Sort.Direction.ASC, "publishedAt").and(Sort.by(Sort.Direction.ASC, "_id"));
+        Stream<CollectedActivity> base = mongoTemplate.stream(
+                withProjection(new Query(criteria).with(ascending).cursorBatchSize(batchSize), includeRawData),
+                CollectedActivity.class, BASE_COLLECTION);
+        if (!router.isBucketed()) {
+            return base;
+        }
+        // Buckets are disjoint and ordered by day, so chaining them is already sorted; only base needs merging
+        Stream<CollectedActivity> buckets = router.bucketsBetween(from, to, false).stream()
+                .flatMap(bucket -> mongoTemplate.stream(
+                        withProjection(new Query(criteria).with(ascending).cursorBatchSize(batchSize), includeRawData),
+                        CollectedActivity.class, bucket));
+        return merge(base, buckets, NEWEST_FIRST.reversed());
+    }
+
+    /**
+     * Served by the (field, publishedAt desc, _id desc) compound indexes on CollectedActivity,
+     * so any page costs an index seek plus {@code limit} documents, with no count or skip.
+     * When bucketed, buckets are read newest first until the page is full and merged with the base collection.
+     */
+    private List<CollectedActivity> findPage(String field, String value, ActivityCursor after, int limit, boolean includeRawData) {
+        List<CollectedActivity> base = mongoTemplate.find(pageQuery(field, value, after, limit + 1, includeRawData),
+                CollectedActivity.class, BASE_COLLECTION);
+        // A cursor without publishedAt is already in the undated tail, which only the base collection holds
+        if (!router.isBucketed() || (after != null && after.getPublishedAt() == null)) {
+            return base;
+        }
+        List<CollectedActivity> rows = new ArrayList<>(base);
+        int fromBuckets = 0;
+        for (String bucket : router.bucketsBetween(null, after != null ? after.getPublishedAt() : null, true)) {
+            List<CollectedActivity> found = mongoTemplate.find(
+                    pageQuery(field, value, after, limit + 1 - fromBuckets, includeRawData), CollectedActivity.class, bucket);
+            rows.addAll(found);
+            fromBuckets += found.size();
+            if (fromBuckets > limit) {
+                break;
+            }
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows.size() > limit + 1 ? new ArrayList<>(rows.subList(0, limit + 1)) : rows;
+    }
+
+    private Page<CollectedActivity> findByOffset(String field, String value, Pageable pageable, boolean includeRawData) {
+        Query countQuery = new Query(Criteria.where(field).is(value));
+        if (!router.isBucketed()) {
+            Query query = withProjection(new Query(Criteria.where(field).is(value))
+                    .with(Sort.by(Sort.Direction.DESC, "publishedAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                    .with(pageable), includeRawData);
+            List<CollectedActivity> rows = mongoTemplate.find(query, CollectedActivity.class, BASE_COLLECTION);
+            return PageableExecutionUtils.getPage(rows, pageable,
+                    () -> mongoTemplate.count(countQuery, CollectedActivity.class, BASE_COLLECTION));
+        }
+        long offset = pageable.getOffset();
+        if (offset + pageable.getPageSize() > MAX_BUCKETED_OFFSET) {
+            throw new IllegalArgumentException("Page too deep; use cursor pagination beyond " + MAX_BUCKETED_OFFSET + " activities");
+        }
+        List<CollectedActivity> rows = findPage(field, value, null, (int) offset + pageable.getPageSize(), includeRawData);
+        int end = Math.min(rows.size(), (int) offset + pageable.getPageSize());
+        List<CollectedActivity> content = offset < end ? rows.subList((int) offset, end) : List.of();
+        return PageableExecutionUtils.getPage(content, pageable, () -> router.collectionsBetween(null, null).stream()
+                .mapToLong(collection -> mongoTemplate.count(countQuery, CollectedActivity.class, collection))
+                .sum());
+    }
+
+    private static Query pageQuery(String field, String value, ActivityCursor after, int fetch, boolean includeRawData) {
+        Criteria criteria = Criteria.where(field).is(value);
+        if (after != null) {
+            criteria.andOperator(afterCursor(after));
+        }
+        return withProjection(new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "publishedAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(fetch), includeRawData);
+    }
+
+    private static Query withProjection(Query query, boolean includeRawData) {
+        if (!includeRawData) {
+            query.fields().exclude("rawData", "rawDataCompressed");
+        }
+        return query;
+    }
+
+    /**
+     * Rows strictly after the cursor in (publishedAt desc, _id desc) order.
+     * Missing publishedAt sorts last in descending order.
+     */
+    private static Criteria afterCursor(ActivityCursor after) {
+        Object id = ObjectId.isValid(after.getId()) ? new ObjectId(after.getId()) : after.getId();
+        if (after.getPublishedAt() == null) {
+            return Criteria.where("publishedAt").is(null).and("_id").lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where("publishedAt").lt(after.getPublishedAt()),
+                Criteria.where("publishedAt").is(after.getPublishedAt()).and("_id").lt(id),
+                Criteria.where("publishedAt").is(null)
+        );
+    }
+
+    /**
+     * Two-way merge of individually sorted streams; closing the result closes both.
+     */
+    private static Stream<CollectedActivity> merge(Stream<CollectedActivity> left, Stream<CollectedActivity> right,
+                                                   Comparator<CollectedActivity> order) {
+        Iterator<CollectedActivity> a = left.iterator();
+        Iterator<CollectedActivity> b = right.iterator();
+        Iterator<CollectedActivity> merged = new Iterator<>() {
+            private CollectedActivity nextA = a.hasNext() ? a.next() : null;
+            private CollectedActivity nextB = b.hasNext() ? b.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextA != null || nextB != null;
+            }
+
+            @Override
+            public CollectedActivity next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CollectedActivity result;
+                if (nextB == null || (nextA != null && order.compare(nextA, nextB) <= 0)) {
+                    result = nextA;
+                    nextA = a.hasNext() ? a.next() : null;
+                } else {
+                    result = nextB;
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        left.close();
+                    } finally {
+                        right.close();
+                    }
+                });
+    }
+}
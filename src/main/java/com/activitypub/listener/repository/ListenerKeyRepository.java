@@ -0,0 +1,9 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ListenerKey;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ListenerKeyRepository extends MongoRepository<ListenerKey, String> {
+}
@@ -0,0 +1,60 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Monitor;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Denormalized monitor fields that keep list queries on indexes: {@code nameLower} for search and name
+ * sorting, {@code dataSourceIds} in place of an {@code $or} over every option type's data source reference.
+ */
+public final class MonitorListingFields {
+
+    private MonitorListingFields() {
+    }
+
+    /**
+     * Recompute the listing fields from the monitor's name and options.
+     */
+    public static void apply(Monitor monitor) {
+        monitor.setNameLower(nameLower(monitor.getName()));
+        monitor.setDataSourceIds(dataSourceIds(monitor));
+    }
+
+    public static String nameLower(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public static List<String> dataSourceIds(Monitor monitor) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (monitor.getKeywords() != null) {
+            monitor.getKeywords().forEach(k -> addId(ids, k.getDataSource()));
+        }
+        if (monitor.getAccountAnalyses() != null) {
+            monitor.getAccountAnalyses().forEach(a -> addId(ids, a.getDataSource()));
+        }
+        if (monitor.getRegionals() != null) {
+            monitor.getRegionals().forEach(r -> addId(ids, r.getDataSource()));
+        }
+        if (monitor.getManagedAccounts() != null) {
+            monitor.getManagedAccounts().forEach(m -> addId(ids, m.getDataSource()));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static void addId(Collection<String> ids, DataSource dataSource) {
+        // Read the id of an unresolved reference without loading it
+        if (dataSource instanceof LazyLoadingProxy proxy && proxy.toDBRef() != null) {
+            ids.add(String.valueOf(proxy.toDBRef().getId()));
+        } else if (dataSource != null && dataSource.getId() != null) {
+            ids.add(dataSource.getId());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.model.MonitorType;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Resolves the lazy {@code @DBRef}s of loaded monitors (the monitor type and each option's data source) with
+ * one {@code $in} query per referenced collection, so a page of monitors costs a fixed number of queries
+ * rather than one per reference. Dangling references become null, as eager resolution left them.
+ */
+@Component
+@RequiredArgsConstructor
+public class MonitorReferenceResolver {
+
+    private final MongoTemplate mongoTemplate;
+
+    public void resolve(Collection<Monitor> monitors) {
+        List<Ref<MonitorType>> monitorTypes = new ArrayList<>();
+        List<Ref<DataSource>> dataSources = new ArrayList<>();
+        for (Monitor monitor : monitors) {
+            addRef(monitorTypes, monitor.getMonitorType(), monitor::setMonitorType);
+            if (monitor.getKeywords() != null) {
+                monitor.getKeywords().forEach(k -> addRef(dataSources, k.getDataSource(), k::setDataSource));
+            }
+            if (monitor.getAccountAnalyses() != null) {
+                monitor.getAccountAnalyses().forEach(a -> addRef(dataSources, a.getDataSource(), a::setDataSource));
+            }
+            if (monitor.getRegionals() != null) {
+                monitor.getRegionals().forEach(r -> addRef(dataSources, r.getDataSource(), r::setDataSource));
+            }
+            if (monitor.getManagedAccounts() != null) {
+                monitor.getManagedAccounts().forEach(m -> addRef(dataSources, m.getDataSource(), m::setDataSource));
+            }
+        }
+        fill(monitorTypes, ids -> loadById(ids, MonitorType.class, MonitorType::getId));
+        fill(dataSources, ids -> loadById(ids, DataSource.class, DataSource::getId));
+    }
+
+    /**
+     * Loads the documents with the given raw {@code $id} values, keyed by their string id.
+     */
+    private <T> Map<String, T> loadById(Set<Object> ids, Class<T> type, Function<T, String> idOf) {
+        Map<String, T> byId = new HashMap<>();
+        for (T entity : mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), type)) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        return byId;
+    }
+
+    private static <T> void fill(List<Ref<T>> refs, Function<Set<Object>, Map<String, T>> loader) {
+        if (refs.isEmpty()) {
+            return;
+        }
+        Set<Object> ids = new LinkedHashSet<>();
+        refs.forEach(ref -> ids.add(ref.dbRef().getId()));
+        Map<String, T> byId = loader.apply(ids);
+        refs.forEach(ref -> ref.setter().accept(byId.get(String.valueOf(ref.dbRef().getId()))));
+    }
+
+    private static <T> void addRef(List<Ref<T>> refs, T value, Consumer<T> setter) {
+        // Only unresolved lazy references; anything else was set in memory
+        if (value instanceof LazyLoadingProxy proxy) {
+            DBRef dbRef = proxy.toDBRef();
+            if (dbRef != null) {
+                refs.add(new Ref<>(dbRef, setter));
+            }
+        }
+    }
+
+    private record Ref<T>(DBRef dbRef, Consumer<T> setter) {
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface MonitorRepository extends MongoRepository<Monitor, String>, MonitorRepositoryCustom {
@@ -19,8 +18,6 @@ public interface MonitorRepository extends MongoRepository<Monitor, String>, Mon
     @Query("{ 'isDeleted': false, 'name': { $regex: ?0, $options: 'i' } }")
     Page<Monitor> findByNotDeletedAndNameContaining(String search, Pageable pageable);
     
-    Optional<Monitor> findByIdAndIsDeletedFalse(String id);
-    
     List<Monitor> findByIsDeletedFalseAndPausedFalseAndIsApproved(
         Monitor.ApprovalStatus isApproved
     );
@@ -1,15 +1,24 @@
 package com.activitypub.listener.repository;
 
 import com.activitypub.listener.model.Monitor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
 
 /**
- * Custom monitor list with optional filters and sort.
+ * Custom monitor list with optional filters and sort, and single-monitor loads. Both resolve the monitor
+ * type and data source references in bulk.
  */
 public interface MonitorRepositoryCustom {
 
-    Page<Monitor> findMonitors(
+    Optional<Monitor> findByIdAndIsDeletedFalse(String id);
+
+    /**
+     * One page of monitors. With {@code countTotal} the result is a {@link Page} carrying the exact total;
+     * without, only one extra row is read to tell whether a next page exists.
+     */
+    Slice<Monitor> findMonitors(
             String search,
             String monitorTypeId,
             Long productId,
@@ -19,6 +28,7 @@ public interface MonitorRepositoryCustom {
             Long userId,
             String sortBy,
             String orderBy,
-            Pageable pageable
+            Pageable pageable,
+            boolean countTotal
     );
 }
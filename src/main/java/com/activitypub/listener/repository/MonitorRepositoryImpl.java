@@ -2,9 +2,11 @@ package com.activitypub.listener.repository;
 
 import com.activitypub.listener.model.Monitor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -12,6 +14,7 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 @Repository
@@ -19,9 +22,24 @@ import java.util.regex.Pattern;
 public class MonitorRepositoryImpl implements MonitorRepositoryCustom {
 
     private final MongoTemplate mongoTemplate;
+    private final MonitorReferenceResolver referenceResolver;
+
+    @Value("${monitors.list.prefix-search:false}")
+    private boolean prefixSearch;
+
+    @Override
+    public Optional<Monitor> findByIdAndIsDeletedFalse(String id) {
+        Query query = new Query(Criteria.where("_id").is(id).and("isDeleted").is(false));
+        Monitor monitor = mongoTemplate.findOne(query, Monitor.class);
+        if (monitor == null) {
+            return Optional.empty();
+        }
+        referenceResolver.resolve(List.of(monitor));
+        return Optional.of(monitor);
+    }
 
     @Override
-    public Page<Monitor> findMonitors(
+    public Slice<Monitor> findMonitors(
             String search,
             String monitorTypeId,
             Long productId,
@@ -31,7 +49,8 @@ public class MonitorRepositoryImpl implements MonitorRepositoryCustom {
             Long userId,
             String sortBy,
             String orderBy,
-            Pageable pageable) {
+            Pageable pageable,
+            boolean countTotal) {
 
         Criteria criteria = Criteria.where("isDeleted").is(false);
 
@@ -39,7 +58,14 @@ public class MonitorRepositoryImpl implements MonitorRepositoryCustom {
             criteria.and("userId").is(userId);
         }
         if (search != null && !search.trim().isEmpty()) {
-            criteria.and("name").regex(Pattern.quote(search.trim()), "i");
+            String term = MonitorListingFields.nameLower(search.trim());
+            if (prefixSearch) {
+                // Range on the indexed key instead of a regex, so the index bounds the scan
+                criteria.and("nameLower").gte(term).lt(term + Character.MAX_VALUE);
+            } else {
+                // Case-sensitive match on the lowered key is checked against index keys before fetching
+                criteria.and("nameLower").regex(Pattern.quote(term));
+            }
         }
         if (monitorTypeId != null && !monitorTypeId.isEmpty()) {
             criteria.and("monitorType.$id").is(monitorTypeId);
@@ -48,13 +74,7 @@ public class MonitorRepositoryImpl implements MonitorRepositoryCustom {
             criteria.and("productId").is(productId);
         }
         if (dataSourceId != null && !dataSourceId.isEmpty()) {
-            Criteria dsCriteria = new Criteria().orOperator(
-                    Criteria.where("keywords.dataSource.$id").is(dataSourceId),
-                    Criteria.where("accountAnalyses.dataSource.$id").is(dataSourceId),
-                    Criteria.where("regionals.dataSource.$id").is(dataSourceId),
-                    Criteria.where("managedAccounts.dataSource.$id").is(dataSourceId)
-            );
-            criteria.andOperator(dsCriteria);
+            criteria.and("dataSourceIds").is(dataSourceId);
         }
         if (isApproved != null) {
             criteria.and("isApproved").is(isApproved.name());
@@ -69,11 +89,20 @@ public class MonitorRepositoryImpl implements MonitorRepositoryCustom {
         Sort.Direction direction = "desc".equalsIgnoreCase(orderBy) ? Sort.Direction.DESC : Sort.Direction.ASC;
         query.with(Sort.by(direction, sortField));
 
-        long total = mongoTemplate.count(query, Monitor.class);
-        query.with(pageable);
-        List<Monitor> content = mongoTemplate.find(query, Monitor.class);
+        if (countTotal) {
+            long total = mongoTemplate.count(query, Monitor.class);
+            query.with(pageable);
+            List<Monitor> content = mongoTemplate.find(query, Monitor.class);
+            referenceResolver.resolve(content);
+            return new PageImpl<>(content, pageable, total);
+        }
 
-        return new PageImpl<>(content, pageable, total);
+        query.skip(pageable.getOffset()).limit(pageable.getPageSize() + 1);
+        List<Monitor> rows = mongoTemplate.find(query, Monitor.class);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<Monitor> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        referenceResolver.resolve(content);
+        return new SliceImpl<>(content, pageable, hasNext);
     }
 
     private static String normalizeSortField(String sortBy) {
@@ -82,7 +111,7 @@ public class MonitorRepositoryImpl implements MonitorRepositoryCustom {
             case "id":
                 return "_id";
             case "name":
-                return "name";
+                return "nameLower";
             case "created_at":
             case "createdat":
                 return "createdAt";
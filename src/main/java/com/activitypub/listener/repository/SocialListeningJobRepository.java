@@ -9,4 +9,5 @@ import java.util.Optional;
 @Repository
 public interface SocialListeningJobRepository extends MongoRepository<SocialListeningJob, String> {
     Optional<SocialListeningJob> findByIdAndMonitorId(String id, String monitorId);
+    Optional<SocialListeningJob> findFirstByRequestKeyOrderByCreatedAtDesc(String requestKey);
 }
@@ -0,0 +1,137 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.model.ArchiveSegment;
+import com.activitypub.listener.repository.ArchiveSegmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File store for cold activities: one gzip NDJSON file per monitor and publishedAt day under
+ * {@code retention.archive-dir}, with an {@link ArchiveSegment} document per file so the export path can find it.
+ * Lines are {@link CollectedActivityDTO} JSON including rawData, the same shape the export emits.
+ * Segment metadata is shared through Mongo, so with several replicas the directory must be shared storage too;
+ * a segment whose file is missing here is refused, naming the node that wrote it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityArchiveService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String UNASSIGNED = "_unassigned";
+
+    private final ArchiveSegmentRepository segmentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${retention.archive-dir:./data/archive}")
+    private String archiveDir;
+
+    @Value("${node.id:local}")
+    private String nodeId;
+
+    /**
+     * Append rows to the day's segment as a new gzip member (concatenated members read back as one stream)
+     * and sync the file before returning, so callers may delete the rows from Mongo afterwards.
+     *
+     * @return compressed bytes written
+     */
+    public long append(String monitorId, LocalDate day, List<CollectedActivityDTO> rows) throws IOException {
+        Path path = Paths.get(archiveDir, monitorId != null ? monitorId : UNASSIGNED, day + ".ndjson.gz");
+        Files.createDirectories(path.getParent());
+        long sizeBefore = Files.exists(path) ? Files.size(path) : 0L;
+        try (FileOutputStream file = new FileOutputStream(path.toFile(), true)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(file, BUFFER_SIZE), BUFFER_SIZE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip);
+            // No root-value separator: lines are copied verbatim into exports
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("");
+            for (CollectedActivityDTO row : rows) {
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            gzip.finish();
+            gzip.flush();
+            file.getFD().sync();
+        }
+        long written = Files.size(path) - sizeBefore;
+
+        ArchiveSegment segment = segmentRepository.findByMonitorIdAndDay(monitorId, day)
+                .orElseGet(() -> ArchiveSegment.builder().monitorId(monitorId).day(day).path(path.toString()).build());
+        segment.setNode(nodeId);
+        segment.setRowCount(segment.getRowCount() + rows.size());
+        segment.setCompressedBytes(segment.getCompressedBytes() + written);
+        segmentRepository.save(segment);
+        return written;
+    }
+
+    /**
+     * Segments for a monitor overlapping [fromDay, toDay] (either bound may be null), oldest first.
+     */
+    public List<ArchiveSegment> findSegments(String monitorId, LocalDate fromDay, LocalDate toDay) {
+        return segmentRepository.findByMonitorIdOrderByDayAsc(monitorId).stream()
+                .filter(s -> fromDay == null || !s.getDay().isBefore(fromDay))
+                .filter(s -> toDay == null || !s.getDay().isAfter(toDay))
+                .toList();
+    }
+
+    /**
+     * @throws IllegalStateException if the segment's file is not reachable from this node
+     */
+    public void ensureReadable(ArchiveSegment segment) {
+        if (!Files.isReadable(Paths.get(segment.getPath()))) {
+            throw new IllegalStateException("Archived activities of " + segment.getDay() + " were written on node "
+                    + segment.getNode() + " and are not available on " + nodeId
+                    + "; retention.archive-dir must be shared storage when running several replicas");
+        }
+    }
+
+    public BufferedReader open(ArchiveSegment segment) throws IOException {
+        ensureReadable(segment);
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(Paths.get(segment.getPath())), BUFFER_SIZE),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Remove segments (files and metadata) for days strictly before {@code day}.
+     *
+     * @return compressed bytes freed on disk
+     */
+    public long deleteSegmentsBefore(String monitorId, LocalDate day) {
+        long freed = 0;
+        for (ArchiveSegment segment : segmentRepository.findByMonitorIdAndDayBefore(monitorId, day)) {
+            try {
+                Path path = Paths.get(segment.getPath());
+                long size = Files.exists(path) ? Files.size(path) : 0L;
+                Files.deleteIfExists(path);
+                freed += size;
+                segmentRepository.delete(segment);
+            } catch (IOException e) {
+                log.warn("Failed to delete archive segment {}: {}", segment.getPath(), e.getMessage());
+            }
+        }
+        return freed;
+    }
+}
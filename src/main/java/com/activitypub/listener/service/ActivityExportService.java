@@ -0,0 +1,165 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.mapper.RawDataCodec;
+import com.activitypub.listener.model.ArchiveSegment;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.CollectedActivityRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a monitor's collected activities as NDJSON straight from Mongo cursors.
+ * Rows are serialized one at a time into the response, so heap stays flat regardless of
+ * result size and a slow client simply slows the cursor down (blocking writes are the backpressure).
+ * Activities archived by retention are read back from their segment files first, as they are the oldest.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MonitorService monitorService;
+    private final ActivityArchiveService archiveService;
+    private final CollectedActivityRepository collectedActivityRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${activities.export.cursor-batch-size:2000}")
+    private int cursorBatchSize;
+
+    @Value("${activities.export.flush-every:1000}")
+    private int flushEvery;
+
+    /**
+     * Check access and build the response body. Ownership, argument and unreachable-archive errors are raised
+     * here, before any bytes are written, so they still map to normal error responses.
+     *
+     * @param startDate inclusive lower bound on publishedAt (epoch seconds, UTC), or null
+     * @param endDate   inclusive upper bound on publishedAt (epoch seconds, UTC), or null
+     */
+    public StreamingResponseBody exportActivities(String monitorId, Long startDate, Long endDate,
+                                                  boolean includeRawData, boolean gzip, Long userId) {
+        monitorService.findOwnedMonitor(monitorId, userId);
+        if (startDate != null && endDate != null && endDate < startDate) {
+            throw new IllegalArgumentException("end_date must be >= start_date");
+        }
+        LocalDateTime from = toDateTime(startDate);
+        LocalDateTime to = toDateTime(endDate);
+        archiveService.findSegments(monitorId, from != null ? from.toLocalDate() : null, to != null ? to.toLocalDate() : null)
+                .forEach(archiveService::ensureReadable);
+        return out -> writeNdjson(monitorId, from, to, includeRawData,
+                gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out);
+    }
+
+    private void writeNdjson(String monitorId, LocalDateTime from, LocalDateTime to,
+                             boolean includeRawData, OutputStream target) throws IOException {
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        // Lines are separated explicitly; Jackson's default root separator would prefix each with a space
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        OutputStream out = target instanceof GZIPOutputStream ? target : new BufferedOutputStream(target, BUFFER_SIZE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<CollectedActivity> cursor = collectedActivityRepository.streamMonitorActivities(
+                     monitorId, from, to, includeRawData, cursorBatchSize)) {
+            rows += writeArchived(monitorId, from, to, includeRawData, generator, writer);
+            for (CollectedActivity activity : (Iterable<CollectedActivity>) cursor::iterator) {
+                writer.writeValue(generator, toDTO(activity, includeRawData));
+                generator.writeRaw('\n');
+                if (++rows % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Exported {} activities for monitor {} in {} ms ({} rows/s)", rows, monitorId, elapsed, rows * 1000 / elapsed);
+    }
+
+    /**
+     * Whole days inside the range are copied line for line when rawData is wanted; otherwise each
+     * line is parsed to filter on publishedAt and strip rawData.
+     */
+    private long writeArchived(String monitorId, LocalDateTime from, LocalDateTime to, boolean includeRawData,
+                               JsonGenerator generator, ObjectWriter writer) throws IOException {
+        long rows = 0;
+        LocalDate fromDay = from != null ? from.toLocalDate() : null;
+        LocalDate toDay = to != null ? to.toLocalDate() : null;
+        for (ArchiveSegment segment : archiveService.findSegments(monitorId, fromDay, toDay)) {
+            boolean wholeDay = (from == null || !segment.getDay().atStartOfDay().isBefore(from))
+                    && (to == null || segment.getDay().isBefore(toDay));
+            try (BufferedReader reader = archiveService.open(segment)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    if (wholeDay && includeRawData) {
+                        generator.writeRaw(line);
+                    } else {
+                        CollectedActivityDTO row = objectMapper.readValue(line, CollectedActivityDTO.class);
+                        if (!inRange(row.getPublishedAt(), from, to)) {
+                            continue;
+                        }
+                        if (!includeRawData) {
+                            row.setRawData(null);
+                        }
+                        writer.writeValue(generator, row);
+                    }
+                    generator.writeRaw('\n');
+                    if (++rows % flushEvery == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static boolean inRange(LocalDateTime publishedAt, LocalDateTime from, LocalDateTime to) {
+        return publishedAt != null
+                && (from == null || !publishedAt.isBefore(from))
+                && (to == null || !publishedAt.isAfter(to));
+    }
+
+    private static LocalDateTime toDateTime(Long epochSeconds) {
+        return epochSeconds != null ? LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC) : null;
+    }
+
+    private static CollectedActivityDTO toDTO(CollectedActivity a, boolean includeRawData) {
+        return CollectedActivityDTO.builder()
+                .id(a.getId())
+                .activityId(a.getActivityId())
+                .activityType(a.getActivityType())
+                .actorId(a.getActorId())
+                .objectId(a.getObjectId())
+                .objectType(a.getObjectType())
+                .content(a.getContent())
+                .publishedAt(a.getPublishedAt())
+                .instanceUrl(a.getInstanceUrl())
+                .monitorId(a.getMonitorId())
+                .rawData(includeRawData ? RawDataCodec.rawData(a) : null)
+                .createdAt(a.getCreatedAt())
+                .build();
+    }
+}
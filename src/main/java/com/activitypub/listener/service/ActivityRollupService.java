@@ -0,0 +1,419 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.SocialListeningFiltersDTO;
+import com.activitypub.listener.model.ActivityRollup;
+import com.activitypub.listener.model.CollectedActivity;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingest-time rollups: each collected activity is counted into an in-memory accumulator per
+ * (monitor, minute), and a periodic flush upserts the minute and hour {@link ActivityRollup} documents
+ * with {@code $inc}, so Mongo sees one write per monitor-minute per flush rather than per activity.
+ * Buckets whose write fails are kept and merged into the next flush, and the last flush runs on shutdown.
+ * Simple social-listening widgets are then answered from a few rollup documents instead of raw activities.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityRollupService {
+
+    public static final String VOLUME_OVER_TIME = "volume_over_time";
+    public static final String ACTIVITY_TYPES = "activity_types";
+    public static final String OBJECT_TYPES = "object_types";
+    public static final String TOP_INSTANCES = "top_instances";
+    public static final String TOP_ACTORS = "top_actors";
+    public static final String TOP_HASHTAGS = "top_hashtags";
+
+    /** Widgets that can be answered from rollups alone. */
+    public static final Set<String> ROLLUP_WIDGETS = Set.of(
+            VOLUME_OVER_TIME, ACTIVITY_TYPES, OBJECT_TYPES, TOP_INSTANCES, TOP_ACTORS, TOP_HASHTAGS);
+
+    private static final String UNKNOWN = "unknown";
+    private static final Duration MINUTE_SERIES_MAX_RANGE = Duration.ofHours(6);
+    static final String TRIM_LOCK_NAME = "rollup-trim";
+
+    private final MongoTemplate mongoTemplate;
+    private final SchedulerLock schedulerLock;
+
+    @Value("${rollups.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rollups.heavy-hitters:64}")
+    private int heavyHitterCapacity;
+
+    @Value("${rollups.top-k:100}")
+    private int topK;
+
+    @Value("${rollups.widget-top-n:10}")
+    private int widgetTopN;
+
+    @Value("${rollups.trim-lock-lease-ms:1800000}")
+    private long trimLockLeaseMs;
+
+    @Value("${rollups.minute-retention-hours:48}")
+    private int minuteRetentionHours;
+
+    private final Map<AccumulatorKey, Accumulator> pending = new ConcurrentHashMap<>();
+    /** Buckets whose last write failed; only touched under the flush lock. */
+    private final Map<BucketKey, Accumulator> unflushed = new LinkedHashMap<>();
+
+    /**
+     * Count one newly stored activity. Activities without a monitor or publishedAt are not rolled up.
+     */
+    public void record(CollectedActivity activity) {
+        if (!enabled || activity.getMonitorId() == null || activity.getPublishedAt() == null) {
+            return;
+        }
+        AccumulatorKey key = new AccumulatorKey(activity.getMonitorId(),
+                activity.getPublishedAt().truncatedTo(ChronoUnit.MINUTES));
+        List<String> hashtags = activity.getHashtags() != null ? activity.getHashtags() : List.of();
+        while (true) {
+            Accumulator accumulator = pending.computeIfAbsent(key, k -> new Accumulator(heavyHitterCapacity));
+            synchronized (accumulator) {
+                // A flush may have taken this accumulator between lookup and lock
+                if (!accumulator.closed) {
+                    accumulator.add(activity, hashtags);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rollups.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty() && unflushed.isEmpty()) {
+            return;
+        }
+        // Minute accumulators are summed per bucket, so each minute and hour document gets one $inc
+        Map<BucketKey, Accumulator> batch = new LinkedHashMap<>(unflushed);
+        unflushed.clear();
+        for (AccumulatorKey key : List.copyOf(pending.keySet())) {
+            Accumulator accumulator = pending.remove(key);
+            if (accumulator == null) {
+                continue;
+            }
+            synchronized (accumulator) {
+                accumulator.closed = true;
+            }
+            LocalDateTime hour = key.minute().truncatedTo(ChronoUnit.HOURS);
+            mergeInto(batch, new BucketKey(key.monitorId(), ActivityRollup.Granularity.MINUTE, key.minute()), accumulator);
+            mergeInto(batch, new BucketKey(key.monitorId(), ActivityRollup.Granularity.HOUR, hour), accumulator);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<BucketKey> keys = List.copyOf(batch.keySet());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        for (BucketKey key : keys) {
+            Update update = toUpdate(batch.get(key), now);
+            if (key.granularity() == ActivityRollup.Granularity.MINUTE) {
+                update.setOnInsert("expiresAt", key.bucketStart().plusHours(minuteRetentionHours));
+            } else {
+                update.set("trimmed", false);
+            }
+            bulk.upsert(bucketQuery(key.monitorId(), key.granularity(), key.bucketStart()), update);
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: only the reported writes failed; the others are applied and must not be repeated
+            for (BulkWriteError error : e.getErrors()) {
+                BucketKey key = keys.get(error.getIndex());
+                unflushed.put(key, batch.get(key));
+            }
+            log.error("Failed to flush {} of {} activity rollup buckets, retrying next flush: {}",
+                    e.getErrors().size(), keys.size(), e.getMessage());
+        } catch (RuntimeException e) {
+            keys.forEach(key -> unflushed.put(key, batch.get(key)));
+            log.error("Failed to flush {} activity rollup buckets, retrying next flush: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        if (!unflushed.isEmpty()) {
+            log.warn("{} activity rollup buckets could not be written before shutdown", unflushed.size());
+        }
+    }
+
+    private static void mergeInto(Map<BucketKey, Accumulator> batch, BucketKey key, Accumulator accumulator) {
+        // Unbounded: merged copies sum the source summaries exactly
+        batch.computeIfAbsent(key, k -> new Accumulator(Integer.MAX_VALUE)).merge(accumulator);
+    }
+
+    /**
+     * Cut heavy-hitter maps of closed hours down to top-k, folding the remainder into other*.
+     * Runs under the {@value #TRIM_LOCK_NAME} lease; each update is also conditional on updatedAt and
+     * trimmed=false, so a concurrent flush is never overwritten and no rollup has other* added twice.
+     */
+    @Scheduled(cron = "${rollups.trim-cron:0 5 * * * *}", zone = "UTC")
+    public void trimClosedHours() {
+        if (!enabled || !schedulerLock.tryAcquire(TRIM_LOCK_NAME, Duration.ofMillis(trimLockLeaseMs))) {
+            return;
+        }
+        try {
+            doTrimClosedHours();
+        } finally {
+            schedulerLock.release(TRIM_LOCK_NAME);
+        }
+    }
+
+    private void doTrimClosedHours() {
+        LocalDateTime closedBefore = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        Query query = new Query(Criteria.where("granularity").is(ActivityRollup.Granularity.HOUR)
+                .and("trimmed").is(false)
+                .and("bucketStart").lt(closedBefore));
+        int trimmed = 0;
+        for (ActivityRollup rollup : mongoTemplate.find(query, ActivityRollup.class)) {
+            Map<String, Long> actors = topEntries(rollup.getTopActors(), topK);
+            Map<String, Long> hashtags = topEntries(rollup.getTopHashtags(), topK);
+            Update update = new Update()
+                    .set("topActors", actors)
+                    .set("topHashtags", hashtags)
+                    .inc("otherActors", sum(rollup.getTopActors()) - sum(actors))
+                    .inc("otherHashtags", sum(rollup.getTopHashtags()) - sum(hashtags))
+                    .set("trimmed", true);
+            Query unchanged = new Query(Criteria.where("_id").is(rollup.getId())
+                    .and("updatedAt").is(rollup.getUpdatedAt())
+                    .and("trimmed").is(false));
+            trimmed += (int) mongoTemplate.updateFirst(unchanged, update, ActivityRollup.class).getModifiedCount();
+        }
+        if (trimmed > 0) {
+            log.info("Trimmed heavy-hitter maps of {} hourly rollups", trimmed);
+        }
+    }
+
+    /**
+     * True when every widget is rollup-backed and no filters apply (rollups are not broken down by
+     * topic, sentiment, language or account lists).
+     */
+    public boolean canAnswer(Collection<String> widgets, SocialListeningFiltersDTO filters) {
+        return enabled && widgets != null && !widgets.isEmpty()
+                && ROLLUP_WIDGETS.containsAll(widgets) && !hasFilters(filters);
+    }
+
+    /**
+     * Answer rollup widgets for [from, to]. Whole hours come from hour rollups and partial edge hours
+     * from minute rollups; short recent ranges use minute rollups throughout for a per-minute series.
+     */
+    public Map<String, Object> query(String monitorId, LocalDateTime from, LocalDateTime to, Collection<String> widgets) {
+        Summary summary = new Summary();
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        boolean minuteSeries = Duration.between(from, to).compareTo(MINUTE_SERIES_MAX_RANGE) <= 0
+                && from.isAfter(now.minusHours(minuteRetentionHours - 1L));
+        if (minuteSeries) {
+            summary.addAll(findRollups(monitorId, ActivityRollup.Granularity.MINUTE, from, to), false);
+        } else {
+            LocalDateTime firstFullHour = from.truncatedTo(ChronoUnit.HOURS).equals(from)
+                    ? from : from.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            LocalDateTime lastFullHourEnd = to.plusSeconds(1).truncatedTo(ChronoUnit.HOURS);
+            if (firstFullHour.isBefore(lastFullHourEnd)) {
+                summary.addAll(findRollups(monitorId, ActivityRollup.Granularity.MINUTE, from, firstFullHour.minusNanos(1)), true);
+                summary.addAll(findRollups(monitorId, ActivityRollup.Granularity.HOUR, firstFullHour, lastFullHourEnd.minusNanos(1)), true);
+                summary.addAll(findRollups(monitorId, ActivityRollup.Granularity.MINUTE, lastFullHourEnd, to), true);
+            } else {
+                summary.addAll(findRollups(monitorId, ActivityRollup.Granularity.MINUTE, from, to), true);
+            }
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (String widget : widgets) {
+            switch (widget) {
+                case VOLUME_OVER_TIME -> data.put(widget, Map.of(
+                        "interval", minuteSeries ? "minute" : "hour",
+                        "total", summary.total,
+                        "series", summary.series.entrySet().stream()
+                                .map(e -> Map.of("time", e.getKey().toEpochSecond(ZoneOffset.UTC), "count", e.getValue()))
+                                .toList()));
+                case ACTIVITY_TYPES -> data.put(widget, decodeKeys(summary.activityTypes));
+                case OBJECT_TYPES -> data.put(widget, decodeKeys(summary.objectTypes));
+                case TOP_INSTANCES -> data.put(widget, ranked(summary.instances));
+                case TOP_ACTORS -> data.put(widget, ranked(summary.actors));
+                case TOP_HASHTAGS -> data.put(widget, ranked(summary.hashtags));
+                default -> throw new IllegalArgumentException("Widget is not rollup-backed: " + widget);
+            }
+        }
+        return data;
+    }
+
+    private List<ActivityRollup> findRollups(String monitorId, ActivityRollup.Granularity granularity,
+                                             LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        LocalDateTime fromBucket = granularity == ActivityRollup.Granularity.MINUTE
+                ? from.truncatedTo(ChronoUnit.MINUTES) : from.truncatedTo(ChronoUnit.HOURS);
+        Query query = new Query(Criteria.where("monitorId").is(monitorId)
+                .and("granularity").is(granularity)
+                .and("bucketStart").gte(fromBucket).lte(to))
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart"));
+        return mongoTemplate.find(query, ActivityRollup.class);
+    }
+
+    private List<Map<String, Object>> ranked(Map<String, Long> counts) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        topEntries(counts, widgetTopN).forEach((key, count) -> result.add(Map.of("key", decodeKey(key), "count", count)));
+        return result;
+    }
+
+    private static Query bucketQuery(String monitorId, ActivityRollup.Granularity granularity, LocalDateTime bucketStart) {
+        return new Query(Criteria.where("monitorId").is(monitorId)
+                .and("granularity").is(granularity)
+                .and("bucketStart").is(bucketStart));
+    }
+
+    private static Update toUpdate(Accumulator accumulator, LocalDateTime now) {
+        Update update = new Update().inc("total", accumulator.total).set("updatedAt", now);
+        accumulator.activityTypes.forEach((k, v) -> update.inc("byActivityType." + encodeKey(k), v));
+        accumulator.objectTypes.forEach((k, v) -> update.inc("byObjectType." + encodeKey(k), v));
+        accumulator.instances.forEach((k, v) -> update.inc("byInstance." + encodeKey(k), v));
+        accumulator.actors.counters().forEach((k, v) -> update.inc("topActors." + encodeKey(k), v));
+        accumulator.hashtags.counters().forEach((k, v) -> update.inc("topHashtags." + encodeKey(k), v));
+        return update;
+    }
+
+    private static Map<String, Long> topEntries(Map<String, Long> counts, int limit) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        if (counts == null) {
+            return top;
+        }
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(e -> top.put(e.getKey(), e.getValue()));
+        return top;
+    }
+
+    private static long sum(Map<String, Long> counts) {
+        return counts == null ? 0 : counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static boolean hasFilters(SocialListeningFiltersDTO f) {
+        return f != null && (notEmpty(f.getTopics()) || notEmpty(f.getSentiment()) || notEmpty(f.getLanguages())
+                || notEmpty(f.getUsers()) || notEmpty(f.getExcludeUser()) || notEmpty(f.getAccountLists())
+                || notEmpty(f.getExcludeAccountLists()) || notEmpty(f.getManualTopics())
+                || f.getOwnerUsername() != null || f.getExcludeOwnerUsername() != null);
+    }
+
+    private static boolean notEmpty(Collection<?> values) {
+        return values != null && !values.isEmpty();
+    }
+
+    /** Map keys become field names, so '.' and '$' (and the escape char) are percent-encoded. */
+    static String encodeKey(String key) {
+        return key.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+    }
+
+    static String decodeKey(String key) {
+        return key.replace("%24", "$").replace("%2E", ".").replace("%25", "%");
+    }
+
+    private static Map<String, Long> decodeKeys(Map<String, Long> counts) {
+        Map<String, Long> decoded = new LinkedHashMap<>();
+        topEntries(counts, Integer.MAX_VALUE).forEach((k, v) -> decoded.put(decodeKey(k), v));
+        return decoded;
+    }
+
+    private record AccumulatorKey(String monitorId, LocalDateTime minute) {
+    }
+
+    private record BucketKey(String monitorId, ActivityRollup.Granularity granularity, LocalDateTime bucketStart) {
+    }
+
+    private static final class Accumulator {
+        private final Map<String, Long> activityTypes = new HashMap<>();
+        private final Map<String, Long> objectTypes = new HashMap<>();
+        private final Map<String, Long> instances = new HashMap<>();
+        private final HeavyHitters actors;
+        private final HeavyHitters hashtags;
+        private long total;
+        private boolean closed;
+
+        private Accumulator(int heavyHitterCapacity) {
+            this.actors = new HeavyHitters(heavyHitterCapacity);
+            this.hashtags = new HeavyHitters(heavyHitterCapacity);
+        }
+
+        private void add(CollectedActivity activity, List<String> activityHashtags) {
+            total++;
+            activityTypes.merge(orUnknown(activity.getActivityType()), 1L, Long::sum);
+            objectTypes.merge(orUnknown(activity.getObjectType()), 1L, Long::sum);
+            instances.merge(orUnknown(activity.getInstanceUrl()), 1L, Long::sum);
+            actors.add(orUnknown(activity.getActorId()));
+            activityHashtags.forEach(hashtags::add);
+        }
+
+        private void merge(Accumulator other) {
+            total += other.total;
+            other.activityTypes.forEach((k, v) -> activityTypes.merge(k, v, Long::sum));
+            other.objectTypes.forEach((k, v) -> objectTypes.merge(k, v, Long::sum));
+            other.instances.forEach((k, v) -> instances.merge(k, v, Long::sum));
+            other.actors.counters().forEach(actors::add);
+            other.hashtags.counters().forEach(hashtags::add);
+        }
+
+        private static String orUnknown(String value) {
+            return value != null && !value.isBlank() ? value : UNKNOWN;
+        }
+    }
+
+    /** Running totals across the rollup documents covering a query range (keys still encoded). */
+    private static final class Summary {
+        private final Map<String, Long> activityTypes = new HashMap<>();
+        private final Map<String, Long> objectTypes = new HashMap<>();
+        private final Map<String, Long> instances = new HashMap<>();
+        private final Map<String, Long> actors = new HashMap<>();
+        private final Map<String, Long> hashtags = new HashMap<>();
+        private final Map<LocalDateTime, Long> series = new TreeMap<>();
+        private long total;
+
+        private void addAll(List<ActivityRollup> rollups, boolean hourlySeries) {
+            for (ActivityRollup r : rollups) {
+                long count = r.getTotal() != null ? r.getTotal() : 0L;
+                total += count;
+                LocalDateTime point = hourlySeries ? r.getBucketStart().truncatedTo(ChronoUnit.HOURS) : r.getBucketStart();
+                series.merge(point, count, Long::sum);
+                mergeInto(activityTypes, r.getByActivityType());
+                mergeInto(objectTypes, r.getByObjectType());
+                mergeInto(instances, r.getByInstance());
+                mergeInto(actors, r.getTopActors());
+                mergeInto(hashtags, r.getTopHashtags());
+            }
+        }
+
+        private static void mergeInto(Map<String, Long> target, Map<String, Long> source) {
+            if (source != null) {
+                source.forEach((k, v) -> target.merge(k, v, Long::sum));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.activitypub.listener.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary: at most {@code capacity} counters, so memory stays bounded however
+ * many distinct actors or hashtags arrive. Any key seen more than total/capacity times is guaranteed
+ * to be tracked; counts can overestimate by at most the smallest counter. Not thread-safe.
+ */
+class HeavyHitters {
+
+    private final int capacity;
+    private final Map<String, Long> counters = new HashMap<>();
+
+    HeavyHitters(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(String key) {
+        add(key, 1);
+    }
+
+    /**
+     * Weighted add, used to merge summaries.
+     */
+    void add(String key, long weight) {
+        Long count = counters.get(key);
+        if (count != null) {
+            counters.put(key, count + weight);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, weight);
+            return;
+        }
+        // Evict the smallest counter; the newcomer inherits its count
+        String minKey = null;
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            if (e.getValue() < min) {
+                min = e.getValue();
+                minKey = e.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, min + weight);
+    }
+
+    Map<String, Long> counters() {
+        return counters;
+    }
+}
@@ -0,0 +1,286 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.activitypub.ActivityPubClient;
+import com.activitypub.listener.activitypub.InstanceRateLimiter;
+import com.activitypub.listener.model.FediverseInstance;
+import com.activitypub.listener.repository.FediverseInstanceRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Health of registered instances: follows {@code /.well-known/nodeinfo} to the NodeInfo document, caches
+ * software and usage figures in {@code nodeinfoData} and keeps a window of latency samples with p50/p95.
+ * A scheduled sweep probes every active instance with bounded parallelism and writes all results in one
+ * bulk update. Results feed {@link InstanceRateLimiter}: down instances are backed off and slow or degraded
+ * ones get half their configured rate, so polling spends its budget on responsive instances first.
+ * <p>
+ * Sweeps take the {@value #LOCK_NAME} {@link SchedulerLock} lease for one sweep interval and keep it, so
+ * across replicas instances are probed once per interval; replicas without the lease feed their rate
+ * limiters from the stored results instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InstanceHealthService {
+
+    static final String NODEINFO_SCHEMA_PREFIX = "http://nodeinfo.diaspora.software/ns/schema/";
+    static final String LOCK_NAME = "instance-health";
+
+    private final FediverseInstanceRepository instanceRepository;
+    private final ActivityPubClient activityPubClient;
+    private final InstanceRateLimiter instanceRateLimiter;
+    private final MongoTemplate mongoTemplate;
+    private final SchedulerLock schedulerLock;
+
+    @Value("${instances.health.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instances.health.sweep-interval-ms:300000}")
+    private long sweepIntervalMs;
+
+    @Value("${instances.health.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${instances.health.latency-window:20}")
+    private int latencyWindow;
+
+    @Value("${instances.health.slow-p95-ms:2000}")
+    private long slowP95Ms;
+
+    /**
+     * Outcome of one probe, before it is written back.
+     */
+    @Data
+    @Builder
+    public static class HealthResult {
+        private String instanceId;
+        private String instanceUrl;
+        private String status;
+        private Long latencyMs;
+        private Map<String, Object> nodeinfo;
+        private String message;
+        private LocalDateTime checkedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${instances.health.sweep-interval-ms:300000}",
+            initialDelayString = "${instances.health.initial-delay-ms:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        List<FediverseInstance> instances = instanceRepository.findByIsActiveTrue();
+        if (instances.isEmpty()) {
+            return;
+        }
+        // Not released after the sweep: the next sweep anywhere waits for the interval to pass
+        if (!schedulerLock.tryAcquire(LOCK_NAME, Duration.ofMillis(sweepIntervalMs))) {
+            instances.forEach(this::applyStoredHealth);
+            return;
+        }
+        long started = System.nanoTime();
+        // Each probe is bounded by the client's request timeout
+        List<HealthResult> results = Flux.fromIterable(instances)
+                .flatMap(this::probe, Math.max(1, maxConcurrency))
+                .collectList()
+                .block();
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+        Map<String, FediverseInstance> byId = new LinkedHashMap<>();
+        instances.forEach(i -> byId.put(i.getId(), i));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FediverseInstance.class);
+        for (HealthResult result : results) {
+            FediverseInstance instance = byId.get(result.getInstanceId());
+            List<Long> samples = latencySamples(instance, result);
+            bulk.updateOne(new Query(Criteria.where("_id").is(result.getInstanceId())), toUpdate(result, samples));
+            feedRateLimiter(instance, result.getStatus(), samples);
+        }
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            log.error("Failed to store health of {} instances: {}", results.size(), e.getMessage());
+        }
+        log.info("Health sweep checked {} instances in {} ms ({} down)", results.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis(),
+                results.stream().filter(r -> "down".equals(r.getStatus())).count());
+    }
+
+    /**
+     * Probe one instance now and store the result.
+     */
+    public HealthResult check(FediverseInstance instance) {
+        HealthResult result = probe(instance).block();
+        List<Long> samples = latencySamples(instance, result);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(instance.getId())),
+                toUpdate(result, samples), FediverseInstance.class);
+        feedRateLimiter(instance, result.getStatus(), samples);
+        return result;
+    }
+
+    /**
+     * Fetch {@code /.well-known/nodeinfo}, then the newest NodeInfo schema it links to. Latency is the
+     * well-known round trip; never errors (failures become a {@code down} result).
+     */
+    Mono<HealthResult> probe(FediverseInstance instance) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return activityPubClient.getNodeInfo(instance.getInstanceUrl())
+                    .flatMap(wellKnown -> {
+                        long latencyMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                        HealthResult.HealthResultBuilder result = HealthResult.builder()
+                                .instanceId(instance.getId())
+                                .instanceUrl(instance.getInstanceUrl())
+                                .latencyMs(latencyMs)
+                                .checkedAt(LocalDateTime.now());
+                        String documentUrl = nodeInfoLink(wellKnown);
+                        if (documentUrl == null) {
+                            return Mono.just(result.status("degraded").message("NodeInfo missing or empty").build());
+                        }
+                        return activityPubClient.getNodeInfoDocument(documentUrl)
+                                .map(document -> result.status("healthy").nodeinfo(summarize(document)).build())
+                                .switchIfEmpty(Mono.fromSupplier(() -> result.status("degraded")
+                                        .message("NodeInfo document empty").build()))
+                                .onErrorResume(e -> Mono.just(result.status("degraded")
+                                        .message("NodeInfo document unavailable: " + e.getMessage()).build()));
+                    })
+                    .switchIfEmpty(Mono.fromSupplier(() -> failed(instance, "Empty NodeInfo response")))
+                    .onErrorResume(e -> {
+                        log.warn("Health check failed for {}: {}", instance.getInstanceUrl(), e.getMessage());
+                        return Mono.just(failed(instance, e.getMessage()));
+                    });
+        });
+    }
+
+    /**
+     * Stored samples plus this probe's latency, trimmed to the window.
+     */
+    private List<Long> latencySamples(FediverseInstance instance, HealthResult result) {
+        List<Long> samples = new ArrayList<>(instance.getLatencySamplesMs() != null ? instance.getLatencySamplesMs() : List.of());
+        if (result.getLatencyMs() != null) {
+            samples.add(result.getLatencyMs());
+        }
+        return samples.size() > latencyWindow
+                ? new ArrayList<>(samples.subList(samples.size() - latencyWindow, samples.size()))
+                : samples;
+    }
+
+    private static Update toUpdate(HealthResult result, List<Long> samples) {
+        Update update = new Update()
+                .set("healthStatus", result.getStatus())
+                .set("lastHealthCheck", result.getCheckedAt());
+        if (result.getLatencyMs() != null) {
+            update.set("latencySamplesMs", samples)
+                    .set("latencyP50Ms", percentile(samples, 50))
+                    .set("latencyP95Ms", percentile(samples, 95));
+        }
+        if (result.getNodeinfo() != null) {
+            update.set("nodeinfoData", result.getNodeinfo());
+        }
+        return update;
+    }
+
+    /**
+     * Feed the rate limiter from the health another replica stored.
+     */
+    private void applyStoredHealth(FediverseInstance instance) {
+        if (instance.getLastHealthCheck() == null) {
+            return;
+        }
+        feedRateLimiter(instance, instance.getHealthStatus(),
+                instance.getLatencySamplesMs() != null ? instance.getLatencySamplesMs() : List.of());
+    }
+
+    private void feedRateLimiter(FediverseInstance instance, String status, List<Long> samples) {
+        if ("down".equals(status)) {
+            instanceRateLimiter.recordBackoff(instance.getInstanceUrl());
+            return;
+        }
+        int limit = instance.getRateLimitPerMinute() != null ? instance.getRateLimitPerMinute() : 300;
+        if ("degraded".equals(status) || (!samples.isEmpty() && percentile(samples, 95) > slowP95Ms)) {
+            limit = Math.max(1, limit / 2);
+        }
+        instanceRateLimiter.setLimitForInstance(instance.getInstanceUrl(), limit);
+    }
+
+    private static HealthResult failed(FediverseInstance instance, String message) {
+        return HealthResult.builder()
+                .instanceId(instance.getId())
+                .instanceUrl(instance.getInstanceUrl())
+                .status("down")
+                .message(message)
+                .checkedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * href of the highest NodeInfo schema version advertised, or null.
+     */
+    static String nodeInfoLink(JsonNode wellKnown) {
+        String bestRel = null;
+        String bestHref = null;
+        for (JsonNode link : wellKnown.path("links")) {
+            String rel = link.path("rel").asText("");
+            String href = link.path("href").asText("");
+            if (rel.startsWith(NODEINFO_SCHEMA_PREFIX) && href.startsWith("http")
+                    && (bestRel == null || rel.compareTo(bestRel) > 0)) {
+                bestRel = rel;
+                bestHref = href;
+            }
+        }
+        return bestHref;
+    }
+
+    /**
+     * The parts of a NodeInfo document worth keeping: software, protocols, registrations and usage.
+     */
+    static Map<String, Object> summarize(JsonNode document) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("version", document.path("version").asText(null));
+        data.put("softwareName", document.path("software").path("name").asText(null));
+        data.put("softwareVersion", document.path("software").path("version").asText(null));
+        List<String> protocols = new ArrayList<>();
+        document.path("protocols").forEach(p -> protocols.add(p.asText()));
+        data.put("protocols", protocols);
+        if (document.has("openRegistrations")) {
+            data.put("openRegistrations", document.path("openRegistrations").asBoolean());
+        }
+        JsonNode usage = document.path("usage");
+        putLong(data, "usersTotal", usage.path("users").path("total"));
+        putLong(data, "usersActiveMonth", usage.path("users").path("activeMonth"));
+        putLong(data, "usersActiveHalfyear", usage.path("users").path("activeHalfyear"));
+        putLong(data, "localPosts", usage.path("localPosts"));
+        return data;
+    }
+
+    static long percentile(List<Long> samples, int percentile) {
+        List<Long> sorted = samples.stream().sorted().toList();
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static void putLong(Map<String, Object> data, String key, JsonNode node) {
+        if (node.isNumber()) {
+            data.put(key, node.asLong());
+        }
+    }
+}
@@ -5,18 +5,12 @@ import com.activitypub.listener.dto.FediverseInstanceDTO;
 import com.activitypub.listener.exception.ResourceNotFoundException;
 import com.activitypub.listener.model.FediverseInstance;
 import com.activitypub.listener.repository.FediverseInstanceRepository;
-import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -26,11 +20,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class InstanceService {
 
-    @Value("${activitypub.request-timeout:30000}")
-    private int requestTimeout;
-
     private final FediverseInstanceRepository instanceRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final InstanceHealthService instanceHealthService;
 
     public List<FediverseInstanceDTO> listAll() {
         return instanceRepository.findByIsActiveTrue().stream()
@@ -85,39 +76,18 @@ public class InstanceService {
     }
 
     /**
-     * Check instance health (NodeInfo or root URL) and update stored status.
+     * Check instance health now (NodeInfo discovery and document) and update stored status.
      */
     public Map<String, Object> healthCheck(String id) {
         FediverseInstance instance = instanceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Instance not found: " + id));
-        String status = "down";
-        String message = null;
-        try {
-            JsonNode nodeInfo = webClientBuilder.build()
-                    .get()
-                    .uri(instance.getInstanceUrl() + "/.well-known/nodeinfo")
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .timeout(Duration.ofMillis(requestTimeout))
-                    .block();
-            if (nodeInfo != null && nodeInfo.has("links")) {
-                status = "healthy";
-            } else {
-                status = "degraded";
-                message = "NodeInfo missing or empty";
-            }
-        } catch (Exception e) {
-            message = e.getMessage();
-            log.warn("Health check failed for {}: {}", instance.getInstanceUrl(), e.getMessage());
-        }
-        instance.setLastHealthCheck(LocalDateTime.now());
-        instance.setHealthStatus(status);
-        instanceRepository.save(instance);
+        InstanceHealthService.HealthResult result = instanceHealthService.check(instance);
         return Map.of(
-                "status", status,
+                "status", result.getStatus(),
                 "instanceUrl", instance.getInstanceUrl(),
-                "lastChecked", instance.getLastHealthCheck(),
-                "message", message != null ? message : ""
+                "lastChecked", result.getCheckedAt(),
+                "latencyMs", result.getLatencyMs() != null ? result.getLatencyMs() : -1,
+                "message", result.getMessage() != null ? result.getMessage() : ""
         );
     }
 
@@ -127,6 +97,11 @@ public class InstanceService {
                 .instanceUrl(e.getInstanceUrl())
                 .instanceType(e.getInstanceType())
                 .nodeinfoUrl(e.getNodeinfoUrl())
+                .nodeinfoData(e.getNodeinfoData())
+                .latencyP50Ms(e.getLatencyP50Ms())
+                .latencyP95Ms(e.getLatencyP95Ms())
+                .misbehaviorCount(e.getMisbehaviorCount())
+                .lastMisbehavior(e.getLastMisbehavior())
                 .rateLimitPerMinute(e.getRateLimitPerMinute())
                 .isActive(e.getIsActive())
                 .healthStatus(e.getHealthStatus())
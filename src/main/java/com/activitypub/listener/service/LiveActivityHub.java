@@ -0,0 +1,303 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.model.CollectedActivity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans newly collected activities out to live subscribers (SSE) of their monitor.
+ * <p>
+ * Ingestion never waits on clients: {@link #publish} serializes the activity once and appends it to each
+ * subscriber's bounded buffer, dropping the oldest entry when the buffer is full. A small sender pool drains
+ * buffers; a subscriber is scheduled at most once at a time, so thousands of idle connections cost no threads.
+ * Dropped entries are reported to the client as a {@code lag} event, and a subscriber that keeps lagging
+ * beyond {@code activities.live.max-dropped} is disconnected. A single write that blocks longer than
+ * {@code activities.live.send-timeout-ms} (a client that stopped reading) is interrupted and the subscriber
+ * disconnected, so stalled sockets cannot hold the sender pool.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveActivityHub {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${activities.live.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${activities.live.max-dropped:10000}")
+    private long maxDropped;
+
+    @Value("${activities.live.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${activities.live.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${activities.live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${activities.live.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private ExecutorService senders;
+
+    @PostConstruct
+    void startSenders() {
+        AtomicInteger threads = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "live-activity-sender-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stopSenders() {
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * Open a live stream of the monitor's new activities (without rawData).
+     *
+     * @throws RejectedExecutionException if this node is at its subscriber limit (503 with Retry-After)
+     */
+    public SseEmitter subscribe(String monitorId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many live activity subscribers; retry later");
+        }
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(monitorId, emitter, bufferSize);
+        subscribers.computeIfAbsent(monitorId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Called on the ingest path for every newly persisted activity; never blocks on subscribers.
+     */
+    public void publish(CollectedActivity activity) {
+        Set<Subscriber> targets = subscribers.get(activity.getMonitorId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(toDTO(activity));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize activity {} for live subscribers: {}", activity.getActivityId(), e.getMessage());
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(json);
+            schedule(subscriber);
+        }
+    }
+
+    /** Keeps idle connections alive through proxies and detects clients that went away. */
+    @Scheduled(fixedDelayString = "${activities.live.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(s -> {
+            s.heartbeatDue = true;
+            schedule(s);
+        }));
+    }
+
+    /**
+     * Interrupts writes that have been blocked past the send timeout and drops their subscribers; the sender
+     * completes the emitter with an error once the write unwinds.
+     */
+    @Scheduled(fixedDelayString = "${activities.live.send-check-ms:1000}")
+    public void expireStalledSends() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        subscribers.values().forEach(set -> set.forEach(s -> {
+            if (s.interruptSendStartedBefore(cutoff)) {
+                log.info("Disconnecting stalled live subscriber for monitor {} (write blocked over {} ms)",
+                        s.monitorId, sendTimeoutMs);
+                remove(s);
+            }
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            long dropped = subscriber.takeDropped();
+            if (dropped > 0) {
+                subscriber.totalDropped += dropped;
+                if (subscriber.totalDropped > maxDropped) {
+                    log.info("Disconnecting lagging live subscriber for monitor {} ({} dropped)",
+                            subscriber.monitorId, subscriber.totalDropped);
+                    send(subscriber, SseEmitter.event().name("lag").data("{\"dropped\":" + dropped + ",\"disconnected\":true}"));
+                    subscriber.emitter.complete();
+                    remove(subscriber);
+                    return;
+                }
+                send(subscriber, SseEmitter.event().name("lag").data("{\"dropped\":" + dropped + "}"));
+            }
+            String json;
+            while (!subscriber.removed.get() && (json = subscriber.poll()) != null) {
+                send(subscriber, SseEmitter.event().name("activity").data(json));
+            }
+            if (subscriber.heartbeatDue && !subscriber.removed.get()) {
+                subscriber.heartbeatDue = false;
+                send(subscriber, SseEmitter.event().comment("ping"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.removed.get()) {
+            // Dropped by expireStalledSends while the last write was still blocked
+            subscriber.emitter.completeWithError(new IOException("Live activity write timed out"));
+        } else if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.beginSend();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.endSend();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.removed.compareAndSet(false, true)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.monitorId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private static CollectedActivityDTO toDTO(CollectedActivity a) {
+        return CollectedActivityDTO.builder()
+                .id(a.getId())
+                .activityId(a.getActivityId())
+                .activityType(a.getActivityType())
+                .actorId(a.getActorId())
+                .objectId(a.getObjectId())
+                .objectType(a.getObjectType())
+                .content(a.getContent())
+                .publishedAt(a.getPublishedAt())
+                .instanceUrl(a.getInstanceUrl())
+                .monitorId(a.getMonitorId())
+                .createdAt(a.getCreatedAt())
+                .build();
+    }
+
+    private static final class Subscriber {
+        private final String monitorId;
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final ArrayDeque<String> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private long dropped;
+        /** Sender thread blocked in the current write, if any, and when that write started. */
+        private Thread sender;
+        private long sendStartedAt;
+        /** Only touched by the (single) drain in progress. */
+        private long totalDropped;
+
+        private Subscriber(String monitorId, SseEmitter emitter, int capacity) {
+            this.monitorId = monitorId;
+            this.emitter = emitter;
+            this.capacity = capacity;
+            this.buffer = new ArrayDeque<>(Math.min(capacity, 16));
+        }
+
+        private synchronized void offer(String json) {
+            if (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                dropped++;
+            }
+            buffer.addLast(json);
+        }
+
+        private synchronized String poll() {
+            return buffer.pollFirst();
+        }
+
+        private synchronized boolean hasPending() {
+            return !buffer.isEmpty() || dropped > 0 || heartbeatDue;
+        }
+
+        private synchronized void beginSend() {
+            sender = Thread.currentThread();
+            sendStartedAt = System.nanoTime();
+        }
+
+        private synchronized void endSend() {
+            sender = null;
+            // An interrupt aimed at this write must not leak into the pool thread's next task
+            Thread.interrupted();
+        }
+
+        private synchronized boolean interruptSendStartedBefore(long cutoff) {
+            if (sender == null || sendStartedAt - cutoff > 0) {
+                return false;
+            }
+            sender.interrupt();
+            return true;
+        }
+
+        private synchronized long takeDropped() {
+            long n = dropped;
+            dropped = 0;
+            return n;
+        }
+    }
+}
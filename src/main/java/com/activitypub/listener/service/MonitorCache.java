@@ -0,0 +1,170 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.repository.MonitorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through cache of non-deleted monitors by id, so dashboard reads do not query Mongo (and resolve the
+ * monitor type and data source DBRefs) on every request.
+ * <p>
+ * Entries carry the monitor's {@code version}, which {@link MonitorService} bumps on every write. A write
+ * evicts the entry and publishes {@code id:version} on the Redis channel {@code monitors.cache.invalidation.channel};
+ * each replica then drops older entries and leaves a marker so a load that raced the write is not cached.
+ * Entries expire after {@code ttl-seconds}, which bounds staleness if an invalidation is lost; the whole cache
+ * is cleared when the channel drops. Cached monitors are shared: callers must not modify them, so write paths
+ * load from the repository instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonitorCache {
+
+    private final MonitorRepository monitorRepository;
+    private final ObjectProvider<ReactiveStringRedisTemplate> redisTemplate;
+
+    @Value("${monitors.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${monitors.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${monitors.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${monitors.cache.invalidation.enabled:true}")
+    private boolean invalidationEnabled;
+
+    @Value("${monitors.cache.invalidation.channel:monitor-cache-invalidation}")
+    private String channel;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private Disposable subscription;
+
+    /**
+     * A cached monitor, or with {@code monitor == null} a marker that versions below {@code version} are stale.
+     */
+    private record Entry(Monitor monitor, int version, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    void subscribe() {
+        ReactiveStringRedisTemplate redis = redis();
+        if (redis == null) {
+            return;
+        }
+        subscription = Flux.defer(() -> redis.listenToChannel(channel))
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(this::onInvalidation)
+                .doOnError(e -> {
+                    // Invalidations may have been missed while disconnected
+                    log.warn("Monitor cache invalidation channel failed, resubscribing: {}", e.getMessage());
+                    entries.clear();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * The non-deleted monitor with this id, from the cache when present and fresh.
+     */
+    public Optional<Monitor> find(String id) {
+        if (!enabled) {
+            return monitorRepository.findByIdAndIsDeletedFalse(id);
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(id);
+        if (entry != null && entry.monitor() != null && entry.expiresAtMillis() > now) {
+            return Optional.of(entry.monitor());
+        }
+        Optional<Monitor> loaded = monitorRepository.findByIdAndIsDeletedFalse(id);
+        loaded.ifPresent(monitor -> store(monitor, now));
+        return loaded;
+    }
+
+    /**
+     * Drop the cached copy of a monitor just written, here and on every other replica.
+     */
+    public void invalidate(Monitor saved) {
+        if (!enabled || saved.getId() == null) {
+            return;
+        }
+        int version = versionOf(saved);
+        evict(saved.getId(), version);
+        ReactiveStringRedisTemplate redis = redis();
+        if (redis != null) {
+            redis.convertAndSend(channel, saved.getId() + ":" + version)
+                    .subscribe(null, e -> log.warn("Could not publish monitor cache invalidation for {}: {}",
+                            saved.getId(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Forget versions of the monitor older than {@code version}.
+     */
+    void evict(String id, int version) {
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        entries.compute(id, (k, existing) -> existing != null && existing.version() >= version
+                ? existing
+                : new Entry(null, version, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void onInvalidation(String message) {
+        int separator = message.lastIndexOf(':');
+        try {
+            evict(message.substring(0, separator), Integer.parseInt(message.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed monitor cache invalidation '{}'", message);
+        }
+    }
+
+    private void store(Monitor monitor, long now) {
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAtMillis() <= now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        int version = versionOf(monitor);
+        long expiresAt = now + ttlSeconds * 1000;
+        entries.compute(monitor.getId(), (k, existing) ->
+                existing != null && existing.version() > version && existing.expiresAtMillis() > now
+                        ? existing
+                        : new Entry(monitor, version, expiresAt));
+    }
+
+    private ReactiveStringRedisTemplate redis() {
+        return enabled && invalidationEnabled && redisTemplate != null ? redisTemplate.getIfAvailable() : null;
+    }
+
+    static int versionOf(Monitor monitor) {
+        return monitor.getVersion() != null ? monitor.getVersion() : 0;
+    }
+}
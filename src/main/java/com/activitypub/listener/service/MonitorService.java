@@ -8,9 +8,9 @@ import com.activitypub.listener.dto.UpdateMonitorDTO;
 import com.activitypub.listener.exception.ResourceNotFoundException;
 import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
 import com.activitypub.listener.kafka.MonitorLifecycleMessage;
-import com.activitypub.listener.kafka.TrackerConfigMessage;
+import com.activitypub.listener.kafka.MonitorTrackerConfigMessage;
+import com.activitypub.listener.mapper.ActivityFeedPages;
 import com.activitypub.listener.mapper.MonitorMapper;
-import com.activitypub.listener.model.CollectedActivity;
 import com.activitypub.listener.model.*;
 import com.activitypub.listener.repository.CollectedActivityRepository;
 import com.activitypub.listener.repository.*;
@@ -18,8 +18,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -33,12 +33,13 @@ import java.util.stream.Collectors;
 public class MonitorService {
     
     private final MonitorRepository monitorRepository;
-    private final MonitorTypeRepository monitorTypeRepository;
-    private final DataSourceRepository dataSourceRepository;
     private final KeywordRepository keywordRepository;
     private final MonitorMapper monitorMapper;
     private final ActivityPubKafkaProducer kafkaProducer;
     private final CollectedActivityRepository collectedActivityRepository;
+    private final MonitorCache monitorCache;
+    private final ReferenceDataRegistry referenceData;
+    private final TrackerConfigPublisher trackerConfigPublisher;
 
     @Value("${social.listening.max-monitors-per-user:100}")
     private int maxMonitorsPerUser;
@@ -53,10 +54,11 @@ public class MonitorService {
             }
         }
 
-        MonitorType monitorType = monitorTypeRepository.findById(dto.getMonitorTypeId())
+        validateRetentionPolicy(dto.getRetentionPolicy());
+        MonitorType monitorType = referenceData.findMonitorType(dto.getMonitorTypeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor type not found: " + dto.getMonitorTypeId()));
         
-        List<DataSource> dataSources = dataSourceRepository.findAllById(dto.getDataSources());
+        List<DataSource> dataSources = referenceData.findDataSourcesById(dto.getDataSources());
         if (dataSources.size() != dto.getDataSources().size()) {
             throw new ResourceNotFoundException("One or more data sources not found");
         }
@@ -71,6 +73,7 @@ public class MonitorService {
                 .languages(dto.getLanguages())
                 .exactSearch(dto.getExactSearch() != null ? dto.getExactSearch() : false)
                 .autoSummaryWidget(dto.getAutoSummaryWidget() != null ? dto.getAutoSummaryWidget() : false)
+                .retentionPolicy(dto.getRetentionPolicy())
                 .build();
         
         // Create monitor type-specific records (embedded documents)
@@ -78,8 +81,7 @@ public class MonitorService {
             createMonitorOptions(monitor, dto.getMonitorOptions(), dataSources);
         }
         
-        monitor = monitorRepository.save(monitor);
-        sendTrackerConfigToKafka(monitor);
+        monitor = save(monitor);
         log.info("Monitor created successfully with ID: {}", monitor.getId());
         return monitorMapper.toDTO(monitor);
     }
@@ -94,35 +96,70 @@ public class MonitorService {
             Boolean paused,
             Long userId,
             String sortBy,
-            String orderBy) {
-        Page<Monitor> monitors = monitorRepository.findMonitors(
+            String orderBy,
+            boolean includeTotal) {
+        Slice<Monitor> monitors = monitorRepository.findMonitors(
                 search, monitorTypeId, productId, dataSourceId, isApproved, paused, userId,
-                sortBy, orderBy, pageable);
+                sortBy, orderBy, pageable, includeTotal);
 
         List<MonitorDTO> monitorDTOs = monitors.getContent().stream()
                 .map(monitorMapper::toDTO)
                 .collect(Collectors.toList());
 
-        PaginationResponse.PaginationInfo paginationInfo = PaginationResponse.PaginationInfo.builder()
+        PaginationResponse.PaginationInfo.PaginationInfoBuilder paginationInfo = PaginationResponse.PaginationInfo.builder()
                 .page(monitors.getNumber() + 1)
                 .perPage(monitors.getSize())
-                .total(monitors.getTotalElements())
-                .totalPages(monitors.getTotalPages())
-                .build();
+                .hasNext(monitors.hasNext());
+        if (monitors instanceof Page<Monitor> page) {
+            paginationInfo.total(page.getTotalElements()).totalPages(page.getTotalPages());
+        }
 
         return PaginationResponse.<MonitorDTO>builder()
                 .data(monitorDTOs)
-                .pagination(paginationInfo)
+                .pagination(paginationInfo.build())
                 .build();
     }
     
     public MonitorDTO getMonitor(String id, Long userId) {
-        Monitor monitor = monitorRepository.findByIdAndIsDeletedFalse(id)
+        Monitor monitor = monitorCache.find(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + id));
         ensureOwnership(monitor, userId);
         return monitorMapper.toDTO(monitor);
     }
 
+    /**
+     * Load a non-deleted monitor and apply the same ownership check as the other monitor operations.
+     * The result may be the shared cached instance and must not be modified.
+     */
+    public Monitor findOwnedMonitor(String id, Long userId) {
+        Monitor monitor = monitorCache.find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + id));
+        ensureOwnership(monitor, userId);
+        return monitor;
+    }
+
+    /**
+     * Days must not be negative, and rows cannot be deleted before they are archived or compacted.
+     */
+    static void validateRetentionPolicy(RetentionPolicy policy) {
+        if (policy == null) {
+            return;
+        }
+        int compact = nonNegativeDays("compactAfterDays", policy.getCompactAfterDays());
+        int archive = nonNegativeDays("archiveAfterDays", policy.getArchiveAfterDays());
+        int delete = nonNegativeDays("deleteAfterDays", policy.getDeleteAfterDays());
+        if (delete > 0 && (delete <= archive || delete <= compact)) {
+            throw new IllegalArgumentException("deleteAfterDays must be greater than archiveAfterDays and compactAfterDays");
+        }
+    }
+
+    private static int nonNegativeDays(String field, Integer days) {
+        if (days != null && days < 0) {
+            throw new IllegalArgumentException(field + " must be >= 0");
+        }
+        return days != null ? days : 0;
+    }
+
     private void ensureOwnership(Monitor monitor, Long userId) {
         if (userId != null && monitor.getUserId() != null && !monitor.getUserId().equals(userId)) {
             throw new IllegalStateException("Monitor does not belong to user");
@@ -146,9 +183,13 @@ public class MonitorService {
         if (dto.getAutoSummaryWidget() != null) {
             monitor.setAutoSummaryWidget(dto.getAutoSummaryWidget());
         }
+        if (dto.getRetentionPolicy() != null) {
+            validateRetentionPolicy(dto.getRetentionPolicy());
+            monitor.setRetentionPolicy(dto.getRetentionPolicy());
+        }
         
         if (dto.getMonitorTypeId() != null) {
-            MonitorType monitorType = monitorTypeRepository.findById(dto.getMonitorTypeId())
+            MonitorType monitorType = referenceData.findMonitorType(dto.getMonitorTypeId())
                     .orElseThrow(() -> new ResourceNotFoundException("Monitor type not found: " + dto.getMonitorTypeId()));
             monitor.setMonitorType(monitorType);
         }
@@ -160,49 +201,39 @@ public class MonitorService {
             monitor.getRegionals().clear();
             if (monitor.getManagedAccounts() != null) monitor.getManagedAccounts().clear();
 
-            List<DataSource> dataSources = dataSourceRepository.findAllById(dto.getDataSources());
+            List<DataSource> dataSources = referenceData.findDataSourcesById(dto.getDataSources());
             createMonitorOptions(monitor, dto.getMonitorOptions(), dataSources);
         }
         
-        monitor = monitorRepository.save(monitor);
-        sendTrackerConfigToKafka(monitor);
+        monitor = save(monitor);
         log.info("Monitor updated successfully: {}", id);
         return monitorMapper.toDTO(monitor);
     }
 
-    private void sendTrackerConfigToKafka(Monitor monitor) {
-        String monitorTypeName = monitor.getMonitorType() != null ? monitor.getMonitorType().getName() : "KEYWORD";
-        for (Keyword k : monitor.getKeywords()) {
-            TrackerConfigMessage msg = TrackerConfigMessage.builder()
-                    .trackerId(monitor.getId())
-                    .dataSourceName(k.getDataSource() != null ? k.getDataSource().getSource() : null)
-                    .monitorType(monitorTypeName)
-                    .keywords(k.getKeywords())
-                    .spamKeywords(k.getSpamKeywords())
-                    .shouldCollect(!Boolean.TRUE.equals(monitor.getPaused()) && monitor.getIsApproved() == Monitor.ApprovalStatus.APPROVED)
-                    .userId(monitor.getUserId())
-                    .build();
-            kafkaProducer.sendTrackerConfig(msg);
+    /**
+     * Persist a monitor loaded from the repository, bumping its version so cached copies are dropped and
+     * refreshing its denormalized listing fields; the collection engine is told if its config changed.
+     */
+    private Monitor save(Monitor monitor) {
+        if (monitor.getId() != null) {
+            monitor.setVersion(MonitorCache.versionOf(monitor) + 1);
         }
-        for (AccountAnalysis a : monitor.getAccountAnalyses()) {
-            TrackerConfigMessage msg = TrackerConfigMessage.builder()
-                    .trackerId(monitor.getId())
-                    .dataSourceName(a.getDataSource() != null ? a.getDataSource().getSource() : null)
-                    .monitorType(monitorTypeName)
-                    .shouldCollect(!Boolean.TRUE.equals(monitor.getPaused()) && monitor.getIsApproved() == Monitor.ApprovalStatus.APPROVED)
-                    .userId(monitor.getUserId())
-                    .extra(a.getFollow() != null ? Map.of("follow", a.getFollow()) : null)
-                    .build();
-            kafkaProducer.sendTrackerConfig(msg);
+        MonitorListingFields.apply(monitor);
+        MonitorTrackerConfigMessage trackerConfig = trackerConfigPublisher.prepare(monitor);
+        Monitor saved = monitorRepository.save(monitor);
+        monitorCache.invalidate(saved);
+        if (trackerConfig != null) {
+            trackerConfigPublisher.publish(saved, trackerConfig);
         }
+        return saved;
     }
-    
+
     public void deleteMonitor(String id, Long userId) {
         Monitor monitor = monitorRepository.findByIdAndIsDeletedFalse(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + id));
         ensureOwnership(monitor, userId);
         monitor.setIsDeleted(true);
-        monitorRepository.save(monitor);
+        save(monitor);
         log.info("Monitor soft deleted: {}", id);
     }
     
@@ -211,7 +242,7 @@ public class MonitorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + id));
         ensureOwnership(monitor, userId);
         monitor.setPaused(true);
-        monitor = monitorRepository.save(monitor);
+        monitor = save(monitor);
         log.info("Monitor paused: {}", id);
         
         return monitorMapper.toDTO(monitor);
@@ -225,7 +256,7 @@ public class MonitorService {
             throw new IllegalStateException("Monitor must be approved before resuming");
         }
         monitor.setPaused(false);
-        monitor = monitorRepository.save(monitor);
+        monitor = save(monitor);
         log.info("Monitor resumed: {}", id);
         return monitorMapper.toDTO(monitor);
     }
@@ -241,8 +272,7 @@ public class MonitorService {
         }
 
         monitor.setIsApproved(Monitor.ApprovalStatus.APPROVED);
-        monitor = monitorRepository.save(monitor);
-        sendTrackerConfigToKafka(monitor);
+        monitor = save(monitor);
 
         kafkaProducer.sendMonitorLifecycle(MonitorLifecycleMessage.builder()
                 .monitorId(monitor.getId())
@@ -256,42 +286,18 @@ public class MonitorService {
         return monitorMapper.toDTO(monitor);
     }
 
-    public PaginationResponse<CollectedActivityDTO> getActivitiesForMonitor(String monitorId, int page, int perPage, Long userId) {
-        Monitor monitor = monitorRepository.findByIdAndIsDeletedFalse(monitorId)
+    /**
+     * Activities for a monitor, newest first, by page number unless a keyset cursor on (publishedAt, _id)
+     * is given. rawData is only loaded when requested.
+     */
+    public PaginationResponse<CollectedActivityDTO> getActivitiesForMonitor(
+            String monitorId, int page, String cursor, int perPage, boolean includeRawData, Long userId) {
+        Monitor monitor = monitorCache.find(monitorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + monitorId));
         ensureOwnership(monitor, userId);
-        Pageable pageable = PageRequest.of(page - 1, Math.min(perPage, 100));
-        Page<CollectedActivity> p = collectedActivityRepository.findByMonitorIdOrderByPublishedAtDesc(monitorId, pageable);
-        List<CollectedActivityDTO> dtos = p.getContent().stream()
-                .map(this::toCollectedActivityDTO)
-                .collect(Collectors.toList());
-        PaginationResponse.PaginationInfo info = PaginationResponse.PaginationInfo.builder()
-                .page(page)
-                .perPage(perPage)
-                .total(p.getTotalElements())
-                .totalPages(p.getTotalPages())
-                .build();
-        return PaginationResponse.<CollectedActivityDTO>builder()
-                .data(dtos)
-                .pagination(info)
-                .build();
-    }
-
-    private CollectedActivityDTO toCollectedActivityDTO(CollectedActivity a) {
-        return CollectedActivityDTO.builder()
-                .id(a.getId())
-                .activityId(a.getActivityId())
-                .activityType(a.getActivityType())
-                .actorId(a.getActorId())
-                .objectId(a.getObjectId())
-                .objectType(a.getObjectType())
-                .content(a.getContent())
-                .publishedAt(a.getPublishedAt())
-                .instanceUrl(a.getInstanceUrl())
-                .monitorId(a.getMonitorId())
-                .rawData(a.getRawData())
-                .createdAt(a.getCreatedAt())
-                .build();
+        return ActivityFeedPages.page(page, cursor, perPage, includeRawData,
+                pageable -> collectedActivityRepository.findMonitorActivitiesByOffset(monitorId, pageable, includeRawData),
+                (after, limit) -> collectedActivityRepository.findMonitorActivitiesPage(monitorId, after, limit, includeRawData));
     }
 
     public MonitorDTO rejectMonitor(String id, Long userId) {
@@ -303,7 +309,7 @@ public class MonitorService {
         Monitor.ApprovalStatus newStatus = wasApproved ? Monitor.ApprovalStatus.APPROVED_REJECTED : Monitor.ApprovalStatus.UNAPPROVED_REJECTED;
 
         monitor.setIsApproved(newStatus);
-        monitor = monitorRepository.save(monitor);
+        monitor = save(monitor);
 
         kafkaProducer.sendMonitorLifecycle(MonitorLifecycleMessage.builder()
                 .monitorId(monitor.getId())
@@ -0,0 +1,173 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Metric;
+import com.activitypub.listener.model.MonitorType;
+import com.activitypub.listener.repository.DataSourceRepository;
+import com.activitypub.listener.repository.MetricRepository;
+import com.activitypub.listener.repository.MonitorTypeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the small reference collections (data sources, monitor types, active metrics) that nearly
+ * every monitor and social-listening request reads. Lookups by id and name hit immutable maps. The snapshot is
+ * loaded on first use and reloaded when a periodic check sees a collection's count or latest {@code updatedAt}
+ * change. A data source or monitor type lookup that misses falls through to Mongo and reloads on a hit, so
+ * entries added since the last check are found at once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final DataSourceRepository dataSourceRepository;
+    private final MonitorTypeRepository monitorTypeRepository;
+    private final MetricRepository metricRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${reference-data.cache.enabled:true}")
+    private boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(
+            String version,
+            Map<String, DataSource> dataSourcesById,
+            Map<String, DataSource> dataSourcesBySource,
+            Map<String, MonitorType> monitorTypesById,
+            List<Metric> activeMetrics,
+            Set<String> activeMetricNames) {
+    }
+
+    public Optional<DataSource> findDataSourceBySource(String source) {
+        if (!enabled) {
+            return dataSourceRepository.findBySource(source);
+        }
+        DataSource dataSource = snapshot().dataSourcesBySource().get(source);
+        return dataSource != null ? Optional.of(dataSource) : reloadIfFound(dataSourceRepository.findBySource(source));
+    }
+
+    /**
+     * The data sources with these ids, each once; like {@code findAllById}, unknown ids are left out.
+     */
+    public List<DataSource> findDataSourcesById(Collection<String> ids) {
+        if (!enabled) {
+            return dataSourceRepository.findAllById(ids);
+        }
+        Map<String, DataSource> byId = snapshot().dataSourcesById();
+        List<DataSource> found = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            DataSource dataSource = byId.get(id);
+            if (dataSource == null) {
+                List<DataSource> loaded = dataSourceRepository.findAllById(ids);
+                if (loaded.size() > found.size()) {
+                    reload();
+                }
+                return loaded;
+            }
+            found.add(dataSource);
+        }
+        return found;
+    }
+
+    public Optional<MonitorType> findMonitorType(String id) {
+        if (!enabled) {
+            return monitorTypeRepository.findById(id);
+        }
+        MonitorType monitorType = snapshot().monitorTypesById().get(id);
+        return monitorType != null ? Optional.of(monitorType) : reloadIfFound(monitorTypeRepository.findById(id));
+    }
+
+    public List<Metric> getActiveMetrics() {
+        return enabled ? snapshot().activeMetrics() : metricRepository.findByActiveTrue();
+    }
+
+    public Set<String> getActiveMetricNames() {
+        return enabled ? snapshot().activeMetricNames() : names(metricRepository.findByActiveTrue());
+    }
+
+    @Scheduled(fixedDelayString = "${reference-data.refresh-interval-ms:30000}",
+            initialDelayString = "${reference-data.refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return;
+        }
+        try {
+            if (!currentVersion().equals(current.version())) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reference data version check failed: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    private <T> Optional<T> reloadIfFound(Optional<T> loaded) {
+        if (loaded.isPresent()) {
+            reload();
+        }
+        return loaded;
+    }
+
+    private synchronized Snapshot reload() {
+        // Version first: a change made while loading shows up on the next check
+        String version = currentVersion();
+        Map<String, DataSource> dataSourcesById = new HashMap<>();
+        Map<String, DataSource> dataSourcesBySource = new HashMap<>();
+        for (DataSource dataSource : dataSourceRepository.findAll()) {
+            dataSourcesById.put(dataSource.getId(), dataSource);
+            dataSourcesBySource.put(dataSource.getSource(), dataSource);
+        }
+        Map<String, MonitorType> monitorTypesById = new HashMap<>();
+        monitorTypeRepository.findAll().forEach(type -> monitorTypesById.put(type.getId(), type));
+        List<Metric> activeMetrics = List.copyOf(metricRepository.findByActiveTrue());
+        snapshot = new Snapshot(version,
+                Collections.unmodifiableMap(dataSourcesById),
+                Collections.unmodifiableMap(dataSourcesBySource),
+                Collections.unmodifiableMap(monitorTypesById),
+                activeMetrics,
+                names(activeMetrics));
+        log.debug("Reference data loaded: {} data sources, {} monitor types, {} active metrics",
+                dataSourcesById.size(), monitorTypesById.size(), activeMetrics.size());
+        return snapshot;
+    }
+
+    private String currentVersion() {
+        return version(DataSource.class) + "/" + version(MonitorType.class) + "/" + version(Metric.class);
+    }
+
+    private String version(Class<?> type) {
+        Query latest = new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        latest.fields().include("updatedAt");
+        Document document = mongoTemplate.findOne(latest, Document.class, mongoTemplate.getCollectionName(type));
+        return mongoTemplate.count(new Query(), type) + "@" + (document != null ? document.get("updatedAt") : null);
+    }
+
+    private static Set<String> names(List<Metric> metrics) {
+        return metrics.stream().map(Metric::getName).collect(Collectors.toUnmodifiableSet());
+    }
+}
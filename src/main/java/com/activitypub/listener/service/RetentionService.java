@@ -0,0 +1,413 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.dto.RetentionReportDTO;
+import com.activitypub.listener.exception.ResourceNotFoundException;
+import com.activitypub.listener.mapper.RawDataCodec;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.model.RetentionPolicy;
+import com.activitypub.listener.repository.ActivityCollectionRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Tiered retention for collected_activities, applied per monitor (see {@link RetentionPolicy}):
+ * delete after N days, archive to local segment files after N days, and drop or compress rawData
+ * after N days while keeping the extracted fields that feeds and widgets read. Runs hold the
+ * {@value #LOCK_NAME} {@link SchedulerLock} lease, so with several replicas only one works at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionService {
+
+    static final String LOCK_NAME = "retention";
+
+    private final MongoTemplate mongoTemplate;
+    private final ActivityArchiveService archiveService;
+    private final ActivityCollectionRouter collectionRouter;
+    private final SchedulerLock schedulerLock;
+
+    @Value("${retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${retention.default.compact-after-days:30}")
+    private int defaultCompactAfterDays;
+
+    @Value("${retention.default.compaction-mode:COMPRESS}")
+    private RetentionPolicy.CompactionMode defaultCompactionMode;
+
+    @Value("${retention.default.archive-after-days:0}")
+    private int defaultArchiveAfterDays;
+
+    @Value("${retention.default.delete-after-days:0}")
+    private int defaultDeleteAfterDays;
+
+    @Value("${retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${retention.lock-lease-ms:21600000}")
+    private long lockLeaseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<RetentionReportDTO> lastReport = new AtomicReference<>();
+    private final AtomicReference<CacheSnapshot> lastCacheSnapshot = new AtomicReference<>();
+
+    @Scheduled(cron = "${retention.cron:0 30 3 * * *}", zone = "UTC")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (runRetention() == null) {
+                log.info("Retention skipped: another node holds the {} lease", LOCK_NAME);
+            }
+        } catch (RuntimeException e) {
+            log.error("Retention run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public RetentionReportDTO getLastReport() {
+        RetentionReportDTO report = lastReport.get();
+        if (report == null) {
+            throw new ResourceNotFoundException("No retention run has completed yet");
+        }
+        return report;
+    }
+
+    /**
+     * @return the run's report, or null if another node is running retention
+     */
+    public RetentionReportDTO runRetention() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A retention run is already in progress");
+        }
+        try {
+            if (!schedulerLock.tryAcquire(LOCK_NAME, Duration.ofMillis(lockLeaseMs))) {
+                return null;
+            }
+            try {
+                return doRun();
+            } finally {
+                schedulerLock.release(LOCK_NAME);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RetentionReportDTO doRun() {
+        long started = System.currentTimeMillis();
+        RetentionReportDTO report = RetentionReportDTO.builder()
+                .startedAt(LocalDateTime.now(ZoneOffset.UTC))
+                .compactedRows(0L).compactedRawBytes(0L).compressedBytes(0L)
+                .archivedRows(0L).archivedDocumentBytes(0L).archiveBytesWritten(0L)
+                .deletedRows(0L).deletedDocumentBytes(0L).deletedArchiveBytes(0L)
+                .build();
+
+        CacheSnapshot cacheBefore = cacheSnapshot();
+        Document statsBefore = collStats();
+        report.setCacheHitRatioSinceLastRun(CacheSnapshot.hitRatio(lastCacheSnapshot.get(), cacheBefore));
+        report.setCacheBytesBefore(cacheBefore != null ? cacheBefore.bytesInCache() : null);
+        report.setCollectionSizeBefore(longValue(statsBefore, "size"));
+        report.setStorageSizeBefore(longValue(statsBefore, "storageSize"));
+
+        // Only id and retentionPolicy are needed, which also skips DBRef resolution on monitorType
+        Query monitors = new Query();
+        monitors.fields().include("_id", "retentionPolicy");
+        int processed = 0;
+        for (Monitor monitor : mongoTemplate.find(monitors, Monitor.class)) {
+            applyPolicy(monitor.getId(), monitor.getRetentionPolicy(), report);
+            processed++;
+        }
+        // Activities collected outside any monitor follow the defaults
+        applyPolicy(null, null, report);
+        int droppedBuckets = collectionRouter.dropEmptyBuckets();
+        if (droppedBuckets > 0) {
+            log.info("Dropped {} empty activity buckets", droppedBuckets);
+        }
+
+        CacheSnapshot cacheAfter = cacheSnapshot();
+        Document statsAfter = collStats();
+        lastCacheSnapshot.set(cacheAfter);
+        report.setCacheBytesAfter(cacheAfter != null ? cacheAfter.bytesInCache() : null);
+        report.setCollectionSizeAfter(longValue(statsAfter, "size"));
+        report.setStorageSizeAfter(longValue(statsAfter, "storageSize"));
+        report.setMonitorsProcessed(processed);
+        report.setReclaimedBytes(report.getCompactedRawBytes() - report.getCompressedBytes()
+                + report.getArchivedDocumentBytes() + report.getDeletedDocumentBytes());
+        report.setDurationMs(System.currentTimeMillis() - started);
+        lastReport.set(report);
+
+        log.info("Retention run finished in {} ms: {} monitors, compacted {} rows, archived {} rows, deleted {} rows, ~{} bytes reclaimed, cache hit ratio since last run {}",
+                report.getDurationMs(), processed, report.getCompactedRows(), report.getArchivedRows(),
+                report.getDeletedRows(), report.getReclaimedBytes(), report.getCacheHitRatioSinceLastRun());
+        return report;
+    }
+
+    /**
+     * Cheapest tier first: rows deleted or archived never need compacting.
+     */
+    private void applyPolicy(String monitorId, RetentionPolicy policy, RetentionReportDTO report) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        int deleteAfter = days(policy != null ? policy.getDeleteAfterDays() : null, defaultDeleteAfterDays);
+        int archiveAfter = days(policy != null ? policy.getArchiveAfterDays() : null, defaultArchiveAfterDays);
+        int compactAfter = days(policy != null ? policy.getCompactAfterDays() : null, defaultCompactAfterDays);
+        RetentionPolicy.CompactionMode mode = policy != null && policy.getCompactionMode() != null
+                ? policy.getCompactionMode() : defaultCompactionMode;
+
+        if (deleteAfter > 0) {
+            LocalDateTime cutoff = now.minusDays(deleteAfter);
+            for (String collection : collectionRouter.collectionsBetween(null, cutoff)) {
+                deleteOlderThan(collection, monitorId, cutoff, report);
+            }
+            report.setDeletedArchiveBytes(report.getDeletedArchiveBytes()
+                    + archiveService.deleteSegmentsBefore(monitorId, cutoff.toLocalDate()));
+        }
+        if (archiveAfter > 0) {
+            LocalDateTime cutoff = now.minusDays(archiveAfter);
+            for (String collection : collectionRouter.collectionsBetween(null, cutoff)) {
+                archiveOlderThan(collection, monitorId, cutoff, report);
+            }
+        }
+        if (compactAfter > 0) {
+            LocalDateTime cutoff = now.minusDays(compactAfter);
+            for (String collection : collectionRouter.collectionsBetween(null, cutoff)) {
+                compactOlderThan(collection, monitorId, cutoff, mode, report);
+            }
+        }
+    }
+
+    private void deleteOlderThan(String collection, String monitorId, LocalDateTime cutoff, RetentionReportDTO report) {
+        Criteria criteria = olderThan(monitorId, cutoff);
+        long bytes = sumBsonSize(collection, criteria, "$$ROOT");
+        long rows = mongoTemplate.remove(new Query(criteria), CollectedActivity.class, collection).getDeletedCount();
+        report.setDeletedRows(report.getDeletedRows() + rows);
+        report.setDeletedDocumentBytes(report.getDeletedDocumentBytes() + bytes);
+    }
+
+    /**
+     * Streams rows oldest first, appends each day's rows to its segment file, and only removes
+     * them from Mongo once the file is synced. A crash in between can duplicate rows in the archive,
+     * never lose them.
+     */
+    private void archiveOlderThan(String collection, String monitorId, LocalDateTime cutoff, RetentionReportDTO report) {
+        Query query = new Query(olderThan(monitorId, cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "publishedAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .cursorBatchSize(batchSize);
+        List<CollectedActivityDTO> rows = new ArrayList<>(batchSize);
+        List<String> ids = new ArrayList<>(batchSize);
+        LocalDate day = null;
+        try (Stream<CollectedActivity> cursor = mongoTemplate.stream(query, CollectedActivity.class, collection)) {
+            for (CollectedActivity activity : (Iterable<CollectedActivity>) cursor::iterator) {
+                LocalDate activityDay = activity.getPublishedAt().toLocalDate();
+                if (!activityDay.equals(day) || rows.size() >= batchSize) {
+                    flushArchive(collection, monitorId, day, rows, ids, report);
+                    day = activityDay;
+                }
+                rows.add(toArchiveRow(activity));
+                ids.add(activity.getId());
+            }
+            flushArchive(collection, monitorId, day, rows, ids, report);
+        }
+    }
+
+    private void flushArchive(String collection, String monitorId, LocalDate day, List<CollectedActivityDTO> rows, List<String> ids,
+                              RetentionReportDTO report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Criteria byIds = Criteria.where("_id").in(ids);
+        long bytes = sumBsonSize(collection, byIds, "$$ROOT");
+        long written;
+        try {
+            written = archiveService.append(monitorId, day, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive activities for monitor " + monitorId, e);
+        }
+        mongoTemplate.remove(new Query(byIds), CollectedActivity.class, collection);
+        report.setArchivedRows(report.getArchivedRows() + rows.size());
+        report.setArchivedDocumentBytes(report.getArchivedDocumentBytes() + bytes);
+        report.setArchiveBytesWritten(report.getArchiveBytesWritten() + written);
+        rows.clear();
+        ids.clear();
+    }
+
+    private void compactOlderThan(String collection, String monitorId, LocalDateTime cutoff, RetentionPolicy.CompactionMode mode,
+                                  RetentionReportDTO report) {
+        Criteria criteria = olderThan(monitorId, cutoff).and("rawData").ne(null);
+        long rawBytes = sumBsonSize(collection, criteria, "$rawData");
+        if (rawBytes == 0) {
+            return;
+        }
+        long rows;
+        long compressed = 0;
+        if (mode == RetentionPolicy.CompactionMode.DROP) {
+            Update update = new Update().unset("rawData").set("compactedAt", LocalDateTime.now(ZoneOffset.UTC));
+            rows = mongoTemplate.updateMulti(new Query(criteria), update, CollectedActivity.class, collection).getModifiedCount();
+        } else {
+            long[] totals = compress(collection, criteria);
+            rows = totals[0];
+            compressed = totals[1];
+        }
+        report.setCompactedRows(report.getCompactedRows() + rows);
+        report.setCompactedRawBytes(report.getCompactedRawBytes() + rawBytes);
+        report.setCompressedBytes(report.getCompressedBytes() + compressed);
+    }
+
+    /**
+     * @return {rows compacted, compressed bytes written}
+     */
+    private long[] compress(String collection, Criteria criteria) {
+        Query query = new Query(criteria).cursorBatchSize(batchSize);
+        query.fields().include("_id", "rawData");
+        long rows = 0;
+        long bytes = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<CollectedActivity> cursor = mongoTemplate.stream(query, CollectedActivity.class, collection)) {
+            for (CollectedActivity activity : (Iterable<CollectedActivity>) cursor::iterator) {
+                // Rows updated earlier in this pass can be returned again by the cursor
+                if (activity.getRawData() == null) {
+                    continue;
+                }
+                byte[] compressed = RawDataCodec.compress(activity.getRawData());
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CollectedActivity.class, collection);
+                }
+                bulk.updateOne(new Query(Criteria.where("_id").is(activity.getId())), new Update()
+                        .set("rawDataCompressed", compressed)
+                        .unset("rawData")
+                        .set("compactedAt", LocalDateTime.now(ZoneOffset.UTC)));
+                bytes += compressed.length;
+                rows++;
+                if (++pending >= batchSize) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+        return new long[] {rows, bytes};
+    }
+
+    private static Criteria olderThan(String monitorId, LocalDateTime cutoff) {
+        return Criteria.where("monitorId").is(monitorId).and("publishedAt").lt(cutoff);
+    }
+
+    private static int days(Integer configured, int fallback) {
+        return configured != null ? configured : fallback;
+    }
+
+    private static CollectedActivityDTO toArchiveRow(CollectedActivity a) {
+        return CollectedActivityDTO.builder()
+                .id(a.getId())
+                .activityId(a.getActivityId())
+                .activityType(a.getActivityType())
+                .actorId(a.getActorId())
+                .objectId(a.getObjectId())
+                .objectType(a.getObjectType())
+                .content(a.getContent())
+                .publishedAt(a.getPublishedAt())
+                .instanceUrl(a.getInstanceUrl())
+                .monitorId(a.getMonitorId())
+                .rawData(RawDataCodec.rawData(a))
+                .createdAt(a.getCreatedAt())
+                .build();
+    }
+
+    private long sumBsonSize(String collection, Criteria criteria, String expression) {
+        TypedAggregation<CollectedActivity> aggregation = Aggregation.newAggregation(CollectedActivity.class,
+                Aggregation.match(criteria),
+                context -> new Document("$group", new Document("_id", null)
+                        .append("bytes", new Document("$sum", new Document("$bsonSize", expression)))));
+        Document result = mongoTemplate.aggregate(aggregation, collection, Document.class).getUniqueMappedResult();
+        Long bytes = longValue(result, "bytes");
+        return bytes != null ? bytes : 0L;
+    }
+
+    /**
+     * size and storageSize summed over the base collection and any daily buckets.
+     */
+    private Document collStats() {
+        try {
+            long size = 0;
+            long storageSize = 0;
+            for (String collection : collectionRouter.collectionsBetween(null, null)) {
+                Document stats = mongoTemplate.executeCommand(new Document("collStats", collection));
+                size += longValue(stats, "size") != null ? longValue(stats, "size") : 0L;
+                storageSize += longValue(stats, "storageSize") != null ? longValue(stats, "storageSize") : 0L;
+            }
+            return new Document("size", size).append("storageSize", storageSize);
+        } catch (RuntimeException e) {
+            log.debug("collStats unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CacheSnapshot cacheSnapshot() {
+        try {
+            Document status = mongoTemplate.executeCommand(new Document("serverStatus", 1));
+            Object wiredTiger = status.get("wiredTiger");
+            if (!(wiredTiger instanceof Map<?, ?> wt) || !(wt.get("cache") instanceof Document cache)) {
+                return null;
+            }
+            return new CacheSnapshot(longValue(cache, "pages requested from the cache"),
+                    longValue(cache, "pages read into cache"),
+                    longValue(cache, "bytes currently in the cache"));
+        } catch (RuntimeException e) {
+            log.debug("serverStatus unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Long longValue(Document document, String key) {
+        if (document == null) {
+            return null;
+        }
+        Object value = document.get(key);
+        return value instanceof Number n ? n.longValue() : null;
+    }
+
+    private record CacheSnapshot(Long pagesRequested, Long pagesReadIntoCache, Long bytesInCache) {
+
+        static Double hitRatio(CacheSnapshot from, CacheSnapshot to) {
+            if (from == null || to == null || from.pagesRequested == null || to.pagesRequested == null
+                    || from.pagesReadIntoCache == null || to.pagesReadIntoCache == null) {
+                return null;
+            }
+            long requested = to.pagesRequested - from.pagesRequested;
+            long misses = to.pagesReadIntoCache - from.pagesReadIntoCache;
+            return requested > 0 ? 1.0 - (double) misses / requested : null;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.activitypub.listener.dto.SavedFilterDTO;
 import com.activitypub.listener.exception.ResourceNotFoundException;
 import com.activitypub.listener.model.Monitor;
 import com.activitypub.listener.model.SavedFilter;
-import com.activitypub.listener.repository.MonitorRepository;
 import com.activitypub.listener.repository.SavedFilterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +26,7 @@ public class SavedFilterService {
     private int maxFiltersPerMonitor;
 
     private final SavedFilterRepository savedFilterRepository;
-    private final MonitorRepository monitorRepository;
+    private final MonitorCache monitorCache;
 
     public List<SavedFilterDTO> getFilters(String monitorId, Long userId) {
         ensureMonitorExistsAndOwnedByUser(monitorId, userId);
@@ -54,7 +53,7 @@ public class SavedFilterService {
     }
 
     private void ensureMonitorExistsAndOwnedByUser(String monitorId, Long userId) {
-        Monitor monitor = monitorRepository.findByIdAndIsDeletedFalse(monitorId)
+        Monitor monitor = monitorCache.find(monitorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + monitorId));
         if (userId != null && !monitor.getUserId().equals(userId)) {
             throw new IllegalStateException("Monitor does not belong to user");
@@ -0,0 +1,61 @@
+package com.activitypub.listener.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Cluster-wide lease for scheduled jobs that must run on one replica at a time, one document per job in
+ * {@code scheduler_locks}. The lease is held until released or until {@code lockedUntil} passes, so a
+ * crashed holder blocks the job for at most one lease.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLock {
+
+    static final String COLLECTION = "scheduler_locks";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${node.id:local}")
+    private String nodeId;
+
+    /**
+     * Take the lease on {@code name} if it is free or expired. An upsert against a lease still held fails on
+     * the {@code _id} index, so only one replica can win.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        Date now = new Date();
+        Query free = new Query(Criteria.where("_id").is(name).and("lockedUntil").lte(now));
+        Update take = new Update()
+                .set("owner", nodeId)
+                .set("lockedAt", now)
+                .set("lockedUntil", new Date(now.getTime() + lease.toMillis()));
+        try {
+            mongoTemplate.upsert(free, take, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Lease {} is held by another node", name);
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(name).and("owner").is(nodeId)),
+                new Update().set("lockedUntil", new Date()), COLLECTION);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
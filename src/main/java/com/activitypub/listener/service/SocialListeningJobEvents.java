@@ -0,0 +1,116 @@
+package com.activitypub.listener.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * In-process progress events for social-listening jobs, pushed to SSE subscribers as
+ * {@link SocialListeningJobRunner} completes each widget. Only the node running a job can stream it;
+ * elsewhere a subscriber gets the current snapshot and is asked to reconnect later.
+ * <p>
+ * Events: {@code snapshot} (same shape as the job status response), {@code widget} ({widget, data}),
+ * {@code widget_error} ({widget, error}) and {@code status} ({status}); the stream ends once the job
+ * is COMPLETED or FAILED.
+ */
+@Service
+@Slf4j
+public class SocialListeningJobEvents {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED");
+
+    @Value("${social.listening.stream.timeout-ms:300000}")
+    private long timeoutMs;
+
+    @Value("${social.listening.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Open a stream for the job. The snapshot is loaded after subscribing so no transition is missed;
+     * exceptions from it (job not found) propagate before anything is sent.
+     */
+    public SseEmitter subscribe(String jobId, Supplier<Map<String, Object>> snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        boolean live = runningJobs.contains(jobId);
+        if (live) {
+            subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+            emitter.onCompletion(() -> unsubscribe(jobId, emitter));
+            emitter.onTimeout(() -> unsubscribe(jobId, emitter));
+            emitter.onError(e -> unsubscribe(jobId, emitter));
+        }
+        Map<String, Object> current;
+        try {
+            current = snapshot.get();
+        } catch (RuntimeException e) {
+            unsubscribe(jobId, emitter);
+            throw e;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").reconnectTime(reconnectMs)
+                    .data(current, MediaType.APPLICATION_JSON));
+            if (!live || TERMINAL_STATUSES.contains(String.valueOf(current.get("status")))) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, or the job finished (and completed the emitter) while loading the snapshot
+            unsubscribe(jobId, emitter);
+        }
+        return emitter;
+    }
+
+    void jobStarted(String jobId) {
+        runningJobs.add(jobId);
+    }
+
+    void widgetCompleted(String jobId, String widget, Object data) {
+        publish(jobId, "widget", Map.of("widget", widget, "data", data != null ? data : Map.of()));
+    }
+
+    void widgetFailed(String jobId, String widget, String error) {
+        publish(jobId, "widget_error", Map.of("widget", widget, "error", error));
+    }
+
+    void jobFinished(String jobId, String status) {
+        runningJobs.remove(jobId);
+        publish(jobId, "status", Map.of("status", status));
+        List<SseEmitter> emitters = subscribers.remove(jobId);
+        if (emitters != null) {
+            emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    private void publish(String jobId, String name, Map<String, Object> payload) {
+        List<SseEmitter> emitters = subscribers.get(jobId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(payload, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping job {} subscriber: {}", jobId, e.getMessage());
+                unsubscribe(jobId, emitter);
+            }
+        }
+    }
+
+    private void unsubscribe(String jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.SocialListeningRequestDTO;
+import com.activitypub.listener.model.SocialListeningJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs social-listening jobs in-process: every widget that can be answered locally is computed in parallel
+ * on a bounded pool and written to {@code widgetData.<widget>} as soon as it is ready; the job is COMPLETED
+ * once they are done (FAILED only if every local widget failed). Per-widget failures go to {@code widgetErrors}.
+ * Widgets (or filters) only the analytics engine can answer are listed in {@code delegatedWidgets} and left to
+ * it; a job made only of those stays PENDING. Every step is also published to {@link SocialListeningJobEvents}
+ * for streaming subscribers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SocialListeningJobRunner {
+
+    private final WidgetQueryService widgetQueryService;
+    private final MongoTemplate mongoTemplate;
+    private final SocialListeningJobEvents jobEvents;
+
+    @Value("${social.listening.executor.pool-size:8}")
+    private int poolSize;
+
+    @Value("${social.listening.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "widget-query-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start computing the job's widgets; returns immediately.
+     */
+    public void submit(SocialListeningJob job, SocialListeningRequestDTO request) {
+        if (job.getWidgetsNames() == null || job.getWidgetsNames().isEmpty()) {
+            return;
+        }
+        boolean engineFilters = !WidgetQueryService.engineOnlyFilters(request.getFilters()).isEmpty();
+        List<String> widgets = new ArrayList<>();
+        List<String> delegated = new ArrayList<>();
+        for (String widget : job.getWidgetsNames()) {
+            (!engineFilters && WidgetQueryService.LOCAL_WIDGETS.contains(widget) ? widgets : delegated).add(widget);
+        }
+        if (!delegated.isEmpty()) {
+            mongoTemplate.updateFirst(byId(job.getId()), new Update().set("delegatedWidgets", delegated), SocialListeningJob.class);
+        }
+        if (widgets.isEmpty()) {
+            log.info("Social listening job {} left to the analytics engine ({} widgets)", job.getId(), delegated.size());
+            return;
+        }
+        jobEvents.jobStarted(job.getId());
+        setStatus(job.getId(), "PROCESSING");
+        LocalDateTime from = LocalDateTime.ofEpochSecond(request.getStartDate(), 0, ZoneOffset.UTC);
+        LocalDateTime to = LocalDateTime.ofEpochSecond(request.getEndDate(), 0, ZoneOffset.UTC);
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(widgets.size());
+        for (String widget : widgets) {
+            try {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    if (!runWidget(job.getId(), widget, job.getMonitorId(), from, to, request)) {
+                        failures.incrementAndGet();
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                recordError(job.getId(), widget, "Widget query pool is full; retry later");
+                failures.incrementAndGet();
+            }
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, e) -> {
+                    String status = failures.get() == widgets.size() ? "FAILED" : "COMPLETED";
+                    setStatus(job.getId(), status);
+                    jobEvents.jobFinished(job.getId(), status);
+                    log.info("Social listening job {} {} ({} of {} local widgets failed, {} delegated)", job.getId(), status,
+                            failures.get(), widgets.size(), delegated.size());
+                });
+    }
+
+    private boolean runWidget(String jobId, String widget, String monitorId, LocalDateTime from, LocalDateTime to,
+                              SocialListeningRequestDTO request) {
+        long started = System.currentTimeMillis();
+        try {
+            Object data = widgetQueryService.compute(widget, monitorId, from, to, request.getFilters());
+            mongoTemplate.updateFirst(byId(jobId), new Update().set("widgetData." + widget, data), SocialListeningJob.class);
+            jobEvents.widgetCompleted(jobId, widget, data);
+            log.debug("Widget {} for job {} computed in {} ms", widget, jobId, System.currentTimeMillis() - started);
+            return true;
+        } catch (IllegalArgumentException e) {
+            recordError(jobId, widget, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Widget {} for job {} failed: {}", widget, jobId, e.getMessage(), e);
+            recordError(jobId, widget, "Widget query failed");
+        }
+        return false;
+    }
+
+    private void recordError(String jobId, String widget, String message) {
+        mongoTemplate.updateFirst(byId(jobId), new Update().set("widgetErrors." + widget, message), SocialListeningJob.class);
+        jobEvents.widgetFailed(jobId, widget, message);
+    }
+
+    private void setStatus(String jobId, String status) {
+        mongoTemplate.updateFirst(byId(jobId), new Update().set("status", status)
+                .set("updatedAt", LocalDateTime.now()), SocialListeningJob.class);
+    }
+
+    private static Query byId(String jobId) {
+        return new Query(Criteria.where("_id").is(jobId));
+    }
+}
@@ -0,0 +1,230 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.SocialListeningRequestDTO;
+import com.activitypub.listener.dto.SocialListeningResponseDTO;
+import com.activitypub.listener.model.SocialListeningJob;
+import com.activitypub.listener.repository.SocialListeningJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Reuse of social-listening results for identical requests, keyed by a canonical hash of
+ * (monitor, data source, page, date range, filters, widgets) with filter values and widget names sorted.
+ * Freshness depends on how recent end_date is: ranges ending in the past are immutable and cached long,
+ * "live" ranges only briefly.
+ * <ul>
+ *   <li>Public API jobs: an in-flight or still-fresh completed job with the same key is returned instead
+ *       of creating a new one (shared across nodes through Mongo). A new job claims its key in
+ *       {@code social_listening_claims} so concurrent identical requests on any node agree on one job.</li>
+ *   <li>Kafka data requests: the response (topic, consumer group, inline widgets) is kept in memory so
+ *       repeats attach to the topic the first request is already being answered on.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class SocialListeningResultCache {
+
+    private static final ObjectMapper CANONICAL = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    static final String CLAIMS = "social_listening_claims";
+
+    private final SocialListeningJobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${social.listening.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${social.listening.cache.live-window-seconds:3600}")
+    private long liveWindowSeconds;
+
+    @Value("${social.listening.cache.live-ttl-seconds:60}")
+    private long liveTtlSeconds;
+
+    @Value("${social.listening.cache.historical-ttl-seconds:86400}")
+    private long historicalTtlSeconds;
+
+    @Value("${social.listening.cache.in-flight-max-age-seconds:600}")
+    private long inFlightMaxAgeSeconds;
+
+    @Value("${social.listening.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, CachedResponse> responses = new LinkedHashMap<>(256, 0.75f, true);
+
+    @PostConstruct
+    void ensureClaimExpiry() {
+        if (!enabled) {
+            return;
+        }
+        // Expired claims are free anyway; the TTL index only keeps the collection from growing
+        mongoTemplate.indexOps(CLAIMS).ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+    }
+
+    public String keyOf(SocialListeningRequestDTO request) {
+        Map<String, Object> canonical = new TreeMap<>();
+        canonical.put("monitorId", request.getMonitorId());
+        canonical.put("dataSource", request.getDataSource());
+        canonical.put("pageName", request.getPageName());
+        canonical.put("startDate", request.getStartDate());
+        canonical.put("endDate", request.getEndDate());
+        canonical.put("pageNumber", request.getPageNumber());
+        canonical.put("widgets", sorted(request.getWidgetsNames()));
+        Map<String, Object> filters = new TreeMap<>();
+        if (request.getFilters() != null) {
+            CANONICAL.convertValue(request.getFilters(), Map.class).forEach((k, v) -> {
+                Object value = v instanceof Collection<?> c ? sorted(c) : v;
+                if (value != null && !(value instanceof Collection<?> c && c.isEmpty())) {
+                    filters.put(k.toString(), value);
+                }
+            });
+        }
+        canonical.put("filters", filters);
+        try {
+            byte[] json = CANONICAL.writeValueAsBytes(canonical);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to build social listening cache key", e);
+        }
+    }
+
+    /** How long results for this request stay valid. */
+    public Duration ttlFor(SocialListeningRequestDTO request) {
+        long liveFrom = Instant.now().getEpochSecond() - liveWindowSeconds;
+        return Duration.ofSeconds(request.getEndDate() >= liveFrom ? liveTtlSeconds : historicalTtlSeconds);
+    }
+
+    /**
+     * Latest job for this key if it is still running (and not stuck) or completed, fresh and without widget errors.
+     */
+    public Optional<SocialListeningJob> findReusableJob(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return jobRepository.findFirstByRequestKeyOrderByCreatedAtDesc(key)
+                .filter(job -> isReusable(job, now));
+    }
+
+    /**
+     * Atomically claim {@code key} for the saved job {@code jobId}. The claim is an upsert on the key's
+     * {@code _id} that only matches an expired claim, so a concurrent claim on any node fails on the
+     * {@code _id} index instead of creating a second job. A claim lasts in-flight-max-age-seconds; one whose
+     * job has since failed or gone stale is taken over.
+     *
+     * @return empty if claimed, otherwise the reusable job already holding the key
+     */
+    public Optional<SocialListeningJob> claimInFlight(String key, String jobId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Date now = new Date();
+            Update claim = new Update()
+                    .set("jobId", jobId)
+                    .set("expiresAt", new Date(now.getTime() + inFlightMaxAgeSeconds * 1000));
+            try {
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(key).and("expiresAt").lte(now)), claim, CLAIMS);
+                return Optional.empty();
+            } catch (DuplicateKeyException e) {
+                Document held = mongoTemplate.findById(key, Document.class, CLAIMS);
+                String holderId = held != null ? held.getString("jobId") : null;
+                Optional<SocialListeningJob> holder = Optional.ofNullable(holderId)
+                        .flatMap(jobRepository::findById)
+                        .filter(job -> isReusable(job, LocalDateTime.now()));
+                if (holder.isPresent()) {
+                    return holder;
+                }
+                // Holder failed or its result expired: free the claim and try once more
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(key).and("jobId").is(holderId)),
+                        new Update().set("expiresAt", now), CLAIMS);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isReusable(SocialListeningJob job, LocalDateTime now) {
+        return switch (job.getStatus()) {
+            case "PENDING", "PROCESSING" -> job.getCreatedAt() != null
+                    && job.getCreatedAt().isAfter(now.minusSeconds(inFlightMaxAgeSeconds));
+            // Widget errors are often transient (e.g. a full query pool), so such results are recomputed
+            case "COMPLETED" -> job.getCacheExpiresAt() != null && job.getCacheExpiresAt().isAfter(now)
+                    && (job.getWidgetErrors() == null || job.getWidgetErrors().isEmpty());
+            default -> false;
+        };
+    }
+
+    public Optional<SocialListeningResponseDTO> getResponse(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (responses) {
+            CachedResponse cached = responses.get(key);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            if (cached.expiresAt().isBefore(Instant.now())) {
+                responses.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(cached.response());
+        }
+    }
+
+    public void putResponse(String key, SocialListeningResponseDTO response, Duration ttl) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (responses) {
+            responses.put(key, new CachedResponse(response, Instant.now().plus(ttl)));
+            // Access-ordered, so the first entries are the least recently used
+            var it = responses.entrySet().iterator();
+            while (responses.size() > maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    private static List<Object> sorted(Collection<?> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .distinct()
+                .sorted(Comparator.comparing(String::valueOf))
+                .<Object>map(v -> v)
+                .toList();
+    }
+
+    private record CachedResponse(SocialListeningResponseDTO response, Instant expiresAt) {
+    }
+}
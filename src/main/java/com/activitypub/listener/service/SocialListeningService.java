@@ -10,13 +10,14 @@ import com.activitypub.listener.model.DataSource;
 import com.activitypub.listener.model.Metric;
 import com.activitypub.listener.model.Monitor;
 import com.activitypub.listener.model.SocialListeningJob;
-import com.activitypub.listener.repository.DataSourceRepository;
-import com.activitypub.listener.repository.MetricRepository;
-import com.activitypub.listener.repository.MonitorRepository;
 import com.activitypub.listener.repository.SocialListeningJobRepository;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,18 +38,20 @@ public class SocialListeningService {
     @Value("${social.listening.max-date-range-days:30}")
     private int maxDateRangeDays;
 
-    private final MonitorRepository monitorRepository;
-    private final DataSourceRepository dataSourceRepository;
-    private final MetricRepository metricRepository;
+    private final MonitorCache monitorCache;
+    private final ReferenceDataRegistry referenceData;
     private final ParameterPreparationService parameterPreparationService;
     private final ActivityPubKafkaProducer kafkaProducer;
     private final SocialListeningJobRepository socialListeningJobRepository;
+    private final ActivityRollupService rollupService;
+    private final SocialListeningJobRunner jobRunner;
+    private final SocialListeningResultCache resultCache;
 
     /**
      * Validate request, prepare analytics message, send to Kafka, return topic/consumer group to client.
      */
     public SocialListeningResponseDTO requestData(SocialListeningRequestDTO request, Long userId) {
-        Monitor monitor = monitorRepository.findByIdAndIsDeletedFalse(request.getMonitorId())
+        Monitor monitor = monitorCache.find(request.getMonitorId())
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + request.getMonitorId()));
 
         if (userId != null && !monitor.getUserId().equals(userId)) {
@@ -61,22 +64,15 @@ public class SocialListeningService {
             throw new IllegalStateException("Monitor must not be paused");
         }
 
-        DataSource dataSource = dataSourceRepository.findBySource(request.getDataSource())
+        DataSource dataSource = referenceData.findDataSourceBySource(request.getDataSource())
                 .orElseThrow(() -> new ResourceNotFoundException("Data source not found: " + request.getDataSource()));
 
+        validateDateRange(request);
         long start = request.getStartDate();
         long end = request.getEndDate();
-        if (end < start) {
-            throw new IllegalArgumentException("end_date must be >= start_date");
-        }
-        long rangeDays = (end - start) / (24 * 3600);
-        if (rangeDays > maxDateRangeDays) {
-            throw new IllegalArgumentException("Date range must not exceed " + maxDateRangeDays + " days");
-        }
 
         if (request.getWidgetsNames() != null && !request.getWidgetsNames().isEmpty()) {
-            List<Metric> validMetrics = metricRepository.findByActiveTrue();
-            List<String> validNames = validMetrics.stream().map(Metric::getName).collect(Collectors.toList());
+            Set<String> validNames = referenceData.getActiveMetricNames();
             for (String name : request.getWidgetsNames()) {
                 if (!validNames.contains(name)) {
                     throw new IllegalArgumentException("Invalid widget name: " + name);
@@ -84,29 +80,95 @@ public class SocialListeningService {
             }
         }
 
-        SocialListeningAnalyticsMessage message = parameterPreparationService.prepare(request, monitor);
+        String requestKey = resultCache.keyOf(request);
+        Optional<SocialListeningResponseDTO> cached = resultCache.getResponse(requestKey);
+        if (cached.isPresent()) {
+            log.debug("Social listening request for monitor {} served from cache", monitor.getId());
+            return cached.get();
+        }
+
+        // Rollup-backed widgets are answered here; the analytics engine only gets what is left
+        Map<String, Object> widgetData = null;
+        List<String> remoteWidgets = request.getWidgetsNames();
+        if (request.getWidgetsNames() != null) {
+            List<String> local = request.getWidgetsNames().stream()
+                    .filter(ActivityRollupService.ROLLUP_WIDGETS::contains)
+                    .collect(Collectors.toList());
+            if (rollupService.canAnswer(local, request.getFilters())) {
+                widgetData = rollupService.query(monitor.getId(), toDateTime(start), toDateTime(end), local);
+                remoteWidgets = request.getWidgetsNames().stream()
+                        .filter(name -> !local.contains(name))
+                        .collect(Collectors.toList());
+            }
+        }
+        if (remoteWidgets != null && remoteWidgets.isEmpty()) {
+            SocialListeningResponseDTO response = SocialListeningResponseDTO.builder()
+                    .monitorId(monitor.getId())
+                    .manualTopicsEnabled(false)
+                    .monitorTopicsUsed(5)
+                    .widgetData(widgetData)
+                    .build();
+            resultCache.putResponse(requestKey, response, resultCache.ttlFor(request));
+            return response;
+        }
+
+        SocialListeningRequestDTO remoteRequest = remoteWidgets == request.getWidgetsNames()
+                ? request : withWidgets(request, remoteWidgets);
+        SocialListeningAnalyticsMessage message = parameterPreparationService.prepare(remoteRequest, monitor);
         kafkaProducer.sendSocialListeningRequest(message);
         kafkaProducer.sendStaciFediDispatcher(message);
 
-        return SocialListeningResponseDTO.builder()
+        SocialListeningResponseDTO response = SocialListeningResponseDTO.builder()
                 .topic(message.getTopic())
                 .consumerGroup(message.getConsumerGroup())
                 .monitorId(monitor.getId())
                 .manualTopicsEnabled(false)
                 .monitorTopicsUsed(5)
+                .widgetData(widgetData)
+                .build();
+        resultCache.putResponse(requestKey, response, resultCache.ttlFor(request));
+        return response;
+    }
+
+    private void validateDateRange(SocialListeningRequestDTO request) {
+        long start = request.getStartDate();
+        long end = request.getEndDate();
+        if (end < start) {
+            throw new IllegalArgumentException("end_date must be >= start_date");
+        }
+        long rangeDays = (end - start) / (24 * 3600);
+        if (rangeDays > maxDateRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxDateRangeDays + " days");
+        }
+    }
+
+    private static SocialListeningRequestDTO withWidgets(SocialListeningRequestDTO request, List<String> widgets) {
+        return SocialListeningRequestDTO.builder()
+                .monitorId(request.getMonitorId())
+                .dataSource(request.getDataSource())
+                .pageName(request.getPageName())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .filters(request.getFilters())
+                .widgetsNames(widgets)
+                .pageNumber(request.getPageNumber())
                 .build();
     }
 
+    private static LocalDateTime toDateTime(long epochSeconds) {
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+
     /**
      * Get available widgets/metrics for monitor and data source.
      */
     public List<WidgetDTO> getWidgets(String monitorId, String dataSource, String pageName) {
-        monitorRepository.findByIdAndIsDeletedFalse(monitorId)
+        monitorCache.find(monitorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + monitorId));
-        dataSourceRepository.findBySource(dataSource)
+        referenceData.findDataSourceBySource(dataSource)
                 .orElseThrow(() -> new ResourceNotFoundException("Data source not found: " + dataSource));
 
-        List<Metric> metrics = metricRepository.findByActiveTrue();
+        List<Metric> metrics = referenceData.getActiveMetrics();
         return metrics.stream()
                 .map(m -> WidgetDTO.builder()
                         .name(m.getName())
@@ -118,15 +180,26 @@ public class SocialListeningService {
 
     /**
      * Create async job for public API. §4.4.3
+     * Widgets are computed in-process by {@link SocialListeningJobRunner}; the Kafka request is still sent
+     * so the analytics engine can supply widgets that need it (topics, sentiment, demographics).
+     * An identical request that is still running, or completed within its cache TTL, returns the existing job.
      */
     public SocialListeningJob createJob(SocialListeningRequestDTO request, Long userId) {
-        Monitor monitor = monitorRepository.findByIdAndIsDeletedFalse(request.getMonitorId())
+        Monitor monitor = monitorCache.find(request.getMonitorId())
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found: " + request.getMonitorId()));
         if (monitor.getIsApproved() != Monitor.ApprovalStatus.APPROVED || Boolean.TRUE.equals(monitor.getPaused())) {
             throw new IllegalStateException("Monitor must be approved and not paused");
         }
-        dataSourceRepository.findBySource(request.getDataSource())
+        referenceData.findDataSourceBySource(request.getDataSource())
                 .orElseThrow(() -> new ResourceNotFoundException("Data source not found: " + request.getDataSource()));
+        validateDateRange(request);
+
+        String requestKey = resultCache.keyOf(request);
+        Optional<SocialListeningJob> existing = resultCache.findReusableJob(requestKey);
+        if (existing.isPresent()) {
+            log.info("Reusing social listening job {} ({})", existing.get().getId(), existing.get().getStatus());
+            return existing.get();
+        }
 
         SocialListeningJob job = SocialListeningJob.builder()
                 .id(UUID.randomUUID().toString())
@@ -134,11 +207,20 @@ public class SocialListeningService {
                 .userId(userId)
                 .status("PENDING")
                 .widgetsNames(request.getWidgetsNames())
+                .requestKey(requestKey)
+                .cacheExpiresAt(LocalDateTime.now().plus(resultCache.ttlFor(request)))
                 .build();
         job = socialListeningJobRepository.save(job);
+        Optional<SocialListeningJob> concurrent = resultCache.claimInFlight(requestKey, job.getId());
+        if (concurrent.isPresent()) {
+            socialListeningJobRepository.deleteById(job.getId());
+            log.info("Reusing social listening job {} created concurrently", concurrent.get().getId());
+            return concurrent.get();
+        }
 
         SocialListeningAnalyticsMessage message = parameterPreparationService.prepare(request, monitor);
         kafkaProducer.sendSocialListeningRequest(message);
+        jobRunner.submit(job, request);
         log.info("Created social listening job: {}", job.getId());
         return job;
     }
@@ -156,6 +238,12 @@ public class SocialListeningService {
         if (job.getWidgetData() != null) {
             data.put("widget_data", job.getWidgetData());
         }
+        if (job.getWidgetErrors() != null && !job.getWidgetErrors().isEmpty()) {
+            data.put("widget_errors", job.getWidgetErrors());
+        }
+        if (job.getDelegatedWidgets() != null && !job.getDelegatedWidgets().isEmpty()) {
+            data.put("delegated_widgets", job.getDelegatedWidgets());
+        }
         if (job.getNextJobId() != null) {
             data.put("next_job_id", job.getNextJobId());
         }
@@ -0,0 +1,159 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
+import com.activitypub.listener.kafka.MonitorTrackerConfigMessage;
+import com.activitypub.listener.kafka.TrackerConfigMessage;
+import com.activitypub.listener.model.AccountAnalysis;
+import com.activitypub.listener.model.Keyword;
+import com.activitypub.listener.model.Monitor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tells the data collection engine what to collect for a monitor, only when that changes.
+ * <p>
+ * The collection-relevant part of a monitor (type, whether it should collect, keywords and account analyses
+ * per data source) is fingerprinted and the fingerprint stored on the monitor. A save whose fingerprint
+ * differs from the stored one publishes a single {@link MonitorTrackerConfigMessage} carrying the monitor's
+ * version; renames and other edits publish nothing. If a send fails the stored fingerprint is cleared, so the
+ * next save publishes again. With {@code per-source-messages} on, the former
+ * per-source {@link TrackerConfigMessage}s are also sent to tracker-new for consumers not yet migrated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrackerConfigPublisher {
+
+    private final ActivityPubKafkaProducer kafkaProducer;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${kafka.tracker-config.per-source-messages:true}")
+    private boolean perSourceMessages;
+
+    /**
+     * Record the fingerprint of the monitor's collection config on it before saving, so the save persists it
+     * together with the change. {@link #publish} clears it again if the send fails.
+     *
+     * @return the config to {@link #publish} once saved, or null when unchanged since the last publish
+     */
+    public MonitorTrackerConfigMessage prepare(Monitor monitor) {
+        MonitorTrackerConfigMessage config = configOf(monitor);
+        String fingerprint = fingerprint(config);
+        if (fingerprint.equals(monitor.getTrackerConfigFingerprint())) {
+            return null;
+        }
+        monitor.setTrackerConfigFingerprint(fingerprint);
+        return config;
+    }
+
+    public void publish(Monitor saved, MonitorTrackerConfigMessage config) {
+        config.setTrackerId(saved.getId());
+        config.setConfigVersion(saved.getVersion());
+        config.setAt(LocalDateTime.now());
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        sends.add(kafkaProducer.sendMonitorTrackerConfig(config));
+        if (perSourceMessages) {
+            for (MonitorTrackerConfigMessage.Source source : config.getSources()) {
+                sends.add(kafkaProducer.sendTrackerConfig(TrackerConfigMessage.builder()
+                        .trackerId(config.getTrackerId())
+                        .dataSourceName(source.getDataSourceName())
+                        .monitorType(config.getMonitorType())
+                        .keywords(source.getKeywords())
+                        .spamKeywords(source.getSpamKeywords())
+                        .shouldCollect(config.getShouldCollect())
+                        .userId(config.getUserId())
+                        .extra(source.getExtra())
+                        .build()));
+            }
+        }
+        String fingerprint = saved.getTrackerConfigFingerprint();
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .whenComplete((sent, ex) -> {
+                    if (ex != null) {
+                        forgetFingerprint(saved.getId(), fingerprint);
+                    }
+                });
+        log.debug("Published tracker config of monitor {} v{} ({} sources)", config.getTrackerId(),
+                config.getConfigVersion(), config.getSources().size());
+    }
+
+    /**
+     * Drop a fingerprint whose config never reached the engine, unless a later save already replaced it.
+     */
+    private void forgetFingerprint(String monitorId, String fingerprint) {
+        try {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(monitorId).and("trackerConfigFingerprint").is(fingerprint)),
+                    new Update().unset("trackerConfigFingerprint"),
+                    Monitor.class);
+            log.warn("Tracker config of monitor {} was not delivered; it will be republished on the next save", monitorId);
+        } catch (RuntimeException e) {
+            log.error("Could not clear tracker config fingerprint of monitor {}: {}", monitorId, e.getMessage());
+        }
+    }
+
+    /**
+     * The collection-relevant fields of a monitor; id, version and timestamp are left unset.
+     */
+    static MonitorTrackerConfigMessage configOf(Monitor monitor) {
+        List<MonitorTrackerConfigMessage.Source> sources = new ArrayList<>();
+        for (Keyword k : monitor.getKeywords()) {
+            sources.add(MonitorTrackerConfigMessage.Source.builder()
+                    .dataSourceName(k.getDataSource() != null ? k.getDataSource().getSource() : null)
+                    .keywords(k.getKeywords())
+                    .spamKeywords(k.getSpamKeywords())
+                    .build());
+        }
+        for (AccountAnalysis a : monitor.getAccountAnalyses()) {
+            sources.add(MonitorTrackerConfigMessage.Source.builder()
+                    .dataSourceName(a.getDataSource() != null ? a.getDataSource().getSource() : null)
+                    .extra(a.getFollow() != null ? Map.of("follow", a.getFollow()) : null)
+                    .build());
+        }
+        return MonitorTrackerConfigMessage.builder()
+                .monitorType(monitor.getMonitorType() != null ? monitor.getMonitorType().getName() : "KEYWORD")
+                .shouldCollect(!Boolean.TRUE.equals(monitor.getIsDeleted())
+                        && !Boolean.TRUE.equals(monitor.getPaused())
+                        && monitor.getIsApproved() == Monitor.ApprovalStatus.APPROVED)
+                .userId(monitor.getUserId())
+                .sources(sources)
+                .build();
+    }
+
+    static String fingerprint(MonitorTrackerConfigMessage config) {
+        StringBuilder canonical = new StringBuilder()
+                .append(config.getMonitorType()).append('\u0000')
+                .append(config.getShouldCollect()).append('\u0000')
+                .append(config.getUserId());
+        for (MonitorTrackerConfigMessage.Source source : config.getSources()) {
+            canonical.append('\u0001').append(source.getDataSourceName())
+                    .append('\u0000').append(source.getKeywords())
+                    .append('\u0000').append(source.getSpamKeywords())
+                    .append('\u0000').append(source.getExtra() != null ? new TreeMap<>(source.getExtra()) : null);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.SocialListeningFiltersDTO;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.ActivityCollectionRouter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Computes social-listening widgets in-process from collected activities with Mongo aggregations.
+ * Each widget is one pipeline per activity collection (one, or the daily buckets in range), merged here.
+ * Widgets and filters that need the analytics engine (topics, sentiment, demographics) are rejected.
+ * Languages, hashtags and replies read fields extracted at ingest rather than rawData, which retention may
+ * compact away.
+ */
+@Service
+@RequiredArgsConstructor
+public class WidgetQueryService {
+
+    public static final String ENGAGEMENTS = "engagements";
+    public static final String POSTS = "posts";
+    public static final String AUTHORS = "authors";
+    public static final String LANGUAGES = "languages";
+
+    public static final Set<String> LOCAL_WIDGETS = Set.of(ENGAGEMENTS, POSTS, AUTHORS, LANGUAGES,
+            ActivityRollupService.VOLUME_OVER_TIME, ActivityRollupService.ACTIVITY_TYPES,
+            ActivityRollupService.OBJECT_TYPES, ActivityRollupService.TOP_INSTANCES,
+            ActivityRollupService.TOP_ACTORS, ActivityRollupService.TOP_HASHTAGS);
+
+    private static final Duration HOURLY_SERIES_MAX_RANGE = Duration.ofDays(7);
+
+    private final MongoTemplate mongoTemplate;
+    private final ActivityCollectionRouter collectionRouter;
+    private final ActivityRollupService rollupService;
+
+    @Value("${social.listening.widget-top-n:10}")
+    private int topN;
+
+    /**
+     * @throws IllegalArgumentException if the widget or one of the filters is not available locally
+     */
+    public Object compute(String widget, String monitorId, LocalDateTime from, LocalDateTime to,
+                          SocialListeningFiltersDTO filters) {
+        if (!LOCAL_WIDGETS.contains(widget)) {
+            throw new IllegalArgumentException("Widget not available locally: " + widget);
+        }
+        if (rollupService.canAnswer(List.of(widget), filters)) {
+            return rollupService.query(monitorId, from, to, List.of(widget)).get(widget);
+        }
+        Criteria criteria = criteria(monitorId, from, to, filters);
+        List<String> collections = collectionRouter.collectionsBetween(from, to);
+        return switch (widget) {
+            case ENGAGEMENTS -> engagements(collections, criteria);
+            case POSTS -> posts(collections, criteria);
+            case AUTHORS, ActivityRollupService.TOP_ACTORS -> ranked(countBy(collections, criteria, "$actorId"));
+            case LANGUAGES -> countBy(collections, criteria, "$languages", stage("$unwind", "$languages"));
+            case ActivityRollupService.VOLUME_OVER_TIME -> volumeOverTime(collections, criteria, from, to);
+            case ActivityRollupService.ACTIVITY_TYPES -> countBy(collections, criteria, "$activityType");
+            case ActivityRollupService.OBJECT_TYPES -> countBy(collections, criteria, "$objectType");
+            case ActivityRollupService.TOP_INSTANCES -> ranked(countBy(collections, criteria, "$instanceUrl"));
+            case ActivityRollupService.TOP_HASHTAGS -> ranked(countBy(collections, criteria, "$hashtags",
+                    stage("$unwind", "$hashtags")));
+            default -> throw new IllegalArgumentException("Widget not available locally: " + widget);
+        };
+    }
+
+    private Map<String, Object> engagements(List<String> collections, Criteria criteria) {
+        Map<String, Long> byType = countBy(collections, criteria, "$activityType",
+                stage("$match", new Document("activityType", new Document("$in", List.of("Like", "Announce")))));
+        Map<String, Long> replies = countBy(collections, criteria, "$activityType",
+                stage("$match", new Document("activityType", "Create")
+                        .append("inReplyTo", new Document("$ne", null))));
+        long likes = byType.getOrDefault("Like", 0L);
+        long reposts = byType.getOrDefault("Announce", 0L);
+        long replyCount = replies.getOrDefault("Create", 0L);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("likes", likes);
+        result.put("reposts", reposts);
+        result.put("replies", replyCount);
+        result.put("total", likes + reposts + replyCount);
+        return result;
+    }
+
+    private Map<String, Object> posts(List<String> collections, Criteria criteria) {
+        List<CollectedActivity> latest = new ArrayList<>();
+        long total = 0;
+        for (String collection : collections) {
+            Criteria created = Criteria.where("activityType").is("Create").andOperator(criteria);
+            Query query = new Query(created)
+                    .with(Sort.by(Sort.Direction.DESC, "publishedAt"))
+                    .limit(topN);
+            query.fields().exclude("rawData", "rawDataCompressed");
+            latest.addAll(mongoTemplate.find(query, CollectedActivity.class, collection));
+            total += mongoTemplate.count(new Query(created), CollectedActivity.class, collection);
+        }
+        List<Map<String, Object>> items = latest.stream()
+                .sorted(Comparator.comparing(CollectedActivity::getPublishedAt,
+                        Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())))
+                .limit(topN)
+                .map(a -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("activityId", a.getActivityId());
+                    item.put("actorId", a.getActorId());
+                    item.put("content", a.getContent());
+                    item.put("publishedAt", a.getPublishedAt());
+                    item.put("instanceUrl", a.getInstanceUrl());
+                    return item;
+                })
+                .toList();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total);
+        result.put("items", items);
+        return result;
+    }
+
+    private Map<String, Object> volumeOverTime(List<String> collections, Criteria criteria, LocalDateTime from, LocalDateTime to) {
+        String unit = Duration.between(from, to).compareTo(HOURLY_SERIES_MAX_RANGE) <= 0 ? "hour" : "day";
+        Map<Long, Long> series = new TreeMap<>();
+        long total = 0;
+        for (String collection : collections) {
+            for (Document row : aggregate(collection, criteria, List.of(group(
+                    new Document("$dateTrunc", new Document("date", "$publishedAt").append("unit", unit)))))) {
+                long count = ((Number) row.get("count")).longValue();
+                series.merge(((Date) row.get("_id")).toInstant().getEpochSecond(), count, Long::sum);
+                total += count;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("interval", unit);
+        result.put("total", total);
+        result.put("series", series.entrySet().stream()
+                .map(e -> Map.of("time", e.getKey(), "count", e.getValue()))
+                .toList());
+        return result;
+    }
+
+    /**
+     * Document counts per group key, summed across collections; null keys are reported as "unknown".
+     */
+    private Map<String, Long> countBy(List<String> collections, Criteria criteria, Object key, AggregationOperation... preStages) {
+        Map<String, Long> counts = new HashMap<>();
+        List<AggregationOperation> stages = new ArrayList<>(List.of(preStages));
+        stages.add(group(key));
+        for (String collection : collections) {
+            for (Document row : aggregate(collection, criteria, stages)) {
+                Object id = row.get("_id");
+                counts.merge(id != null ? id.toString() : "unknown", ((Number) row.get("count")).longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private List<Document> aggregate(String collection, Criteria criteria, List<AggregationOperation> stages) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(Aggregation.match(criteria));
+        pipeline.addAll(stages);
+        return mongoTemplate.aggregate(Aggregation.newAggregation(CollectedActivity.class, pipeline), collection, Document.class)
+                .getMappedResults();
+    }
+
+    private List<Map<String, Object>> ranked(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topN)
+                .map(e -> Map.<String, Object>of("key", e.getKey().startsWith("#") ? e.getKey().substring(1) : e.getKey(),
+                        "count", e.getValue()))
+                .toList();
+    }
+
+    private static AggregationOperation group(Object key) {
+        return stage("$group", new Document("_id", key).append("count", new Document("$sum", 1)));
+    }
+
+    /** Raw stage, so paths into rawData are not validated against the CollectedActivity type. */
+    private static AggregationOperation stage(String operator, Object spec) {
+        return context -> new Document(operator, spec);
+    }
+
+    /**
+     * monitorId + publishedAt range, plus the filters that collected activities can answer:
+     * languages (contentMap keys) and included/excluded actors.
+     */
+    private static Criteria criteria(String monitorId, LocalDateTime from, LocalDateTime to, SocialListeningFiltersDTO filters) {
+        Criteria criteria = Criteria.where("monitorId").is(monitorId).and("publishedAt").gte(from).lte(to);
+        if (filters == null) {
+            return criteria;
+        }
+        List<String> unsupported = engineOnlyFilters(filters);
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException("Filters only supported by the analytics engine: " + String.join(", ", unsupported));
+        }
+
+        if (notEmpty(filters.getUsers()) && notEmpty(filters.getExcludeUser())) {
+            criteria.and("actorId").in(filters.getUsers()).nin(filters.getExcludeUser());
+        } else if (notEmpty(filters.getUsers())) {
+            criteria.and("actorId").in(filters.getUsers());
+        } else if (notEmpty(filters.getExcludeUser())) {
+            criteria.and("actorId").nin(filters.getExcludeUser());
+        }
+        if (notEmpty(filters.getLanguages())) {
+            criteria.and("languages").in(filters.getLanguages());
+        }
+        return criteria;
+    }
+
+    /**
+     * Names of the set filters that only the analytics engine can apply.
+     */
+    public static List<String> engineOnlyFilters(SocialListeningFiltersDTO filters) {
+        List<String> unsupported = new ArrayList<>();
+        if (filters == null) {
+            return unsupported;
+        }
+        if (notEmpty(filters.getTopics())) unsupported.add("topics");
+        if (notEmpty(filters.getManualTopics())) unsupported.add("manual_topics");
+        if (notEmpty(filters.getSentiment())) unsupported.add("sentiment");
+        if (notEmpty(filters.getAccountLists())) unsupported.add("account_lists");
+        if (notEmpty(filters.getExcludeAccountLists())) unsupported.add("exclude_account_lists");
+        if (filters.getOwnerUsername() != null) unsupported.add("owner_username");
+        if (filters.getExcludeOwnerUsername() != null) unsupported.add("exclude_owner_username");
+        return unsupported;
+    }
+
+    private static boolean notEmpty(Collection<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
@@ -0,0 +1,85 @@
+package com.activitypub.listener.activitypub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityStreamsParserTest {
+
+    private static final String INSTANCE = "https://big.example";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private InstanceMisbehaviorRecorder misbehaviorRecorder;
+
+    @InjectMocks
+    private ActivityStreamsParser parser;
+
+    @Test
+    void cutsOverlongPagesAndRecordsInstance() {
+        ReflectionTestUtils.setField(parser, "maxItemsPerPage", 3);
+
+        List<ParsedActivity> parsed = parser.parseOutbox(page(5), INSTANCE);
+
+        assertThat(parsed).extracting(ParsedActivity::getActivityId)
+                .containsExactly(INSTANCE + "/a/0", INSTANCE + "/a/1", INSTANCE + "/a/2");
+        verify(misbehaviorRecorder).record(eq(INSTANCE), eq(InstanceMisbehaviorRecorder.TOO_MANY_ITEMS), anyString());
+    }
+
+    @Test
+    void leavesPagesWithinLimitAlone() {
+        ReflectionTestUtils.setField(parser, "maxItemsPerPage", 3);
+
+        assertThat(parser.parseOutbox(page(3), INSTANCE)).hasSize(3);
+        verify(misbehaviorRecorder, never()).record(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void extractsLanguagesHashtagsAndReplyTarget() {
+        ObjectNode item = objectMapper.createObjectNode()
+                .put("id", INSTANCE + "/a/1")
+                .put("type", "Create")
+                .put("actor", INSTANCE + "/users/alice");
+        ObjectNode note = item.putObject("object").put("id", INSTANCE + "/n/1").put("type", "Note")
+                .put("inReplyTo", INSTANCE + "/n/0");
+        note.putObject("contentMap").put("en", "hi").put("de", "hallo");
+        ArrayNode tags = note.putArray("tag");
+        tags.addObject().put("type", "Hashtag").put("name", "#Fediverse");
+        tags.addObject().put("type", "Mention").put("name", "@someone");
+
+        ParsedActivity parsed = parser.parseActivityItem(item, INSTANCE);
+
+        assertThat(parsed.getLanguages()).containsExactly("en", "de");
+        assertThat(parsed.getHashtags()).containsExactly("fediverse");
+        assertThat(parsed.getInReplyTo()).isEqualTo(INSTANCE + "/n/0");
+    }
+
+    private ObjectNode page(int items) {
+        ObjectNode page = objectMapper.createObjectNode().put("type", "OrderedCollectionPage");
+        ArrayNode orderedItems = page.putArray("orderedItems");
+        for (int i = 0; i < items; i++) {
+            ObjectNode item = orderedItems.addObject()
+                    .put("id", INSTANCE + "/a/" + i)
+                    .put("type", "Create")
+                    .put("actor", INSTANCE + "/users/alice");
+            item.putObject("object").put("id", INSTANCE + "/n/" + i).put("type", "Note").put("content", "hi");
+        }
+        return page;
+    }
+}
@@ -0,0 +1,201 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.exception.SignatureVerificationException;
+import com.activitypub.listener.model.ActivityPubActor;
+import com.activitypub.listener.repository.ActivityPubActorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HttpSignatureVerifierTest {
+
+    private static final String ACTOR = "https://mastodon.example/users/alice";
+    private static final String KEY_ID = ACTOR + "#main-key";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final List<String> SIGNED = List.of("(request-target)", "host", "date", "digest");
+
+    @Mock
+    private ActivityPubActorRepository actorRepository;
+    @Mock
+    private ActivityPubClient activityPubClient;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private HttpSignatureVerifier verifier;
+
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(verifier, "maxClockSkewSeconds", 300L);
+        ReflectionTestUtils.setField(verifier, "keyCacheMaxEntries", 100);
+        ReflectionTestUtils.setField(verifier, "keyCacheTtlMinutes", 60L);
+        ReflectionTestUtils.setField(verifier, "verifyThreads", 2);
+        ReflectionTestUtils.setField(verifier, "verifyQueueCapacity", 10);
+        verifier.startPool();
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.stopPool();
+    }
+
+    @Test
+    void verifiesWithStoredActorKeyAndCachesIt() throws Exception {
+        storeActorKey();
+        byte[] body = "{\"type\":\"Create\"}".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signedHeaders(body);
+
+        HttpSignatureVerifier.VerifiedSignature result =
+                verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(body));
+        verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(body));
+
+        assertThat(result.actorId()).isEqualTo(ACTOR);
+        verify(actorRepository, times(1)).findByActorId(ACTOR);
+        verifyNoInteractions(activityPubClient);
+    }
+
+    @Test
+    void rejectsTamperedBody() throws Exception {
+        byte[] body = "{\"type\":\"Create\"}".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signedHeaders(body);
+        byte[] tampered = "{\"type\":\"Delete\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(tampered)))
+                .isInstanceOf(SignatureVerificationException.class)
+                .hasMessageContaining("Digest");
+    }
+
+    @Test
+    void rejectsKeyClaimingAnOwnerOnAnotherOrigin() throws Exception {
+        String keyId = "https://evil.example/key";
+        when(activityPubClient.getActorProfile(keyId)).thenReturn(Mono.just(keyDocument(keyId, ACTOR)));
+        byte[] body = "{\"type\":\"Create\"}".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signedHeaders(body, keyId);
+
+        assertThatThrownBy(() -> verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(body)))
+                .isInstanceOf(SignatureVerificationException.class)
+                .hasMessageContaining("another origin");
+        verify(activityPubClient, never()).getActorProfile(ACTOR);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void acceptsSeparateKeyDocumentListedByItsOwner() throws Exception {
+        String keyId = "https://mastodon.example/keys/1";
+        when(activityPubClient.getActorProfile(keyId)).thenReturn(Mono.just(keyDocument(keyId, ACTOR)));
+        when(activityPubClient.getActorProfile(ACTOR)).thenReturn(Mono.just(actorDocument(keyId)));
+        byte[] body = "{\"type\":\"Create\"}".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signedHeaders(body, keyId);
+
+        HttpSignatureVerifier.VerifiedSignature result =
+                verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(body));
+
+        assertThat(result.actorId()).isEqualTo(ACTOR);
+    }
+
+    @Test
+    void storesConfirmedKeyOnlyOnTheOwnerAtTheKeyOrigin() throws Exception {
+        when(activityPubClient.getActorProfile(ACTOR)).thenReturn(Mono.just(actorDocument(KEY_ID)));
+        byte[] body = "{\"type\":\"Create\"}".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signedHeaders(body);
+
+        verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(body));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(1000)).updateFirst(query.capture(), update.capture(), eq(ActivityPubActor.class));
+        assertThat(query.getValue().getQueryObject().get("actorId")).isEqualTo(ACTOR);
+        assertThat(query.getValue().getQueryObject().get("instanceUrl")).isEqualTo("https://mastodon.example");
+        assertThat(((Document) update.getValue().getUpdateObject().get("$set")).get("profileData.publicKeyId")).isEqualTo(KEY_ID);
+    }
+
+    @Test
+    void rejectsSeparateKeyDocumentItsOwnerDoesNotList() throws Exception {
+        String keyId = "https://mastodon.example/keys/1";
+        when(activityPubClient.getActorProfile(keyId)).thenReturn(Mono.just(keyDocument(keyId, ACTOR)));
+        when(activityPubClient.getActorProfile(ACTOR)).thenReturn(Mono.just(actorDocument(KEY_ID)));
+        byte[] body = "{\"type\":\"Create\"}".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signedHeaders(body, keyId);
+
+        assertThatThrownBy(() -> verifier.verify("POST", "/api/activitypub/inbox", headers::get, DigestedBody.of(body)))
+                .isInstanceOf(SignatureVerificationException.class)
+                .hasMessageContaining("does not list key");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private ObjectNode keyDocument(String keyId, String owner) {
+        return JSON.createObjectNode()
+                .put("id", keyId)
+                .put("owner", owner)
+                .put("publicKeyPem", HttpSignatures.toPem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+    }
+
+    private ObjectNode actorDocument(String listedKeyId) {
+        ObjectNode actor = JSON.createObjectNode().put("id", ACTOR).put("type", "Person");
+        actor.set("publicKey", keyDocument(listedKeyId, ACTOR));
+        return actor;
+    }
+
+    private void storeActorKey() {
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("publicKeyId", KEY_ID);
+        profile.put("publicKeyPem", HttpSignatures.toPem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        when(actorRepository.findByActorId(ACTOR))
+                .thenReturn(Optional.of(ActivityPubActor.builder().actorId(ACTOR).profileData(profile).build()));
+    }
+
+    private Map<String, String> signedHeaders(byte[] body) throws Exception {
+        return signedHeaders(body, KEY_ID);
+    }
+
+    private Map<String, String> signedHeaders(byte[] body, String keyId) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("host", "listener.example");
+        headers.put("date", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        headers.put("digest", HttpSignatures.digest(body));
+        String signingString = HttpSignatures.signingString(SIGNED, "POST", "/api/activitypub/inbox", headers::get);
+        headers.put("signature", "keyId=\"" + keyId + "\",algorithm=\"rsa-sha256\",headers=\""
+                + String.join(" ", SIGNED) + "\",signature=\"" + HttpSignatures.sign(keyPair.getPrivate(), signingString) + "\"");
+        return headers;
+    }
+}
@@ -0,0 +1,113 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.model.ActivityPubActor;
+import com.activitypub.listener.repository.ActivityPubActorRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Signature verifications per second per core with a warm key cache, for 1 and N verify threads.
+ * Opt-in: ./mvnw test -Dtest=HttpSignatureVerifyBenchmarkTest -Dbenchmark=true [-Dbenchmark.verifications=200000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("HTTP Signature verification benchmark")
+class HttpSignatureVerifyBenchmarkTest {
+
+    private static final int VERIFICATIONS = Integer.getInteger("benchmark.verifications", 50_000);
+    private static final int ACTORS = 100;
+    private static final List<String> SIGNED = List.of("(request-target)", "host", "date", "digest");
+
+    @Test
+    void verificationsPerSecondPerCore() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Request> requests = signedRequests();
+        for (int threads : new int[]{1, cores}) {
+            HttpSignatureVerifier verifier = verifier(threads, requests);
+            run(verifier, requests, VERIFICATIONS / 10); // warm-up, also fills the key cache
+            long started = System.nanoTime();
+            run(verifier, requests, VERIFICATIONS);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            double perSecond = VERIFICATIONS / seconds;
+            System.out.printf("threads=%d: %.0f verifications/s, %.0f per core%n", threads, perSecond, perSecond / threads);
+            assertThat(verifier.getCachedKeyCount()).isEqualTo(ACTORS);
+            verifier.stopPool();
+        }
+    }
+
+    private static void run(HttpSignatureVerifier verifier, List<Request> requests, int count) {
+        List<CompletableFuture<HttpSignatureVerifier.VerifiedSignature>> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Request r = requests.get(i % requests.size());
+            batch.add(verifier.verifyAsync("POST", "/api/activitypub/inbox", r.headers()::get, r.body()));
+            if (batch.size() == 1000) {
+                CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new)).join();
+                batch.clear();
+            }
+        }
+        CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static HttpSignatureVerifier verifier(int threads, List<Request> requests) {
+        ActivityPubActorRepository actors = mock(ActivityPubActorRepository.class);
+        when(actors.findByActorId(anyString())).thenAnswer(inv -> requests.stream()
+                .filter(r -> r.actorId().equals(inv.getArgument(0)))
+                .findFirst()
+                .map(r -> ActivityPubActor.builder().actorId(r.actorId()).profileData(Map.of(
+                        "publicKeyId", r.actorId() + "#main-key",
+                        "publicKeyPem", r.publicKeyPem())).build()));
+        HttpSignatureVerifier verifier = new HttpSignatureVerifier(actors, mock(ActivityPubClient.class), mock(MongoTemplate.class));
+        ReflectionTestUtils.setField(verifier, "maxClockSkewSeconds", 3600L);
+        ReflectionTestUtils.setField(verifier, "keyCacheMaxEntries", 10_000);
+        ReflectionTestUtils.setField(verifier, "keyCacheTtlMinutes", 60L);
+        ReflectionTestUtils.setField(verifier, "refetchIntervalSeconds", 60L);
+        ReflectionTestUtils.setField(verifier, "verifyThreads", threads);
+        ReflectionTestUtils.setField(verifier, "verifyQueueCapacity", 2000);
+        verifier.startPool();
+        return verifier;
+    }
+
+    private static List<Request> signedRequests() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < ACTORS; i++) {
+            KeyPair pair = generator.generateKeyPair();
+            String actorId = "https://instance" + (i % 10) + ".example/users/u" + i;
+            byte[] body = ("{\"type\":\"Create\",\"actor\":\"" + actorId + "\"}").getBytes(StandardCharsets.UTF_8);
+            Map<String, String> headers = new HashMap<>();
+            headers.put("host", "listener.example");
+            headers.put("date", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+            headers.put("digest", HttpSignatures.digest(body));
+            String signingString = HttpSignatures.signingString(SIGNED, "POST", "/api/activitypub/inbox", headers::get);
+            headers.put("signature", "keyId=\"" + actorId + "#main-key\",algorithm=\"rsa-sha256\",headers=\""
+                    + String.join(" ", SIGNED) + "\",signature=\"" + HttpSignatures.sign(pair.getPrivate(), signingString) + "\"");
+            requests.add(new Request(actorId, HttpSignatures.toPem("PUBLIC KEY", pair.getPublic().getEncoded()),
+                    headers, DigestedBody.of(body)));
+        }
+        return requests;
+    }
+
+    private record Request(String actorId, String publicKeyPem, Map<String, String> headers, DigestedBody body) {
+    }
+}
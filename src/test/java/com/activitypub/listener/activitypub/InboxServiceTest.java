@@ -0,0 +1,98 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.CollectedActivityRepository;
+import com.activitypub.listener.service.ActivityRollupService;
+import com.activitypub.listener.service.LiveActivityHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InboxServiceTest {
+
+    private static final String ACTOR = "https://mastodon.example/users/alice";
+    private static final String ACTIVITY = ACTOR + "/statuses/1/activity";
+
+    @Mock
+    private ActivityStreamsParser activityStreamsParser;
+    @Mock
+    private FollowManager followManager;
+    @Mock
+    private InstanceRateLimiter instanceRateLimiter;
+    @Mock
+    private IngestQueue ingestQueue;
+    @Mock
+    private CollectedActivityRepository collectedActivityRepository;
+    @Mock
+    private ActivityPubKafkaProducer kafkaProducer;
+    @Mock
+    private ActivityRollupService rollupService;
+    @Mock
+    private LiveActivityHub liveActivityHub;
+
+    private InboxService inboxService;
+
+    @BeforeEach
+    void setUp() {
+        ActivityIngestService ingestService =
+                new ActivityIngestService(collectedActivityRepository, kafkaProducer, rollupService, liveActivityHub);
+        inboxService = new InboxService(activityStreamsParser, ingestService, followManager, instanceRateLimiter, ingestQueue);
+    }
+
+    @Test
+    void deliveryReachesEveryMonitorFollowingTheActor() {
+        LocalDateTime published = LocalDateTime.of(2024, 1, 15, 10, 30);
+        ObjectNode activity = new ObjectMapper().createObjectNode()
+                .put("id", ACTIVITY).put("type", "Create").put("actor", ACTOR);
+        when(followManager.monitorsFor(ACTOR)).thenReturn(new LinkedHashSet<>(List.of("m1", "m2")));
+        when(activityStreamsParser.parseActivityItem(eq(activity), any())).thenReturn(ParsedActivity.builder()
+                .activityId(ACTIVITY).activityType("Create").actorId(ACTOR).publishedAt(published).build());
+        when(collectedActivityRepository.insertActivity(any(CollectedActivity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        int collected = inboxService.process(activity, ACTOR);
+
+        assertThat(collected).isEqualTo(2);
+        ArgumentCaptor<CollectedActivity> stored = ArgumentCaptor.forClass(CollectedActivity.class);
+        verify(collectedActivityRepository, times(2)).insertActivity(stored.capture());
+        assertThat(stored.getAllValues()).extracting(CollectedActivity::getMonitorId).containsExactly("m1", "m2");
+        assertThat(stored.getAllValues()).extracting(CollectedActivity::getActivityId).containsOnly(ACTIVITY);
+        verify(collectedActivityRepository).existsActivity(ACTIVITY, "m1", published);
+        verify(collectedActivityRepository).existsActivity(ACTIVITY, "m2", published);
+    }
+
+    @Test
+    void monitorThatAlreadyHasTheActivitySkipsIt() {
+        LocalDateTime published = LocalDateTime.of(2024, 1, 15, 10, 30);
+        ObjectNode activity = new ObjectMapper().createObjectNode()
+                .put("id", ACTIVITY).put("type", "Create").put("actor", ACTOR);
+        when(followManager.monitorsFor(ACTOR)).thenReturn(Set.of("m1", "m2"));
+        when(activityStreamsParser.parseActivityItem(eq(activity), any())).thenReturn(ParsedActivity.builder()
+                .activityId(ACTIVITY).activityType("Create").actorId(ACTOR).publishedAt(published).build());
+        when(collectedActivityRepository.existsActivity(ACTIVITY, "m1", published)).thenReturn(true);
+        when(collectedActivityRepository.insertActivity(any(CollectedActivity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        int collected = inboxService.process(activity, ACTOR);
+
+        assertThat(collected).isEqualTo(1);
+        ArgumentCaptor<CollectedActivity> stored = ArgumentCaptor.forClass(CollectedActivity.class);
+        verify(collectedActivityRepository).insertActivity(stored.capture());
+        assertThat(stored.getValue().getMonitorId()).isEqualTo("m2");
+    }
+}
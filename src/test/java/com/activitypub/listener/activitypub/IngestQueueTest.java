@@ -0,0 +1,82 @@
+package com.activitypub.listener.activitypub;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestQueueTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysUncompletedEntriesAfterRestart() throws Exception {
+        IngestQueue queue = open(4096, 4);
+        queue.append(bytes("one"));
+        queue.append(bytes("two"));
+        queue.append(bytes("three"));
+
+        List<IngestQueue.Entry> entries = queue.poll(10, 0);
+        assertThat(entries).extracting(e -> text(e.payload())).containsExactly("one", "two", "three");
+        queue.complete(entries.get(0));
+        queue.complete(entries.get(2));
+        queue.close();
+
+        IngestQueue reopened = open(4096, 4);
+        assertThat(reopened.poll(10, 0)).extracting(e -> text(e.payload())).containsExactly("two", "three");
+    }
+
+    @Test
+    void rollsSegmentsAndRejectsWhenFull() throws Exception {
+        IngestQueue queue = open(64, 2);
+        byte[] record = new byte[40];
+        queue.append(record);
+        queue.append(record);
+
+        assertThat(queue.getSegmentCount()).isEqualTo(2);
+        assertThatThrownBy(() -> queue.append(record)).isInstanceOf(RejectedExecutionException.class);
+
+        queue.poll(10, 0).forEach(queue::complete);
+        queue.append(record);
+        assertThat(queue.getSegmentCount()).isEqualTo(2);
+        try (var files = Files.list(dir)) {
+            assertThat(files.filter(f -> f.getFileName().toString().startsWith("segment-"))).hasSize(2);
+        }
+    }
+
+    @Test
+    void deliveryRoundTrips() {
+        InboxDelivery delivery = InboxDelivery.decode(InboxDelivery.encode("https://a.example/users/x", bytes("{}")));
+
+        assertThat(delivery.signerActorId()).isEqualTo("https://a.example/users/x");
+        assertThat(text(delivery.body())).isEqualTo("{}");
+    }
+
+    private IngestQueue open(int segmentBytes, int maxSegments) throws Exception {
+        IngestQueue queue = new IngestQueue(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "dir", dir.toString());
+        ReflectionTestUtils.setField(queue, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(queue, "maxSegments", maxSegments);
+        queue.open();
+        return queue;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] b) {
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package com.activitypub.listener.activitypub;
+
+import com.activitypub.listener.exception.InstanceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class InstanceCircuitBreakerTest {
+
+    private static final String INSTANCE = "https://slow.example";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private InstanceCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(breaker, "windowSize", 10);
+        ReflectionTestUtils.setField(breaker, "minCalls", 4);
+        ReflectionTestUtils.setField(breaker, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(breaker, "slowCallMs", 10_000L);
+        ReflectionTestUtils.setField(breaker, "slowCallRateThreshold", 80);
+        ReflectionTestUtils.setField(breaker, "openMs", 60_000L);
+        ReflectionTestUtils.setField(breaker, "halfOpenCalls", 2);
+        ReflectionTestUtils.setField(breaker, "maxConcurrentPerHost", 2);
+    }
+
+    @Test
+    void opensOnFailureRateAndFailsFast() {
+        breaker.acquire(INSTANCE).success();
+        breaker.acquire(INSTANCE).success();
+        breaker.acquire(INSTANCE).failure();
+        assertThat(breaker.getState(INSTANCE)).isEqualTo(InstanceCircuitBreaker.State.CLOSED);
+
+        breaker.acquire(INSTANCE).failure();
+
+        assertThat(breaker.isOpen(INSTANCE)).isTrue();
+        assertThatThrownBy(() -> breaker.acquire(INSTANCE)).isInstanceOf(InstanceUnavailableException.class);
+        assertThat(breaker.getState("https://other.example")).isEqualTo(InstanceCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenTrialsCloseOrReopen() {
+        ReflectionTestUtils.setField(breaker, "openMs", 0L);
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire(INSTANCE).failure();
+        }
+
+        InstanceCircuitBreaker.Permit first = breaker.acquire(INSTANCE);
+        InstanceCircuitBreaker.Permit second = breaker.acquire(INSTANCE);
+        assertThat(breaker.getState(INSTANCE)).isEqualTo(InstanceCircuitBreaker.State.HALF_OPEN);
+        first.success();
+        second.success();
+        assertThat(breaker.getState(INSTANCE)).isEqualTo(InstanceCircuitBreaker.State.CLOSED);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire(INSTANCE).failure();
+        }
+        breaker.acquire(INSTANCE).failure();
+        assertThat(breaker.getState(INSTANCE)).isEqualTo(InstanceCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void bulkheadLimitsConcurrentCallsPerInstance() {
+        InstanceCircuitBreaker.Permit first = breaker.acquire(INSTANCE);
+        breaker.acquire(INSTANCE);
+
+        assertThatThrownBy(() -> breaker.acquire(INSTANCE))
+                .isInstanceOf(InstanceUnavailableException.class)
+                .hasMessageContaining("concurrent");
+        breaker.acquire("https://other.example").success();
+
+        first.cancel();
+        breaker.acquire(INSTANCE).success();
+    }
+}
@@ -0,0 +1,72 @@
+package com.activitypub.listener.activitypub;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceLatencyTrackerTest {
+
+    private static final String FAST = "https://fast.example";
+    private static final String SLOW = "https://slow.example";
+
+    private InstanceLatencyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new InstanceLatencyTracker();
+        ReflectionTestUtils.setField(tracker, "requestTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "minTimeoutMs", 2_000L);
+        ReflectionTestUtils.setField(tracker, "maxTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(tracker, "p99Multiplier", 3.0);
+        ReflectionTestUtils.setField(tracker, "minSamples", 20);
+        ReflectionTestUtils.setField(tracker, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(tracker, "minHedgeDelayMs", 100L);
+    }
+
+    @Test
+    void usesGlobalTimeoutUntilCalibrated() {
+        for (int i = 0; i < 19; i++) {
+            tracker.record(FAST, 50);
+        }
+
+        assertThat(tracker.timeoutFor(FAST)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(tracker.hedgeDelayFor(FAST)).isEmpty();
+    }
+
+    @Test
+    void derivesTimeoutsFromP99WithinBounds() {
+        for (int i = 0; i < 100; i++) {
+            tracker.record(FAST, 50 + i % 10);
+            tracker.record(SLOW, i < 98 ? 8_000 : 15_000);
+        }
+
+        assertThat(tracker.timeoutFor(FAST)).isEqualTo(Duration.ofMillis(2_000));
+        assertThat(tracker.timeoutFor(SLOW)).isEqualTo(Duration.ofMillis(45_000));
+        assertThat(tracker.hedgeDelayFor(SLOW)).contains(Duration.ofMillis(8_000));
+        assertThat(tracker.hedgeDelayFor(FAST)).contains(Duration.ofMillis(100));
+    }
+
+    @Test
+    void consecutiveTimeoutsWidenTheTimeoutOfASlowingInstance() {
+        for (int i = 0; i < 100; i++) {
+            tracker.record(FAST, 50);
+        }
+        Duration calibrated = tracker.timeoutFor(FAST);
+        assertThat(calibrated).isEqualTo(Duration.ofMillis(2_000));
+
+        // The instance now answers in 5s: every request times out at the current timeout
+        Duration timeout = calibrated;
+        for (int i = 0; i < 10 && timeout.toMillis() < 5_000; i++) {
+            tracker.recordTimeout(FAST, timeout.toMillis());
+            timeout = tracker.timeoutFor(FAST);
+        }
+
+        assertThat(timeout).isGreaterThan(Duration.ofMillis(5_000));
+        assertThat(timeout).isLessThanOrEqualTo(Duration.ofMillis(60_000));
+    }
+}
@@ -0,0 +1,59 @@
+package com.activitypub.listener.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ApiVersionInterceptor")
+class ApiVersionInterceptorTest {
+
+    private ApiVersionInterceptor interceptor;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new ApiVersionInterceptor();
+        ReflectionTestUtils.setField(interceptor, "versionHeader", "API-Version");
+        ReflectionTestUtils.setField(interceptor, "defaultVersion", "v1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("missing header resolves to the default version")
+    void missingHeader_usesDefault() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+        assertThat(request.getAttribute(ApiVersionInterceptor.VERSION_ATTRIBUTE)).isEqualTo("v1");
+        assertThat(response.getHeader("API-Version")).isEqualTo("v1");
+    }
+
+    @Test
+    @DisplayName("malformed version is rejected with 400")
+    void malformedVersion_returns400() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("API-Version", "v1\"}");
+
+        assertThat(interceptor.preHandle(request, response, null)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getContentAsString()).contains("\"code\":\"INVALID_VERSION\"");
+    }
+
+    @Test
+    @DisplayName("well-formed but unknown version is rejected with 404")
+    void unsupportedVersion_returns404() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("API-Version", "v2");
+
+        assertThat(interceptor.preHandle(request, response, null)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(response.getContentAsString())
+                .contains("API version 'v2' is not supported")
+                .contains("\"code\":\"VERSION_NOT_SUPPORTED\"");
+    }
+}
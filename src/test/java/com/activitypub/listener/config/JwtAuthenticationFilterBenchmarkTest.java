@@ -0,0 +1,63 @@
+package com.activitypub.listener.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filter overhead per request for a dashboard resending a handful of tokens, with and without the
+ * verified-token cache.
+ * Opt-in: ./mvnw test -Dtest=JwtAuthenticationFilterBenchmarkTest -Dbenchmark=true [-Dbenchmark.requests=500000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("JWT filter overhead benchmark")
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 200_000);
+    private static final int TOKENS = 20;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void nanosPerRequest() throws Exception {
+        List<MockHttpServletRequest> requests = new ArrayList<>();
+        for (int i = 0; i < TOKENS; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/monitors");
+            request.addHeader("Authorization", "Bearer "
+                    + JwtAuthenticationFilterTest.token(JwtAuthenticationFilterTest.SECRET, String.valueOf(i + 1), 3_600_000));
+            requests.add(request);
+        }
+        for (int cacheEntries : new int[]{0, 10_000}) {
+            JwtAuthenticationFilter filter = JwtAuthenticationFilterTest.filter(JwtAuthenticationFilterTest.SECRET, cacheEntries);
+            run(filter, requests, REQUESTS / 10); // warm-up
+            long started = System.nanoTime();
+            run(filter, requests, REQUESTS);
+            long nanos = System.nanoTime() - started;
+            System.out.printf("cache=%s: %d ns/request%n", cacheEntries > 0 ? "on" : "off", nanos / REQUESTS);
+        }
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+    }
+
+    private static void run(JwtAuthenticationFilter filter, List<MockHttpServletRequest> requests, int count) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        for (int i = 0; i < count; i++) {
+            MockHttpServletRequest request = requests.get(i % requests.size());
+            // OncePerRequestFilter marks the request as filtered; reset so every pass runs the filter
+            request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+            filter.doFilter(request, response, new MockFilterChain());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.activitypub.listener.config;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtAuthenticationFilterTest {
+
+    static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+    static final String ISSUER = "AMRITECH";
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = filter(SECRET, 10_000);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesValidToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token(SECRET, "42", 60_000));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth).isNotNull();
+        assertThat(auth.getPrincipal()).isEqualTo(42L);
+    }
+
+    @Test
+    void repeatedTokenSkipsSignatureVerification() {
+        String token = token(SECRET, "42", 60_000);
+        assertThat(filter.verify(token)).isEqualTo(42L);
+
+        // A parser that could not verify this token proves the second call is served from the cache
+        ReflectionTestUtils.setField(filter, "parser", Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor("another-secret-another-secret-another-secret!".getBytes(StandardCharsets.UTF_8)))
+                .build());
+
+        assertThat(filter.verify(token)).isEqualTo(42L);
+        assertThatThrownBy(() -> filter.verify(token(SECRET, "43", 60_000))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void rejectsExpiredAndForeignTokens() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token(SECRET, "42", -1_000));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+
+        assertThatThrownBy(() -> filter.verify(token("another-secret-another-secret-another-secret!", "42", 60_000)))
+                .isInstanceOf(JwtException.class);
+    }
+
+    static JwtAuthenticationFilter filter(String secret, int cacheMaxEntries) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtPublicKey", secret);
+        ReflectionTestUtils.setField(filter, "jwtIssuer", ISSUER);
+        ReflectionTestUtils.setField(filter, "cacheMaxEntries", cacheMaxEntries);
+        ReflectionTestUtils.setField(filter, "cacheMaxTtlSeconds", 300L);
+        filter.init();
+        return filter;
+    }
+
+    static String token(String secret, String subject, long expiresInMs) {
+        return Jwts.builder()
+                .issuer(ISSUER)
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
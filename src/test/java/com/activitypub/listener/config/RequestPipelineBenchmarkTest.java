@@ -0,0 +1,82 @@
+package com.activitypub.listener.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Per-request overhead of the servlet pipeline in front of a trivial controller, adding one layer at a time:
+ * correlation id filter, JWT filter (cached token) and API version interceptor.
+ * Opt-in: ./mvnw test -Dtest=RequestPipelineBenchmarkTest -Dbenchmark=true [-Dbenchmark.requests=200000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Request pipeline overhead benchmark")
+class RequestPipelineBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 100_000);
+
+    @RestController
+    static class PingController {
+        @GetMapping("/ping")
+        Map<String, String> ping() {
+            return Map.of("status", "ok");
+        }
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void nanosPerRequest() throws Exception {
+        String token = JwtAuthenticationFilterTest.token(JwtAuthenticationFilterTest.SECRET, "1", 3_600_000);
+        RequestBuilder request = get("/ping")
+                .header("Authorization", "Bearer " + token)
+                .header("API-Version", "v1");
+        ApiVersionInterceptor interceptor = new ApiVersionInterceptor();
+        ReflectionTestUtils.setField(interceptor, "versionHeader", "API-Version");
+        ReflectionTestUtils.setField(interceptor, "defaultVersion", "v1");
+
+        Map<String, StandaloneMockMvcBuilder> layers = new LinkedHashMap<>();
+        layers.put("controller only", MockMvcBuilders.standaloneSetup(new PingController()));
+        layers.put("+ correlation id", MockMvcBuilders.standaloneSetup(new PingController())
+                .addFilters(new CorrelationIdFilter()));
+        layers.put("+ jwt", MockMvcBuilders.standaloneSetup(new PingController())
+                .addFilters(new CorrelationIdFilter(), JwtAuthenticationFilterTest.filter(JwtAuthenticationFilterTest.SECRET, 10_000)));
+        layers.put("+ api version", MockMvcBuilders.standaloneSetup(new PingController())
+                .addFilters(new CorrelationIdFilter(), JwtAuthenticationFilterTest.filter(JwtAuthenticationFilterTest.SECRET, 10_000))
+                .addInterceptors(interceptor));
+
+        for (Map.Entry<String, StandaloneMockMvcBuilder> layer : layers.entrySet()) {
+            MockMvc mockMvc = layer.getValue().build();
+            run(mockMvc, request, REQUESTS / 10); // warm-up
+            long started = System.nanoTime();
+            run(mockMvc, request, REQUESTS);
+            long nanos = System.nanoTime() - started;
+            System.out.printf("%-18s %d ns/request%n", layer.getKey() + ":", nanos / REQUESTS);
+        }
+    }
+
+    private static void run(MockMvc mockMvc, RequestBuilder request, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+            assertThat(status).isEqualTo(200);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.activitypub.listener.controller;
+
+import com.activitypub.listener.activitypub.ActivityPubClient;
+import com.activitypub.listener.activitypub.ActivityPubService;
+import com.activitypub.listener.activitypub.FollowManager;
+import com.activitypub.listener.activitypub.InstanceRateLimiter;
+import com.activitypub.listener.activitypub.OutboxPollingService;
+import com.activitypub.listener.model.ActivityPubActor;
+import com.activitypub.listener.repository.ActivityPubActorRepository;
+import com.activitypub.listener.repository.CollectedActivityRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("POST /actors/discover/bulk")
+class ActivityPubControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ActivityPubClient activityPubClient;
+    @Mock
+    private ActivityPubActorRepository actorRepository;
+    @Mock
+    private CollectedActivityRepository collectedActivityRepository;
+    @Mock
+    private InstanceRateLimiter instanceRateLimiter;
+
+    private final List<List<String>> savedBatches = new ArrayList<>();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ActivityPubService service = new ActivityPubService(
+                activityPubClient, actorRepository, collectedActivityRepository, instanceRateLimiter);
+        ReflectionTestUtils.setField(service, "discoveryMaxConcurrency", 8);
+        ReflectionTestUtils.setField(service, "discoveryPerInstanceConcurrency", 2);
+        ReflectionTestUtils.setField(service, "discoveryBatchSize", 2);
+        ReflectionTestUtils.setField(service, "discoveryMaxResources", 100);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ActivityPubController(service, mock(OutboxPollingService.class), mock(FollowManager.class))).build();
+
+        when(actorRepository.findByUsernameInAndInstanceUrlIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        lenient().when(activityPubClient.discoverActor(anyString())).thenAnswer(inv -> {
+            String resource = inv.getArgument(0);
+            ActivityPubClient.WebFingerResponse webfinger = new ActivityPubClient.WebFingerResponse();
+            webfinger.setSubject("acct:" + resource);
+            webfinger.setActorUrl(actorUrl(resource));
+            return Mono.just(webfinger);
+        });
+        lenient().when(activityPubClient.getActorProfile(anyString())).thenAnswer(inv -> Mono.just(
+                objectMapper.createObjectNode().put("id", inv.<String>getArgument(0)).put("type", "Person")));
+        lenient().when(actorRepository.upsertAll(anyList())).thenAnswer(inv -> {
+            List<ActivityPubActor> actors = inv.getArgument(0);
+            savedBatches.add(actors.stream().map(ActivityPubActor::getActorId).toList());
+            return actors;
+        });
+    }
+
+    @Test
+    @DisplayName("failed lookups and malformed resources are reported per line while the rest are saved")
+    void discoverBulk_partialFailure_reportsEachResource() throws Exception {
+        doReturn(Mono.error(new IllegalStateException("webfinger timed out")))
+                .when(activityPubClient).discoverActor("bob@mastodon.social");
+
+        Map<String, JsonNode> results = discover(
+                "acct:alice@mastodon.social", "acct:bob@mastodon.social", "not-a-resource", "acct:carol@fosstodon.org");
+
+        assertThat(results).hasSize(4);
+        assertThat(results.get("alice@mastodon.social").path("status").asText()).isEqualTo("DISCOVERED");
+        assertThat(results.get("carol@fosstodon.org").path("status").asText()).isEqualTo("DISCOVERED");
+        assertThat(results.get("bob@mastodon.social").path("status").asText()).isEqualTo("FAILED");
+        assertThat(results.get("bob@mastodon.social").path("error").asText()).isEqualTo("webfinger timed out");
+        assertThat(results.get("not-a-resource").path("status").asText()).isEqualTo("FAILED");
+        assertThat(savedBatches).flatMap(batch -> batch)
+                .containsExactlyInAnyOrder(actorUrl("alice@mastodon.social"), actorUrl("carol@fosstodon.org"));
+    }
+
+    @Test
+    @DisplayName("resolved actors are written in batches and a failed write fails only its own batch")
+    void discoverBulk_batchesWritesAndIsolatesFailedBatch() throws Exception {
+        String failing = actorUrl("erin@mastodon.social");
+        doAnswer(inv -> {
+            List<ActivityPubActor> actors = inv.getArgument(0);
+            List<String> ids = actors.stream().map(ActivityPubActor::getActorId).toList();
+            savedBatches.add(ids);
+            if (ids.contains(failing)) {
+                throw new IllegalStateException("not primary");
+            }
+            return actors;
+        }).when(actorRepository).upsertAll(anyList());
+
+        Map<String, JsonNode> results = discover("acct:alice@mastodon.social", "acct:bob@mastodon.social",
+                "acct:carol@mastodon.social", "acct:dave@mastodon.social", "acct:erin@mastodon.social");
+
+        assertThat(savedBatches).hasSize(3).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+        List<String> failedBatch = savedBatches.stream().filter(batch -> batch.contains(failing)).findFirst().orElseThrow();
+        results.forEach((resource, result) -> {
+            boolean inFailedBatch = failedBatch.contains(actorUrl(resource));
+            assertThat(result.path("status").asText()).as(resource).isEqualTo(inFailedBatch ? "FAILED" : "DISCOVERED");
+        });
+        assertThat(results).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("rate limit waits are scheduled on a timer instead of blocking a thread")
+    void discoverBulk_rateLimited_waitsWithoutBlocking() throws Exception {
+        when(instanceRateLimiter.reserve(anyString())).thenReturn(20L);
+
+        Map<String, JsonNode> results = discover("acct:alice@mastodon.social", "acct:bob@mastodon.social");
+
+        assertThat(results.values()).extracting(r -> r.path("status").asText()).containsOnly("DISCOVERED");
+        verify(instanceRateLimiter, times(4)).reserve(anyString());
+        verify(instanceRateLimiter, never()).acquire(anyString());
+    }
+
+    private Map<String, JsonNode> discover(String... resources) throws Exception {
+        MvcResult result = mockMvc.perform(post("/actors/discover/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(Map.of("resources", List.of(resources)))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        Map<String, JsonNode> byResource = new LinkedHashMap<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            if (!line.isBlank()) {
+                JsonNode node = objectMapper.readTree(line);
+                byResource.put(node.path("resource").asText(), node);
+            }
+        }
+        return byResource;
+    }
+
+    private static String actorUrl(String resource) {
+        String[] parts = resource.split("@");
+        return "https://" + parts[1] + "/users/" + parts[0];
+    }
+}
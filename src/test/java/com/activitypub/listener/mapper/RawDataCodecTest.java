@@ -0,0 +1,30 @@
+package com.activitypub.listener.mapper;
+
+import com.activitypub.listener.model.CollectedActivity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RawDataCodecTest {
+
+    @Test
+    void compressedRawDataRoundTrips() {
+        Map<String, Object> raw = Map.of(
+                "type", "Create",
+                "object", Map.of("content", "hello fediverse", "tag", List.of("a", "b")));
+
+        CollectedActivity compacted = CollectedActivity.builder()
+                .rawDataCompressed(RawDataCodec.compress(raw))
+                .build();
+
+        assertThat(RawDataCodec.rawData(compacted)).isEqualTo(raw);
+    }
+
+    @Test
+    void droppedRawDataIsNull() {
+        assertThat(RawDataCodec.rawData(CollectedActivity.builder().build())).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.activitypub.listener.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityCollectionRouterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ActivityCollectionRouter router;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(router, "mode", ActivityCollectionRouter.StorageMode.DAILY);
+        ReflectionTestUtils.setField(router, "bucketRefreshMs", 60_000L);
+    }
+
+    @Test
+    void routesByPublishedDayAndKeepsUndatedInBase() {
+        assertThat(router.collectionFor(LocalDateTime.of(2024, 3, 9, 23, 59))).isEqualTo("collected_activities_20240309");
+        assertThat(router.collectionFor(null)).isEqualTo("collected_activities");
+    }
+
+    @Test
+    void rangeQueriesOnlyTouchBucketsInRange() {
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of(
+                "collected_activities", "collected_activities_20240301", "collected_activities_20240302",
+                "collected_activities_20240305", "monitors"));
+
+        assertThat(router.bucketsBetween(LocalDateTime.of(2024, 3, 2, 12, 0), LocalDateTime.of(2024, 3, 10, 0, 0), true))
+                .containsExactly("collected_activities_20240305", "collected_activities_20240302");
+        assertThat(router.collectionsBetween(null, LocalDateTime.of(2024, 3, 1, 8, 0)))
+                .containsExactly("collected_activities", "collected_activities_20240301");
+    }
+
+    @Test
+    void singleModeUsesBaseCollectionOnly() {
+        ReflectionTestUtils.setField(router, "mode", ActivityCollectionRouter.StorageMode.SINGLE);
+
+        assertThat(router.collectionFor(LocalDateTime.of(2024, 3, 9, 0, 0))).isEqualTo("collected_activities");
+        assertThat(router.collectionsBetween(null, null)).containsExactly("collected_activities");
+    }
+
+    @Test
+    void dropEmptyBucketsKeepsTodayAndLater() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        String old = "collected_activities_" + today.minusDays(3).format(DateTimeFormatter.BASIC_ISO_DATE);
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of(old,
+                "collected_activities_" + today.format(DateTimeFormatter.BASIC_ISO_DATE),
+                "collected_activities_" + today.plusDays(1).format(DateTimeFormatter.BASIC_ISO_DATE)));
+        @SuppressWarnings("unchecked")
+        MongoCollection<Document> empty = mock(MongoCollection.class);
+        when(empty.estimatedDocumentCount()).thenReturn(0L);
+        when(mongoTemplate.getCollection(old)).thenReturn(empty);
+
+        assertThat(router.dropEmptyBuckets()).isEqualTo(1);
+        verify(mongoTemplate).dropCollection(old);
+        verify(mongoTemplate, never()).getCollection(argThat(name -> !name.equals(old)));
+    }
+
+    @Test
+    void writesReEnsureBucketIndexesAfterRefreshInterval() {
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps("collected_activities_20240309")).thenReturn(indexOps);
+        LocalDateTime publishedAt = LocalDateTime.of(2024, 3, 9, 12, 0);
+
+        router.collectionForWrite(publishedAt);
+        router.collectionForWrite(publishedAt);
+        verify(indexOps, times(3)).ensureIndex(any(Index.class));
+
+        ReflectionTestUtils.setField(router, "bucketRefreshMs", 0L);
+        router.collectionForWrite(publishedAt);
+        verify(indexOps, times(6)).ensureIndex(any(Index.class));
+    }
+}
@@ -0,0 +1,50 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.CollectedActivity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ActivityCursor unit tests")
+class ActivityCursorTest {
+
+    @Test
+    @DisplayName("encode/decode round-trips publishedAt and id")
+    void roundTrip() {
+        LocalDateTime publishedAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+        CollectedActivity activity = CollectedActivity.builder().id("65f0c0ffee0000000000abcd").publishedAt(publishedAt).build();
+
+        ActivityCursor decoded = ActivityCursor.decode(ActivityCursor.of(activity).encode());
+
+        assertThat(decoded.getPublishedAt()).isEqualTo(publishedAt);
+        assertThat(decoded.getId()).isEqualTo("65f0c0ffee0000000000abcd");
+    }
+
+    @Test
+    @DisplayName("missing publishedAt survives round-trip")
+    void roundTrip_nullPublishedAt() {
+        ActivityCursor decoded = ActivityCursor.decode(new ActivityCursor(null, "abc").encode());
+
+        assertThat(decoded.getPublishedAt()).isNull();
+        assertThat(decoded.getId()).isEqualTo("abc");
+    }
+
+    @Test
+    @DisplayName("blank cursor means first page")
+    void decode_blank_returnsNull() {
+        assertThat(ActivityCursor.decode(null)).isNull();
+        assertThat(ActivityCursor.decode("")).isNull();
+    }
+
+    @Test
+    @DisplayName("garbage cursor is rejected with IllegalArgumentException")
+    void decode_invalid_throws() {
+        assertThatThrownBy(() -> ActivityCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+}
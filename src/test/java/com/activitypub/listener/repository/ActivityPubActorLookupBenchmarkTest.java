@@ -0,0 +1,122 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ActivityPubActor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookup latency on activitypub_actors with and without the model's indexes.
+ * Opt-in: ./mvnw test -Dtest=ActivityPubActorLookupBenchmarkTest -Dbenchmark=true [-Dbenchmark.actors=1000000]
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("activitypub_actors lookup benchmark")
+class ActivityPubActorLookupBenchmarkTest {
+
+    private static final int ACTORS = Integer.getInteger("benchmark.actors", 1_000_000);
+    private static final int INSTANCES = 500;
+    private static final int LOOKUPS = Integer.getInteger("benchmark.lookups", 200);
+
+    @Container
+    static GenericContainer<?> mongo = new GenericContainer<>(DockerImageName.parse("mongo:7"))
+            .withExposedPorts(27017);
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void load() {
+        client = MongoClients.create("mongodb://" + mongo.getHost() + ":" + mongo.getMappedPort(27017));
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        String collection = mongoTemplate.getCollectionName(ActivityPubActor.class);
+        List<Document> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < ACTORS; i++) {
+            String instanceUrl = "https://instance" + (i % INSTANCES) + ".example";
+            batch.add(new Document("actorId", instanceUrl + "/users/user" + i)
+                    .append("username", "user" + i)
+                    .append("instanceUrl", instanceUrl)
+                    .append("actorType", "Person"));
+            if (batch.size() == 10_000) {
+                mongoTemplate.getCollection(collection).insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.getCollection(collection).insertMany(batch);
+        }
+    }
+
+    @AfterAll
+    static void close() {
+        if (client != null) client.close();
+    }
+
+    @Test
+    @DisplayName("indexed lookups are faster than collection scans")
+    void lookupLatency_beforeAndAfterIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(ActivityPubActor.class);
+        indexOps.dropAllIndexes();
+        double[] before = measureAll();
+
+        ActivityPubActorIndexes.definitions().forEach(indexOps::ensureIndex);
+        double[] after = measureAll();
+
+        System.out.printf("activitypub_actors (%d docs) mean lookup ms before/after indexes:%n", ACTORS);
+        System.out.printf("  findByActorId                %10.3f -> %8.3f%n", before[0], after[0]);
+        System.out.printf("  findByUsernameAndInstanceUrl %10.3f -> %8.3f%n", before[1], after[1]);
+        System.out.printf("  findByInstanceUrl            %10.3f -> %8.3f%n", before[2], after[2]);
+        assertThat(after[0]).isLessThan(before[0]);
+        assertThat(after[1]).isLessThan(before[1]);
+    }
+
+    private double[] measureAll() {
+        return new double[]{
+                measure(i -> mongoTemplate.findOne(new Query(Criteria.where("actorId")
+                        .is(instanceUrl(i) + "/users/user" + i)), ActivityPubActor.class)),
+                measure(i -> mongoTemplate.findOne(new Query(Criteria.where("instanceUrl").is(instanceUrl(i))
+                        .and("username").is("user" + i)), ActivityPubActor.class)),
+                measure(i -> mongoTemplate.find(new Query(Criteria.where("instanceUrl").is(instanceUrl(i)))
+                        .limit(100), ActivityPubActor.class))
+        };
+    }
+
+    private static String instanceUrl(int i) {
+        return "https://instance" + (i % INSTANCES) + ".example";
+    }
+
+    /** Mean latency in ms over random keys, after a short warm-up. */
+    private static double measure(IntConsumer lookup) {
+        for (int i = 0; i < 20; i++) {
+            lookup.accept(ThreadLocalRandom.current().nextInt(ACTORS));
+        }
+        long[] samples = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            long start = System.nanoTime();
+            lookup.accept(ThreadLocalRandom.current().nextInt(ACTORS));
+            samples[i] = System.nanoTime() - start;
+        }
+        return Arrays.stream(samples).average().orElse(0) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.ActivityPubActor;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityPubActorRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ActivityPubActorRepositoryImpl repository;
+
+    @Test
+    @DisplayName("upsert treats a duplicate actorId as already present and updates it in place")
+    void upsert_duplicateActorId_updatesExisting() {
+        ActivityPubActor actor = actor("alice");
+        ActivityPubActor stored = actor("Alice");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ActivityPubActor.class)))
+                .thenThrow(new DuplicateKeyException("E11000 actorId"))
+                .thenReturn(stored);
+
+        assertThat(repository.upsert(actor)).isSameAs(stored);
+        verify(mongoTemplate).findAndModify(argThat(byActorId()), any(Update.class),
+                any(FindAndModifyOptions.class), eq(ActivityPubActor.class));
+    }
+
+    @Test
+    @DisplayName("upsertAll refreshes duplicate actorIds instead of failing the batch")
+    void upsertAll_duplicateActorId_retriesByActorId() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        BulkOperations retry = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityPubActor.class))
+                .thenReturn(bulk, retry);
+        BulkOperationException duplicate = bulkError(11000, 1);
+        when(bulk.execute()).thenThrow(duplicate);
+        List<ActivityPubActor> actors = List.of(actor("bob"), actor("alice"));
+        when(mongoTemplate.find(any(Query.class), eq(ActivityPubActor.class))).thenReturn(actors);
+
+        assertThat(repository.upsertAll(actors)).hasSize(2);
+        verify(retry).updateOne(argThat(byActorId()), any(Update.class));
+        verify(retry).execute();
+    }
+
+    @Test
+    @DisplayName("upsertAll rethrows bulk errors other than duplicate keys")
+    void upsertAll_otherBulkError_rethrows() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityPubActor.class)).thenReturn(bulk);
+        BulkOperationException failure = bulkError(2, 0);
+        when(bulk.execute()).thenThrow(failure);
+
+        assertThatThrownBy(() -> repository.upsertAll(List.of(actor("bob"))))
+                .isInstanceOf(BulkOperationException.class);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ActivityPubActor.class));
+    }
+
+    private static BulkOperationException bulkError(int code, int index) {
+        BulkOperationException e = mock(BulkOperationException.class);
+        when(e.getErrors()).thenReturn(List.of(new BulkWriteError(code, "write error", new BsonDocument(), index)));
+        return e;
+    }
+
+    private static ArgumentMatcher<Query> byActorId() {
+        return query -> query.getQueryObject().containsKey("actorId");
+    }
+
+    private static ActivityPubActor actor(String username) {
+        ActivityPubActor actor = new ActivityPubActor();
+        actor.setUsername(username);
+        actor.setInstanceUrl("https://mastodon.social");
+        actor.setActorId("https://mastodon.social/users/" + username.toLowerCase());
+        return actor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.AccountAnalysis;
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Keyword;
+import com.activitypub.listener.model.Monitor;
+import com.mongodb.DBRef;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MonitorListingFieldsTest {
+
+    @Test
+    void collectsDistinctDataSourceIdsWithoutResolvingReferences() {
+        DataSource lazy = mock(DataSource.class, withSettings().extraInterfaces(LazyLoadingProxy.class));
+        when(((LazyLoadingProxy) lazy).toDBRef()).thenReturn(new DBRef("data_sources", "ds2"));
+        Monitor monitor = Monitor.builder().name("Brand Watch").build();
+        monitor.getKeywords().add(Keyword.builder().dataSource(DataSource.builder().id("ds1").build()).build());
+        monitor.getKeywords().add(Keyword.builder().dataSource(lazy).build());
+        monitor.getAccountAnalyses().add(AccountAnalysis.builder().dataSource(DataSource.builder().id("ds1").build()).build());
+
+        MonitorListingFields.apply(monitor);
+
+        assertThat(monitor.getNameLower()).isEqualTo("brand watch");
+        assertThat(monitor.getDataSourceIds()).containsExactly("ds1", "ds2");
+        verify(lazy, never()).getId();
+    }
+}
@@ -0,0 +1,85 @@
+package com.activitypub.listener.repository;
+
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Keyword;
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.model.MonitorType;
+import com.activitypub.listener.model.Regional;
+import com.mongodb.DBRef;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MonitorReferenceResolverTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MonitorReferenceResolver resolver;
+
+    @Test
+    void resolvesAPageWithOneQueryPerCollection() {
+        DataSource mastodon = DataSource.builder().id("ds1").source("MASTODON").build();
+        DataSource misskey = DataSource.builder().id("ds2").source("MISSKEY").build();
+        MonitorType keyword = MonitorType.builder().id("mt1").name("KEYWORD").build();
+        when(mongoTemplate.find(any(Query.class), eq(DataSource.class))).thenReturn(List.of(mastodon, misskey));
+        when(mongoTemplate.find(any(Query.class), eq(MonitorType.class))).thenReturn(List.of(keyword));
+
+        List<Monitor> page = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Monitor monitor = Monitor.builder()
+                    .id("m" + i)
+                    .monitorType(proxy(MonitorType.class, "monitor_types", "mt1"))
+                    .build();
+            monitor.getKeywords().add(Keyword.builder().dataSource(proxy(DataSource.class, "data_sources", "ds1")).build());
+            monitor.getRegionals().add(Regional.builder().dataSource(proxy(DataSource.class, "data_sources", "ds2")).build());
+            page.add(monitor);
+        }
+
+        resolver.resolve(page);
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(DataSource.class));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(MonitorType.class));
+        assertThat(page).allSatisfy(m -> {
+            assertThat(m.getMonitorType()).isSameAs(keyword);
+            assertThat(m.getKeywords().get(0).getDataSource()).isSameAs(mastodon);
+            assertThat(m.getRegionals().get(0).getDataSource()).isSameAs(misskey);
+        });
+    }
+
+    @Test
+    void danglingReferencesBecomeNullAndLoadedValuesAreKept() {
+        DataSource inMemory = DataSource.builder().id("ds1").source("MASTODON").build();
+        when(mongoTemplate.find(any(Query.class), eq(DataSource.class))).thenReturn(List.of());
+        Monitor monitor = Monitor.builder().id("m1").build();
+        monitor.getKeywords().add(Keyword.builder().dataSource(inMemory).build());
+        monitor.getKeywords().add(Keyword.builder().dataSource(proxy(DataSource.class, "data_sources", "gone")).build());
+
+        resolver.resolve(List.of(monitor));
+
+        assertThat(monitor.getKeywords().get(0).getDataSource()).isSameAs(inMemory);
+        assertThat(monitor.getKeywords().get(1).getDataSource()).isNull();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(MonitorType.class));
+    }
+
+    private static <T> T proxy(Class<T> type, String collection, String id) {
+        T proxy = mock(type, withSettings().extraInterfaces(LazyLoadingProxy.class));
+        when(((LazyLoadingProxy) proxy).toDBRef()).thenReturn(new DBRef(collection, id));
+        return proxy;
+    }
+}
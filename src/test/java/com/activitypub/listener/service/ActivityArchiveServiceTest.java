@@ -0,0 +1,136 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.model.ArchiveSegment;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.ArchiveSegmentRepository;
+import com.activitypub.listener.repository.CollectedActivityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActivityArchiveService unit tests")
+class ActivityArchiveServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+
+    @Mock
+    private ArchiveSegmentRepository segmentRepository;
+    @Mock
+    private MonitorService monitorService;
+    @Mock
+    private CollectedActivityRepository collectedActivityRepository;
+
+    @TempDir
+    Path archiveDir;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final List<ArchiveSegment> segments = new ArrayList<>();
+    private ActivityArchiveService archiveService;
+    private ActivityExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new ActivityArchiveService(segmentRepository, objectMapper);
+        ReflectionTestUtils.setField(archiveService, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(archiveService, "nodeId", "node-a");
+        exportService = new ActivityExportService(monitorService, archiveService, collectedActivityRepository, objectMapper);
+        ReflectionTestUtils.setField(exportService, "cursorBatchSize", 100);
+        ReflectionTestUtils.setField(exportService, "flushEvery", 1000);
+
+        lenient().when(segmentRepository.findByMonitorIdAndDay(eq("m1"), any()))
+                .thenAnswer(inv -> segments.stream().filter(s -> s.getDay().equals(inv.getArgument(1))).findFirst());
+        lenient().when(segmentRepository.save(any(ArchiveSegment.class))).thenAnswer(inv -> {
+            ArchiveSegment segment = inv.getArgument(0);
+            if (!segments.contains(segment)) {
+                segments.add(segment);
+            }
+            return segment;
+        });
+        lenient().when(segmentRepository.findByMonitorIdOrderByDayAsc("m1")).thenReturn(segments);
+    }
+
+    @Test
+    @DisplayName("archived rows come back through the export ahead of live rows, one JSON object per line")
+    void appendThenExport_roundTrips() throws Exception {
+        archiveService.append("m1", DAY, List.of(row("a1", 10), row("a2", 11)));
+        archiveService.append("m1", DAY, List.of(row("a3", 12)));
+        CollectedActivity live = CollectedActivity.builder()
+                .id("a4").activityId("https://example.social/a4").monitorId("m1")
+                .publishedAt(LocalDateTime.of(2024, 2, 1, 0, 0))
+                .rawData(Map.of("type", "Create"))
+                .build();
+        when(collectedActivityRepository.streamMonitorActivities("m1", null, null, true, 100))
+                .thenReturn(Stream.of(live));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportActivities("m1", null, null, true, false, 1L).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(lines).hasSize(5);
+        assertThat(lines[4]).isEmpty();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            assertThat(lines[i]).startsWith("{");
+            CollectedActivityDTO parsed = objectMapper.readValue(lines[i], CollectedActivityDTO.class);
+            ids.add(parsed.getId());
+            assertThat(parsed.getRawData()).containsEntry("type", "Create");
+        }
+        assertThat(ids).containsExactly("a1", "a2", "a3", "a4");
+        assertThat(segments).singleElement().satisfies(s -> {
+            assertThat(s.getRowCount()).isEqualTo(3);
+            assertThat(s.getNode()).isEqualTo("node-a");
+        });
+    }
+
+    @Test
+    @DisplayName("an export needing a segment this node cannot read fails before streaming")
+    void export_segmentOnOtherNode_refused() throws Exception {
+        archiveService.append("m1", DAY, List.of(row("a1", 10)));
+        Files.delete(Path.of(segments.get(0).getPath()));
+        segments.get(0).setNode("node-b");
+
+        assertThatThrownBy(() -> exportService.exportActivities("m1", null, null, true, false, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("node-b");
+    }
+
+    private static CollectedActivityDTO row(String id, int hour) {
+        return CollectedActivityDTO.builder()
+                .id(id)
+                .activityId("https://example.social/" + id)
+                .monitorId("m1")
+                .publishedAt(DAY.atTime(hour, 0))
+                .rawData(Map.of("type", "Create"))
+                .build();
+    }
+}
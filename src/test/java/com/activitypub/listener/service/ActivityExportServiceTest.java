@@ -0,0 +1,103 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.CollectedActivityDTO;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.repository.CollectedActivityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActivityExportService unit tests")
+class ActivityExportServiceTest {
+
+    @Mock
+    private MonitorService monitorService;
+    @Mock
+    private ActivityArchiveService archiveService;
+    @Mock
+    private CollectedActivityRepository collectedActivityRepository;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private ActivityExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ActivityExportService(monitorService, archiveService, collectedActivityRepository, objectMapper);
+        ReflectionTestUtils.setField(exportService, "cursorBatchSize", 100);
+        ReflectionTestUtils.setField(exportService, "flushEvery", 1);
+        when(collectedActivityRepository.streamMonitorActivities(eq("m1"), isNull(), isNull(), eq(false), eq(100)))
+                .thenAnswer(inv -> Stream.of(activity("a1"), activity("a2")));
+    }
+
+    @Test
+    @DisplayName("plain export is one JSON object per line with nothing in between")
+    void export_plain_writesExactNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportActivities("m1", null, null, false, false, 100L).writeTo(out);
+
+        assertThat(out.toByteArray()).isEqualTo(expectedNdjson());
+    }
+
+    @Test
+    @DisplayName("gzip export decompresses to the same bytes")
+    void export_gzip_writesExactNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportActivities("m1", null, null, false, true, 100L).writeTo(out);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(expectedNdjson());
+        }
+    }
+
+    private byte[] expectedNdjson() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (String id : List.of("a1", "a2")) {
+            CollectedActivity a = activity(id);
+            expected.append(objectMapper.writeValueAsString(CollectedActivityDTO.builder()
+                    .id(a.getId())
+                    .activityId(a.getActivityId())
+                    .activityType(a.getActivityType())
+                    .content(a.getContent())
+                    .publishedAt(a.getPublishedAt())
+                    .monitorId(a.getMonitorId())
+                    .build())).append('\n');
+        }
+        return expected.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CollectedActivity activity(String id) {
+        return CollectedActivity.builder()
+                .id(id)
+                .activityId("https://mastodon.social/activities/" + id)
+                .activityType("Create")
+                .content("hello " + id)
+                .publishedAt(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .monitorId("m1")
+                .build();
+    }
+}
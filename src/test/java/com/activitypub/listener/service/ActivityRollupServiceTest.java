@@ -0,0 +1,215 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.model.ActivityRollup;
+import com.activitypub.listener.model.CollectedActivity;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActivityRollupService unit tests")
+class ActivityRollupServiceTest {
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations failing;
+    @Mock
+    private BulkOperations retry;
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    private ActivityRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ActivityRollupService(mongoTemplate, schedulerLock);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "heavyHitterCapacity", 64);
+        ReflectionTestUtils.setField(service, "widgetTopN", 10);
+        ReflectionTestUtils.setField(service, "minuteRetentionHours", 48);
+        ReflectionTestUtils.setField(service, "topK", 1);
+        ReflectionTestUtils.setField(service, "trimLockLeaseMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("a failed flush keeps its counts for the next flush")
+    void flush_failure_retriesCounts() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class)).thenReturn(failing, retry);
+        when(failing.execute()).thenThrow(new IllegalStateException("not primary"));
+
+        service.record(activity(MINUTE));
+        service.flush();
+        service.record(activity(MINUTE.plusSeconds(20)));
+        service.flush();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(retry, times(2)).upsert(any(Query.class), updates.capture());
+        assertThat(updates.getAllValues()).extracting(ActivityRollupServiceTest::incTotal).containsOnly(2L);
+    }
+
+    @Test
+    @DisplayName("only buckets reported as failed are written again")
+    void flush_partialFailure_retriesFailedBucketOnly() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class)).thenReturn(failing, retry);
+        BulkOperationException hourFailed = mock(BulkOperationException.class);
+        // Bucket 0 is the minute, bucket 1 the hour
+        when(hourFailed.getErrors()).thenReturn(List.of(new BulkWriteError(11600, "interrupted", new BsonDocument(), 1)));
+        when(failing.execute()).thenThrow(hourFailed);
+
+        service.record(activity(MINUTE));
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(retry).upsert(queries.capture(), updates.capture());
+        assertThat(queries.getValue().getQueryObject().get("granularity")).isEqualTo(ActivityRollup.Granularity.HOUR);
+        assertThat(incTotal(updates.getValue())).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("shutdown flushes what is still pending")
+    void flushOnShutdown_writesPending() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class)).thenReturn(retry);
+
+        service.record(activity(MINUTE));
+        service.flushOnShutdown();
+
+        verify(retry, times(2)).upsert(any(Query.class), any(Update.class));
+        verify(retry).execute();
+    }
+
+    @Test
+    @DisplayName("trimming only touches untrimmed rollups and runs under the lease")
+    void trimClosedHours_conditionalOnUntrimmed() {
+        when(schedulerLock.tryAcquire(eq(ActivityRollupService.TRIM_LOCK_NAME), any(Duration.class))).thenReturn(true);
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 11, 0);
+        ActivityRollup rollup = ActivityRollup.builder()
+                .id("r1")
+                .granularity(ActivityRollup.Granularity.HOUR)
+                .topActors(new HashMap<>(Map.of("a", 5L, "b", 2L)))
+                .topHashtags(new HashMap<>())
+                .updatedAt(updatedAt)
+                .build();
+        when(mongoTemplate.find(any(Query.class), eq(ActivityRollup.class))).thenReturn(List.of(rollup));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ActivityRollup.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service.trimClosedHours();
+
+        ArgumentCaptor<Query> unchanged = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(unchanged.capture(), any(Update.class), eq(ActivityRollup.class));
+        assertThat(unchanged.getValue().getQueryObject())
+                .containsEntry("_id", "r1")
+                .containsEntry("updatedAt", updatedAt)
+                .containsEntry("trimmed", false);
+        verify(schedulerLock).release(ActivityRollupService.TRIM_LOCK_NAME);
+    }
+
+    @Test
+    @DisplayName("trimming is skipped while another replica holds the lease")
+    void trimClosedHours_leaseHeld_skips() {
+        when(schedulerLock.tryAcquire(eq(ActivityRollupService.TRIM_LOCK_NAME), any(Duration.class))).thenReturn(false);
+
+        service.trimClosedHours();
+
+        verifyNoInteractions(mongoTemplate);
+        verify(schedulerLock, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("ranges stitch minute edges around whole hours")
+    void query_partialEdges_stitchesMinutesAndHours() {
+        service.query("m1", LocalDateTime.of(2024, 1, 15, 10, 30), LocalDateTime.of(2024, 1, 15, 13, 15),
+                List.of(ActivityRollupService.VOLUME_OVER_TIME));
+
+        List<Document> queries = capturedQueries();
+        assertThat(queries).hasSize(3);
+        assertRange(queries.get(0), ActivityRollup.Granularity.MINUTE,
+                LocalDateTime.of(2024, 1, 15, 10, 30), LocalDateTime.of(2024, 1, 15, 11, 0).minusNanos(1));
+        assertRange(queries.get(1), ActivityRollup.Granularity.HOUR,
+                LocalDateTime.of(2024, 1, 15, 11, 0), LocalDateTime.of(2024, 1, 15, 13, 0).minusNanos(1));
+        assertRange(queries.get(2), ActivityRollup.Granularity.MINUTE,
+                LocalDateTime.of(2024, 1, 15, 13, 0), LocalDateTime.of(2024, 1, 15, 13, 15));
+    }
+
+    @Test
+    @DisplayName("hour-aligned ranges read hour rollups only")
+    void query_alignedRange_readsHoursOnly() {
+        service.query("m1", LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.of(2024, 1, 15, 12, 59, 59),
+                List.of(ActivityRollupService.VOLUME_OVER_TIME));
+
+        List<Document> queries = capturedQueries();
+        assertThat(queries).hasSize(1);
+        assertRange(queries.get(0), ActivityRollup.Granularity.HOUR,
+                LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.of(2024, 1, 15, 13, 0).minusNanos(1));
+    }
+
+    @Test
+    @DisplayName("ranges without a whole hour read minute rollups only")
+    void query_withinOneHour_readsMinutesOnly() {
+        service.query("m1", LocalDateTime.of(2024, 1, 15, 10, 10), LocalDateTime.of(2024, 1, 15, 10, 50),
+                List.of(ActivityRollupService.VOLUME_OVER_TIME));
+
+        List<Document> queries = capturedQueries();
+        assertThat(queries).hasSize(1);
+        assertRange(queries.get(0), ActivityRollup.Granularity.MINUTE,
+                LocalDateTime.of(2024, 1, 15, 10, 10), LocalDateTime.of(2024, 1, 15, 10, 50));
+    }
+
+    private List<Document> capturedQueries() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeast(0)).find(queries.capture(), eq(ActivityRollup.class));
+        return queries.getAllValues().stream().map(Query::getQueryObject).toList();
+    }
+
+    private static void assertRange(Document query, ActivityRollup.Granularity granularity,
+                                    LocalDateTime from, LocalDateTime to) {
+        assertThat(query.get("granularity")).isEqualTo(granularity);
+        Document bucketStart = (Document) query.get("bucketStart");
+        assertThat(bucketStart.get("$gte")).isEqualTo(from);
+        assertThat(bucketStart.get("$lte")).isEqualTo(to);
+    }
+
+    private static Long incTotal(Update update) {
+        return ((Number) ((Document) update.getUpdateObject().get("$inc")).get("total")).longValue();
+    }
+
+    private static CollectedActivity activity(LocalDateTime publishedAt) {
+        return CollectedActivity.builder()
+                .monitorId("m1")
+                .activityType("Create")
+                .actorId("https://mastodon.social/users/alice")
+                .instanceUrl("https://mastodon.social")
+                .publishedAt(publishedAt)
+                .build();
+    }
+}
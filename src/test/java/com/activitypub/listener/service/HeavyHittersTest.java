@@ -0,0 +1,27 @@
+package com.activitypub.listener.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void keepsFrequentKeysWithinCapacity() {
+        HeavyHitters hitters = new HeavyHitters(3);
+        for (int i = 0; i < 100; i++) {
+            hitters.add("frequent");
+            hitters.add("tail-" + i);
+        }
+
+        assertThat(hitters.counters()).hasSize(3);
+        assertThat(hitters.counters().get("frequent")).isGreaterThanOrEqualTo(100L);
+    }
+
+    @Test
+    void rollupKeysAreEncoded() {
+        String key = "https://mastodon.social/@a$b%";
+        assertThat(ActivityRollupService.encodeKey(key)).doesNotContain(".", "$");
+        assertThat(ActivityRollupService.decodeKey(ActivityRollupService.encodeKey(key))).isEqualTo(key);
+    }
+}
@@ -0,0 +1,134 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.activitypub.ActivityPubClient;
+import com.activitypub.listener.activitypub.InstanceRateLimiter;
+import com.activitypub.listener.model.FediverseInstance;
+import com.activitypub.listener.repository.FediverseInstanceRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InstanceHealthServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private FediverseInstanceRepository instanceRepository;
+
+    @Mock
+    private ActivityPubClient activityPubClient;
+
+    @Mock
+    private InstanceRateLimiter instanceRateLimiter;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    @InjectMocks
+    private InstanceHealthService healthService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(healthService, "enabled", true);
+        ReflectionTestUtils.setField(healthService, "sweepIntervalMs", 300_000L);
+        ReflectionTestUtils.setField(healthService, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(healthService, "latencyWindow", 20);
+        ReflectionTestUtils.setField(healthService, "slowP95Ms", 2000L);
+    }
+
+    @Test
+    void sweepFollowsNodeInfoLinkAndWritesOneBulkUpdate() throws Exception {
+        FediverseInstance up = FediverseInstance.builder().id("1").instanceUrl("https://up.example").rateLimitPerMinute(300).build();
+        FediverseInstance down = FediverseInstance.builder().id("2").instanceUrl("https://down.example").build();
+        when(instanceRepository.findByIsActiveTrue()).thenReturn(List.of(up, down));
+        when(schedulerLock.tryAcquire(InstanceHealthService.LOCK_NAME, Duration.ofMinutes(5))).thenReturn(true);
+        when(activityPubClient.getNodeInfo("https://up.example")).thenReturn(Mono.just(json("""
+                {"links":[{"rel":"http://nodeinfo.diaspora.software/ns/schema/2.0","href":"https://up.example/nodeinfo/2.0"},
+                          {"rel":"http://nodeinfo.diaspora.software/ns/schema/2.1","href":"https://up.example/nodeinfo/2.1"}]}""")));
+        when(activityPubClient.getNodeInfoDocument("https://up.example/nodeinfo/2.1")).thenReturn(Mono.just(json("""
+                {"version":"2.1","software":{"name":"mastodon","version":"4.2.0"},"protocols":["activitypub"],
+                 "usage":{"users":{"total":1200,"activeMonth":300},"localPosts":50000}}""")));
+        when(activityPubClient.getNodeInfo("https://down.example")).thenReturn(Mono.error(new RuntimeException("timeout")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FediverseInstance.class)).thenReturn(bulk);
+
+        healthService.sweep();
+
+        verify(bulk, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+        verify(instanceRateLimiter).setLimitForInstance("https://up.example", 300);
+        verify(instanceRateLimiter).recordBackoff("https://down.example");
+    }
+
+    @Test
+    void sweepWithoutTheLeaseAppliesStoredHealthInsteadOfProbing() {
+        FediverseInstance slow = FediverseInstance.builder().id("1").instanceUrl("https://slow.example")
+                .rateLimitPerMinute(300).healthStatus("healthy").latencySamplesMs(List.of(2500L, 3000L))
+                .lastHealthCheck(LocalDateTime.now()).build();
+        FediverseInstance down = FediverseInstance.builder().id("2").instanceUrl("https://down.example")
+                .healthStatus("down").lastHealthCheck(LocalDateTime.now()).build();
+        when(instanceRepository.findByIsActiveTrue()).thenReturn(List.of(slow, down));
+        when(schedulerLock.tryAcquire(InstanceHealthService.LOCK_NAME, Duration.ofMinutes(5))).thenReturn(false);
+
+        healthService.sweep();
+
+        verifyNoInteractions(activityPubClient, mongoTemplate);
+        verify(schedulerLock, never()).release(any());
+        verify(instanceRateLimiter).setLimitForInstance("https://slow.example", 150);
+        verify(instanceRateLimiter).recordBackoff("https://down.example");
+    }
+
+    @Test
+    void summarizesNodeInfoUsage() throws Exception {
+        var data = InstanceHealthService.summarize(json("""
+                {"version":"2.0","software":{"name":"pleroma","version":"2.5"},"openRegistrations":false,
+                 "usage":{"users":{"total":10}}}"""));
+
+        assertThat(data).containsEntry("softwareName", "pleroma")
+                .containsEntry("softwareVersion", "2.5")
+                .containsEntry("usersTotal", 10L)
+                .containsEntry("openRegistrations", false)
+                .doesNotContainKey("localPosts");
+    }
+
+    @Test
+    void percentilesUseNearestRank() {
+        List<Long> samples = List.of(100L, 300L, 200L, 5000L, 400L);
+
+        assertThat(InstanceHealthService.percentile(samples, 50)).isEqualTo(300L);
+        assertThat(InstanceHealthService.percentile(samples, 95)).isEqualTo(5000L);
+    }
+
+    private JsonNode json(String s) throws Exception {
+        return objectMapper.readTree(s);
+    }
+}
@@ -0,0 +1,118 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.model.CollectedActivity;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("LiveActivityHub")
+class LiveActivityHubTest {
+
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+    private LiveActivityHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new LiveActivityHub(JsonMapper.builder().findAndAddModules().build()) {
+            @Override
+            SseEmitter newEmitter() {
+                return emitters.removeFirst();
+            }
+        };
+        ReflectionTestUtils.setField(hub, "bufferSize", 16);
+        ReflectionTestUtils.setField(hub, "maxDropped", 100L);
+        ReflectionTestUtils.setField(hub, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(hub, "senderThreads", 1);
+        ReflectionTestUtils.setField(hub, "sendTimeoutMs", 50L);
+        hub.startSenders();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stopSenders();
+    }
+
+    @Test
+    @DisplayName("subscribers beyond the limit are rejected as overload")
+    void subscribe_atLimit_rejects() {
+        ReflectionTestUtils.setField(hub, "maxSubscribers", 1);
+        emitters.add(mock(SseEmitter.class));
+        hub.subscribe("m1");
+
+        assertThatThrownBy(() -> hub.subscribe("m1")).isInstanceOf(RejectedExecutionException.class);
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("activities go only to subscribers of their monitor")
+    void publish_sendsToMonitorSubscribers() throws IOException {
+        SseEmitter m1 = mock(SseEmitter.class);
+        SseEmitter m2 = mock(SseEmitter.class);
+        emitters.add(m1);
+        emitters.add(m2);
+        hub.subscribe("m1");
+        hub.subscribe("m2");
+
+        hub.publish(activity("m1"));
+
+        verify(m1, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(m2, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    @DisplayName("a write blocked past the send timeout is cut off and frees the sender")
+    void stalledSend_disconnectsSubscriberAndFreesSender() throws Exception {
+        SseEmitter stalled = mock(SseEmitter.class);
+        SseEmitter healthy = mock(SseEmitter.class);
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(inv -> {
+            blocked.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                throw new IOException("write interrupted");
+            }
+            return null;
+        }).when(stalled).send(any(SseEmitter.SseEventBuilder.class));
+        emitters.add(stalled);
+        emitters.add(healthy);
+        hub.subscribe("m1");
+        hub.subscribe("m2");
+
+        hub.publish(activity("m1"));
+        assertThat(blocked.await(1, TimeUnit.SECONDS)).isTrue();
+        // Only one sender thread, held by the stalled write
+        hub.publish(activity("m2"));
+        Thread.sleep(100);
+        hub.expireStalledSends();
+
+        verify(stalled, timeout(1000)).completeWithError(any());
+        verify(healthy, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+    }
+
+    private static CollectedActivity activity(String monitorId) {
+        return CollectedActivity.builder()
+                .id("a-" + monitorId)
+                .activityId("https://mastodon.social/activities/" + monitorId)
+                .monitorId(monitorId)
+                .content("hello")
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.repository.MonitorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MonitorCache")
+class MonitorCacheTest {
+
+    @Mock
+    private MonitorRepository monitorRepository;
+
+    private MonitorCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MonitorCache(monitorRepository, null);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+    }
+
+    @Test
+    @DisplayName("repeated reads hit the repository once")
+    void find_cachesMonitor() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1")).thenReturn(Optional.of(monitor(1)));
+
+        assertThat(cache.find("m1")).isPresent();
+        assertThat(cache.find("m1")).isPresent();
+
+        verify(monitorRepository, times(1)).findByIdAndIsDeletedFalse("m1");
+    }
+
+    @Test
+    @DisplayName("missing monitors are not cached")
+    void find_doesNotCacheMissing() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1")).thenReturn(Optional.empty());
+
+        assertThat(cache.find("m1")).isEmpty();
+        assertThat(cache.find("m1")).isEmpty();
+
+        verify(monitorRepository, times(2)).findByIdAndIsDeletedFalse("m1");
+    }
+
+    @Test
+    @DisplayName("invalidation reloads the new version")
+    void invalidate_reloads() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1"))
+                .thenReturn(Optional.of(monitor(1)), Optional.of(monitor(2)));
+        cache.find("m1");
+
+        cache.invalidate(monitor(2));
+
+        assertThat(cache.find("m1")).get().extracting(Monitor::getVersion).isEqualTo(2);
+        assertThat(cache.find("m1")).get().extracting(Monitor::getVersion).isEqualTo(2);
+        verify(monitorRepository, times(2)).findByIdAndIsDeletedFalse("m1");
+    }
+
+    @Test
+    @DisplayName("a load that raced a write is returned but not cached")
+    void staleLoad_isNotCached() {
+        cache.evict("m1", 2);
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1"))
+                .thenReturn(Optional.of(monitor(1)), Optional.of(monitor(2)));
+
+        assertThat(cache.find("m1")).get().extracting(Monitor::getVersion).isEqualTo(1);
+        assertThat(cache.find("m1")).get().extracting(Monitor::getVersion).isEqualTo(2);
+        assertThat(cache.find("m1")).get().extracting(Monitor::getVersion).isEqualTo(2);
+        verify(monitorRepository, times(2)).findByIdAndIsDeletedFalse("m1");
+    }
+
+    private static Monitor monitor(int version) {
+        return Monitor.builder().id("m1").name("Monitor").userId(100L).version(version).build();
+    }
+}
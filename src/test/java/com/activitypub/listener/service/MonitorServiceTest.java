@@ -1,11 +1,13 @@
 package com.activitypub.listener.service;
 
+import com.activitypub.listener.dto.CollectedActivityDTO;
 import com.activitypub.listener.dto.CreateMonitorDTO;
 import com.activitypub.listener.dto.MonitorDTO;
 import com.activitypub.listener.dto.PaginationResponse;
 import com.activitypub.listener.dto.UpdateMonitorDTO;
 import com.activitypub.listener.exception.ResourceNotFoundException;
 import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
+import com.activitypub.listener.kafka.MonitorTrackerConfigMessage;
 import com.activitypub.listener.mapper.MonitorMapper;
 import com.activitypub.listener.model.*;
 import com.activitypub.listener.repository.*;
@@ -20,9 +22,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,6 +53,8 @@ class MonitorServiceTest {
     @Mock
     private ActivityPubKafkaProducer kafkaProducer;
     @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
     private com.activitypub.listener.repository.CollectedActivityRepository collectedActivityRepository;
 
     @InjectMocks
@@ -60,6 +69,15 @@ class MonitorServiceTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(monitorService, "maxMonitorsPerUser", 100);
+        // Caches left disabled: reads go straight to the mocked repositories
+        ReflectionTestUtils.setField(monitorService, "monitorCache", new MonitorCache(monitorRepository, null));
+        ReflectionTestUtils.setField(monitorService, "referenceData",
+                new ReferenceDataRegistry(dataSourceRepository, monitorTypeRepository, null, null));
+        TrackerConfigPublisher trackerConfigPublisher = new TrackerConfigPublisher(kafkaProducer, mongoTemplate);
+        ReflectionTestUtils.setField(trackerConfigPublisher, "perSourceMessages", true);
+        ReflectionTestUtils.setField(monitorService, "trackerConfigPublisher", trackerConfigPublisher);
+        lenient().when(kafkaProducer.sendMonitorTrackerConfig(any())).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(kafkaProducer.sendTrackerConfig(any())).thenReturn(CompletableFuture.completedFuture(null));
         monitorType = MonitorType.builder().id("mt1").name("KEYWORD").build();
         dataSource = DataSource.builder().id("ds1").source("MASTODON").build();
         monitor = Monitor.builder()
@@ -119,6 +137,32 @@ class MonitorServiceTest {
         verify(monitorRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("createMonitor rejects a retention policy deleting before archiving")
+    void createMonitor_deleteBeforeArchive_throws() {
+        when(monitorRepository.countByUserIdAndIsDeletedFalse(100L)).thenReturn(0L);
+        createDto.setRetentionPolicy(RetentionPolicy.builder().archiveAfterDays(90).deleteAfterDays(30).build());
+
+        assertThatThrownBy(() -> monitorService.createMonitor(createDto, 100L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("deleteAfterDays");
+        verify(monitorRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("updateMonitor rejects negative retention days")
+    void updateMonitor_negativeRetentionDays_throws() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1")).thenReturn(Optional.of(monitor));
+        UpdateMonitorDTO dto = UpdateMonitorDTO.builder()
+                .retentionPolicy(RetentionPolicy.builder().compactAfterDays(-1).build())
+                .build();
+
+        assertThatThrownBy(() -> monitorService.updateMonitor("m1", dto, 100L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("compactAfterDays");
+        verify(monitorRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("getMonitor throws when monitor not found")
     void getMonitor_notFound_throws() {
@@ -156,16 +200,90 @@ class MonitorServiceTest {
     @DisplayName("listMonitors returns paginated response")
     void listMonitors_returnsPaginated() {
         Page<Monitor> page = new PageImpl<>(List.of(monitor), Pageable.ofSize(10), 1);
-        when(monitorRepository.findMonitors(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+        when(monitorRepository.findMonitors(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(true)))
                 .thenReturn(page);
         when(monitorMapper.toDTO(monitor)).thenReturn(monitorDTO);
 
         PaginationResponse<MonitorDTO> result = monitorService.listMonitors(
-                Pageable.ofSize(10), null, null, null, null, null, null, 100L, null, "asc");
+                Pageable.ofSize(10), null, null, null, null, null, null, 100L, null, "asc", true);
 
         assertThat(result).isNotNull();
         assertThat(result.getData()).hasSize(1);
         assertThat(result.getData().get(0).getId()).isEqualTo("m1");
         assertThat(result.getPagination().getTotal()).isEqualTo(1);
+        assertThat(result.getPagination().getHasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("listMonitors without total reports only hasNext")
+    void listMonitors_withoutTotal_reportsHasNext() {
+        Slice<Monitor> slice = new SliceImpl<>(List.of(monitor), Pageable.ofSize(1), true);
+        when(monitorRepository.findMonitors(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(false)))
+                .thenReturn(slice);
+        when(monitorMapper.toDTO(monitor)).thenReturn(monitorDTO);
+
+        PaginationResponse<MonitorDTO> result = monitorService.listMonitors(
+                Pageable.ofSize(1), null, null, null, null, null, null, 100L, null, "asc", false);
+
+        assertThat(result.getData()).hasSize(1);
+        assertThat(result.getPagination().getTotal()).isNull();
+        assertThat(result.getPagination().getHasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("pauseMonitor publishes the stopped tracker config once")
+    void pauseMonitor_publishesTrackerConfig() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1")).thenReturn(Optional.of(monitor));
+        when(monitorRepository.save(any(Monitor.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        monitorService.pauseMonitor("m1", 100L);
+        monitorService.pauseMonitor("m1", 100L);
+
+        verify(kafkaProducer).sendMonitorTrackerConfig(argThat((MonitorTrackerConfigMessage m) ->
+                "m1".equals(m.getTrackerId()) && !m.getShouldCollect() && m.getConfigVersion() == 2));
+    }
+
+    @Test
+    @DisplayName("getActivitiesForMonitor pages by number without a cursor and hands out a cursor")
+    void getActivitiesForMonitor_noCursor_usesOffsetPaging() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1")).thenReturn(Optional.of(monitor));
+        LocalDateTime now = LocalDateTime.now();
+        List<CollectedActivity> rows = List.of(
+                CollectedActivity.builder().id("a3").publishedAt(now).build(),
+                CollectedActivity.builder().id("a2").publishedAt(now.minusMinutes(1)).build());
+        when(collectedActivityRepository.findMonitorActivitiesByOffset(eq("m1"), any(Pageable.class), eq(false)))
+                .thenAnswer(inv -> new PageImpl<>(rows, inv.getArgument(1), 5));
+
+        PaginationResponse<CollectedActivityDTO> result =
+                monitorService.getActivitiesForMonitor("m1", 1, null, 2, false, 100L);
+
+        assertThat(result.getData()).extracting(CollectedActivityDTO::getId).containsExactly("a3", "a2");
+        assertThat(result.getPagination().getPage()).isEqualTo(1);
+        assertThat(result.getPagination().getTotal()).isEqualTo(5L);
+        assertThat(result.getPagination().getTotalPages()).isEqualTo(3);
+        assertThat(ActivityCursor.decode(result.getPagination().getNextCursor()).getId()).isEqualTo("a2");
+        verify(collectedActivityRepository, never()).findMonitorActivitiesPage(any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("getActivitiesForMonitor uses keyset paging with a cursor and omits rawData by default")
+    void getActivitiesForMonitor_cursor_usesKeysetPaging() {
+        when(monitorRepository.findByIdAndIsDeletedFalse("m1")).thenReturn(Optional.of(monitor));
+        LocalDateTime now = LocalDateTime.now();
+        ActivityCursor after = new ActivityCursor(now.plusMinutes(1), "a4");
+        List<CollectedActivity> rows = List.of(
+                CollectedActivity.builder().id("a3").publishedAt(now).rawData(java.util.Map.of("k", "v")).build(),
+                CollectedActivity.builder().id("a2").publishedAt(now.minusMinutes(1)).build(),
+                CollectedActivity.builder().id("a1").publishedAt(now.minusMinutes(2)).build());
+        when(collectedActivityRepository.findMonitorActivitiesPage("m1", after, 2, false)).thenReturn(rows);
+
+        PaginationResponse<CollectedActivityDTO> result =
+                monitorService.getActivitiesForMonitor("m1", 1, after.encode(), 2, false, 100L);
+
+        assertThat(result.getData()).extracting(CollectedActivityDTO::getId).containsExactly("a3", "a2");
+        assertThat(result.getData().get(0).getRawData()).isNull();
+        assertThat(result.getPagination().getHasNext()).isTrue();
+        assertThat(ActivityCursor.decode(result.getPagination().getNextCursor()).getId()).isEqualTo("a2");
+        verify(collectedActivityRepository, never()).findMonitorActivitiesByOffset(any(), any(), anyBoolean());
     }
 }
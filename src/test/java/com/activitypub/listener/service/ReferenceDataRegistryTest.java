@@ -0,0 +1,92 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Metric;
+import com.activitypub.listener.model.MonitorType;
+import com.activitypub.listener.repository.DataSourceRepository;
+import com.activitypub.listener.repository.MetricRepository;
+import com.activitypub.listener.repository.MonitorTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReferenceDataRegistry")
+class ReferenceDataRegistryTest {
+
+    @Mock
+    private DataSourceRepository dataSourceRepository;
+    @Mock
+    private MonitorTypeRepository monitorTypeRepository;
+    @Mock
+    private MetricRepository metricRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ReferenceDataRegistry registry;
+
+    private final DataSource mastodon = DataSource.builder().id("ds1").source("MASTODON").build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "enabled", true);
+        lenient().when(mongoTemplate.getCollectionName(any())).thenReturn("collection");
+        lenient().when(mongoTemplate.count(any(Query.class), any(Class.class))).thenReturn(1L);
+        when(dataSourceRepository.findAll()).thenReturn(List.of(mastodon));
+        when(monitorTypeRepository.findAll()).thenReturn(List.of(MonitorType.builder().id("mt1").name("KEYWORD").build()));
+        when(metricRepository.findByActiveTrue()).thenReturn(List.of(Metric.builder().name("posts").build()));
+    }
+
+    @Test
+    @DisplayName("lookups are served from one load")
+    void lookups_loadOnce() {
+        assertThat(registry.findDataSourceBySource("MASTODON")).contains(mastodon);
+        assertThat(registry.findDataSourcesById(List.of("ds1", "ds1"))).containsExactly(mastodon);
+        assertThat(registry.findMonitorType("mt1")).isPresent();
+        assertThat(registry.getActiveMetricNames()).containsExactly("posts");
+
+        verify(dataSourceRepository, times(1)).findAll();
+        verify(dataSourceRepository, never()).findBySource(anyString());
+        verify(monitorTypeRepository, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("a miss found in Mongo reloads the snapshot")
+    void miss_fallsThroughAndReloads() {
+        DataSource lemmy = DataSource.builder().id("ds2").source("LEMMY").build();
+        when(dataSourceRepository.findBySource("LEMMY")).thenReturn(Optional.of(lemmy));
+
+        assertThat(registry.findDataSourceBySource("LEMMY")).contains(lemmy);
+
+        verify(dataSourceRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("periodic check reloads only when the version changed")
+    void refresh_reloadsOnChange() {
+        registry.getActiveMetrics();
+        registry.refreshIfChanged();
+        verify(dataSourceRepository, times(1)).findAll();
+
+        when(mongoTemplate.count(any(Query.class), eq(Metric.class))).thenReturn(2L);
+        registry.refreshIfChanged();
+        verify(dataSourceRepository, times(2)).findAll();
+    }
+}
@@ -0,0 +1,147 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.RetentionReportDTO;
+import com.activitypub.listener.model.CollectedActivity;
+import com.activitypub.listener.model.Monitor;
+import com.activitypub.listener.model.RetentionPolicy;
+import com.activitypub.listener.repository.ActivityCollectionRouter;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RetentionService unit tests")
+class RetentionServiceTest {
+
+    private static final String COLLECTION = "collected_activities";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private ActivityArchiveService archiveService;
+    @Mock
+    private ActivityCollectionRouter collectionRouter;
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    @InjectMocks
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retentionService, "defaultCompactAfterDays", 30);
+        ReflectionTestUtils.setField(retentionService, "defaultCompactionMode", RetentionPolicy.CompactionMode.DROP);
+        ReflectionTestUtils.setField(retentionService, "defaultArchiveAfterDays", 0);
+        ReflectionTestUtils.setField(retentionService, "defaultDeleteAfterDays", 0);
+        ReflectionTestUtils.setField(retentionService, "batchSize", 500);
+        ReflectionTestUtils.setField(retentionService, "lockLeaseMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("does nothing while another node holds the lease")
+    void runRetention_leaseHeld_skips() {
+        when(schedulerLock.tryAcquire(eq(RetentionService.LOCK_NAME), any())).thenReturn(false);
+
+        assertThat(retentionService.runRetention()).isNull();
+        verifyNoInteractions(mongoTemplate, archiveService);
+        verify(schedulerLock, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("a monitor's policy overrides the defaults and 0 turns a tier off")
+    void runRetention_policyOverridesDefaults() {
+        Monitor custom = Monitor.builder().id("m1")
+                .retentionPolicy(RetentionPolicy.builder().compactAfterDays(0).deleteAfterDays(365).build())
+                .build();
+        Monitor defaults = Monitor.builder().id("m2").build();
+        stubRun(List.of(custom, defaults));
+        when(mongoTemplate.remove(any(Query.class), eq(CollectedActivity.class), eq(COLLECTION)))
+                .thenReturn(DeleteResult.acknowledged(4));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(CollectedActivity.class), eq(COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        RetentionReportDTO report = retentionService.runRetention();
+
+        ArgumentCaptor<Query> deleted = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(deleted.capture(), eq(CollectedActivity.class), eq(COLLECTION));
+        assertThat(deleted.getValue().getQueryObject().get("monitorId")).isEqualTo("m1");
+        verify(archiveService).deleteSegmentsBefore(eq("m1"), any());
+
+        // m2 and unassigned activities fall back to the 30-day compaction default; m1 turned it off
+        ArgumentCaptor<Query> compacted = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateMulti(compacted.capture(), any(Update.class), eq(CollectedActivity.class), eq(COLLECTION));
+        assertThat(compacted.getAllValues()).extracting(q -> q.getQueryObject().get("monitorId"))
+                .containsExactly("m2", null);
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(CollectedActivity.class), anyString());
+        assertThat(report.getDeletedRows()).isEqualTo(4);
+        assertThat(report.getCompactedRows()).isEqualTo(6);
+        verify(schedulerLock).release(RetentionService.LOCK_NAME);
+    }
+
+    @Test
+    @DisplayName("tiers run delete, archive, then compact, so rows leaving Mongo are never compacted first")
+    void runRetention_appliesTiersInOrder() throws Exception {
+        Monitor monitor = Monitor.builder().id("m1")
+                .retentionPolicy(RetentionPolicy.builder()
+                        .compactAfterDays(30).archiveAfterDays(90).deleteAfterDays(365).build())
+                .build();
+        ReflectionTestUtils.setField(retentionService, "defaultCompactAfterDays", 0);
+        stubRun(List.of(monitor));
+        CollectedActivity old = CollectedActivity.builder()
+                .id("a1").activityId("https://example.social/a1").monitorId("m1")
+                .publishedAt(LocalDateTime.now(ZoneOffset.UTC).minusDays(100))
+                .build();
+        when(mongoTemplate.stream(any(Query.class), eq(CollectedActivity.class), eq(COLLECTION)))
+                .thenReturn(Stream.of(old));
+        when(mongoTemplate.remove(any(Query.class), eq(CollectedActivity.class), eq(COLLECTION)))
+                .thenReturn(DeleteResult.acknowledged(1));
+        when(archiveService.append(eq("m1"), eq(old.getPublishedAt().toLocalDate()), anyList())).thenReturn(64L);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(CollectedActivity.class), eq(COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        RetentionReportDTO report = retentionService.runRetention();
+
+        InOrder order = inOrder(mongoTemplate, archiveService);
+        order.verify(mongoTemplate).remove(any(Query.class), eq(CollectedActivity.class), eq(COLLECTION));
+        order.verify(archiveService).deleteSegmentsBefore(eq("m1"), any());
+        order.verify(archiveService).append(eq("m1"), any(), anyList());
+        order.verify(mongoTemplate).remove(any(Query.class), eq(CollectedActivity.class), eq(COLLECTION));
+        order.verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(CollectedActivity.class), eq(COLLECTION));
+        assertThat(report.getArchivedRows()).isEqualTo(1);
+        assertThat(report.getArchiveBytesWritten()).isEqualTo(64);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubRun(List<Monitor> monitors) {
+        when(schedulerLock.tryAcquire(eq(RetentionService.LOCK_NAME), any())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Monitor.class))).thenReturn(monitors);
+        when(collectionRouter.collectionsBetween(any(), any())).thenReturn(List.of(COLLECTION));
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(new Document());
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(COLLECTION), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("bytes", 100L)), new Document()));
+    }
+}
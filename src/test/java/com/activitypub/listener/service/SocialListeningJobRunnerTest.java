@@ -0,0 +1,110 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.SocialListeningFiltersDTO;
+import com.activitypub.listener.dto.SocialListeningRequestDTO;
+import com.activitypub.listener.model.SocialListeningJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SocialListeningJobRunnerTest {
+
+    @Mock
+    private WidgetQueryService widgetQueryService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private SocialListeningJobEvents jobEvents;
+
+    @InjectMocks
+    private SocialListeningJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(runner, "poolSize", 2);
+        ReflectionTestUtils.setField(runner, "queueCapacity", 10);
+        runner.startExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.stopExecutor();
+    }
+
+    @Test
+    void writesEachWidgetAndCompletesWithPartialErrors() {
+        SocialListeningJob job = SocialListeningJob.builder()
+                .id("job1").monitorId("m1").widgetsNames(List.of("activity_types", "posts")).build();
+        when(widgetQueryService.compute(eq("activity_types"), eq("m1"), any(), any(), any()))
+                .thenReturn(Map.of("Create", 3L));
+        when(widgetQueryService.compute(eq("posts"), eq("m1"), any(), any(), any()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        runner.submit(job, request(null));
+
+        List<String> updateDocs = updates(4);
+        assertThat(updateDocs).anyMatch(u -> u.contains("widgetData.activity_types"));
+        assertThat(updateDocs).anyMatch(u -> u.contains("widgetErrors.posts"));
+        assertThat(updateDocs.get(updateDocs.size() - 1)).contains("COMPLETED");
+        verify(jobEvents).widgetCompleted("job1", "activity_types", Map.of("Create", 3L));
+        verify(jobEvents).widgetFailed("job1", "posts", "Widget query failed");
+        verify(jobEvents, timeout(2000)).jobFinished("job1", "COMPLETED");
+    }
+
+    @Test
+    void delegatesEngineOnlyWidgetsInsteadOfFailingThem() {
+        SocialListeningJob job = SocialListeningJob.builder()
+                .id("job1").monitorId("m1").widgetsNames(List.of("activity_types", "sentiment")).build();
+        when(widgetQueryService.compute(eq("activity_types"), eq("m1"), any(), any(), any()))
+                .thenReturn(Map.of("Create", 3L));
+
+        runner.submit(job, request(null));
+
+        List<String> updateDocs = updates(4);
+        assertThat(updateDocs.get(0)).contains("delegatedWidgets").contains("sentiment");
+        assertThat(updateDocs).noneMatch(u -> u.contains("widgetErrors"));
+        verify(widgetQueryService, never()).compute(eq("sentiment"), any(), any(), any(), any());
+        verify(jobEvents, timeout(2000)).jobFinished("job1", "COMPLETED");
+    }
+
+    @Test
+    void leavesEngineOnlyJobPending() {
+        SocialListeningJob job = SocialListeningJob.builder()
+                .id("job1").monitorId("m1").widgetsNames(List.of("activity_types")).build();
+
+        runner.submit(job, request(SocialListeningFiltersDTO.builder().sentiment(List.of("positive")).build()));
+
+        List<String> updateDocs = updates(1);
+        assertThat(updateDocs.get(0)).contains("delegatedWidgets").contains("activity_types");
+        verifyNoInteractions(widgetQueryService, jobEvents);
+    }
+
+    private List<String> updates(int expected) {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(2000).times(expected)).updateFirst(any(Query.class), updates.capture(), eq(SocialListeningJob.class));
+        return updates.getAllValues().stream().map(u -> u.getUpdateObject().toJson()).toList();
+    }
+
+    private static SocialListeningRequestDTO request(SocialListeningFiltersDTO filters) {
+        return SocialListeningRequestDTO.builder()
+                .monitorId("m1").startDate(1_700_000_000L).endDate(1_700_086_400L).filters(filters).build();
+    }
+}
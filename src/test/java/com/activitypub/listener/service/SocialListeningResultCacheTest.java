@@ -0,0 +1,125 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.dto.SocialListeningFiltersDTO;
+import com.activitypub.listener.dto.SocialListeningRequestDTO;
+import com.activitypub.listener.model.SocialListeningJob;
+import com.activitypub.listener.repository.SocialListeningJobRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SocialListeningResultCacheTest {
+
+    private final SocialListeningJobRepository jobRepository = mock(SocialListeningJobRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SocialListeningResultCache cache = new SocialListeningResultCache(jobRepository, mongoTemplate);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "inFlightMaxAgeSeconds", 600L);
+    }
+
+    @Test
+    void keyIgnoresWidgetAndFilterOrder() {
+        SocialListeningRequestDTO a = request(List.of("posts", "authors"),
+                SocialListeningFiltersDTO.builder().languages(List.of("en", "de")).users(List.of()).build());
+        SocialListeningRequestDTO b = request(List.of("authors", "posts", "posts"),
+                SocialListeningFiltersDTO.builder().languages(List.of("de", "en")).build());
+
+        assertThat(cache.keyOf(a)).isEqualTo(cache.keyOf(b));
+    }
+
+    @Test
+    void keyChangesWithDateRange() {
+        SocialListeningRequestDTO a = request(List.of("posts"), null);
+        SocialListeningRequestDTO b = request(List.of("posts"), null);
+        b.setEndDate(a.getEndDate() + 1);
+
+        assertThat(cache.keyOf(a)).isNotEqualTo(cache.keyOf(b));
+    }
+
+    @Test
+    void claimInFlight_freeKey_claims() {
+        assertThat(cache.claimInFlight("k", "job-1")).isEmpty();
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(SocialListeningResultCache.CLAIMS));
+    }
+
+    @Test
+    void claimInFlight_heldByRunningJob_returnsHolder() {
+        SocialListeningJob holder = SocialListeningJob.builder()
+                .id("job-1").status("PROCESSING").createdAt(LocalDateTime.now()).build();
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SocialListeningResultCache.CLAIMS)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+        when(mongoTemplate.findById("k", Document.class, SocialListeningResultCache.CLAIMS))
+                .thenReturn(new Document("_id", "k").append("jobId", "job-1"));
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(holder));
+
+        assertThat(cache.claimInFlight("k", "job-2")).contains(holder);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(SocialListeningResultCache.CLAIMS));
+    }
+
+    @Test
+    void claimInFlight_heldByFailedJob_takesOver() {
+        SocialListeningJob failed = SocialListeningJob.builder()
+                .id("job-1").status("FAILED").createdAt(LocalDateTime.now()).build();
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SocialListeningResultCache.CLAIMS)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(null);
+        when(mongoTemplate.findById("k", Document.class, SocialListeningResultCache.CLAIMS))
+                .thenReturn(new Document("_id", "k").append("jobId", "job-1"));
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(failed));
+
+        assertThat(cache.claimInFlight("k", "job-2")).isEmpty();
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(SocialListeningResultCache.CLAIMS));
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(SocialListeningResultCache.CLAIMS));
+    }
+
+    @Test
+    void findReusableJob_completedWithWidgetErrors_isNotReused() {
+        SocialListeningJob partial = SocialListeningJob.builder()
+                .id("job-1").status("COMPLETED").createdAt(LocalDateTime.now())
+                .cacheExpiresAt(LocalDateTime.now().plusHours(24))
+                .widgetErrors(Map.of("posts", "Widget query pool is full; retry later"))
+                .build();
+        SocialListeningJob complete = SocialListeningJob.builder()
+                .id("job-2").status("COMPLETED").createdAt(LocalDateTime.now())
+                .cacheExpiresAt(LocalDateTime.now().plusHours(24))
+                .build();
+        when(jobRepository.findFirstByRequestKeyOrderByCreatedAtDesc("k"))
+                .thenReturn(Optional.of(partial), Optional.of(complete));
+
+        assertThat(cache.findReusableJob("k")).isEmpty();
+        assertThat(cache.findReusableJob("k")).contains(complete);
+    }
+
+    private static SocialListeningRequestDTO request(List<String> widgets, SocialListeningFiltersDTO filters) {
+        return SocialListeningRequestDTO.builder()
+                .monitorId("m1")
+                .dataSource("MASTODON")
+                .startDate(1_700_000_000L)
+                .endDate(1_700_086_400L)
+                .widgetsNames(widgets)
+                .filters(filters)
+                .build();
+    }
+}
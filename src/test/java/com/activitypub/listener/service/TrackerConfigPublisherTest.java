@@ -0,0 +1,137 @@
+package com.activitypub.listener.service;
+
+import com.activitypub.listener.kafka.ActivityPubKafkaProducer;
+import com.activitypub.listener.kafka.MonitorTrackerConfigMessage;
+import com.activitypub.listener.kafka.TrackerConfigMessage;
+import com.activitypub.listener.model.AccountAnalysis;
+import com.activitypub.listener.model.DataSource;
+import com.activitypub.listener.model.Keyword;
+import com.activitypub.listener.model.Monitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrackerConfigPublisher unit tests")
+class TrackerConfigPublisherTest {
+
+    @Mock
+    private ActivityPubKafkaProducer kafkaProducer;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private TrackerConfigPublisher publisher;
+
+    private Monitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(publisher, "perSourceMessages", true);
+        lenient().when(kafkaProducer.sendMonitorTrackerConfig(any())).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(kafkaProducer.sendTrackerConfig(any())).thenReturn(CompletableFuture.completedFuture(null));
+        DataSource mastodon = DataSource.builder().id("ds1").source("MASTODON").build();
+        monitor = Monitor.builder()
+                .id("m1")
+                .name("Brand")
+                .userId(100L)
+                .version(3)
+                .isApproved(Monitor.ApprovalStatus.APPROVED)
+                .keywords(new ArrayList<>(List.of(Keyword.builder().dataSource(mastodon).keywords("acme").build())))
+                .accountAnalyses(new ArrayList<>(List.of(AccountAnalysis.builder().dataSource(mastodon).follow("@acme").build())))
+                .build();
+    }
+
+    @Test
+    @DisplayName("first save publishes one consolidated, versioned message")
+    void prepare_new_publishesConsolidated() {
+        MonitorTrackerConfigMessage config = publisher.prepare(monitor);
+        publisher.publish(monitor, config);
+
+        ArgumentCaptor<MonitorTrackerConfigMessage> sent = ArgumentCaptor.forClass(MonitorTrackerConfigMessage.class);
+        verify(kafkaProducer).sendMonitorTrackerConfig(sent.capture());
+        assertThat(sent.getValue().getTrackerId()).isEqualTo("m1");
+        assertThat(sent.getValue().getConfigVersion()).isEqualTo(3);
+        assertThat(sent.getValue().getShouldCollect()).isTrue();
+        assertThat(sent.getValue().getSources()).hasSize(2);
+        verify(kafkaProducer, times(2)).sendTrackerConfig(any(TrackerConfigMessage.class));
+    }
+
+    @Test
+    @DisplayName("changes outside the collection config publish nothing")
+    void prepare_rename_returnsNull() {
+        publisher.prepare(monitor);
+        monitor.setName("Renamed");
+        monitor.setLanguages("en");
+
+        assertThat(publisher.prepare(monitor)).isNull();
+    }
+
+    @Test
+    @DisplayName("pausing and keyword edits are detected")
+    void prepare_collectionChange_returnsConfig() {
+        publisher.prepare(monitor);
+        monitor.setPaused(true);
+        assertThat(publisher.prepare(monitor).getShouldCollect()).isFalse();
+
+        monitor.getKeywords().get(0).setSpamKeywords("spam");
+        assertThat(publisher.prepare(monitor)).isNotNull();
+        assertThat(publisher.prepare(monitor)).isNull();
+    }
+
+    @Test
+    @DisplayName("per-source messages can be turned off")
+    void publish_perSourceDisabled_sendsOnlyConsolidated() {
+        ReflectionTestUtils.setField(publisher, "perSourceMessages", false);
+
+        publisher.publish(monitor, publisher.prepare(monitor));
+
+        verify(kafkaProducer).sendMonitorTrackerConfig(any());
+        verify(kafkaProducer, never()).sendTrackerConfig(any());
+    }
+
+    @Test
+    @DisplayName("a successful send keeps the stored fingerprint")
+    void publish_delivered_keepsFingerprint() {
+        publisher.publish(monitor, publisher.prepare(monitor));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("a failed send clears the stored fingerprint so the next save republishes")
+    void publish_sendFails_clearsFingerprint() {
+        when(kafkaProducer.sendMonitorTrackerConfig(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        MonitorTrackerConfigMessage config = publisher.prepare(monitor);
+        String fingerprint = monitor.getTrackerConfigFingerprint();
+
+        publisher.publish(monitor, config);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Monitor.class));
+        assertThat(query.getValue().getQueryObject().get("_id")).isEqualTo("m1");
+        assertThat(query.getValue().getQueryObject().get("trackerConfigFingerprint")).isEqualTo(fingerprint);
+        assertThat(update.getValue().getUpdateObject().toJson()).contains("$unset");
+    }
+}